@@ -0,0 +1,48 @@
+package benchmarks.facade;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mede o cadastro de clientes e de combos em uma fachada já populada. Cada invocação cadastra um item novo,
+ * então a base cresce durante a medição; o parâmetro tamanho indica o ponto de partida.
+ *
+ * @author Guilherme de Melo Carneiro
+ *
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class BenchmarkCadastros {
+
+	private final AtomicLong proximoCliente = new AtomicLong(10000000000L);
+
+	private final AtomicLong proximoCombo = new AtomicLong();
+
+	@Benchmark
+	public String adicionaCliente(EstadoSaga estado) {
+		String cpf = EstadoSaga.cpf(this.proximoCliente.getAndIncrement());
+		return estado.facade.adicionaCliente(cpf, "Cliente novo", "novo@ccc.ufcg.edu.br", "LCC3");
+	}
+
+	@Benchmark
+	public boolean adicionaCombo(EstadoSaga estado) {
+		long n = this.proximoCombo.getAndIncrement();
+		String fornecedor = estado.fornecedor((int) (n % estado.fornecedores.length));
+		String produtos = estado.produtos[0] + " - " + estado.descricoes[0] + ", " + estado.produtos[1] + " - " + estado.descricoes[1];
+		return estado.facade.adicionaCombo(fornecedor, "Combo " + n, "Combo de dois produtos", 0.25, produtos);
+	}
+}
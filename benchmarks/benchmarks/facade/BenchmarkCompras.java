@@ -0,0 +1,69 @@
+package benchmarks.facade;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mede as operações sobre contas: registrar uma compra, consultar o débito e exibir as contas de um cliente,
+ * sempre para um cliente sorteado entre os cadastrados. A compra e o débito também são medidos pelos handles
+ * resolvidos na preparação, para comparação com a versão por Strings.
+ *
+ * @author Guilherme de Melo Carneiro
+ *
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class BenchmarkCompras {
+
+	@Benchmark
+	public boolean adicionaCompra(EstadoSaga estado) {
+		int cliente = ThreadLocalRandom.current().nextInt(estado.tamanho);
+		int produto = ThreadLocalRandom.current().nextInt(EstadoSaga.PRODUTOS_POR_FORNECEDOR);
+		return estado.facade.adicionaCompra(estado.cpfs[cliente], estado.fornecedor(cliente), "01/01/2018",
+				estado.produtos[produto], estado.descricoes[produto]);
+	}
+
+	@Benchmark
+	public boolean adicionaCompraPorHandle(EstadoSaga estado) {
+		int cliente = ThreadLocalRandom.current().nextInt(estado.tamanho);
+		int produto = ThreadLocalRandom.current().nextInt(EstadoSaga.PRODUTOS_POR_FORNECEDOR);
+		int fornecedor = cliente % estado.fornecedores.length;
+		return estado.facade.adicionaCompraPorHandle(estado.handlesClientes[cliente], estado.handlesFornecedores[fornecedor], "01/01/2018",
+				estado.handlesProdutos[fornecedor][produto]);
+	}
+
+	@Benchmark
+	public String getDebito(EstadoSaga estado) {
+		int cliente = ThreadLocalRandom.current().nextInt(estado.tamanho);
+		return estado.facade.getDebito(estado.cpfs[cliente], estado.fornecedor(cliente));
+	}
+
+	@Benchmark
+	public String getDebitoPorHandle(EstadoSaga estado) {
+		int cliente = ThreadLocalRandom.current().nextInt(estado.tamanho);
+		return estado.facade.getDebitoPorHandle(estado.handlesClientes[cliente], estado.handlesFornecedores[cliente % estado.fornecedores.length]);
+	}
+
+	@Benchmark
+	public String exibeContas(EstadoSaga estado) {
+		int cliente = ThreadLocalRandom.current().nextInt(estado.tamanho);
+		return estado.facade.exibeContas(estado.cpfs[cliente], estado.fornecedor(cliente));
+	}
+
+	@Benchmark
+	public String exibeContasClientes(EstadoSaga estado) {
+		int cliente = ThreadLocalRandom.current().nextInt(estado.tamanho);
+		return estado.facade.exibeContasClientes(estado.cpfs[cliente]);
+	}
+}
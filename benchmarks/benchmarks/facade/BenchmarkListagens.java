@@ -0,0 +1,31 @@
+package benchmarks.facade;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mede a listagem completa dos produtos, que percorre todos os fornecedores e cresce linearmente com o
+ * parâmetro tamanho.
+ *
+ * @author Guilherme de Melo Carneiro
+ *
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class BenchmarkListagens {
+
+	@Benchmark
+	public String exibeProdutos(EstadoSaga estado) {
+		return estado.facade.exibeProdutos();
+	}
+}
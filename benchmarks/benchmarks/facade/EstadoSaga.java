@@ -0,0 +1,123 @@
+package benchmarks.facade;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import saga.facade.Facade;
+
+/**
+ * Estado compartilhado pelos benchmarks: uma fachada populada com a quantidade de clientes e de produtos
+ * definida pelo parâmetro tamanho, distribuídos entre fornecedores, e com compras pendentes para todos os
+ * clientes.
+ *
+ * @author Guilherme de Melo Carneiro
+ *
+ */
+@State(Scope.Benchmark)
+public class EstadoSaga {
+
+	/**
+	 * Quantidade de produtos cadastrados para cada fornecedor.
+	 */
+	static final int PRODUTOS_POR_FORNECEDOR = 100;
+
+	/**
+	 * Quantidade de compras pendentes feitas por cada cliente na preparação.
+	 */
+	static final int COMPRAS_POR_CLIENTE = 4;
+
+	@Param({"1000", "10000", "100000", "1000000"})
+	int tamanho;
+
+	Facade facade;
+
+	String[] cpfs;
+
+	String[] fornecedores;
+
+	String[] produtos;
+
+	String[] descricoes;
+
+	/**
+	 * Handles dos clientes, na ordem de cpfs
+	 */
+	int[] handlesClientes;
+
+	/**
+	 * Handles dos fornecedores, na ordem de fornecedores
+	 */
+	int[] handlesFornecedores;
+
+	/**
+	 * Handles dos produtos de cada fornecedor, indexados pelo fornecedor e depois pelo produto
+	 */
+	int[][] handlesProdutos;
+
+	@Setup(Level.Trial)
+	public void prepara() {
+		this.facade = new Facade();
+		this.cpfs = new String[this.tamanho];
+		for(int i=0; i<this.tamanho; i++) {
+			this.cpfs[i] = cpf(i);
+			this.facade.adicionaCliente(this.cpfs[i], "Cliente " + i, "cliente" + i + "@ccc.ufcg.edu.br", "LCC" + (i % 4));
+		}
+
+		int quantidadeFornecedores = Math.max(1, this.tamanho / PRODUTOS_POR_FORNECEDOR);
+		this.fornecedores = new String[quantidadeFornecedores];
+		for(int i=0; i<quantidadeFornecedores; i++) {
+			this.fornecedores[i] = "Fornecedor " + i;
+			this.facade.adicionaFornecedor(this.fornecedores[i], "fornecedor" + i + "@gmail.com", "83 99999-0000");
+		}
+
+		this.produtos = new String[PRODUTOS_POR_FORNECEDOR];
+		this.descricoes = new String[PRODUTOS_POR_FORNECEDOR];
+		for(int j=0; j<PRODUTOS_POR_FORNECEDOR; j++) {
+			this.produtos[j] = "Produto " + j;
+			this.descricoes[j] = "Descricao do produto " + j;
+		}
+		for(String fornecedor: this.fornecedores) {
+			for(int j=0; j<PRODUTOS_POR_FORNECEDOR; j++) {
+				this.facade.adicionaProduto(fornecedor, this.produtos[j], this.descricoes[j], 1.0 + j % 10);
+			}
+		}
+
+		this.handlesClientes = new int[this.tamanho];
+		for(int i=0; i<this.tamanho; i++) {
+			this.handlesClientes[i] = this.facade.resolveCliente(this.cpfs[i]);
+		}
+		this.handlesFornecedores = new int[quantidadeFornecedores];
+		this.handlesProdutos = new int[quantidadeFornecedores][PRODUTOS_POR_FORNECEDOR];
+		for(int i=0; i<quantidadeFornecedores; i++) {
+			this.handlesFornecedores[i] = this.facade.resolveFornecedor(this.fornecedores[i]);
+			for(int j=0; j<PRODUTOS_POR_FORNECEDOR; j++) {
+				this.handlesProdutos[i][j] = this.facade.resolveProduto(this.fornecedores[i], this.produtos[j], this.descricoes[j]);
+			}
+		}
+
+		for(int i=0; i<this.tamanho; i++) {
+			String fornecedor = this.fornecedor(i);
+			for(int j=0; j<COMPRAS_POR_CLIENTE; j++) {
+				int produto = (i + j) % PRODUTOS_POR_FORNECEDOR;
+				this.facade.adicionaCompra(this.cpfs[i], fornecedor, "01/01/2018", this.produtos[produto], this.descricoes[produto]);
+			}
+		}
+	}
+
+	/**
+	 * Retorna o fornecedor com o qual o i-ésimo cliente possui conta.
+	 *
+	 * @param i int com o índice do cliente
+	 * @return String com o nome do fornecedor
+	 */
+	String fornecedor(int i) {
+		return this.fornecedores[i % this.fornecedores.length];
+	}
+
+	static String cpf(long i) {
+		return String.format("%011d", i);
+	}
+}
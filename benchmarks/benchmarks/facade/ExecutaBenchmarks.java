@@ -0,0 +1,26 @@
+package benchmarks.facade;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Executa todos os benchmarks da fachada com o profiler de GC, que reporta a taxa de alocação por operação.
+ * Um filtro opcional, passado como primeiro argumento, restringe os benchmarks executados.
+ *
+ * @author Guilherme de Melo Carneiro
+ *
+ */
+public class ExecutaBenchmarks {
+
+	public static void main(String[] args) throws RunnerException {
+		String filtro = args.length > 0 ? args[0] : "benchmarks.facade.*";
+		Options opcoes = new OptionsBuilder()
+				.include(filtro)
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(opcoes).run();
+	}
+}
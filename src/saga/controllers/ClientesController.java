@@ -1,19 +1,43 @@
 package saga.controllers;
 
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.Date;
-import java.util.HashMap;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAdder;
 
 import saga.entities.Cliente;
+import saga.entities.Conta;
+import saga.entities.Fornecedor;
+import saga.entities.Produto;
 import saga.services.FornecedorService;
+import saga.services.Registro;
+import saga.util.Datas;
+import saga.util.Dinheiro;
+import saga.util.Falha;
+import saga.util.Pagina;
+import saga.util.Resultado;
 /**
  * Essa classe gerencia Clientes: cadastra, edita, remove e retorna clientes. Representa um
  * controlador de clientes.
  * 
+ * Pode ser usada por várias threads ao mesmo tempo. Cadastro, edição de nome e remoção de clientes são
+ * serializados entre si; compras, consultas de débito e pagamentos são sincronizados por cpf em um conjunto
+ * fixo de travas (lock striping), de modo que operações sobre clientes diferentes prossigam em paralelo. As
+ * contas de todos os clientes ficam em uma única tabela, indexada pelos identificadores do cliente e do
+ * fornecedor, consultada sem travar.
+ * 
  * @author Guilherme de Melo Carneiro
  *
  */
@@ -26,16 +50,153 @@ public class ClientesController {
 	private Map<String, Cliente> clientes;
 	
 	/**
-	 * Chave é o cpf do cliente
+	 * Índice secundário dos clientes cadastrados, ordenado alfabeticamente pelo nome (desempate pelo cpf).
+	 * É atualizado a cada cadastro, edição de nome e remoção, de modo que a listagem seja apenas um
+	 * percurso em ordem.
+	 */
+	private NavigableSet<Cliente> clientesOrdenados;
+	
+	/**
+	 * Índice reverso das contas em aberto: chave é o nome do fornecedor e valor é o conjunto dos cpfs que
+	 * possuem conta com ele. Um cpf entra no conjunto quando a primeira compra abre a conta e sai quando a
+	 * conta é paga, sempre sob a trava do cpf, de modo que consultas sobre um fornecedor percorram apenas
+	 * os seus clientes.
+	 */
+	private Map<String, Set<String>> devedores;
+	
+	/**
+	 * Total a receber de cada fornecedor, em centavos: a soma dos débitos das contas em aberto com ele. É
+	 * mantido a cada compra, pagamento e remoção de contas, em acumuladores LongAdder, que não serializam
+	 * compras concorrentes de clientes diferentes com o mesmo fornecedor.
+	 */
+	private Map<String, LongAdder> recebiveis;
+	
+	/**
+	 * Total a receber de todos os fornecedores, em centavos
+	 */
+	private final LongAdder recebiveisTotal;
+	
+	/**
+	 * Índice dos cpfs com compras pendentes de cada produto, indexado pelo identificador do produto no
+	 * registro. Só existe quando o preço das contas em aberto acompanha o catálogo; caso contrário é null,
+	 * e cada compra mantém o preço do momento em que foi feita. Cpfs de contas já pagas são retirados
+	 * na reprecificação seguinte.
 	 */
-	private Map<String, ContasController> contas;
+	private Map<Integer, Set<String>> devedoresPorProduto;
 	
 	/**
-	 * Constroi um controlador de Clientes.
+	 * Tabela única das contas de todos os clientes, indexada pelos identificadores do cliente e do fornecedor.
+	 * As contas de um cliente só são abertas, removidas e percorridas sob a trava do cpf do cliente.
+	 */
+	private ContasController contas;
+	
+	/**
+	 * Identificador de cada cpf que já foi cadastrado ou possui contas. É mantido quando o cliente é removido,
+	 * de modo que as suas contas continuem ligadas ao cpf e voltem com ele caso seja cadastrado novamente.
+	 * Só é alterado sob a trava do cadastro.
+	 */
+	private Map<String, Integer> idsPorCpf;
+	
+	/**
+	 * Quantidade de travas por cpf. Deve ser uma potência de dois.
+	 */
+	private static final int QUANTIDADE_TRAVAS = 64;
+	
+	/**
+	 * Travas das contas, escolhidas a partir do hash do cpf.
+	 */
+	private final Object[] travas;
+	
+	/**
+	 * Trava que serializa as alterações no cadastro de clientes e no índice ordenado.
+	 */
+	private final Object travaCadastro;
+	
+	/**
+	 * Comparador usado pelo índice ordenado: ordem alfabética do nome, ignorando maiúsculas e minúsculas,
+	 * e desempate pelo cpf para que clientes homônimos não se sobreponham.
+	 */
+	private static final Comparator<Cliente> ORDEM_NOME = new Comparator<Cliente>() {
+		@Override
+		public int compare(Cliente c1, Cliente c2) {
+			int comparacao = c1.compareTo(c2);
+			if(comparacao != 0) {
+				return comparacao;
+			}
+			return c1.getCpf().compareTo(c2.getCpf());
+		}
+	};
+	
+	/**
+	 * Registro que atribui os identificadores dos clientes e resolve os produtos das contas
+	 */
+	private Registro registro;
+	
+	/**
+	 * Constroi um controlador de Clientes com um registro próprio.
 	 */
 	public ClientesController() {
-		this.clientes = new HashMap<String, Cliente>();
-		this.contas = new HashMap<String, ContasController>();
+		this(new Registro());
+	}
+	
+	/**
+	 * Constroi um controlador de Clientes que registra seus clientes no registro passado como parâmetro, o
+	 * mesmo no qual os produtos comprados estão registrados.
+	 * 
+	 * @param registro Registro do sistema
+	 */
+	public ClientesController(Registro registro) {
+		this(registro, false);
+	}
+	
+	/**
+	 * Constroi um controlador de Clientes que registra seus clientes no registro passado como parâmetro. Caso
+	 * reprecificaContas seja true, as compras pendentes acompanham as edições de preço do catálogo; caso
+	 * contrário, cada compra mantém o preço do momento em que foi feita.
+	 * 
+	 * @param registro Registro do sistema
+	 * @param reprecificaContas boolean que indica se as contas em aberto acompanham o preço do catálogo
+	 */
+	public ClientesController(Registro registro, boolean reprecificaContas) {
+		this.registro = registro;
+		if(reprecificaContas) {
+			this.devedoresPorProduto = new ConcurrentHashMap<Integer, Set<String>>();
+		}
+		this.clientes = new ConcurrentHashMap<String, Cliente>();
+		this.clientesOrdenados = new ConcurrentSkipListSet<Cliente>(ORDEM_NOME);
+		this.contas = new ContasController(registro);
+		this.idsPorCpf = new ConcurrentHashMap<String, Integer>();
+		this.devedores = new ConcurrentHashMap<String, Set<String>>();
+		this.recebiveis = new ConcurrentHashMap<String, LongAdder>();
+		this.recebiveisTotal = new LongAdder();
+		this.travas = new Object[QUANTIDADE_TRAVAS];
+		for(int i=0; i<QUANTIDADE_TRAVAS; i++) {
+			this.travas[i] = new Object();
+		}
+		this.travaCadastro = new Object();
+	}
+	
+	/**
+	 * Retorna a trava responsável pelas contas do cliente com o cpf passado como parâmetro.
+	 * 
+	 * @param cpf String com o cpf do cliente
+	 * @return Object usado como trava das contas do cliente
+	 */
+	private Object trava(String cpf) {
+		int hash = cpf.hashCode();
+		return this.travas[(hash ^ (hash >>> 16)) & (QUANTIDADE_TRAVAS - 1)];
+	}
+	
+	/**
+	 * Retorna a trava que ordena as compras e pagamentos do cliente com o cpf passado como parâmetro. Quem
+	 * precisa registrar essas operações na mesma ordem em que são aplicadas, como o diário da fachada, pode
+	 * segurá-la em volta da operação, já que a trava é reentrante.
+	 * 
+	 * @param cpf String com o cpf do cliente
+	 * @return Object usado como trava das contas do cliente
+	 */
+	public Object getTravaContas(String cpf) {
+		return this.trava(cpf);
 	}
 	
 	/**
@@ -53,11 +214,21 @@ public class ClientesController {
 	 * @return String contendo o cpf do cliente cadastrado
 	 */
 	public String cadastraCliente(String cpf, String nome, String email, String localizacao) {
-		if(this.clientes.containsKey(cpf)) {
-			throw new IllegalArgumentException("Erro no cadastro do cliente: cliente ja existe.");
+		synchronized(this.travaCadastro) {
+			if(cpf != null && this.clientes.containsKey(cpf)) {
+				throw new IllegalArgumentException("Erro no cadastro do cliente: cliente ja existe.");
+			}
+			Cliente cliente = new Cliente(cpf, nome, email, localizacao);
+			Integer anterior = this.idsPorCpf.get(cpf);
+			if(anterior == null) {
+				this.idsPorCpf.put(cpf, this.registro.registraCliente(cliente));
+			}else {
+				this.registro.recadastraCliente(cliente, anterior);
+			}
+			this.clientes.put(cpf, cliente);
+			this.clientesOrdenados.add(cliente);
+			return cpf;
 		}
-		this.clientes.put(cpf, new Cliente(cpf, nome, email, localizacao));
-		return cpf;
 	}
 	
 	/**
@@ -68,16 +239,28 @@ public class ClientesController {
 	 * @return String contendo informações sobre o cliente buscado
 	 */
 	public String consultaCliente(String cpf) {
+		return this.tentaConsultaCliente(cpf).getValorOuLanca();
+	}
+	
+	/**
+	 * Retorna o Resultado com as informações sobre um cliente, ou com a falha que consultaCliente() lançaria,
+	 * sem lançar exceções.
+	 * 
+	 * @param cpf String que representa o cpf do cliente que se quer buscar
+	 * @return Resultado com as informações sobre o cliente, ou com a falha
+	 */
+	public Resultado<String> tentaConsultaCliente(String cpf) {
 		if(cpf == null) {
-			throw new NullPointerException("Erro na exibicao do cliente: cpf nao pode ser vazio ou nulo.");
+			return Resultado.falha(Falha.nulo("Erro na exibicao do cliente: cpf nao pode ser vazio ou nulo."));
 		}
 		if(cpf.trim().isEmpty()) {
-			throw new IllegalArgumentException("Erro na exibicao do cliente: cpf nao pode ser vazio ou nulo.");
+			return Resultado.falha(Falha.invalido("Erro na exibicao do cliente: cpf nao pode ser vazio ou nulo."));
 		}
-		if(this.clientes.get(cpf) == null) {
-			throw new NullPointerException("Erro na exibicao do cliente: cliente nao existe.");
+		Cliente cliente = this.clientes.get(cpf);
+		if(cliente == null) {
+			return Resultado.falha(Falha.nulo("Erro na exibicao do cliente: cliente nao existe."));
 		}
-		return this.clientes.get(cpf).toString();
+		return Resultado.sucesso(cliente.toString());
 	}
 	
 	/**
@@ -88,23 +271,61 @@ public class ClientesController {
 	 * @return String contendo informações sobre todos os clientes já cadastrados
 	 */
 	public String consultaClientesAll() {
-		String mensagem = "";
-		
-		List<Cliente> clientes = new ArrayList<Cliente>();
-		for(String cpfCliente: this.clientes.keySet()) {
-			clientes.add(this.clientes.get(cpfCliente));
+		StringBuilder mensagem = new StringBuilder();
+		try {
+			this.escreveClientesAll(mensagem);
+		}catch(IOException ioe) {
+			throw new UncheckedIOException(ioe);
 		}
-		
-		Collections.sort(clientes);
-		
-		for(int i=0; i<clientes.size(); i++) {
-			mensagem += clientes.get(i).toString() + " | ";
+		return mensagem.toString();
+	}
+	
+	/**
+	 * Retorna a quantidade de clientes escritos. Escreve as informações sobre todos os clientes cadastrados
+	 * diretamente na saída passada como parâmetro, em uma única passagem, no mesmo formato de
+	 * consultaClientesAll(). Caso não haja nenhum cliente cadastrado, nada é escrito.
+	 * 
+	 * @param saida Appendable no qual a listagem será escrita
+	 * @return int com a quantidade de clientes escritos
+	 * @throws IOException caso a escrita na saída falhe
+	 */
+	public int escreveClientesAll(Appendable saida) throws IOException {
+		int itens = 0;
+		for(Cliente cliente: this.clientesOrdenados) {
+			if(itens > 0) {
+				saida.append(" | ");
+			}
+			saida.append(cliente.toString());
+			itens++;
 		}
-		
-		if(!"".equals(mensagem)) {
-			mensagem = mensagem.substring(0, mensagem.length()-3);
+		return itens;
+	}
+	
+	/**
+	 * Retorna uma página da listagem de clientes, no mesmo formato e na mesma ordem de consultaClientesAll(),
+	 * começando logo depois do cliente guardado no cursor, mesmo que ele tenha sido removido ou renomeado
+	 * depois. Localizar o início custa O(log n), e apenas os clientes da página são percorridos. Caso o
+	 * cursor seja null, a página começa pelo primeiro cliente. Lança IllegalArgumentException para cursor
+	 * ou limite inválidos.
+	 * 
+	 * @param cursor String com o cursor devolvido pela página anterior, ou null
+	 * @param limite int com a quantidade máxima de clientes da página
+	 * @return Pagina com os clientes e o cursor da próxima página
+	 */
+	public Pagina exibeClientesPagina(String cursor, int limite) {
+		Pagina.validaLimite(limite);
+		NavigableSet<Cliente> seguintes = this.clientesOrdenados;
+		if(cursor != null) {
+			String[] chave = Pagina.partes(cursor, 2);
+			Cliente sonda;
+			try {
+				sonda = new Cliente(chave[1], chave[0], "-", "-");
+			}catch(IllegalArgumentException iae) {
+				throw new IllegalArgumentException("Erro na paginacao: cursor invalido.");
+			}
+			seguintes = seguintes.tailSet(sonda, false);
 		}
-		return mensagem;
+		return Pagina.de(seguintes, limite, cliente -> cliente.toString(), cliente -> Pagina.cursor(cliente.getNome(), cliente.getCpf()));
 	}
 	
 	/**
@@ -122,11 +343,16 @@ public class ClientesController {
 		if(cpf.trim().isEmpty()) {
 			throw new IllegalArgumentException("Erro na edicao do cliente: cpf nao pode ser vazio ou nulo.");
 		}
-		if(this.clientes.get(cpf) == null) {
-			throw new NullPointerException("Erro na edicao do cliente: cliente nao existe.");
+		synchronized(this.travaCadastro) {
+			Cliente cliente = this.clientes.get(cpf);
+			if(cliente == null) {
+				throw new NullPointerException("Erro na edicao do cliente: cliente nao existe.");
+			}
+			this.clientesOrdenados.remove(cliente);
+			cliente.setNome(nome);
+			this.clientesOrdenados.add(cliente);
+			return true;
 		}
-		this.clientes.get(cpf).setNome(nome);
-		return true;
 	}
 	
 	/**
@@ -138,10 +364,11 @@ public class ClientesController {
 	 * @return true para uma edição bem-sucedida
 	 */
 	private boolean editaEmailCliente(String cpf, String email) {
-		if(this.clientes.get(cpf) == null) {
+		Cliente cliente = cpf == null ? null : this.clientes.get(cpf);
+		if(cliente == null) {
 			throw new NullPointerException("Erro na edicao do cliente: cliente nao existe.");
 		}
-		this.clientes.get(cpf).setEmail(email);
+		cliente.setEmail(email);
 		return true;
 	}
 	
@@ -160,10 +387,11 @@ public class ClientesController {
 		if(cpf.trim().isEmpty()) {
 			throw new IllegalArgumentException("Erro na edicao do cliente: cpf nao pode ser vazio ou nulo.");
 		}
-		if(this.clientes.get(cpf) == null) {
+		Cliente cliente = this.clientes.get(cpf);
+		if(cliente == null) {
 			throw new NullPointerException("Erro na edicao do cliente: cliente nao existe.");
 		}
-		this.clientes.get(cpf).setLocalizacao(localizacao);
+		cliente.setLocalizacao(localizacao);
 		return true;
 	}
 	
@@ -211,7 +439,8 @@ public class ClientesController {
 	
 	/**
 	 * Retorna booleano para o sucesso de uma remoção de um cliente do sistema. Caso não haja
-	 * cliente cadastrado com base no parâmetro passado, será retornado false.
+	 * cliente cadastrado com base no parâmetro passado, será retornado false. As contas do cliente
+	 * removido são mantidas pelo cpf e voltam caso ele seja cadastrado novamente.
 	 *  
 	 * @param cpf String que representa o cpf do cliente que será removido do sistema
 	 * @return true para uma remoção de um cliente bem-sucedida, false caso contrário
@@ -223,145 +452,555 @@ public class ClientesController {
 		if(cpf.trim().isEmpty()) {
 			throw new IllegalArgumentException("Erro na remocao do cliente: cpf nao pode ser vazio ou nulo");
 		}
-		if(this.clientes.get(cpf) == null) {
-			throw new NullPointerException("Erro na remocao do cliente: cliente nao existe.");
-		}
-		if(this.clientes.remove(cpf) != null) {
-			return true;
+		synchronized(this.travaCadastro) {
+			if(this.clientes.get(cpf) == null) {
+				throw new NullPointerException("Erro na remocao do cliente: cliente nao existe.");
+			}
+			Cliente cliente = this.clientes.remove(cpf);
+			if(cliente != null) {
+				this.clientesOrdenados.remove(cliente);
+				return true;
+			}
+			return false;
 		}
-		return false;
 	}
 	
 	public boolean adicionaCompra(String cpf, String fornecedor, String dataStr, String nome_prod, String desc_prod, FornecedorService fornecedorService) {
-		Date data = new Date();
-		SimpleDateFormat formatoData = new SimpleDateFormat("dd/MM/yyyy");
-				
+		return this.tentaAdicionaCompra(cpf, fornecedor, dataStr, nome_prod, desc_prod, fornecedorService).getValorOuLanca();
+	}
+	
+	/**
+	 * Retorna o Resultado de uma compra: sucesso, com a compra registrada, ou a falha com a mesma mensagem da
+	 * exceção que adicionaCompra() lançaria. Entradas inválidas, como em feeds de compras com dados sujos, não
+	 * constroem exceções.
+	 * 
+	 * @param cpf String com o cpf do cliente
+	 * @param fornecedor String com o nome do fornecedor
+	 * @param dataStr String com a data da compra, no formato dd/MM/yyyy
+	 * @param nome_prod String com o nome do produto
+	 * @param desc_prod String com a descrição do produto
+	 * @param fornecedorService FornecedorService que dá acesso aos fornecedores
+	 * @return Resultado da compra
+	 */
+	public Resultado<Boolean> tentaAdicionaCompra(String cpf, String fornecedor, String dataStr, String nome_prod, String desc_prod, FornecedorService fornecedorService) {
 		if(cpf == null) {
-			throw new NullPointerException("Erro ao cadastrar compra: cpf nulo ou vazio.");
+			return Resultado.falha(Falha.nulo("Erro ao cadastrar compra: cpf nulo ou vazio."));
 		}
 		if(cpf.trim().isEmpty()) {
-			throw new IllegalArgumentException("Erro ao cadastrar compra: cpf nulo ou vazio.");
+			return Resultado.falha(Falha.invalido("Erro ao cadastrar compra: cpf nulo ou vazio."));
 		}
 		if(cpf.length() != 11) {
-			throw new IllegalArgumentException("Erro ao cadastrar compra: cpf invalido.");
+			return Resultado.falha(Falha.invalido("Erro ao cadastrar compra: cpf invalido."));
 		}
 		if(fornecedor == null) {
-			throw new NullPointerException("Erro ao cadastrar compra: fornecedor nao pode ser vazio ou nulo.");
+			return Resultado.falha(Falha.nulo("Erro ao cadastrar compra: fornecedor nao pode ser vazio ou nulo."));
 		}
 		if(fornecedor.trim().isEmpty()) {
-			throw new IllegalArgumentException("Erro ao cadastrar compra: fornecedor nao pode ser vazio ou nulo.");
-		}
-		if(dataStr == null) {
-			throw new NullPointerException("Erro ao cadastrar compra: data nao pode ser vazia ou nula.");
+			return Resultado.falha(Falha.invalido("Erro ao cadastrar compra: fornecedor nao pode ser vazio ou nulo."));
 		}
-		if(dataStr.trim().isEmpty()) {
-			throw new IllegalArgumentException("Erro ao cadastrar compra: data nao pode ser vazia ou nula.");
-		}
-		try {
-			int contador = 0;
-			for(String dataTeste: dataStr.split("/")) {
-				if(contador == 0) {
-					if(Integer.parseInt(dataTeste)<1 || Integer.parseInt(dataTeste)>31) {
-						throw new IllegalArgumentException("Erro ao cadastrar compra: data invalida.");
-					}
-				}
-				if(contador == 1) {
-					if(Integer.parseInt(dataTeste)<1 || Integer.parseInt(dataTeste)>12) {
-						throw new IllegalArgumentException("Erro ao cadastrar compra: data invalida.");
-					}
-				}
-				contador++;
-			}
-			data = formatoData.parse(dataStr);
-		}catch(Exception e) {
-			throw new IllegalArgumentException("Erro ao cadastrar compra: data invalida.");
+		int data = leData(dataStr);
+		if(data == Datas.DATA_INVALIDA) {
+			return Resultado.falha(falhaData(dataStr, "Erro ao cadastrar compra: data"));
 		}
 		if(nome_prod == null) {
-			throw new NullPointerException("Erro ao cadastrar compra: nome do produto nao pode ser vazio ou nulo.");
+			return Resultado.falha(Falha.nulo("Erro ao cadastrar compra: nome do produto nao pode ser vazio ou nulo."));
 		}
 		if(nome_prod.trim().isEmpty()) {
-			throw new IllegalArgumentException("Erro ao cadastrar compra: nome do produto nao pode ser vazio ou nulo.");
+			return Resultado.falha(Falha.invalido("Erro ao cadastrar compra: nome do produto nao pode ser vazio ou nulo."));
 		}
 		if(desc_prod == null) {
-			throw new NullPointerException("Erro ao cadastrar compra: descricao do produto nao pode ser vazia ou nula.");
+			return Resultado.falha(Falha.nulo("Erro ao cadastrar compra: descricao do produto nao pode ser vazia ou nula."));
 		}
 		if(desc_prod.trim().isEmpty()) {
-			throw new IllegalArgumentException("Erro ao cadastrar compra: descricao do produto nao pode ser vazia ou nula.");
+			return Resultado.falha(Falha.invalido("Erro ao cadastrar compra: descricao do produto nao pode ser vazia ou nula."));
 		}
-		if(this.clientes.get(cpf) == null) {
-			throw new NullPointerException("Erro ao cadastrar compra: cliente nao existe.");
+		Cliente comprador = this.clientes.get(cpf);
+		if(comprador == null) {
+			return Resultado.falha(Falha.nulo("Erro ao cadastrar compra: cliente nao existe."));
 		}
 		
-		if(fornecedorService.existeFornecedor(fornecedor)) {
-			if(fornecedorService.getProduto(fornecedor, nome_prod) == null){
-				throw new NullPointerException("Erro ao cadastrar compra: produto nao existe.");
+		//um produto encontrado implica que o fornecedor existe; o fornecedor só é consultado quando não há produto
+		Produto produto = fornecedorService.getProduto(fornecedor, nome_prod, desc_prod);
+		if(produto == null) {
+			if(!fornecedorService.existeFornecedor(fornecedor)) {
+				return Resultado.falha(Falha.invalido("Erro ao cadastrar compra: fornecedor nao existe."));
 			}
-			if(!this.contas.containsKey(cpf)) {
-				this.contas.put(cpf, new ContasController());
+			return Resultado.falha(Falha.nulo("Erro ao cadastrar compra: produto nao existe."));
+		}
+		Fornecedor vendedor = fornecedorService.getFornecedor(fornecedor);
+		if(vendedor == null) {
+			return Resultado.falha(Falha.invalido("Erro ao cadastrar compra: fornecedor nao existe."));
+		}
+		return this.registraCompra(comprador, vendedor, data, produto);
+	}
+	
+	/**
+	 * Retorna true para uma compra bem-sucedida. Adiciona uma compra a partir dos identificadores do cliente,
+	 * do fornecedor e do produto, obtidos previamente com resolveCliente e os métodos equivalentes do
+	 * controlador de fornecedores. Os identificadores já foram validados ao serem obtidos: aqui apenas se
+	 * confere que as entidades não foram removidas, sem validar nem calcular hash de Strings.
+	 * 
+	 * @param cliente int com o identificador do cliente
+	 * @param fornecedor int com o identificador do fornecedor
+	 * @param dataStr String com a data da compra, no formato dd/MM/yyyy
+	 * @param produto int com o identificador do produto
+	 * @param fornecedorService FornecedorService que dá acesso aos fornecedores
+	 * @return true para uma compra bem-sucedida
+	 */
+	public boolean adicionaCompra(int cliente, int fornecedor, String dataStr, int produto, FornecedorService fornecedorService) {
+		return this.tentaAdicionaCompra(cliente, fornecedor, dataStr, produto, fornecedorService).getValorOuLanca();
+	}
+	
+	/**
+	 * Retorna o Resultado de uma compra a partir dos identificadores do cliente, do fornecedor e do produto,
+	 * com a falha que adicionaCompra() lançaria, sem lançar exceções.
+	 * 
+	 * @param cliente int com o identificador do cliente
+	 * @param fornecedor int com o identificador do fornecedor
+	 * @param dataStr String com a data da compra, no formato dd/MM/yyyy
+	 * @param produto int com o identificador do produto
+	 * @param fornecedorService FornecedorService que dá acesso aos fornecedores
+	 * @return Resultado da compra
+	 */
+	public Resultado<Boolean> tentaAdicionaCompra(int cliente, int fornecedor, String dataStr, int produto, FornecedorService fornecedorService) {
+		Cliente comprador = this.getCliente(cliente);
+		if(comprador == null) {
+			return Resultado.falha(Falha.nulo("Erro ao cadastrar compra: cliente nao existe."));
+		}
+		int data = leData(dataStr);
+		if(data == Datas.DATA_INVALIDA) {
+			return Resultado.falha(falhaData(dataStr, "Erro ao cadastrar compra: data"));
+		}
+		Fornecedor vendedor = fornecedorService.getFornecedor(fornecedor);
+		if(vendedor == null) {
+			return Resultado.falha(Falha.invalido("Erro ao cadastrar compra: fornecedor nao existe."));
+		}
+		Produto comprado = fornecedorService.getProduto(vendedor, produto);
+		if(comprado == null) {
+			return Resultado.falha(Falha.nulo("Erro ao cadastrar compra: produto nao existe."));
+		}
+		return this.registraCompra(comprador, vendedor, data, comprado);
+	}
+	
+	/**
+	 * Retorna o dia epoch da data passada como parâmetro, ou DATA_INVALIDA caso seja nula, vazia ou inválida.
+	 * A data é lida uma única vez, e o dia epoch é usado diretamente pela operação; apenas quando é
+	 * DATA_INVALIDA a falha é montada por falhaData().
+	 * 
+	 * @param dataStr String com a data, no formato dd/MM/yyyy
+	 * @return int com o dia epoch da data, ou DATA_INVALIDA
+	 */
+	private static int leData(String dataStr) {
+		if(dataStr == null) {
+			return Datas.DATA_INVALIDA;
+		}
+		return Datas.paraDiaEpoch(dataStr);
+	}
+	
+	/**
+	 * Retorna a falha para uma data que leData() não conseguiu ler, nula, vazia ou inválida, com a mensagem
+	 * iniciada pelo prefixo passado como parâmetro.
+	 * 
+	 * @param dataStr String com a data, no formato dd/MM/yyyy
+	 * @param erro String com o início da mensagem de erro, como "Erro ao cadastrar compra: data"
+	 * @return Falha da data
+	 */
+	private static Falha falhaData(String dataStr, String erro) {
+		if(dataStr == null) {
+			return Falha.nulo(erro + " nao pode ser vazia ou nula.");
+		}
+		if(dataStr.trim().isEmpty()) {
+			return Falha.invalido(erro + " nao pode ser vazia ou nula.");
+		}
+		return Falha.invalido(erro + " invalida.");
+	}
+	
+	/**
+	 * Retorna o Resultado da compra, já validada, adicionada à conta do cliente com o fornecedor sob a trava do
+	 * cpf, abrindo a conta na primeira compra. Falha caso o cliente ou o fornecedor tenham sido removidos desde
+	 * a validação.
+	 * 
+	 * @param cliente Cliente comprador
+	 * @param fornecedor Fornecedor do produto
+	 * @param data int com a data da compra, como dia epoch
+	 * @param produto Produto comprado
+	 * @return Resultado da compra
+	 */
+	private Resultado<Boolean> registraCompra(Cliente cliente, Fornecedor fornecedor, int data, Produto produto) {
+		String cpf = cliente.getCpf();
+		synchronized(this.trava(cpf)) {
+			if(this.clientes.get(cpf) != cliente) {
+				return Resultado.falha(Falha.nulo("Erro ao cadastrar compra: cliente nao existe."));
 			}
-			this.contas.get(cpf).adicionaCompra(cpf, fornecedor, data, fornecedorService.getProduto(fornecedor, nome_prod)); //adiciona o produto na conta
-			return true;
+			if(fornecedor.isRemovido()) {
+				return Resultado.falha(Falha.invalido("Erro ao cadastrar compra: fornecedor nao existe."));
+			}
+			Conta conta = this.contas.getConta(cliente.getId(), fornecedor.getId());
+			if(conta == null) {
+				conta = this.contas.abreConta(cliente.getId(), cpf, fornecedor.getId(), fornecedor.getNome());
+				this.devedoresDe(fornecedor.getNome()).add(cpf);
+			}
+			long preco = conta.adicionaCompra(data, produto); //adiciona o produto na conta
+			this.acumulaRecebiveis(fornecedor.getNome(), preco);
+			if(this.devedoresPorProduto != null) {
+				this.devedoresDoProduto(produto.getId()).add(cpf);
+			}
+			return Resultado.verdadeiro();
 		}
-		
-		throw new IllegalArgumentException("Erro ao cadastrar compra: fornecedor nao existe.");
 	}
 	
-	public double getDebitoFornecedor(String cpf, String fornecedor, FornecedorService fornecedorService) {
+	/**
+	 * Retorna o conjunto dos cpfs com compras pendentes do produto, criando-o caso não exista.
+	 * 
+	 * @param idProduto int com o identificador do produto
+	 * @return Set de String com os cpfs
+	 */
+	private Set<String> devedoresDoProduto(int idProduto) {
+		Set<String> cpfs = this.devedoresPorProduto.get(idProduto);
+		if(cpfs == null) {
+			cpfs = this.devedoresPorProduto.computeIfAbsent(idProduto, id -> ConcurrentHashMap.newKeySet());
+		}
+		return cpfs;
+	}
+	
+	/**
+	 * Retorna um booleano sobre as contas em aberto acompanharem as edições de preço do catálogo.
+	 * 
+	 * @return true caso as contas sejam reprecificadas, false caso mantenham o preço da compra
+	 */
+	public boolean isReprecificaContas() {
+		return this.devedoresPorProduto != null;
+	}
+	
+	/**
+	 * Não possui retorno. Redefine, para o preço atual de cada produto passado como parâmetro, as compras
+	 * pendentes desses produtos nas contas com o fornecedor, atualizando os débitos e os recebíveis. Percorre
+	 * apenas as contas que compraram os produtos, buscadas na tabela de contas pelo identificador do
+	 * fornecedor. Não faz nada caso as contas mantenham o preço da compra.
+	 * 
+	 * @param fornecedor Fornecedor dos produtos
+	 * @param produtos List de Produto com os produtos cujo preço mudou
+	 */
+	public void reprecificaContas(Fornecedor fornecedor, List<Produto> produtos) {
+		if(this.devedoresPorProduto == null) {
+			return;
+		}
+		int idFornecedor = fornecedor.getId();
+		String nomeFornecedor = fornecedor.getNome();
+		for(Produto produto: produtos) {
+			Set<String> cpfs = this.devedoresPorProduto.get(produto.getId());
+			if(cpfs == null) {
+				continue;
+			}
+			for(String cpf: cpfs) {
+				synchronized(this.trava(cpf)) {
+					Integer id = this.idsPorCpf.get(cpf);
+					Conta conta = id == null ? null : this.contas.getConta(id, idFornecedor);
+					long debitoAnterior = conta == null ? 0 : conta.getDebito();
+					if(conta == null || !conta.reprecificaProduto(produto.getId(), produto.getPrecoCentavos())) {
+						cpfs.remove(cpf);
+						continue;
+					}
+					this.acumulaRecebiveis(nomeFornecedor, conta.getDebito() - debitoAnterior);
+				}
+			}
+		}
+	}
+	
+	public long getDebitoFornecedor(String cpf, String fornecedor, FornecedorService fornecedorService) {
+		return this.tentaGetDebitoFornecedor(cpf, fornecedor, fornecedorService).getValorOuLanca();
+	}
+	
+	/**
+	 * Retorna o Resultado com o débito, em centavos, do cliente com o fornecedor, ou com a falha que
+	 * getDebitoFornecedor() lançaria, sem lançar exceções.
+	 * 
+	 * @param cpf String com o cpf do cliente
+	 * @param fornecedor String com o nome do fornecedor
+	 * @param fornecedorService FornecedorService que dá acesso aos fornecedores
+	 * @return Resultado com o débito, em centavos, ou com a falha
+	 */
+	public Resultado<Long> tentaGetDebitoFornecedor(String cpf, String fornecedor, FornecedorService fornecedorService) {
 		if(cpf == null) {
-			throw new NullPointerException("Erro ao recuperar debito: cpf nao pode ser vazio ou nulo.");
+			return Resultado.falha(Falha.nulo("Erro ao recuperar debito: cpf nao pode ser vazio ou nulo."));
 		}
 		if(cpf.trim().isEmpty()) {
-			throw new IllegalArgumentException("Erro ao recuperar debito: cpf nao pode ser vazio ou nulo.");
+			return Resultado.falha(Falha.invalido("Erro ao recuperar debito: cpf nao pode ser vazio ou nulo."));
 		}
 		if(cpf.length() != 11) {
-			throw new IllegalArgumentException("Erro ao recuperar debito: cpf invalido.");
+			return Resultado.falha(Falha.invalido("Erro ao recuperar debito: cpf invalido."));
 		}
 		if(fornecedor == null) {
-			throw new NullPointerException("Erro ao recuperar debito: fornecedor nao pode ser vazio ou nulo.");
+			return Resultado.falha(Falha.nulo("Erro ao recuperar debito: fornecedor nao pode ser vazio ou nulo."));
 		}
 		if(fornecedor.trim().isEmpty()) {
-			throw new IllegalArgumentException("Erro ao recuperar debito: fornecedor nao pode ser vazio ou nulo.");
+			return Resultado.falha(Falha.invalido("Erro ao recuperar debito: fornecedor nao pode ser vazio ou nulo."));
 		}
-		if(this.contas.get(cpf) == null) {
-			throw new NullPointerException("Erro ao recuperar debito: cliente nao existe.");
+		Cliente devedor = this.clientes.get(cpf);
+		if(devedor == null || !this.contas.possuiRegistro(devedor.getId())) {
+			return Resultado.falha(Falha.nulo("Erro ao recuperar debito: cliente nao existe."));
 		}
-		if(!fornecedorService.existeFornecedor(fornecedor)) {
-			throw new NullPointerException("Erro ao recuperar debito: fornecedor nao existe.");
+		Fornecedor credor = fornecedorService.getFornecedor(fornecedor);
+		if(credor == null) {
+			return Resultado.falha(Falha.nulo("Erro ao recuperar debito: fornecedor nao existe."));
+		}
+		return this.consultaDebito(devedor, credor);
+	}
+	
+	/**
+	 * Retorna o débito, em centavos, do cliente com o fornecedor, a partir dos seus identificadores.
+	 * 
+	 * @param cliente int com o identificador do cliente
+	 * @param fornecedor int com o identificador do fornecedor
+	 * @param fornecedorService FornecedorService que dá acesso aos fornecedores
+	 * @return long com o débito, em centavos
+	 */
+	public long getDebitoFornecedor(int cliente, int fornecedor, FornecedorService fornecedorService) {
+		return this.tentaGetDebitoFornecedor(cliente, fornecedor, fornecedorService).getValorOuLanca();
+	}
+	
+	/**
+	 * Retorna o Resultado com o débito, em centavos, do cliente com o fornecedor, a partir dos seus
+	 * identificadores, ou com a falha que getDebitoFornecedor() lançaria, sem lançar exceções.
+	 * 
+	 * @param cliente int com o identificador do cliente
+	 * @param fornecedor int com o identificador do fornecedor
+	 * @param fornecedorService FornecedorService que dá acesso aos fornecedores
+	 * @return Resultado com o débito, em centavos, ou com a falha
+	 */
+	public Resultado<Long> tentaGetDebitoFornecedor(int cliente, int fornecedor, FornecedorService fornecedorService) {
+		Cliente devedor = this.getCliente(cliente);
+		if(devedor == null) {
+			return Resultado.falha(Falha.nulo("Erro ao recuperar debito: cliente nao existe."));
+		}
+		Fornecedor credor = fornecedorService.getFornecedor(fornecedor);
+		if(credor == null) {
+			return Resultado.falha(Falha.nulo("Erro ao recuperar debito: fornecedor nao existe."));
+		}
+		return this.consultaDebito(devedor, credor);
+	}
+	
+	/**
+	 * Retorna o Resultado com o débito, em centavos, do cliente com o fornecedor, já validados, ou a falha caso
+	 * não haja conta em aberto. A conta é encontrada na tabela de contas sem travar; apenas o débito é lido
+	 * sob a trava do cpf.
+	 * 
+	 * @param devedor Cliente devedor
+	 * @param credor Fornecedor credor
+	 * @return Resultado com o débito, em centavos, ou com a falha
+	 */
+	private Resultado<Long> consultaDebito(Cliente devedor, Fornecedor credor) {
+		Conta conta = this.contas.getConta(devedor.getId(), credor.getId());
+		if(conta == null) {
+			return Resultado.falha(Falha.nulo("Erro ao recuperar debito: cliente nao tem debito com fornecedor."));
+		}
+		synchronized(this.trava(devedor.getCpf())) {
+			if(conta.isQuitado()) {
+				return Resultado.falha(Falha.invalido("Erro ao recuperar debito: cliente nao tem debito com fornecedor."));
+			}
+			return Resultado.sucesso(conta.getDebito());
 		}
-		return this.contas.get(cpf).getDebitoFornecedor(fornecedor);
 	}
 	
 	//Exibe Conta do cliente
 	public String exibeConta(String cpf, String fornecedor, FornecedorService fornecedorService) {
+		return this.tentaExibeConta(cpf, fornecedor, fornecedorService).getValorOuLanca();
+	}
+	
+	/**
+	 * Retorna o Resultado com a conta do cliente com o fornecedor, ou com a falha que exibeConta() lançaria,
+	 * sem lançar exceções.
+	 * 
+	 * @param cpf String com o cpf do cliente
+	 * @param fornecedor String com o nome do fornecedor
+	 * @param fornecedorService FornecedorService que dá acesso aos fornecedores
+	 * @return Resultado com a conta, ou com a falha
+	 */
+	public Resultado<String> tentaExibeConta(String cpf, String fornecedor, FornecedorService fornecedorService) {
 		if(cpf == null) {
-			throw new NullPointerException("Erro ao exibir conta do cliente: cpf nao pode ser vazio ou nulo.");
+			return Resultado.falha(Falha.nulo("Erro ao exibir conta do cliente: cpf nao pode ser vazio ou nulo."));
 		}
 		if(cpf.trim().isEmpty()) {
-			throw new IllegalArgumentException("Erro ao exibir conta do cliente: cpf nao pode ser vazio ou nulo.");
+			return Resultado.falha(Falha.invalido("Erro ao exibir conta do cliente: cpf nao pode ser vazio ou nulo."));
 		}
 		if(cpf.length() != 11) {
-			throw new IllegalArgumentException("Erro ao exibir conta do cliente: cpf invalido.");
+			return Resultado.falha(Falha.invalido("Erro ao exibir conta do cliente: cpf invalido."));
+		}
+		Cliente cliente = this.clientes.get(cpf);
+		if(cliente == null || !this.contas.possuiRegistro(cliente.getId())) {
+			return Resultado.falha(Falha.nulo("Erro ao exibir conta do cliente: cliente nao existe."));
 		}
-		if(this.contas.get(cpf) == null) {
-			throw new NullPointerException("Erro ao exibir conta do cliente: cliente nao existe.");
+		synchronized(this.trava(cpf)) {
+			if(fornecedor == null) {
+				return Resultado.falha(Falha.nulo("Erro ao exibir conta do cliente: fornecedor nao pode ser vazio ou nulo."));
+			}
+			if(fornecedor.trim().isEmpty()) {
+				return Resultado.falha(Falha.invalido("Erro ao exibir conta do cliente: fornecedor nao pode ser vazio ou nulo."));
+			}
+			Fornecedor credor = fornecedorService.getFornecedor(fornecedor);
+			if(credor == null) {
+				return Resultado.falha(Falha.nulo("Erro ao exibir conta do cliente: fornecedor nao existe."));
+			}
+			Conta conta = this.contas.getConta(cliente.getId(), credor.getId());
+			if(conta == null) {
+				return Resultado.falha(Falha.nulo("Erro ao exibir conta do cliente: cliente nao tem nenhuma conta com o fornecedor."));
+			}
+			
+			return Resultado.sucesso(this.contas.imprimeConta(conta, cliente.getNome()));
+		}
+	}
+	
+	/**
+	 * Retorna String com as compras pendentes do cliente com o fornecedor feitas entre as datas passadas como
+	 * parâmetro, inclusive, na ordem das datas, seguidas do subtotal, no formato
+	 * "Cliente: NOME | FORNECEDOR | NOME_PRODUTO - dd-MM-yyyy | ... | Subtotal: DEBITO". As compras do período
+	 * são localizadas por busca binária, e o custo é proporcional apenas às compras listadas. Lança
+	 * NullPointerException ou IllegalArgumentException para parâmetros nulos, vazios ou inválidos, entidades
+	 * inexistentes, data inicial posterior à final ou ausência de conta com o fornecedor.
+	 * 
+	 * @param cpf String com o cpf do cliente
+	 * @param fornecedor String com o nome do fornecedor
+	 * @param dataInicial String com a data inicial do período, no formato dd/MM/yyyy
+	 * @param dataFinal String com a data final do período, no formato dd/MM/yyyy
+	 * @param fornecedorService FornecedorService que dá acesso aos fornecedores
+	 * @return String com as compras do período e o subtotal
+	 */
+	public String exibeComprasPeriodo(String cpf, String fornecedor, String dataInicial, String dataFinal, FornecedorService fornecedorService) {
+		return this.tentaExibeComprasPeriodo(cpf, fornecedor, dataInicial, dataFinal, fornecedorService).getValorOuLanca();
+	}
+	
+	/**
+	 * Retorna o Resultado com as compras do cliente com o fornecedor no período, ou com a falha que
+	 * exibeComprasPeriodo() lançaria, sem lançar exceções.
+	 * 
+	 * @param cpf String com o cpf do cliente
+	 * @param fornecedor String com o nome do fornecedor
+	 * @param dataInicial String com a data inicial do período, no formato dd/MM/yyyy
+	 * @param dataFinal String com a data final do período, no formato dd/MM/yyyy
+	 * @param fornecedorService FornecedorService que dá acesso aos fornecedores
+	 * @return Resultado com as compras do período, ou com a falha
+	 */
+	public Resultado<String> tentaExibeComprasPeriodo(String cpf, String fornecedor, String dataInicial, String dataFinal, FornecedorService fornecedorService) {
+		StringBuilder mensagem = new StringBuilder();
+		return this.tentaEscreveComprasPeriodo(cpf, fornecedor, dataInicial, dataFinal, fornecedorService, mensagem).mapeia(compras -> mensagem.toString());
+	}
+	
+	/**
+	 * Retorna o Resultado com a quantidade de compras escritas, ou com a falha que exibeComprasPeriodo()
+	 * lançaria, sem lançar exceções. Em caso de sucesso, as compras do período são escritas no StringBuilder
+	 * passado como parâmetro, no formato de exibeComprasPeriodo().
+	 * 
+	 * @param cpf String com o cpf do cliente
+	 * @param fornecedor String com o nome do fornecedor
+	 * @param dataInicial String com a data inicial do período, no formato dd/MM/yyyy
+	 * @param dataFinal String com a data final do período, no formato dd/MM/yyyy
+	 * @param fornecedorService FornecedorService que dá acesso aos fornecedores
+	 * @param mensagem StringBuilder no qual as compras serão escritas
+	 * @return Resultado com a quantidade de compras escritas, ou com a falha
+	 */
+	public Resultado<Integer> tentaEscreveComprasPeriodo(String cpf, String fornecedor, String dataInicial, String dataFinal, FornecedorService fornecedorService, StringBuilder mensagem) {
+		if(cpf == null) {
+			return Resultado.falha(Falha.nulo("Erro ao consultar compras: cpf nao pode ser vazio ou nulo."));
+		}
+		if(cpf.trim().isEmpty()) {
+			return Resultado.falha(Falha.invalido("Erro ao consultar compras: cpf nao pode ser vazio ou nulo."));
+		}
+		if(cpf.length() != 11) {
+			return Resultado.falha(Falha.invalido("Erro ao consultar compras: cpf invalido."));
+		}
+		Cliente cliente = this.clientes.get(cpf);
+		if(cliente == null) {
+			return Resultado.falha(Falha.nulo("Erro ao consultar compras: cliente nao existe."));
 		}
 		if(fornecedor == null) {
-			throw new NullPointerException("Erro ao exibir conta do cliente: fornecedor nao pode ser vazio ou nulo.");
+			return Resultado.falha(Falha.nulo("Erro ao consultar compras: fornecedor nao pode ser vazio ou nulo."));
 		}
 		if(fornecedor.trim().isEmpty()) {
-			throw new IllegalArgumentException("Erro ao exibir conta do cliente: fornecedor nao pode ser vazio ou nulo.");
+			return Resultado.falha(Falha.invalido("Erro ao consultar compras: fornecedor nao pode ser vazio ou nulo."));
 		}
-		if(!fornecedorService.existeFornecedor(fornecedor)) {
-			throw new NullPointerException("Erro ao exibir conta do cliente: fornecedor nao existe.");
+		Fornecedor credor = fornecedorService.getFornecedor(fornecedor);
+		if(credor == null) {
+			return Resultado.falha(Falha.nulo("Erro ao consultar compras: fornecedor nao existe."));
 		}
-		if(!this.contas.get(cpf).existeContaFornecedor(fornecedor)) {
-			throw new NullPointerException("Erro ao exibir conta do cliente: cliente nao tem nenhuma conta com o fornecedor.");
+		int inicio = leData(dataInicial);
+		if(inicio == Datas.DATA_INVALIDA) {
+			return Resultado.falha(falhaData(dataInicial, "Erro ao consultar compras: data inicial"));
+		}
+		int fim = leData(dataFinal);
+		if(fim == Datas.DATA_INVALIDA) {
+			return Resultado.falha(falhaData(dataFinal, "Erro ao consultar compras: data final"));
+		}
+		if(inicio > fim) {
+			return Resultado.falha(Falha.invalido("Erro ao consultar compras: data inicial posterior a data final."));
+		}
+		synchronized(this.trava(cpf)) {
+			Conta conta = this.contas.getConta(cliente.getId(), credor.getId());
+			if(conta == null) {
+				return Resultado.falha(Falha.nulo("Erro ao consultar compras: cliente nao tem nenhuma conta com o fornecedor."));
+			}
+			return Resultado.sucesso(this.contas.escreveComprasPeriodo(conta, cliente.getNome(), inicio, fim, mensagem));
 		}
-		
-		return this.contas.get(cpf).imprimeConta(fornecedor, this.clientes.get(cpf).getNome());
 	}
 	
 	public String exibeContasAll(String cpf) {
+		return this.tentaExibeContasAll(cpf).getValorOuLanca();
+	}
+	
+	/**
+	 * Retorna o Resultado com todas as contas do cliente, ou com a falha que exibeContasAll() lançaria, sem
+	 * lançar exceções.
+	 * 
+	 * @param cpf String com o cpf do cliente
+	 * @return Resultado com as contas, ou com a falha
+	 */
+	public Resultado<String> tentaExibeContasAll(String cpf) {
+		StringBuilder mensagem = new StringBuilder();
+		return this.tentaEscreveContasAll(cpf, mensagem).mapeia(contas -> mensagem.toString());
+	}
+	
+	/**
+	 * Retorna o Resultado com a quantidade de contas escritas, ou com a falha que exibeContasAll() lançaria,
+	 * sem lançar exceções. Em caso de sucesso, as contas do cliente são escritas no StringBuilder passado
+	 * como parâmetro, no formato de exibeContasAll().
+	 * 
+	 * @param cpf String com o cpf do cliente
+	 * @param mensagem StringBuilder no qual as contas serão escritas
+	 * @return Resultado com a quantidade de contas escritas, ou com a falha
+	 */
+	public Resultado<Integer> tentaEscreveContasAll(String cpf, StringBuilder mensagem) {
+		if(cpf == null) {
+			return Resultado.falha(Falha.nulo("Erro ao exibir contas do cliente: cpf nao pode ser vazio ou nulo."));
+		}
+		if(cpf.trim().isEmpty()) {
+			return Resultado.falha(Falha.invalido("Erro ao exibir contas do cliente: cpf nao pode ser vazio ou nulo."));
+		}
+		if(cpf.length() != 11) {
+			return Resultado.falha(Falha.invalido("Erro ao exibir contas do cliente: cpf invalido."));
+		}
+		Cliente cliente = this.clientes.get(cpf);
+		if(cliente == null) {
+			return Resultado.falha(Falha.nulo("Erro ao exibir contas do cliente: cliente nao existe."));
+		}
+		if(!this.contas.possuiRegistro(cliente.getId())) {
+			return Resultado.falha(Falha.nulo("Erro ao exibir contas do cliente: cliente nao tem nenhuma conta."));
+		}
+		synchronized(this.trava(cpf)) {
+			return Resultado.sucesso(this.contas.escreveContasAll(cliente.getId(), cliente.getNome(), mensagem));
+		}
+	}
+	
+	/**
+	 * Retorna uma página das contas de um cliente, na mesma ordem de exibeContasAll(), começando logo depois
+	 * da conta com o fornecedor guardado no cursor. Cada item tem o formato
+	 * "NOME_FORNECEDOR | NOME_PRODUTO - dd-MM-yyyy | ...". As exceções para o cliente são as mesmas de
+	 * exibeContasAll(), e cursor ou limite inválidos lançam IllegalArgumentException.
+	 * 
+	 * @param cpf String com o cpf do cliente
+	 * @param cursor String com o cursor devolvido pela página anterior, ou null
+	 * @param limite int com a quantidade máxima de contas da página
+	 * @return Pagina com as contas e o cursor da próxima página
+	 */
+	public Pagina exibeContasClientePagina(String cpf, String cursor, int limite) {
 		if(cpf == null) {
 			throw new NullPointerException("Erro ao exibir contas do cliente: cpf nao pode ser vazio ou nulo.");
 		}
@@ -371,38 +1010,432 @@ public class ClientesController {
 		if(cpf.length() != 11) {
 			throw new IllegalArgumentException("Erro ao exibir contas do cliente: cpf invalido.");
 		}
-		if(this.clientes.get(cpf) == null) {
+		Cliente cliente = this.clientes.get(cpf);
+		if(cliente == null) {
 			throw new NullPointerException("Erro ao exibir contas do cliente: cliente nao existe.");
 		}
-		if(this.contas.get(cpf) == null) {
+		if(!this.contas.possuiRegistro(cliente.getId())) {
 			throw new NullPointerException("Erro ao exibir contas do cliente: cliente nao tem nenhuma conta.");
 		}
-		
-		return this.contas.get(cpf).imprimeContasAll(this.clientes.get(cpf).getNome());
+		synchronized(this.trava(cpf)) {
+			return this.contas.imprimeContasPagina(cliente.getId(), cursor, limite);
+		}
 	}
 	
 	public void realizaPagamento(String cpf, String fornecedor, FornecedorService fornecedorService) {
+		this.tentaRealizaPagamento(cpf, fornecedor, fornecedorService).getValorOuLanca();
+	}
+	
+	/**
+	 * Retorna o Resultado do pagamento da conta do cliente com o fornecedor, com a falha que realizaPagamento()
+	 * lançaria, sem lançar exceções.
+	 * 
+	 * @param cpf String com o cpf do cliente
+	 * @param fornecedor String com o nome do fornecedor
+	 * @param fornecedorService FornecedorService que dá acesso aos fornecedores
+	 * @return Resultado do pagamento
+	 */
+	public Resultado<Boolean> tentaRealizaPagamento(String cpf, String fornecedor, FornecedorService fornecedorService) {
 		if(cpf == null) {
-			throw new NullPointerException("Erro no pagamento de conta: cpf nao pode ser vazio ou nulo.");
+			return Resultado.falha(Falha.nulo("Erro no pagamento de conta: cpf nao pode ser vazio ou nulo."));
 		}
 		if(cpf.trim().isEmpty()) {
-			throw new IllegalArgumentException("Erro no pagamento de conta: cpf nao pode ser vazio ou nulo.");
+			return Resultado.falha(Falha.invalido("Erro no pagamento de conta: cpf nao pode ser vazio ou nulo."));
 		}
 		if(cpf.length() != 11) {
-			throw new IllegalArgumentException("Erro no pagamento de conta: cpf invalido.");
+			return Resultado.falha(Falha.invalido("Erro no pagamento de conta: cpf invalido."));
 		}
-		if(this.clientes.get(cpf) == null) {
-			throw new NullPointerException("Erro no pagamento de conta: cliente nao existe.");
+		Cliente devedor = this.clientes.get(cpf);
+		if(devedor == null) {
+			return Resultado.falha(Falha.nulo("Erro no pagamento de conta: cliente nao existe."));
 		}
 		if(fornecedor == null) {
-			throw new NullPointerException("Erro no pagamento de conta: fornecedor nao pode ser vazio ou nulo.");
+			return Resultado.falha(Falha.nulo("Erro no pagamento de conta: fornecedor nao pode ser vazio ou nulo."));
 		}
 		if(fornecedor.trim().isEmpty()) {
-			throw new IllegalArgumentException("Erro no pagamento de conta: fornecedor nao pode ser vazio ou nulo.");
+			return Resultado.falha(Falha.invalido("Erro no pagamento de conta: fornecedor nao pode ser vazio ou nulo."));
+		}
+		Fornecedor credor = fornecedorService.getFornecedor(fornecedor);
+		if(credor == null) {
+			return Resultado.falha(Falha.nulo("Erro no pagamento de conta: fornecedor nao existe."));
+		}
+		return this.quitaConta(devedor, credor);
+	}
+	
+	/**
+	 * Não possui retorno. Realiza o pagamento da conta do cliente com o fornecedor, a partir dos seus identificadores.
+	 * 
+	 * @param cliente int com o identificador do cliente
+	 * @param fornecedor int com o identificador do fornecedor
+	 * @param fornecedorService FornecedorService que dá acesso aos fornecedores
+	 */
+	public void realizaPagamento(int cliente, int fornecedor, FornecedorService fornecedorService) {
+		this.tentaRealizaPagamento(cliente, fornecedor, fornecedorService).getValorOuLanca();
+	}
+	
+	/**
+	 * Retorna o Resultado do pagamento da conta do cliente com o fornecedor, a partir dos seus identificadores,
+	 * com a falha que realizaPagamento() lançaria, sem lançar exceções.
+	 * 
+	 * @param cliente int com o identificador do cliente
+	 * @param fornecedor int com o identificador do fornecedor
+	 * @param fornecedorService FornecedorService que dá acesso aos fornecedores
+	 * @return Resultado do pagamento
+	 */
+	public Resultado<Boolean> tentaRealizaPagamento(int cliente, int fornecedor, FornecedorService fornecedorService) {
+		Cliente devedor = this.getCliente(cliente);
+		if(devedor == null) {
+			return Resultado.falha(Falha.nulo("Erro no pagamento de conta: cliente nao existe."));
 		}
-		if(!fornecedorService.existeFornecedor(fornecedor)) {
-			throw new NullPointerException("Erro no pagamento de conta: fornecedor nao existe.");
+		Fornecedor credor = fornecedorService.getFornecedor(fornecedor);
+		if(credor == null) {
+			return Resultado.falha(Falha.nulo("Erro no pagamento de conta: fornecedor nao existe."));
 		}
-		this.contas.get(cpf).realizaPagamento(fornecedor);
+		return this.quitaConta(devedor, credor);
+	}
+	
+	/**
+	 * Retorna o Resultado do pagamento, já validado, da conta do cliente com o fornecedor, sob a trava do cpf,
+	 * atualizando os devedores e os recebíveis do fornecedor. A conta paga é removida da tabela de contas.
+	 * 
+	 * @param devedor Cliente devedor
+	 * @param credor Fornecedor credor
+	 * @return Resultado do pagamento
+	 */
+	private Resultado<Boolean> quitaConta(Cliente devedor, Fornecedor credor) {
+		String cpf = devedor.getCpf();
+		synchronized(this.trava(cpf)) {
+			Conta conta = this.contas.removeConta(devedor.getId(), credor.getId());
+			if(conta == null) {
+				return Resultado.falha(Falha.invalido("Erro no pagamento de conta: nao ha debito do cliente associado a este fornecedor."));
+			}
+			long debito = conta.getDebito();
+			conta.realizaPagamento();
+			this.devedoresDe(credor.getNome()).remove(cpf);
+			this.acumulaRecebiveis(credor.getNome(), -debito);
+			return Resultado.verdadeiro();
+		}
+	}
+	
+	/**
+	 * Retorna o identificador do cliente com o cpf passado como parâmetro, a ser usado nas operações que
+	 * recebem identificadores em vez de cpfs. Lança NullPointerException ou IllegalArgumentException para
+	 * cpf nulo, vazio ou inválido, e NullPointerException caso o cliente não exista.
+	 * 
+	 * @param cpf String com o cpf do cliente
+	 * @return int com o identificador do cliente
+	 */
+	public int resolveCliente(String cpf) {
+		return this.tentaResolveCliente(cpf).getValorOuLanca();
+	}
+	
+	/**
+	 * Retorna o Resultado com o identificador do cliente, ou com a falha que resolveCliente() lançaria, sem
+	 * lançar exceções.
+	 * 
+	 * @param cpf String com o cpf do cliente
+	 * @return Resultado com o identificador do cliente, ou com a falha
+	 */
+	public Resultado<Integer> tentaResolveCliente(String cpf) {
+		if(cpf == null) {
+			return Resultado.falha(Falha.nulo("Erro ao resolver cliente: cpf nao pode ser vazio ou nulo."));
+		}
+		if(cpf.trim().isEmpty()) {
+			return Resultado.falha(Falha.invalido("Erro ao resolver cliente: cpf nao pode ser vazio ou nulo."));
+		}
+		if(cpf.length() != 11) {
+			return Resultado.falha(Falha.invalido("Erro ao resolver cliente: cpf invalido."));
+		}
+		Cliente cliente = this.clientes.get(cpf);
+		if(cliente == null) {
+			return Resultado.falha(Falha.nulo("Erro ao resolver cliente: cliente nao existe."));
+		}
+		return Resultado.sucesso(cliente.getId());
+	}
+	
+	/**
+	 * Retorna o cliente com o identificador passado como parâmetro, ou null caso não exista ou já tenha sido
+	 * removido. Indexa o registro e confere a identidade no mapa, cujo hash do cpf já está calculado.
+	 * 
+	 * @param id int com o identificador do cliente
+	 * @return Cliente com o identificador, ou null
+	 */
+	private Cliente getCliente(int id) {
+		Cliente cliente = this.registro.getCliente(id);
+		if(cliente == null || this.clientes.get(cliente.getCpf()) != cliente) {
+			return null;
+		}
+		return cliente;
+	}
+	
+	/**
+	 * Retorna o registro no qual os clientes e os produtos das contas estão registrados.
+	 * 
+	 * @return Registro do controlador
+	 */
+	public Registro getRegistro() {
+		return this.registro;
+	}
+	
+	/**
+	 * Retorna uma visão, apenas para leitura, de todos os clientes cadastrados, ordenados pelo nome.
+	 * 
+	 * @return Collection de Cliente com os clientes cadastrados
+	 */
+	public Collection<Cliente> getClientes() {
+		return Collections.unmodifiableCollection(this.clientesOrdenados);
+	}
+	
+	/**
+	 * Retorna os cpfs que possuem um registro de contas, mesmo que todas as contas já tenham sido pagas ou
+	 * que o cliente tenha sido removido: primeiro os dos clientes cadastrados, na ordem dos seus nomes, e
+	 * depois os dos clientes removidos.
+	 * 
+	 * @return Set de String com os cpfs
+	 */
+	public Set<String> getCpfsContas() {
+		Set<String> cpfs = new LinkedHashSet<String>();
+		for(Cliente cliente: this.clientesOrdenados) {
+			if(this.contas.possuiRegistro(cliente.getId())) {
+				cpfs.add(cliente.getCpf());
+			}
+		}
+		for(Map.Entry<String, Integer> id: this.idsPorCpf.entrySet()) {
+			if(this.contas.possuiRegistro(id.getValue())) {
+				cpfs.add(id.getKey());
+			}
+		}
+		return cpfs;
+	}
+	
+	/**
+	 * Retorna uma List com as contas do cpf passado como parâmetro, na ordem dos nomes dos fornecedores,
+	 * mesmo que o cliente tenha sido removido, ou null caso o cpf não possua um registro de contas.
+	 * 
+	 * @param cpf String com o cpf do cliente
+	 * @return List de Conta com as contas do cliente, ou null
+	 */
+	public List<Conta> getContas(String cpf) {
+		Integer id = this.idsPorCpf.get(cpf);
+		if(id == null || !this.contas.possuiRegistro(id)) {
+			return null;
+		}
+		synchronized(this.trava(cpf)) {
+			return this.contas.getContas(id);
+		}
+	}
+	
+	/**
+	 * Não possui retorno. Cria o registro de contas do cpf, caso não exista, e adiciona as contas já
+	 * montadas passadas como parâmetro, com o identificador do fornecedor definido, como ao restaurar um
+	 * snapshot. Uma lista vazia apenas cria o registro. Um cpf sem cliente cadastrado, de um cliente
+	 * removido, recebe um identificador reservado no registro.
+	 * 
+	 * @param cpf String com o cpf do cliente
+	 * @param contas List de Conta com as contas a serem adicionadas
+	 */
+	public void adicionaContas(String cpf, List<Conta> contas) {
+		int id;
+		synchronized(this.travaCadastro) {
+			Integer existente = this.idsPorCpf.get(cpf);
+			if(existente == null) {
+				existente = this.registro.reservaCliente();
+				this.idsPorCpf.put(cpf, existente);
+			}
+			id = existente;
+		}
+		synchronized(this.trava(cpf)) {
+			this.contas.registraCliente(id);
+			for(Conta conta: contas) {
+				this.contas.adicionaConta(id, conta);
+				this.devedoresDe(conta.getFornecedor()).add(cpf);
+				this.acumulaRecebiveis(conta.getFornecedor(), conta.getDebito());
+				if(this.devedoresPorProduto != null) {
+					for(int i=0; i<conta.getQuantidadeCompras(); i++) {
+						this.devedoresDoProduto(conta.getIdProdutoCompra(i)).add(cpf);
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Retorna booleano sobre o débito acumulado de todas as contas em aberto ser igual ao recálculo das suas
+	 * compras. Percorre todas as compras, e por isso é usado apenas depois de cargas em lote, como a
+	 * restauração do snapshot e a reprodução do diário, com as asserções habilitadas (-ea).
+	 * 
+	 * @return true caso todas as contas estejam consistentes, false caso contrário
+	 */
+	public boolean isDebitosConsistentes() {
+		for(Map.Entry<String, Integer> id: this.idsPorCpf.entrySet()) {
+			synchronized(this.trava(id.getKey())) {
+				for(Conta conta: this.contas.getContas(id.getValue())) {
+					if(!conta.isDebitoConsistente()) {
+						return false;
+					}
+				}
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Retorna o conjunto, no índice reverso, dos cpfs com conta em aberto com o fornecedor, criando-o caso não exista.
+	 * 
+	 * @param fornecedor String com o nome do fornecedor
+	 * @return Set de String com os cpfs
+	 */
+	private Set<String> devedoresDe(String fornecedor) {
+		Set<String> cpfs = this.devedores.get(fornecedor);
+		if(cpfs == null) {
+			cpfs = this.devedores.computeIfAbsent(fornecedor, f -> ConcurrentHashMap.newKeySet());
+		}
+		return cpfs;
+	}
+	
+	/**
+	 * Retorna uma cópia dos cpfs dos clientes com conta em aberto com o fornecedor passado como parâmetro.
+	 * O custo é proporcional à quantidade de clientes do fornecedor, e não à de clientes do sistema.
+	 * 
+	 * @param fornecedor String com o nome do fornecedor
+	 * @return Set de String com os cpfs dos devedores
+	 */
+	public Set<String> getCpfsDevedores(String fornecedor) {
+		Set<String> cpfs = this.devedores.get(fornecedor);
+		if(cpfs == null) {
+			return Collections.emptySet();
+		}
+		return new HashSet<String>(cpfs);
+	}
+	
+	/**
+	 * Retorna uma String com os clientes que possuem conta em aberto com o fornecedor, ordenados pelo nome, no
+	 * formato "NOME - CPF - DEBITO", separados por " | ". Clientes já removidos do sistema não são listados.
+	 * Lança NullPointerException ou IllegalArgumentException para fornecedor nulo ou vazio, e
+	 * NullPointerException caso o fornecedor não exista.
+	 * 
+	 * @param fornecedor String com o nome do fornecedor
+	 * @param fornecedorService FornecedorService que dá acesso aos fornecedores
+	 * @return String com os devedores do fornecedor
+	 */
+	public String exibeDevedores(String fornecedor, FornecedorService fornecedorService) {
+		StringBuilder mensagem = new StringBuilder();
+		this.escreveDevedores(fornecedor, fornecedorService, mensagem);
+		return mensagem.toString();
+	}
+	
+	/**
+	 * Retorna a quantidade de devedores escritos. Escreve os clientes que possuem conta em aberto com o
+	 * fornecedor no StringBuilder passado como parâmetro, no mesmo formato e com as mesmas exceções de
+	 * exibeDevedores().
+	 * 
+	 * @param fornecedor String com o nome do fornecedor
+	 * @param fornecedorService FornecedorService que dá acesso aos fornecedores
+	 * @param mensagem StringBuilder no qual os devedores serão escritos
+	 * @return int com a quantidade de devedores escritos
+	 */
+	public int escreveDevedores(String fornecedor, FornecedorService fornecedorService, StringBuilder mensagem) {
+		if(fornecedor == null) {
+			throw new NullPointerException("Erro ao exibir devedores: fornecedor nao pode ser vazio ou nulo.");
+		}
+		if(fornecedor.trim().isEmpty()) {
+			throw new IllegalArgumentException("Erro ao exibir devedores: fornecedor nao pode ser vazio ou nulo.");
+		}
+		Fornecedor credor = fornecedorService.getFornecedor(fornecedor);
+		if(credor == null) {
+			throw new NullPointerException("Erro ao exibir devedores: fornecedor nao existe.");
+		}
+		SortedMap<Cliente, Long> debitos = new TreeMap<Cliente, Long>(ORDEM_NOME);
+		for(String cpf: this.getCpfsDevedores(fornecedor)) {
+			Cliente cliente = this.clientes.get(cpf);
+			if(cliente == null) {
+				continue;
+			}
+			Conta conta = this.contas.getConta(cliente.getId(), credor.getId());
+			if(conta != null) {
+				synchronized(this.trava(cpf)) {
+					debitos.put(cliente, conta.getDebito());
+				}
+			}
+		}
+		
+		int itens = 0;
+		for(Map.Entry<Cliente, Long> debito: debitos.entrySet()) {
+			if(itens > 0) {
+				mensagem.append(" | ");
+			}
+			mensagem.append(debito.getKey().getNome()).append(" - ").append(debito.getKey().getCpf()).append(" - ").append(Dinheiro.formataDebito(debito.getValue()));
+			itens++;
+		}
+		return itens;
+	}
+	
+	/**
+	 * Não possui retorno. Remove as contas em aberto com o fornecedor passado como parâmetro, depois que ele
+	 * foi removido do sistema e marcado como removido. Percorre apenas os clientes do fornecedor, pelo índice
+	 * reverso. Antes de retirar o índice, passa por todas as travas de cpf: uma compra que ainda não viu a
+	 * marca de remoção a confere sob a trava do cpf, de modo que, ao fim da passagem, todas elas já abriram
+	 * suas contas e as seguintes são recusadas, sem deixar contas órfãs.
+	 * 
+	 * @param fornecedor String com o nome do fornecedor
+	 */
+	public void removeContasFornecedor(String fornecedor) {
+		for(Object trava: this.travas) {
+			synchronized(trava) {
+				//apenas espera as compras em andamento sob esta trava
+			}
+		}
+		Set<String> cpfs = this.devedores.remove(fornecedor);
+		if(cpfs == null) {
+			return;
+		}
+		for(String cpf: cpfs) {
+			synchronized(this.trava(cpf)) {
+				Integer id = this.idsPorCpf.get(cpf);
+				//o fornecedor já pode ter sido removido, então a conta é encontrada pelo nome na lista do cliente
+				Conta conta = id == null ? null : this.contas.getConta(id, fornecedor);
+				if(conta != null) {
+					this.contas.removeConta(id, conta.getIdFornecedor());
+					this.acumulaRecebiveis(fornecedor, -conta.getDebito());
+				}
+			}
+		}
+		this.recebiveis.remove(fornecedor);
+	}
+	
+	/**
+	 * Não possui retorno. Soma a variação de débito, em centavos, ao total a receber do fornecedor e ao total geral.
+	 * 
+	 * @param fornecedor String com o nome do fornecedor
+	 * @param variacao long com a variação, em centavos, negativa para pagamentos
+	 */
+	private void acumulaRecebiveis(String fornecedor, long variacao) {
+		LongAdder acumulador = this.recebiveis.get(fornecedor);
+		if(acumulador == null) {
+			acumulador = this.recebiveis.computeIfAbsent(fornecedor, f -> new LongAdder());
+		}
+		acumulador.add(variacao);
+		this.recebiveisTotal.add(variacao);
+	}
+	
+	/**
+	 * Retorna o total a receber do fornecedor, em centavos: a soma dos débitos das contas em aberto com ele.
+	 * Não percorre as contas; com compras em andamento, reflete as já concluídas.
+	 * 
+	 * @param fornecedor String com o nome do fornecedor
+	 * @return long com o total a receber, em centavos
+	 */
+	public long getRecebiveis(String fornecedor) {
+		LongAdder acumulador = this.recebiveis.get(fornecedor);
+		return acumulador == null ? 0 : acumulador.sum();
+	}
+	
+	/**
+	 * Retorna o total a receber de todos os fornecedores, em centavos.
+	 * 
+	 * @return long com o total a receber, em centavos
+	 */
+	public long getRecebiveisTotal() {
+		return this.recebiveisTotal.sum();
 	}
 }
@@ -1,150 +1,652 @@
 package saga.controllers;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Date;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.StampedLock;
 
-import saga.entities.Compra;
 import saga.entities.Conta;
-import saga.entities.Produto;
+import saga.services.Registro;
+import saga.util.Datas;
+import saga.util.Dinheiro;
+import saga.util.Pagina;
 
 
 /**
- * 
- * Classe responsável por gerênciar as contas de um Cliente: adicionar conta, adicionar compra, finalizar débito, etc.
- * 
+ *
+ * Classe responsável por gerênciar as contas de todos os clientes: abrir conta, adicionar compra, remover conta,
+ * listar as contas de um cliente, etc.
+ *
+ * As contas ficam em uma única tabela de endereçamento aberto (sondagem linear), indexada pela chave que
+ * combina, em um long, o identificador do cliente e o do fornecedor, em vez de um mapa de contas por cliente.
+ * Encontrar a conta de um par cliente-fornecedor é um cálculo de hash sobre a chave e, em geral, um único
+ * acesso ao array, sem hash de Strings nem objetos intermediários. As contas de cada cliente também formam
+ * uma lista encadeada pela própria Conta, na ordem dos nomes dos fornecedores, para as listagens.
+ *
+ * Consultas são leituras otimistas de um StampedLock, sem travar; inserções, remoções e o crescimento da
+ * tabela tomam a trava de escrita. A lista de contas de um cliente só é percorrida sob a trava do cliente no
+ * ClientesController, a mesma sob a qual as suas contas são abertas e removidas.
+ *
  * @author Guilherme de Melo carneiro
  *
  */
 public class ContasController {
-	
+
+	/**
+	 * Capacidade inicial da tabela. Deve ser uma potência de dois.
+	 */
+	private static final int CAPACIDADE_INICIAL = 64;
+
+	/**
+	 * Capacidade inicial do índice de clientes.
+	 */
+	private static final int CLIENTES_INICIAL = 16;
+
+	/**
+	 * Constante multiplicativa (razão áurea) que espalha os bits da chave antes de escolher a posição
+	 */
+	private static final long ESPALHAMENTO = 0x9E3779B97F4A7C15L;
+
+	/**
+	 * Chaves das contas de cada posição da tabela. Uma posição está ocupada quando a conta correspondente não é null.
+	 */
+	private long[] chaves;
+
+	/**
+	 * Contas de cada posição da tabela, ou null para posições livres
+	 */
+	private Conta[] contas;
+
+	/**
+	 * Quantidade de contas na tabela
+	 */
+	private int quantidade;
+
+	/**
+	 * Primeira conta de cada cliente, na ordem dos nomes dos fornecedores, indexada pelo identificador do cliente
+	 */
+	private Conta[] primeiras;
+
 	/**
-	 * HashMap contendo as contas de um Cliente, onde chave é nome do fornecedor e objeto é a Conta dele para o cliente
+	 * Indica, para cada identificador de cliente, se o cliente possui um registro de contas: se já fez alguma
+	 * compra, mesmo que todas as contas já tenham sido pagas.
 	 */
-	private Map<String, Conta> contas;
-	
+	private boolean[] registrados;
+
 	/**
-	 * Constrói um gerenciador de Contas
+	 * Trava da tabela: leituras otimistas para consultas e trava de escrita para alterações
+	 */
+	private final StampedLock trava;
+
+	/**
+	 * Registro dos produtos comprados, compartilhado pelas contas criadas
+	 */
+	private Registro registro;
+
+	/**
+	 * Constrói um gerenciador de Contas com um registro de produtos próprio
 	 */
 	public ContasController() {
-		this.contas = new HashMap<String, Conta>();
+		this(new Registro());
+	}
+
+	/**
+	 * Constrói um gerenciador de Contas cujas contas resolvem os produtos comprados no registro passado como parâmetro
+	 *
+	 * @param registro Registro dos produtos comprados
+	 */
+	public ContasController(Registro registro) {
+		this.chaves = new long[CAPACIDADE_INICIAL];
+		this.contas = new Conta[CAPACIDADE_INICIAL];
+		this.primeiras = new Conta[CLIENTES_INICIAL];
+		this.registrados = new boolean[CLIENTES_INICIAL];
+		this.trava = new StampedLock();
+		this.registro = registro;
 	}
-	
+
+	/**
+	 * Retorna a chave da conta do cliente com o fornecedor: o identificador do cliente nos 32 bits mais altos
+	 * e o do fornecedor nos 32 mais baixos.
+	 *
+	 * @param cliente int com o identificador do cliente
+	 * @param fornecedor int com o identificador do fornecedor
+	 * @return long com a chave da conta
+	 */
+	static long chave(int cliente, int fornecedor) {
+		return ((long) cliente << 32) | (fornecedor & 0xFFFFFFFFL);
+	}
+
 	/**
-	 * Não possui retorno. Adiciona uma compra de um cliente ao sistema. Uma compra é composta por 
-	 * um produto, uma data de compra, um fornecedor que possui o produto e o cliente que o comprou.
-	 * 
+	 * Retorna a posição ideal da chave em uma tabela com a máscara passada como parâmetro.
+	 *
+	 * @param chave long com a chave da conta
+	 * @param mascara int com a capacidade da tabela menos um
+	 * @return int com a posição ideal
+	 */
+	private static int posicao(long chave, int mascara) {
+		long hash = chave * ESPALHAMENTO;
+		return (int) (hash ^ (hash >>> 32)) & mascara;
+	}
+
+	/**
+	 * Retorna a conta do cliente com o fornecedor, ou null caso não exista. Não trava: lê a tabela de forma
+	 * otimista e repete a leitura sob a trava de leitura apenas se uma alteração ocorreu no meio.
+	 *
+	 * @param cliente int com o identificador do cliente
+	 * @param fornecedor int com o identificador do fornecedor
+	 * @return Conta do cliente com o fornecedor, ou null
+	 */
+	public Conta getConta(int cliente, int fornecedor) {
+		long chave = chave(cliente, fornecedor);
+		long selo = this.trava.tryOptimisticRead();
+		Conta conta = this.procura(chave);
+		if(!this.trava.validate(selo)) {
+			selo = this.trava.readLock();
+			try {
+				conta = this.procura(chave);
+			}finally {
+				this.trava.unlockRead(selo);
+			}
+		}
+		return conta;
+	}
+
+	/**
+	 * Retorna a conta com a chave passada como parâmetro, ou null caso não exista. Percorre no máximo uma
+	 * volta na tabela, de modo que uma leitura otimista feita durante uma alteração termine, ainda que com um
+	 * resultado a ser descartado.
+	 *
+	 * @param chave long com a chave da conta
+	 * @return Conta com a chave, ou null
+	 */
+	private Conta procura(long chave) {
+		long[] chaves = this.chaves;
+		Conta[] contas = this.contas;
+		if(chaves.length != contas.length) {
+			return null;
+		}
+		int mascara = contas.length - 1;
+		int i = posicao(chave, mascara);
+		for(int sondagens=0; sondagens<contas.length; sondagens++) {
+			Conta conta = contas[i];
+			if(conta == null) {
+				return null;
+			}
+			if(chaves[i] == chave) {
+				return conta;
+			}
+			i = (i + 1) & mascara;
+		}
+		return null;
+	}
+
+	/**
+	 * Retorna a conta aberta, vazia, do cliente com o fornecedor, para a primeira compra do cliente com ele.
+	 * Deve ser chamado sob a trava do cliente, depois de getConta() não encontrar a conta.
+	 *
+	 * @param cliente int com o identificador do cliente
 	 * @param cpf String contendo o cpf do cliente
-	 * @param fornecedor String contendo o nome do fornecedor
-	 * @param data Date contendo a data de compra do produto
-	 * @param produto Produto do Fornecedor que foi comprado pelo Cliente
+	 * @param fornecedor int com o identificador do fornecedor
+	 * @param nomeFornecedor String contendo o nome do fornecedor
+	 * @return Conta aberta
 	 */
-	public void adicionaCompra(String cpf, String fornecedor, Date data, Produto produto) {
-		if(this.contas.containsKey(fornecedor)) {
-			this.contas.get(fornecedor).adicionaCompra(new Compra(data, produto));
+	public Conta abreConta(int cliente, String cpf, int fornecedor, String nomeFornecedor) {
+		Conta conta = new Conta(cpf, nomeFornecedor, this.registro);
+		conta.setIdFornecedor(fornecedor);
+		this.adicionaConta(cliente, conta);
+		return conta;
+	}
+
+	/**
+	 * Não possui retorno. Adiciona uma conta já montada, com o identificador do fornecedor definido, à tabela e
+	 * à lista do cliente, na posição do nome do fornecedor, como ao restaurar um snapshot, e marca o registro de
+	 * contas do cliente. Substitui uma conta existente com o mesmo fornecedor. Deve ser chamado sob a trava do cliente.
+	 *
+	 * @param cliente int com o identificador do cliente
+	 * @param conta Conta a ser adicionada
+	 */
+	public void adicionaConta(int cliente, Conta conta) {
+		int fornecedor = conta.getIdFornecedor();
+		long selo = this.trava.writeLock();
+		try {
+			this.remove(cliente, fornecedor);
+			if((this.quantidade + 1) * 2 > this.contas.length) {
+				this.redimensiona(this.contas.length * 2);
+			}
+			long chave = chave(cliente, fornecedor);
+			int mascara = this.contas.length - 1;
+			int i = posicao(chave, mascara);
+			while(this.contas[i] != null) {
+				i = (i + 1) & mascara;
+			}
+			this.chaves[i] = chave;
+			this.contas[i] = conta;
+			this.quantidade++;
+			this.registra(cliente);
+			this.encadeia(cliente, conta);
+		}finally {
+			this.trava.unlockWrite(selo);
+		}
+	}
+
+	/**
+	 * Não possui retorno. Cria o registro de contas do cliente, caso não exista, sem abrir contas, como ao
+	 * restaurar um snapshot de um cliente cujas contas já foram todas pagas.
+	 *
+	 * @param cliente int com o identificador do cliente
+	 */
+	public void registraCliente(int cliente) {
+		long selo = this.trava.writeLock();
+		try {
+			this.registra(cliente);
+		}finally {
+			this.trava.unlockWrite(selo);
+		}
+	}
+
+	/**
+	 * Não possui retorno. Marca o registro de contas do cliente, aumentando o índice de clientes caso
+	 * necessário. Deve ser chamado sob a trava de escrita.
+	 *
+	 * @param cliente int com o identificador do cliente
+	 */
+	private void registra(int cliente) {
+		if(cliente >= this.registrados.length) {
+			int capacidade = Math.max(cliente + 1, this.registrados.length * 2);
+			this.primeiras = Arrays.copyOf(this.primeiras, capacidade);
+			this.registrados = Arrays.copyOf(this.registrados, capacidade);
+		}
+		this.registrados[cliente] = true;
+	}
+
+	/**
+	 * Não possui retorno. Insere a conta na lista do cliente, antes da primeira conta cujo fornecedor vem
+	 * depois na ordem dos nomes.
+	 *
+	 * @param cliente int com o identificador do cliente
+	 * @param conta Conta a ser inserida
+	 */
+	private void encadeia(int cliente, Conta conta) {
+		Conta anterior = null;
+		Conta atual = this.primeiras[cliente];
+		while(atual != null && atual.getFornecedor().compareTo(conta.getFornecedor()) < 0) {
+			anterior = atual;
+			atual = atual.getProxima();
+		}
+		conta.setProxima(atual);
+		if(anterior == null) {
+			this.primeiras[cliente] = conta;
 		}else {
-			this.contas.put(fornecedor, new Conta(cpf, fornecedor));
-			this.contas.get(fornecedor).adicionaCompra(new Compra(data, produto));
+			anterior.setProxima(conta);
 		}
 	}
-	
+
 	/**
-	 * Retorna um double com o valor do débito que o cliente deve a um determinado fornecedor. Lança Exceptions
-	 * para quando não existir uma Conta no sistema, quando não existir tal fornecedor.
-	 * 
-	 * @param fornecedor String contendo o nome do fornecedor
-	 * @return double com o valor do débito que o cliente deve
+	 * Retorna a conta do cliente com o fornecedor, removendo-a da tabela e da lista do cliente sem registrar
+	 * pagamento, ou null caso não exista, como quando o fornecedor é removido do sistema. Deve ser chamado sob
+	 * a trava do cliente.
+	 *
+	 * @param cliente int com o identificador do cliente
+	 * @param fornecedor int com o identificador do fornecedor
+	 * @return Conta removida, ou null
 	 */
-	public double getDebitoFornecedor(String fornecedor) {
-		if(!this.contas.containsKey(fornecedor)) {
-			throw new NullPointerException("Erro ao recuperar debito: cliente nao tem debito com fornecedor.");
+	public Conta removeConta(int cliente, int fornecedor) {
+		long selo = this.trava.writeLock();
+		try {
+			return this.remove(cliente, fornecedor);
+		}finally {
+			this.trava.unlockWrite(selo);
 		}
-		if(this.contas.get(fornecedor).isQuitado()) {
-			throw new IllegalArgumentException("Erro ao recuperar debito: cliente nao tem debito com fornecedor.");
+	}
+
+	/**
+	 * Retorna a conta removida, ou null. Remove a conta da tabela por deslocamento para trás: as contas
+	 * seguintes da mesma sequência de sondagem voltam para a posição liberada, sem marcas de remoção. Deve
+	 * ser chamado sob a trava de escrita.
+	 *
+	 * @param cliente int com o identificador do cliente
+	 * @param fornecedor int com o identificador do fornecedor
+	 * @return Conta removida, ou null
+	 */
+	private Conta remove(int cliente, int fornecedor) {
+		long chave = chave(cliente, fornecedor);
+		int mascara = this.contas.length - 1;
+		int i = posicao(chave, mascara);
+		while(this.contas[i] != null && this.chaves[i] != chave) {
+			i = (i + 1) & mascara;
+		}
+		Conta conta = this.contas[i];
+		if(conta == null) {
+			return null;
+		}
+		this.contas[i] = null;
+		this.quantidade--;
+		int j = i;
+		while(true) {
+			j = (j + 1) & mascara;
+			if(this.contas[j] == null) {
+				break;
+			}
+			int ideal = posicao(this.chaves[j], mascara);
+			//a conta em j pode ocupar i se i estiver entre a sua posição ideal e j
+			if(((j - ideal) & mascara) >= ((j - i) & mascara)) {
+				this.chaves[i] = this.chaves[j];
+				this.contas[i] = this.contas[j];
+				this.contas[j] = null;
+				i = j;
+			}
+		}
+		this.desencadeia(cliente, conta);
+		return conta;
+	}
+
+	/**
+	 * Não possui retorno. Retira a conta da lista do cliente.
+	 *
+	 * @param cliente int com o identificador do cliente
+	 * @param conta Conta a ser retirada
+	 */
+	private void desencadeia(int cliente, Conta conta) {
+		Conta anterior = null;
+		Conta atual = this.primeiras[cliente];
+		while(atual != null && atual != conta) {
+			anterior = atual;
+			atual = atual.getProxima();
+		}
+		if(atual == null) {
+			return;
+		}
+		if(anterior == null) {
+			this.primeiras[cliente] = conta.getProxima();
+		}else {
+			anterior.setProxima(conta.getProxima());
+		}
+		conta.setProxima(null);
+	}
+
+	/**
+	 * Não possui retorno. Aumenta a capacidade da tabela, reinserindo as contas. Deve ser chamado sob a trava de escrita.
+	 *
+	 * @param capacidade int com a nova capacidade, potência de dois
+	 */
+	private void redimensiona(int capacidade) {
+		long[] chaves = new long[capacidade];
+		Conta[] contas = new Conta[capacidade];
+		int mascara = capacidade - 1;
+		for(int k=0; k<this.contas.length; k++) {
+			if(this.contas[k] != null) {
+				int i = posicao(this.chaves[k], mascara);
+				while(contas[i] != null) {
+					i = (i + 1) & mascara;
+				}
+				chaves[i] = this.chaves[k];
+				contas[i] = this.contas[k];
+			}
+		}
+		this.chaves = chaves;
+		this.contas = contas;
+	}
+
+	/**
+	 * Retorna booleano sobre o cliente possuir um registro de contas: se já fez alguma compra, mesmo que todas as
+	 * contas já tenham sido pagas.
+	 *
+	 * @param cliente int com o identificador do cliente
+	 * @return true caso o cliente possua um registro de contas, false caso contrário
+	 */
+	public boolean possuiRegistro(int cliente) {
+		long selo = this.trava.readLock();
+		try {
+			return cliente < this.registrados.length && this.registrados[cliente];
+		}finally {
+			this.trava.unlockRead(selo);
+		}
+	}
+
+	/**
+	 * Retorna a primeira conta do cliente, na ordem dos nomes dos fornecedores, ou null caso não haja contas.
+	 * As seguintes são obtidas por Conta.getProxima(). Deve ser chamado sob a trava do cliente.
+	 *
+	 * @param cliente int com o identificador do cliente
+	 * @return Conta primeira conta do cliente, ou null
+	 */
+	public Conta getPrimeiraConta(int cliente) {
+		long selo = this.trava.readLock();
+		try {
+			return cliente < this.primeiras.length ? this.primeiras[cliente] : null;
+		}finally {
+			this.trava.unlockRead(selo);
+		}
+	}
+
+	/**
+	 * Retorna a conta do cliente com o fornecedor de nome passado como parâmetro, ou null caso não exista,
+	 * percorrendo a lista do cliente até o nome, como quando o fornecedor já foi removido do sistema e não
+	 * possui mais identificador. Deve ser chamado sob a trava do cliente.
+	 *
+	 * @param cliente int com o identificador do cliente
+	 * @param fornecedor String com o nome do fornecedor
+	 * @return Conta do cliente com o fornecedor, ou null
+	 */
+	public Conta getConta(int cliente, String fornecedor) {
+		for(Conta conta: this.contasDe(cliente)) {
+			int comparacao = conta.getFornecedor().compareTo(fornecedor);
+			if(comparacao == 0) {
+				return conta;
+			}
+			if(comparacao > 0) {
+				break;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Retorna a quantidade de contas em aberto na tabela, de todos os clientes.
+	 *
+	 * @return int com a quantidade de contas
+	 */
+	public int getQuantidadeContas() {
+		long selo = this.trava.readLock();
+		try {
+			return this.quantidade;
+		}finally {
+			this.trava.unlockRead(selo);
 		}
-		return this.contas.get(fornecedor).getDebito();
 	}
-	
+
 	/**
-	 * Não possui retorno. Realiza o pagamento da conta de um cliente para com o fornecedor passado como parâmetro.
-	 * Lança Exception para quando o cliente não possui conta para com o fornecedor passado como parâmetro. Uma vez
-	 * que o cliente realizou o pagamento do débito, a conta respectiva àquele fornecedor é removida do sistema.
-	 * 
-	 * @param fornecedor String contendo o nome do fornecedor nominal à conta do cliente
+	 * Retorna um long com o débito, em centavos, da conta do cliente com o fornecedor, ou zero caso não haja conta.
+	 *
+	 * @param cliente int com o identificador do cliente
+	 * @param fornecedor int com o identificador do fornecedor
+	 * @return long com o débito, em centavos
 	 */
-	public void realizaPagamento(String fornecedor) {
-		if(!this.existeContaFornecedor(fornecedor)) {
-			throw new IllegalArgumentException("Erro no pagamento de conta: nao ha debito do cliente associado a este fornecedor.");
+	public long getDebitoConta(int cliente, int fornecedor) {
+		Conta conta = this.getConta(cliente, fornecedor);
+		return conta == null ? 0 : conta.getDebito();
+	}
+
+	/**
+	 * Retorna uma List com todas as contas do cliente, na ordem dos nomes dos fornecedores. Deve ser chamado sob a
+	 * trava do cliente.
+	 *
+	 * @param cliente int com o identificador do cliente
+	 * @return List de Conta com as contas do cliente
+	 */
+	public List<Conta> getContas(int cliente) {
+		List<Conta> contas = new ArrayList<Conta>();
+		for(Conta conta: this.contasDe(cliente)) {
+			contas.add(conta);
 		}
-		this.contas.get(fornecedor).realizaPagamento();
-		this.contas.remove(fornecedor);
+		return contas;
 	}
-	
+
 	/**
-	 * Retorna booleano sobre a existência de contas pertencentes a um cliente. Retorna true para quando houver pelo menos
-	 * uma conta existente para o cliente, falso caso contrário.
-	 * 
-	 * @return true para pelo menos uma conta pendente no sistema, false caso contrário
+	 * Retorna um Iterable que percorre a lista de contas do cliente, na ordem dos nomes dos fornecedores.
+	 *
+	 * @param cliente int com o identificador do cliente
+	 * @return Iterable de Conta com as contas do cliente
 	 */
-	public boolean existeContas() {
-		return this.contas.values().isEmpty();
+	private Iterable<Conta> contasDe(int cliente) {
+		return percorre(this.getPrimeiraConta(cliente));
 	}
-	
+
 	/**
-	 * Retorna booleano sobre a existência de uma conta pertencente ao cliente respectivo a um fornecedor específico. Retorna
-	 * true para quando houver pedência do cliente para com tal fornecedor, false caso contrário.
-	 * 
-	 * @param fornecedor String contendo o nome do fornecedor
-	 * @return true para existência de pendência do Cliente para com o fornecedor, false caso contrário
+	 * Retorna um Iterable que percorre a lista de contas a partir da conta passada como parâmetro.
+	 *
+	 * @param primeira Conta a partir da qual a lista é percorrida, ou null para uma lista vazia
+	 * @return Iterable de Conta com as contas seguintes, inclusive a primeira
 	 */
-	public boolean existeContaFornecedor(String fornecedor) {
-		return this.contas.containsKey(fornecedor);
+	private static Iterable<Conta> percorre(Conta primeira) {
+		return () -> new Iterator<Conta>() {
+			private Conta proxima = primeira;
+
+			@Override
+			public boolean hasNext() {
+				return this.proxima != null;
+			}
+
+			@Override
+			public Conta next() {
+				if(this.proxima == null) {
+					throw new NoSuchElementException();
+				}
+				Conta conta = this.proxima;
+				this.proxima = conta.getProxima();
+				return conta;
+			}
+		};
 	}
-	
-	
+
 	/**
 	 * Retorna String contendo informações sobre a conta pendente de um cliente para com um fornecedor.
-	 * 
-	 * @param fornecedor String contendo o nome do fornecedor
+	 *
+	 * @param conta Conta do cliente com o fornecedor
 	 * @param nome String contendo o nome do cliente
 	 * @return String contendo informações sobre a conta cliente-fornecedor
 	 */
-	public String imprimeConta(String fornecedor, String nome) {
-		String mensagem = "Cliente: " + nome +" | " + fornecedor + " | ";
-		
-		for(Compra compra: this.contas.get(fornecedor).getCompras()) {
-			mensagem += compra.getProduto().getNome() + " - " + new SimpleDateFormat("dd-MM-yyyy").format(compra.getData()) + " | ";
-		}
-		
-		mensagem = mensagem.substring(0, mensagem.length()-3);
-		
-		return mensagem;
+	public String imprimeConta(Conta conta, String nome) {
+		StringBuilder mensagem = new StringBuilder();
+		mensagem.append("Cliente: ").append(nome).append(" | ").append(conta.getFornecedor());
+		this.escreveCompras(conta, mensagem);
+		return mensagem.toString();
 	}
-	
+
 	/**
-	 * Retorna String contendo informações sobre todas as contas que um cliente possui para com vários fornecedores.
-	 * 
+	 * Retorna a quantidade de compras escritas. Escreve no StringBuilder as compras pendentes da conta feitas
+	 * entre as datas passadas como parâmetro, inclusive, seguidas do subtotal, no formato de imprimeConta()
+	 * acrescido de " | Subtotal: DEBITO". As posições do período são obtidas por busca binária na coluna de
+	 * datas da conta.
+	 *
+	 * @param conta Conta do cliente com o fornecedor
+	 * @param nome String contendo o nome do cliente
+	 * @param inicio int com a data inicial, como dia epoch
+	 * @param fim int com a data final, como dia epoch
+	 * @param mensagem StringBuilder no qual as compras serão escritas
+	 * @return int com a quantidade de compras escritas
+	 */
+	public int escreveComprasPeriodo(Conta conta, String nome, int inicio, int fim, StringBuilder mensagem) {
+		int primeira = conta.primeiraCompraDesde(inicio);
+		int ultima = conta.primeiraCompraApos(fim);
+		mensagem.append("Cliente: ").append(nome).append(" | ").append(conta.getFornecedor());
+		int compras = this.escreveCompras(conta, primeira, ultima, mensagem);
+		mensagem.append(" | Subtotal: ").append(Dinheiro.formataDebito(conta.getSubtotal(primeira, ultima)));
+		return compras;
+	}
+
+	/**
+	 * Retorna String contendo informações sobre todas as contas que um cliente possui para com vários fornecedores,
+	 * percorrendo a lista de contas do cliente. Deve ser chamado sob a trava do cliente.
+	 *
+	 * @param cliente int com o identificador do cliente
 	 * @param nome String contendo o nome do cliente
 	 * @return String contendo informações sobre todas as contas que um cliente possui
 	 */
-	public String imprimeContasAll(String nome) {
-		
-		String mensagem = "Cliente: " + nome +" | ";
-		List<String> nomesFornecedores = new ArrayList<String>(this.contas.keySet());
-		Collections.sort(nomesFornecedores);
-		
-		for(String name: nomesFornecedores) {
-			mensagem += this.contas.get(name).getFornecedor() + " | ";
-			for(Compra compra: this.contas.get(name).getCompras()) {
-				mensagem += compra.getProduto().getNome() + " - " + new SimpleDateFormat("dd-MM-yyyy").format(compra.getData()) + " | ";
+	public String imprimeContasAll(int cliente, String nome) {
+		StringBuilder mensagem = new StringBuilder();
+		this.escreveContasAll(cliente, nome, mensagem);
+		return mensagem.toString();
+	}
+
+	/**
+	 * Retorna a quantidade de contas escritas. Escreve todas as contas do cliente no StringBuilder passado
+	 * como parâmetro, no formato de imprimeContasAll(). Deve ser chamado sob a trava do cliente.
+	 *
+	 * @param cliente int com o identificador do cliente
+	 * @param nome String contendo o nome do cliente
+	 * @param mensagem StringBuilder no qual as contas serão escritas
+	 * @return int com a quantidade de contas escritas
+	 */
+	public int escreveContasAll(int cliente, String nome, StringBuilder mensagem) {
+		mensagem.append("Cliente: ").append(nome);
+		int contas = 0;
+		for(Conta conta: this.contasDe(cliente)) {
+			mensagem.append(" | ").append(conta.getFornecedor());
+			this.escreveCompras(conta, mensagem);
+			contas++;
+		}
+		return contas;
+	}
+
+	/**
+	 * Retorna uma página das contas do cliente, na mesma ordem de imprimeContasAll(), começando logo depois
+	 * da conta com o fornecedor guardado no cursor. Cada item tem o formato
+	 * "NOME_FORNECEDOR | NOME_PRODUTO - dd-MM-yyyy | ...". Caso o cursor seja null, a página começa pela
+	 * primeira conta. Lança IllegalArgumentException para cursor ou limite inválidos. Deve ser chamado sob a
+	 * trava do cliente.
+	 *
+	 * @param cliente int com o identificador do cliente
+	 * @param cursor String com o cursor devolvido pela página anterior, ou null
+	 * @param limite int com a quantidade máxima de contas da página
+	 * @return Pagina com as contas e o cursor da próxima página
+	 */
+	public Pagina imprimeContasPagina(int cliente, String cursor, int limite) {
+		Pagina.validaLimite(limite);
+		Conta primeira = this.getPrimeiraConta(cliente);
+		if(cursor != null) {
+			String ultimo = Pagina.partes(cursor, 1)[0];
+			while(primeira != null && primeira.getFornecedor().compareTo(ultimo) <= 0) {
+				primeira = primeira.getProxima();
 			}
 		}
-		mensagem = mensagem.substring(0, mensagem.length()-3);
-		return mensagem;
+		return Pagina.de(percorre(primeira), limite, conta -> {
+			StringBuilder item = new StringBuilder(conta.getFornecedor());
+			this.escreveCompras(conta, item);
+			return item.toString();
+		}, conta -> Pagina.cursor(conta.getFornecedor()));
+	}
+
+	/**
+	 * Não possui retorno. Escreve as compras pendentes de uma conta, cada uma precedida de " | ", no formato
+	 * "NOME_PRODUTO - dd-MM-yyyy", percorrendo diretamente as colunas da conta.
+	 *
+	 * @param conta Conta cujas compras serão escritas
+	 * @param mensagem StringBuilder no qual as compras serão escritas
+	 */
+	private void escreveCompras(Conta conta, StringBuilder mensagem) {
+		this.escreveCompras(conta, 0, conta.getQuantidadeCompras(), mensagem);
+	}
+
+	/**
+	 * Retorna a quantidade de compras escritas. Escreve as compras pendentes da conta entre as posições
+	 * passadas como parâmetro, no formato de escreveCompras().
+	 *
+	 * @param conta Conta cujas compras serão escritas
+	 * @param inicio int com a posição da primeira compra, inclusive
+	 * @param fim int com a posição final, exclusive
+	 * @param mensagem StringBuilder no qual as compras serão escritas
+	 * @return int com a quantidade de compras escritas
+	 */
+	private int escreveCompras(Conta conta, int inicio, int fim, StringBuilder mensagem) {
+		int compras = 0;
+		for(int i=inicio; i<fim; i++) {
+			mensagem.append(" | ").append(conta.getProdutoCompra(i).getNome()).append(" - ").append(Datas.formata(conta.getDataCompra(i)));
+			compras++;
+		}
+		return compras;
 	}
 
 }
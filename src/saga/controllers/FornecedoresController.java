@@ -1,17 +1,34 @@
 package saga.controllers;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
 
+import saga.entities.Combo;
 import saga.entities.Fornecedor;
+import saga.entities.Produto;
+import saga.services.IndiceBusca;
+import saga.services.Registro;
+import saga.util.Falha;
+import saga.util.Pagina;
+import saga.util.Resultado;
 
 /**
  * Essa classe gerencia fornecedores: cadastra, edita, retorna e remove fornecedores. Representa
  * um controlador de fornecedores.
  * 
+ * Pode ser usada por várias threads ao mesmo tempo. Consultas ao catálogo não usam travas; cadastro e remoção
+ * de fornecedores são serializados entre si, e alterações nos produtos travam apenas o fornecedor alterado.
+ * 
  * @author Guilherme de Melo Carneiro
  *
  */
@@ -23,10 +40,66 @@ public class FornecedoresController {
 	private Map<String, Fornecedor> fornecedores;
 	
 	/**
-	 * Constroi um controlador de fornecedores.
+	 * Índice secundário dos fornecedores cadastrados, ordenado alfabeticamente pelo nome. É atualizado
+	 * a cada cadastro e remoção, de modo que as listagens sejam apenas um percurso em ordem.
+	 */
+	private NavigableSet<Fornecedor> fornecedoresOrdenados;
+	
+	/**
+	 * Trava que serializa o cadastro e a remoção de fornecedores, mantendo o índice ordenado consistente.
+	 */
+	private final Object travaCadastro;
+	
+	/**
+	 * Registro que atribui os identificadores dos fornecedores e dos seus produtos
+	 */
+	private Registro registro;
+	
+	/**
+	 * Geração do catálogo, incrementada depois de cada remoção de fornecedor ou produto e de cada edição de
+	 * preço, para que caches de consulta descartem as entradas anteriores.
+	 */
+	private final AtomicLong geracaoCatalogo;
+	
+	/**
+	 * Índice de busca sobre os nomes e descrições dos produtos de todos os fornecedores
+	 */
+	private IndiceBusca indiceBusca;
+	
+	/**
+	 * Comparador usado pelo índice ordenado: ordem alfabética do nome, ignorando maiúsculas e minúsculas,
+	 * e desempate pelo nome exato, já que "marcos" e "Marcos" são fornecedores distintos.
+	 */
+	private static final Comparator<Fornecedor> ORDEM_NOME = new Comparator<Fornecedor>() {
+		@Override
+		public int compare(Fornecedor f1, Fornecedor f2) {
+			int comparacao = f1.compareTo(f2);
+			if(comparacao != 0) {
+				return comparacao;
+			}
+			return f1.getNome().compareTo(f2.getNome());
+		}
+	};
+	
+	/**
+	 * Constroi um controlador de fornecedores com um registro próprio.
 	 */
 	public FornecedoresController() {
-		this.fornecedores = new HashMap<String, Fornecedor>();
+		this(new Registro());
+	}
+	
+	/**
+	 * Constroi um controlador de fornecedores que registra fornecedores e produtos no registro passado como parâmetro.
+	 * 
+	 * @param registro Registro do sistema
+	 */
+	public FornecedoresController(Registro registro) {
+		this.registro = registro;
+		this.geracaoCatalogo = new AtomicLong();
+		this.indiceBusca = new IndiceBusca();
+		this.fornecedores = new ConcurrentHashMap<String, Fornecedor>();
+		this.fornecedoresOrdenados = new ConcurrentSkipListSet<Fornecedor>(ORDEM_NOME);
+		this.travaCadastro = new Object();
 	}
 	
 	/**
@@ -35,7 +108,7 @@ public class FornecedoresController {
 	 * @return
 	 */
 	public boolean existeFornecedor(String fornecedor) {
-		return this.fornecedores.containsKey(fornecedor);
+		return fornecedor != null && this.fornecedores.containsKey(fornecedor);
 	}
 	
 	/**
@@ -51,11 +124,16 @@ public class FornecedoresController {
 	 * @return String contendo o nome do fornecedor cadastrado
 	 */
 	public String cadastraFornecedor(String nome, String email, String telefone) {
-		if(this.fornecedores.containsKey(nome)) {
-			throw new IllegalArgumentException("Erro no cadastro de fornecedor: fornecedor ja existe.");
+		synchronized(this.travaCadastro) {
+			if(nome != null && this.fornecedores.containsKey(nome)) {
+				throw new IllegalArgumentException("Erro no cadastro de fornecedor: fornecedor ja existe.");
+			}
+			Fornecedor fornecedor = new Fornecedor(nome, email, telefone, this.registro);
+			this.registro.registraFornecedor(fornecedor);
+			this.fornecedores.put(nome, fornecedor);
+			this.fornecedoresOrdenados.add(fornecedor);
+			return nome;
 		}
-		this.fornecedores.put(nome, new Fornecedor(nome, email, telefone));
-		return nome;
 	}
 	
 	/**
@@ -73,10 +151,11 @@ public class FornecedoresController {
 		if(nome.trim().isEmpty()) {
 			throw new IllegalArgumentException("Erro na edicao do fornecedor: nome nao pode ser vazio ou nulo.");
 		}
-		if(!this.fornecedores.containsKey(nome)) {
+		Fornecedor fornecedor = this.fornecedores.get(nome);
+		if(fornecedor == null) {
 			return false;
 		}
-		this.fornecedores.get(nome).setEmail(emailNovo);
+		fornecedor.setEmail(emailNovo);
 		return true;
 	}
 	
@@ -95,10 +174,11 @@ public class FornecedoresController {
 		if(nome.trim().isEmpty()) {
 			throw new IllegalArgumentException("Erro na edicao do fornecedor: nome nao pode ser vazio ou nulo.");
 		}
-		if(!this.fornecedores.containsKey(nome)) {
+		Fornecedor fornecedor = this.fornecedores.get(nome);
+		if(fornecedor == null) {
 			return false;
 		}
-		this.fornecedores.get(nome).setTelefone(telefoneNovo);
+		fornecedor.setTelefone(telefoneNovo);
 		return true;
 	}
 	
@@ -158,10 +238,22 @@ public class FornecedoresController {
 	 * @return String contendo informações sobre o fornecedor buscado
 	 */
 	public String imprimeFornecedor(String nome) {
-		if(!this.fornecedores.containsKey(nome)) {
-			throw new NullPointerException("Erro na exibicao do fornecedor: fornecedor nao existe.");
+		return this.tentaImprimeFornecedor(nome).getValorOuLanca();
+	}
+	
+	/**
+	 * Retorna o Resultado com as informações sobre um fornecedor, ou com a falha que imprimeFornecedor()
+	 * lançaria, sem lançar exceções.
+	 * 
+	 * @param nome String com o nome do fornecedor
+	 * @return Resultado com as informações sobre o fornecedor, ou com a falha
+	 */
+	public Resultado<String> tentaImprimeFornecedor(String nome) {
+		Fornecedor fornecedor = this.getFornecedor(nome);
+		if(fornecedor == null) {
+			return Resultado.falha(Falha.nulo("Erro na exibicao do fornecedor: fornecedor nao existe."));
 		}
-		return this.fornecedores.get(nome).toString();
+		return Resultado.sucesso(fornecedor.toString());
 	}
 	
 	/**
@@ -178,11 +270,19 @@ public class FornecedoresController {
 		if(nomeFornecedor.trim().isEmpty()) {
 			throw new IllegalArgumentException("Erro na remocao do fornecedor: nome do fornecedor nao pode ser vazio.");
 		}
-		if(!this.fornecedores.containsKey(nomeFornecedor)) {
-			throw new NullPointerException("Erro na remocao do fornecedor: fornecedor nao existe.");
+		synchronized(this.travaCadastro) {
+			if(!this.fornecedores.containsKey(nomeFornecedor)) {
+				throw new NullPointerException("Erro na remocao do fornecedor: fornecedor nao existe.");
+			}
+			Fornecedor removido = this.fornecedores.remove(nomeFornecedor);
+			removido.marcaRemovido();
+			this.fornecedoresOrdenados.remove(removido);
+			for(Produto produto: removido.getProdutos()) {
+				this.indiceBusca.remove(produto);
+			}
+			this.geracaoCatalogo.incrementAndGet();
+			return true;
 		}
-		this.fornecedores.remove(nomeFornecedor);
-		return true;
 	}
 	
 	/**
@@ -206,10 +306,25 @@ public class FornecedoresController {
 		if(nomeFornecedor.trim().isEmpty()) {
 			throw new IllegalArgumentException("Erro no cadastro de produto: fornecedor nao pode ser vazio ou nulo.");
 		}
-		if(!this.fornecedores.containsKey(nomeFornecedor)) {
+		Fornecedor fornecedor = this.fornecedores.get(nomeFornecedor);
+		if(fornecedor == null) {
 			throw new NullPointerException("Erro no cadastro de produto: fornecedor nao existe.");
 		}
-		return this.fornecedores.get(nomeFornecedor).adicionaProduto(nomeProduto, precoProduto, descProduto);
+		boolean cadastrado = fornecedor.adicionaProduto(nomeProduto, precoProduto, descProduto);
+		this.indexa(fornecedor, fornecedor.getProduto(nomeProduto, descProduto));
+		return cadastrado;
+	}
+	
+	/**
+	 * Não possui retorno. Adiciona ao fornecedor um produto ou combo já montado, como ao restaurar um
+	 * snapshot, e o inclui no índice de busca.
+	 * 
+	 * @param fornecedor Fornecedor que passará a possuir o produto
+	 * @param produto Produto ou Combo a ser adicionado
+	 */
+	public void adicionaProduto(Fornecedor fornecedor, Produto produto) {
+		fornecedor.adicionaProduto(produto);
+		this.indiceBusca.indexa(fornecedor, produto);
 	}
 	
 	public boolean adicionaCombo(String nomeFornecedor, String nomeCombo, String descricao, double fator, String produtos) {
@@ -219,11 +334,27 @@ public class FornecedoresController {
 		if(nomeFornecedor.trim().isEmpty()) {
 			throw new IllegalArgumentException("Erro no cadastro de combo: fornecedor nao pode ser vazio ou nulo.");
 		}
-		if(this.fornecedores.get(nomeFornecedor) == null) {
+		Fornecedor fornecedor = this.fornecedores.get(nomeFornecedor);
+		if(fornecedor == null) {
 			throw new NullPointerException("Erro no cadastro de combo: fornecedor nao existe.");
 		}
 		
-		return this.fornecedores.get(nomeFornecedor).adicionaCombo(nomeCombo, descricao, fator, produtos);
+		boolean cadastrado = fornecedor.adicionaCombo(nomeCombo, descricao, fator, produtos);
+		this.indexa(fornecedor, fornecedor.getProduto(nomeCombo, descricao));
+		return cadastrado;
+	}
+	
+	/**
+	 * Não possui retorno. Inclui no índice de busca o produto recém-cadastrado, caso ainda exista. Uma remoção
+	 * concorrente pode deixar uma entrada obsoleta, que a busca descarta antes de cortar os resultados no limite.
+	 * 
+	 * @param fornecedor Fornecedor que possui o produto
+	 * @param produto Produto cadastrado, ou null caso já tenha sido removido
+	 */
+	private void indexa(Fornecedor fornecedor, Produto produto) {
+		if(produto != null) {
+			this.indiceBusca.indexa(fornecedor, produto);
+		}
 	}
 	/**
 	 * Retorna uma String com informações sobre um produto de um fornecedor e um nome passados como
@@ -236,33 +367,47 @@ public class FornecedoresController {
 	 * @return String contendo informacoes sobre o produto buscado, null caso não exista tal produto
 	 */
 	public String imprimeProduto(String nomeFornecedor, String nomeProduto, String descricaoProduto) {
+		return this.tentaImprimeProduto(nomeFornecedor, nomeProduto, descricaoProduto).getValorOuLanca();
+	}
+	
+	/**
+	 * Retorna o Resultado com as informações sobre um produto do fornecedor, ou com a falha que imprimeProduto()
+	 * lançaria, sem lançar exceções.
+	 * 
+	 * @param nomeFornecedor String do nome do fornecedor ao qual deve pertencer o produto
+	 * @param nomeProduto String do nome do produto que quer ser buscado
+	 * @param descricaoProduto String da descricao do produto a ser buscado
+	 * @return Resultado com as informações sobre o produto, ou com a falha
+	 */
+	public Resultado<String> tentaImprimeProduto(String nomeFornecedor, String nomeProduto, String descricaoProduto) {
 		if(nomeFornecedor == null) {
-			throw new NullPointerException("Erro na exibicao de produto: fornecedor nao pode ser vazio ou nulo.");
+			return Resultado.falha(Falha.nulo("Erro na exibicao de produto: fornecedor nao pode ser vazio ou nulo."));
 		}
 		if(nomeFornecedor.trim().isEmpty()) {
-			throw new IllegalArgumentException("Erro na exibicao de produto: fornecedor nao pode ser vazio ou nulo.");
+			return Resultado.falha(Falha.invalido("Erro na exibicao de produto: fornecedor nao pode ser vazio ou nulo."));
 		}
 		if(nomeProduto == null) {
-			throw new NullPointerException("Erro na exibicao de produto: nome nao pode ser vazio ou nulo.");
+			return Resultado.falha(Falha.nulo("Erro na exibicao de produto: nome nao pode ser vazio ou nulo."));
 		}
 		if(nomeProduto.trim().isEmpty()) {
-			throw new IllegalArgumentException("Erro na exibicao de produto: nome nao pode ser vazio ou nulo.");
+			return Resultado.falha(Falha.invalido("Erro na exibicao de produto: nome nao pode ser vazio ou nulo."));
 		}
 		if(descricaoProduto == null) {
-			throw new NullPointerException("Erro na exibicao de produto: descricao nao pode ser vazia ou nula.");
+			return Resultado.falha(Falha.nulo("Erro na exibicao de produto: descricao nao pode ser vazia ou nula."));
 		}
 		if(descricaoProduto.trim().isEmpty()) {
-			throw new IllegalArgumentException("Erro na exibicao de produto: descricao nao pode ser vazia ou nula.");
+			return Resultado.falha(Falha.invalido("Erro na exibicao de produto: descricao nao pode ser vazia ou nula."));
 		}
-		if(this.fornecedores.get(nomeFornecedor) == null) {
-			throw new NullPointerException("Erro na exibicao de produto: fornecedor nao existe.");
+		Fornecedor fornecedor = this.fornecedores.get(nomeFornecedor);
+		if(fornecedor == null) {
+			return Resultado.falha(Falha.nulo("Erro na exibicao de produto: fornecedor nao existe."));
 		}
-		if(this.fornecedores.get(nomeFornecedor).consultaProduto(nomeProduto) == null) {
-			throw new NullPointerException("Erro na exibicao de produto: produto nao existe.");
+		String produto = fornecedor.consultaProduto(nomeProduto, descricaoProduto);
+		if(produto == null) {
+			return Resultado.falha(Falha.nulo("Erro na exibicao de produto: produto nao existe."));
 		}
 		
-		
-		return this.fornecedores.get(nomeFornecedor).consultaProduto(nomeProduto);
+		return Resultado.sucesso(produto);
 	}
 	
 	/**
@@ -273,22 +418,68 @@ public class FornecedoresController {
 	 * @return String contendo as informações de todos os fornecedores
 	 */
 	public String imprimeFornecedoresAll() {
-		String mensagem = "";
-		
-		List<Fornecedor> fornecedores = new ArrayList<Fornecedor>();
-		for(String fornec: this.fornecedores.keySet()) {
-			fornecedores.add(this.fornecedores.get(fornec));
+		StringBuilder mensagem = new StringBuilder();
+		try {
+			this.escreveFornecedoresAll(mensagem);
+		}catch(IOException ioe) {
+			throw new UncheckedIOException(ioe);
 		}
-		
-		Collections.sort(fornecedores);
-		for(int i=0;i<fornecedores.size();i++) {
-			mensagem += fornecedores.get(i).toString() + " | ";
+		return mensagem.toString();
+	}
+	
+	/**
+	 * Retorna a quantidade de fornecedores escritos. Escreve as informações de todos os fornecedores
+	 * diretamente na saída passada como parâmetro, em uma única passagem, no mesmo formato de
+	 * imprimeFornecedoresAll(). Caso não haja fornecedores cadastrados, nada é escrito.
+	 * 
+	 * @param saida Appendable no qual a listagem será escrita
+	 * @return int com a quantidade de fornecedores escritos
+	 * @throws IOException caso a escrita na saída falhe
+	 */
+	public int escreveFornecedoresAll(Appendable saida) throws IOException {
+		int itens = 0;
+		for(Fornecedor fornecedor: this.fornecedoresOrdenados) {
+			if(itens > 0) {
+				saida.append(" | ");
+			}
+			saida.append(fornecedor.toString());
+			itens++;
+		}
+		return itens;
+	}
+	
+	/**
+	 * Retorna uma página da listagem de fornecedores, no mesmo formato e na mesma ordem de
+	 * imprimeFornecedoresAll(), começando logo depois do fornecedor guardado no cursor. Localizar o início
+	 * custa O(log n), e apenas os fornecedores da página são percorridos. Caso o cursor seja null, a página
+	 * começa pelo primeiro fornecedor. Lança IllegalArgumentException para cursor ou limite inválidos.
+	 * 
+	 * @param cursor String com o cursor devolvido pela página anterior, ou null
+	 * @param limite int com a quantidade máxima de fornecedores da página
+	 * @return Pagina com os fornecedores e o cursor da próxima página
+	 */
+	public Pagina exibeFornecedoresPagina(String cursor, int limite) {
+		Pagina.validaLimite(limite);
+		NavigableSet<Fornecedor> seguintes = this.fornecedoresOrdenados;
+		if(cursor != null) {
+			seguintes = seguintes.tailSet(sonda(Pagina.partes(cursor, 1)[0]), false);
 		}
-		
-		if(!"".equals(mensagem)) {
-			mensagem = mensagem.substring(0, mensagem.length()-3);
+		return Pagina.de(seguintes, limite, fornecedor -> fornecedor.toString(), fornecedor -> Pagina.cursor(fornecedor.getNome()));
+	}
+	
+	/**
+	 * Retorna um fornecedor usado apenas como chave de busca no índice ordenado. Lança
+	 * IllegalArgumentException caso o nome guardado no cursor não seja um nome válido.
+	 * 
+	 * @param nome String com o nome do fornecedor
+	 * @return Fornecedor com o nome passado como parâmetro
+	 */
+	private static Fornecedor sonda(String nome) {
+		try {
+			return new Fornecedor(nome, "-", "-");
+		}catch(IllegalArgumentException iae) {
+			throw new IllegalArgumentException("Erro na paginacao: cursor invalido.");
 		}
-		return mensagem;
 	}
 	
 	/**
@@ -301,23 +492,105 @@ public class FornecedoresController {
 	 * caso não exista o fornecedor recebido ou não exista produtos cadastrados para tal fornecedor
 	 */
 	public String imprimeProdutosFornecedor(String nomeFornecedor) {
+		StringBuilder mensagem = new StringBuilder();
+		try {
+			this.escreveProdutosFornecedor(nomeFornecedor, mensagem);
+		}catch(IOException ioe) {
+			throw new UncheckedIOException(ioe);
+		}
+		if(mensagem.length() == 0) {
+			return null;
+		}
+		return mensagem.toString();
+	}
+	
+	/**
+	 * Retorna a quantidade de itens escritos. Escreve todos os produtos de um fornecedor diretamente na
+	 * saída passada como parâmetro, no mesmo formato de imprimeProdutosFornecedor(). As exceções para o
+	 * fornecedor são as mesmas de imprimeProdutosFornecedor().
+	 * 
+	 * @param nomeFornecedor String contendo o nome do fornecedor
+	 * @param saida Appendable no qual a listagem será escrita
+	 * @return int com a quantidade de itens escritos
+	 * @throws IOException caso a escrita na saída falhe
+	 */
+	public int escreveProdutosFornecedor(String nomeFornecedor, Appendable saida) throws IOException {
 		if(nomeFornecedor == null) {
 			throw new NullPointerException("Erro na exibicao de produto: fornecedor nao pode ser vazio ou nulo.");
 		}
 		if(nomeFornecedor.trim().isEmpty()) {
 			throw new IllegalArgumentException("Erro na exibicao de produto: fornecedor nao pode ser vazio ou nulo.");
 		}
-		if(this.fornecedores.get(nomeFornecedor) == null) {
+		Fornecedor fornecedor = this.fornecedores.get(nomeFornecedor);
+		if(fornecedor == null) {
 			throw new NullPointerException("Erro na exibicao de produto: fornecedor nao existe.");
 		}
+		return fornecedor.escreveProdutosAll(saida);
+	}
+	
+	/**
+	 * Retorna uma página da listagem dos produtos e combos de um fornecedor, no mesmo formato e na mesma
+	 * ordem de imprimeProdutosFornecedor(), começando logo depois do item guardado no cursor. Caso o cursor
+	 * seja null, a página começa pelo primeiro item. As exceções para o fornecedor são as mesmas de
+	 * imprimeProdutosFornecedor(), e cursor ou limite inválidos lançam IllegalArgumentException.
+	 * 
+	 * @param nomeFornecedor String com o nome do fornecedor
+	 * @param cursor String com o cursor devolvido pela página anterior, ou null
+	 * @param limite int com a quantidade máxima de itens da página
+	 * @return Pagina com os produtos e o cursor da próxima página
+	 */
+	public Pagina exibeProdutosFornecedorPagina(String nomeFornecedor, String cursor, int limite) {
+		if(nomeFornecedor == null) {
+			throw new NullPointerException("Erro na exibicao de produto: fornecedor nao pode ser vazio ou nulo.");
+		}
+		if(nomeFornecedor.trim().isEmpty()) {
+			throw new IllegalArgumentException("Erro na exibicao de produto: fornecedor nao pode ser vazio ou nulo.");
+		}
+		Fornecedor fornecedor = this.fornecedores.get(nomeFornecedor);
+		if(fornecedor == null) {
+			throw new NullPointerException("Erro na exibicao de produto: fornecedor nao existe.");
+		}
+		Pagina.validaLimite(limite);
 		
-		String mensagem = "";
-		
-		if("".equals(this.fornecedores.get(nomeFornecedor).getProdutosAll())) {
-			return null;
+		NavigableSet<Produto> seguintes;
+		if(cursor == null) {
+			seguintes = fornecedor.getProdutosApos(null, null, false);
+		}else {
+			String[] chave = Pagina.partes(cursor, 3);
+			seguintes = produtosApos(fornecedor, chave[0], chave[1], chave[2]);
+		}
+		return Pagina.de(seguintes, limite, produto -> nomeFornecedor + " - " + produto.toString(), produto -> cursorProduto(produto));
+	}
+	
+	/**
+	 * Retorna os produtos do fornecedor que vêm depois do item com a chave guardada em um cursor. Lança
+	 * IllegalArgumentException caso a chave não seja válida.
+	 * 
+	 * @param fornecedor Fornecedor dono dos produtos
+	 * @param nome String com o nome do último item já listado
+	 * @param descricao String com a descrição do último item já listado
+	 * @param tipo String com "C" caso o último item já listado seja um combo, ou "P" caso contrário
+	 * @return NavigableSet de Produto com os itens seguintes
+	 */
+	private static NavigableSet<Produto> produtosApos(Fornecedor fornecedor, String nome, String descricao, String tipo) {
+		if(!"P".equals(tipo) && !"C".equals(tipo)) {
+			throw new IllegalArgumentException("Erro na paginacao: cursor invalido.");
 		}
-		mensagem += this.fornecedores.get(nomeFornecedor).getProdutosAll();
-		return mensagem;
+		try {
+			return fornecedor.getProdutosApos(nome, descricao, "C".equals(tipo));
+		}catch(IllegalArgumentException iae) {
+			throw new IllegalArgumentException("Erro na paginacao: cursor invalido.");
+		}
+	}
+	
+	/**
+	 * Retorna o cursor que guarda a chave de um produto ou combo na listagem de um fornecedor.
+	 * 
+	 * @param produto Produto ou Combo listado
+	 * @return String com o cursor
+	 */
+	private static String cursorProduto(Produto produto) {
+		return Pagina.cursor(produto.getNome(), produto.getDescricao(), produto instanceof Combo ? "C" : "P");
 	}
 	
 	/**
@@ -330,22 +603,86 @@ public class FornecedoresController {
 	 * fornecedores
 	 */
 	public String imprimeProdutosAll() {
-		String mensagem = "";
-		
-		List<Fornecedor> fornecedores = new ArrayList<Fornecedor>();
-		for(String chaveFornec: this.fornecedores.keySet()) {
-			fornecedores.add(this.fornecedores.get(chaveFornec));
+		StringBuilder mensagem = new StringBuilder();
+		try {
+			this.escreveProdutosAll(mensagem);
+		}catch(IOException ioe) {
+			throw new UncheckedIOException(ioe);
 		}
-		
-		Collections.sort(fornecedores);
-		for(int i=0;i<fornecedores.size();i++) {
-			mensagem += fornecedores.get(i).getProdutosAll() + " | ";
+		return mensagem.toString();
+	}
+	
+	/**
+	 * Retorna a quantidade de itens escritos. Escreve as informações sobre todos os produtos cadastrados no
+	 * sistema, de todos os fornecedores, diretamente na saída passada como parâmetro, em uma única passagem,
+	 * no mesmo formato de imprimeProdutosAll(). Cada fornecedor sem produtos conta como um item. Caso não
+	 * haja fornecedores cadastrados, nada é escrito.
+	 * 
+	 * @param saida Appendable no qual a listagem será escrita
+	 * @return int com a quantidade de itens escritos
+	 * @throws IOException caso a escrita na saída falhe
+	 */
+	public int escreveProdutosAll(Appendable saida) throws IOException {
+		int itens = 0;
+		for(Fornecedor fornecedor: this.fornecedoresOrdenados) {
+			if(itens > 0) {
+				saida.append(" | ");
+			}
+			itens += fornecedor.escreveProdutosAll(saida);
+		}
+		return itens;
+	}
+	
+	/**
+	 * Retorna uma página da listagem de produtos de todos os fornecedores, no mesmo formato e na mesma ordem
+	 * de imprimeProdutosAll(), começando logo depois do item guardado no cursor. Um fornecedor sem produtos
+	 * ocupa um item, "NOME -", como na listagem completa, de modo que as páginas concatenadas reproduzam a
+	 * listagem. Apenas os itens da página são percorridos. Caso o cursor seja null, a página começa pelo
+	 * primeiro item. Lança IllegalArgumentException para cursor ou limite inválidos.
+	 * 
+	 * @param cursor String com o cursor devolvido pela página anterior, ou null
+	 * @param limite int com a quantidade máxima de itens da página
+	 * @return Pagina com os produtos e o cursor da próxima página
+	 */
+	public Pagina exibeProdutosPagina(String cursor, int limite) {
+		Pagina.validaLimite(limite);
+		NavigableSet<Fornecedor> seguintes = this.fornecedoresOrdenados;
+		String[] chave = null;
+		if(cursor != null) {
+			chave = Pagina.partes(cursor, 4);
+			seguintes = seguintes.tailSet(sonda(chave[0]), true);
 		}
 		
-		if(!"".equals(mensagem)) {
-			mensagem = mensagem.substring(0, mensagem.length()-3);
-		}
-		return mensagem;
+		List<String> itens = new ArrayList<String>();
+		String ultimo = null;
+		for(Fornecedor fornecedor: seguintes) {
+			NavigableSet<Produto> produtos;
+			if(chave != null && fornecedor.getNome().equals(chave[0])) {
+				if(chave[1].isEmpty()) {
+					//o cursor é o item do fornecedor sem produtos, que já foi listado
+					continue;
+				}
+				produtos = produtosApos(fornecedor, chave[1], chave[2], chave[3]);
+			}else {
+				produtos = fornecedor.getProdutosApos(null, null, false);
+				if(produtos.isEmpty()) {
+					if(itens.size() == limite) {
+						return new Pagina(itens, ultimo);
+					}
+					itens.add(fornecedor.getNome() + " -");
+					ultimo = Pagina.cursor(fornecedor.getNome(), "", "", "");
+					continue;
+				}
+			}
+			for(Produto produto: produtos) {
+				if(itens.size() == limite) {
+					return new Pagina(itens, ultimo);
+				}
+				itens.add(fornecedor.getNome() + " - " + produto.toString());
+				ultimo = Pagina.cursor(fornecedor.getNome(), produto.getNome(), produto.getDescricao(), produto instanceof Combo ? "C" : "P");
+			}
+		}
+		return new Pagina(itens, null);
 	}
 	
 	/**
@@ -355,6 +692,7 @@ public class FornecedoresController {
 	 * 
 	 * @param nomeFornecedor String com o nome do fornecedor
 	 * @param nomeProduto String com o nome do produto
+	 * @param descricaoProduto String com a descricao do produto
 	 * @param precoNovo double com o novo preco do produto
 	 * @return true para uma edição de preço bem-sucedida, false caso contrário
 	 */
@@ -377,10 +715,15 @@ public class FornecedoresController {
 		if(descricaoProduto.trim().isEmpty()) {
 			throw new IllegalArgumentException("Erro na edicao de produto: descricao nao pode ser vazia ou nula.");
 		}
-		if(this.fornecedores.get(nomeFornecedor) == null) {
+		Fornecedor fornecedor = this.fornecedores.get(nomeFornecedor);
+		if(fornecedor == null) {
 			throw new NullPointerException("Erro na edicao de produto: fornecedor nao existe.");
 		}
-		return this.fornecedores.get(nomeFornecedor).editaPrecoProduto(nomeProduto, precoNovo);
+		boolean editado = fornecedor.editaPrecoProduto(nomeProduto, descricaoProduto, precoNovo);
+		if(editado) {
+			this.geracaoCatalogo.incrementAndGet();
+		}
+		return editado;
 	}
 	
 	/**
@@ -398,11 +741,16 @@ public class FornecedoresController {
 		if(fornecedor.trim().isEmpty()) {
 			throw new IllegalArgumentException("Erro na edicao de combo: fornecedor nao pode ser vazio ou nulo.");
 		}
-		if(this.fornecedores.get(fornecedor) == null) {
+		Fornecedor dono = this.fornecedores.get(fornecedor);
+		if(dono == null) {
 			throw new NullPointerException("Erro na edicao de combo: fornecedor nao existe.");
 		}
 		
-		return this.fornecedores.get(fornecedor).editaCombo(nome, descricao, novoFator);
+		boolean editado = dono.editaCombo(nome, descricao, novoFator);
+		if(editado) {
+			this.geracaoCatalogo.incrementAndGet();
+		}
+		return editado;
 		
 	}
 	
@@ -433,17 +781,223 @@ public class FornecedoresController {
 		if(descricaoProduto.trim().isEmpty()) {
 			throw new IllegalArgumentException("Erro na remocao de produto: descricao nao pode ser vazia ou nula.");
 		}
-		if(this.fornecedores.get(nomeFornecedor) == null) {
+		Fornecedor fornecedor = this.fornecedores.get(nomeFornecedor);
+		if(fornecedor == null) {
 			throw new NullPointerException("Erro na remocao de produto: fornecedor nao existe.");
 		}
-		if(this.fornecedores.get(nomeFornecedor).consultaProduto(nomeProduto) == null) {
+		Produto produto = fornecedor.getProduto(nomeProduto, descricaoProduto);
+		if(produto == null) {
 			throw new NullPointerException("Erro na remocao de produto: produto nao existe.");
 		}
-		this.fornecedores.get(nomeFornecedor).removeProduto(nomeProduto);
+		fornecedor.removeProduto(nomeProduto, descricaoProduto);
+		this.indiceBusca.remove(produto);
+		this.geracaoCatalogo.incrementAndGet();
 		return true;
 	}
 	
+	/**
+	 * Retorna a geração atual do catálogo. Uma consulta feita depois de ler a geração g reflete todas as
+	 * remoções e edições de preço anteriores a g.
+	 * 
+	 * @return long com a geração do catálogo
+	 */
+	public long getGeracaoCatalogo() {
+		return this.geracaoCatalogo.get();
+	}
+	
+	/**
+	 * Retorna o registro no qual os fornecedores e seus produtos estão registrados.
+	 * 
+	 * @return Registro do controlador
+	 */
+	public Registro getRegistro() {
+		return this.registro;
+	}
+	
 	public Fornecedor getFornecedor(String nome) {
+		if(nome == null) {
+			return null;
+		}
 		return this.fornecedores.get(nome);
 	}
+	
+	/**
+	 * Retorna o fornecedor com o identificador passado como parâmetro, ou null caso não exista ou já tenha
+	 * sido removido. A consulta indexa o registro e confere a identidade no mapa, cujo hash do nome já
+	 * está calculado.
+	 * 
+	 * @param id int com o identificador do fornecedor
+	 * @return Fornecedor com o identificador, ou null
+	 */
+	public Fornecedor getFornecedor(int id) {
+		Fornecedor fornecedor = this.registro.getFornecedor(id);
+		if(fornecedor == null || this.fornecedores.get(fornecedor.getNome()) != fornecedor) {
+			return null;
+		}
+		return fornecedor;
+	}
+	
+	/**
+	 * Retorna o identificador do fornecedor com o nome passado como parâmetro, a ser usado nas operações
+	 * que recebem identificadores em vez de nomes. Lança NullPointerException ou IllegalArgumentException
+	 * para nome nulo ou vazio, e NullPointerException caso o fornecedor não exista.
+	 * 
+	 * @param nome String com o nome do fornecedor
+	 * @return int com o identificador do fornecedor
+	 */
+	public int resolveFornecedor(String nome) {
+		return this.tentaResolveFornecedor(nome).getValorOuLanca();
+	}
+	
+	/**
+	 * Retorna o Resultado com o identificador do fornecedor, ou com a falha que resolveFornecedor() lançaria,
+	 * sem lançar exceções.
+	 * 
+	 * @param nome String com o nome do fornecedor
+	 * @return Resultado com o identificador do fornecedor, ou com a falha
+	 */
+	public Resultado<Integer> tentaResolveFornecedor(String nome) {
+		if(nome == null) {
+			return Resultado.falha(Falha.nulo("Erro ao resolver fornecedor: nome nao pode ser vazio ou nulo."));
+		}
+		if(nome.trim().isEmpty()) {
+			return Resultado.falha(Falha.invalido("Erro ao resolver fornecedor: nome nao pode ser vazio ou nulo."));
+		}
+		Fornecedor fornecedor = this.fornecedores.get(nome);
+		if(fornecedor == null) {
+			return Resultado.falha(Falha.nulo("Erro ao resolver fornecedor: fornecedor nao existe."));
+		}
+		return Resultado.sucesso(fornecedor.getId());
+	}
+	
+	/**
+	 * Retorna o identificador do produto ou combo do fornecedor, a ser usado nas operações que recebem
+	 * identificadores em vez de nomes. Lança NullPointerException ou IllegalArgumentException para
+	 * parâmetros nulos ou vazios, e NullPointerException caso o fornecedor ou o produto não existam.
+	 * 
+	 * @param nomeFornecedor String com o nome do fornecedor
+	 * @param nomeProduto String com o nome do produto
+	 * @param descricaoProduto String com a descrição do produto
+	 * @return int com o identificador do produto
+	 */
+	public int resolveProduto(String nomeFornecedor, String nomeProduto, String descricaoProduto) {
+		return this.tentaResolveProduto(nomeFornecedor, nomeProduto, descricaoProduto).getValorOuLanca();
+	}
+	
+	/**
+	 * Retorna o Resultado com o identificador do produto ou combo do fornecedor, ou com a falha que
+	 * resolveProduto() lançaria, sem lançar exceções.
+	 * 
+	 * @param nomeFornecedor String com o nome do fornecedor
+	 * @param nomeProduto String com o nome do produto
+	 * @param descricaoProduto String com a descrição do produto
+	 * @return Resultado com o identificador do produto, ou com a falha
+	 */
+	public Resultado<Integer> tentaResolveProduto(String nomeFornecedor, String nomeProduto, String descricaoProduto) {
+		if(nomeProduto == null) {
+			return Resultado.falha(Falha.nulo("Erro ao resolver produto: nome nao pode ser vazio ou nulo."));
+		}
+		if(nomeProduto.trim().isEmpty()) {
+			return Resultado.falha(Falha.invalido("Erro ao resolver produto: nome nao pode ser vazio ou nulo."));
+		}
+		if(descricaoProduto == null) {
+			return Resultado.falha(Falha.nulo("Erro ao resolver produto: descricao nao pode ser vazia ou nula."));
+		}
+		if(descricaoProduto.trim().isEmpty()) {
+			return Resultado.falha(Falha.invalido("Erro ao resolver produto: descricao nao pode ser vazia ou nula."));
+		}
+		Resultado<Integer> idFornecedor = this.tentaResolveFornecedor(nomeFornecedor);
+		if(!idFornecedor.isSucesso()) {
+			return idFornecedor;
+		}
+		Produto produto = this.registro.getFornecedor(idFornecedor.getValor()).getProduto(nomeProduto, descricaoProduto);
+		if(produto == null) {
+			return Resultado.falha(Falha.nulo("Erro ao resolver produto: produto nao existe."));
+		}
+		return Resultado.sucesso(produto.getId());
+	}
+	
+	/**
+	 * Retorna uma List com o produto ou combo do fornecedor e os combos que o contêm, ou seja, os itens cujo
+	 * preço muda quando o preço do produto é editado. Caso o fornecedor ou o produto não existam, será
+	 * retornada uma List vazia.
+	 * 
+	 * @param nomeFornecedor String com o nome do fornecedor
+	 * @param nomeProduto String com o nome do produto
+	 * @param descricaoProduto String com a descrição do produto
+	 * @return List de Produto com o produto e os combos afetados
+	 */
+	public List<Produto> getProdutosAfetados(String nomeFornecedor, String nomeProduto, String descricaoProduto) {
+		List<Produto> afetados = new ArrayList<Produto>();
+		Fornecedor fornecedor = this.getFornecedor(nomeFornecedor);
+		if(fornecedor == null) {
+			return afetados;
+		}
+		Produto produto = fornecedor.getProduto(nomeProduto, descricaoProduto);
+		if(produto == null) {
+			return afetados;
+		}
+		afetados.add(produto);
+		afetados.addAll(fornecedor.getCombosComProduto(produto));
+		return afetados;
+	}
+	
+	/**
+	 * Retorna String com os produtos de todos os fornecedores que correspondem ao termo buscado, em ordem
+	 * de relevância, no formato "NOME_FORNECEDOR - NOME_PRODUTO - DESCRICAO_PRODUTO - R$0,00" e separados
+	 * por " | ". A busca ignora maiúsculas e acentos, aceita prefixos das palavras do nome e da descrição e,
+	 * caso nenhum produto corresponda, palavras aproximadas. Caso nenhum produto corresponda, será
+	 * retornada uma String vazia. Lança Exceptions para termo nulo ou vazio e para limite não positivo.
+	 * 
+	 * @param termo String com o termo buscado
+	 * @param limite int com a quantidade máxima de produtos retornados
+	 * @return String com os produtos encontrados
+	 */
+	public String buscaProdutos(String termo, int limite) {
+		StringBuilder mensagem = new StringBuilder();
+		this.escreveBusca(termo, limite, mensagem);
+		return mensagem.toString();
+	}
+	
+	/**
+	 * Retorna a quantidade de produtos escritos. Escreve os produtos que correspondem ao termo buscado no
+	 * StringBuilder passado como parâmetro, no mesmo formato e com as mesmas exceções de buscaProdutos().
+	 * 
+	 * @param termo String com o termo buscado
+	 * @param limite int com a quantidade máxima de produtos escritos
+	 * @param mensagem StringBuilder no qual os produtos serão escritos
+	 * @return int com a quantidade de produtos escritos
+	 */
+	public int escreveBusca(String termo, int limite, StringBuilder mensagem) {
+		if(termo == null) {
+			throw new NullPointerException("Erro na busca de produtos: termo nao pode ser vazio ou nulo.");
+		}
+		if(termo.trim().isEmpty()) {
+			throw new IllegalArgumentException("Erro na busca de produtos: termo nao pode ser vazio ou nulo.");
+		}
+		if(limite <= 0) {
+			throw new IllegalArgumentException("Erro na busca de produtos: limite invalido.");
+		}
+		//entradas obsoletas são descartadas pela própria busca, antes do corte no limite
+		List<IndiceBusca.Correspondencia> encontrados = this.indiceBusca.busca(termo, limite,
+				(fornecedor, produto) -> this.fornecedores.get(fornecedor.getNome()) == fornecedor && fornecedor.contemProduto(produto));
+		int itens = 0;
+		for(IndiceBusca.Correspondencia encontrado: encontrados) {
+			if(itens > 0) {
+				mensagem.append(" | ");
+			}
+			mensagem.append(encontrado.getFornecedor().getNome()).append(" - ").append(encontrado.getProduto().toString());
+			itens++;
+		}
+		return itens;
+	}
+	
+	/**
+	 * Retorna uma visão, apenas para leitura, de todos os fornecedores cadastrados, ordenados pelo nome.
+	 * 
+	 * @return Collection de Fornecedor com os fornecedores cadastrados
+	 */
+	public Collection<Fornecedor> getFornecedores() {
+		return Collections.unmodifiableCollection(this.fornecedoresOrdenados);
+	}
 }
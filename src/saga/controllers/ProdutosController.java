@@ -2,46 +2,119 @@ package saga.controllers;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 
+import saga.entities.ChaveProduto;
 import saga.entities.Combo;
 import saga.entities.Produto;
+import saga.entities.SondaProduto;
+import saga.services.Registro;
 
 /**
  * Esta classe gerencia produtos: cadastra, edita, retorna e remove produtos. 
  * 
+ * Consultas não usam travas, de modo que compras possam ler o catálogo enquanto ele é alterado. As alterações
+ * são sincronizadas no próprio controlador, ou seja, apenas no fornecedor dono dos produtos.
+ * 
  * @author Guilherme de Melo Carneiro
  *
  */
 public class ProdutosController {
 
 	/**
-	 * HashMap que armazena os produtos cadastrados, no qual a chave de acesso é o nome do produto.
+	 * HashMap que armazena os produtos cadastrados, no qual a chave de acesso é o par nome e descrição do produto.
 	 */
-	private Map<String, Produto> produtos;
+	private Map<ChaveProduto, Produto> produtos;
 	
 	/**
-	 * 
+	 * HashMap que armazena os combos cadastrados, com a mesma chave dos produtos.
 	 */
-	private Map<String, Combo> combos;
+	private Map<ChaveProduto, Combo> combos;
+	
 	/**
-	 * Constroi um controlador de produtos.
+	 * Índice reverso dos combos que contêm cada produto, indexado pelo identificador do produto no registro.
+	 * Um combo aparece uma vez para cada ocorrência do produto em sua lista. Só é acessado sob a trava do
+	 * controlador, e permite que a edição de preço de um produto atualize apenas os combos afetados.
+	 */
+	private Map<Integer, List<Combo>> combosPorProduto;
+	
+	/**
+	 * Índice secundário dos produtos e combos cadastrados, na ordem da listagem. É atualizado a cada cadastro
+	 * e remoção, de modo que a listagem seja apenas um percurso em ordem e uma página comece pela busca da
+	 * chave do cursor.
+	 */
+	private NavigableSet<Produto> ordenados;
+	
+	/**
+	 * Comparador usado pelo índice ordenado: ordem alfabética do nome, ignorando maiúsculas e minúsculas,
+	 * com desempate pelo nome, pela descrição e, por último, colocando o combo depois do produto de mesma
+	 * chave, para que dois itens distintos nunca se sobreponham.
+	 */
+	private static final Comparator<Produto> ORDEM = new Comparator<Produto>() {
+		@Override
+		public int compare(Produto p1, Produto p2) {
+			int comparacao = p1.compareTo(p2);
+			if(comparacao == 0) {
+				comparacao = p1.getNome().compareTo(p2.getNome());
+			}
+			if(comparacao == 0) {
+				comparacao = p1.getDescricao().compareTo(p2.getDescricao());
+			}
+			if(comparacao == 0) {
+				comparacao = Boolean.compare(p1 instanceof Combo, p2 instanceof Combo);
+			}
+			return comparacao;
+		}
+	};
+	
+	/**
+	 * Registro que atribui os identificadores inteiros dos produtos e combos cadastrados
+	 */
+	private Registro registro;
+	
+	/**
+	 * Constroi um controlador de produtos com um registro próprio.
 	 */
 	public ProdutosController() {
-		this.produtos = new HashMap<String, Produto>();
-		this.combos = new HashMap<String, Combo>();
+		this(new Registro());
 	}
 	
-	public Produto getProduto(String nome) {
-		if(this.produtos.containsKey(nome)) {
-			return this.produtos.get(nome);
+	/**
+	 * Constroi um controlador de produtos que registra seus produtos no registro passado como parâmetro.
+	 * 
+	 * @param registro Registro que atribui os identificadores dos produtos
+	 */
+	public ProdutosController(Registro registro) {
+		this.produtos = new ConcurrentHashMap<ChaveProduto, Produto>();
+		this.combos = new ConcurrentHashMap<ChaveProduto, Combo>();
+		this.combosPorProduto = new HashMap<Integer, List<Combo>>();
+		this.ordenados = new ConcurrentSkipListSet<Produto>(ORDEM);
+		this.registro = registro;
+	}
+	
+	/**
+	 * Retorna o produto ou combo com o nome e a descrição passados como parâmetro, ou null caso não exista.
+	 * 
+	 * @param nome String com o nome do produto
+	 * @param descricao String com a descrição do produto
+	 * @return Produto buscado, ou null
+	 */
+	public Produto getProduto(String nome, String descricao) {
+		if(nome == null || descricao == null) {
+			return null;
 		}
-		if(this.combos.containsKey(nome)) {
-			return this.combos.get(nome);
+		SondaProduto chave = SondaProduto.posiciona(nome, descricao);
+		Produto produto = this.produtos.get(chave);
+		if(produto != null) {
+			return produto;
 		}
-		return null;
+		return this.combos.get(chave);
 	}
 	
 	/**
@@ -57,15 +130,18 @@ public class ProdutosController {
  	 * @param descricao String com a descrição do produto
 	 * @return true para um cadastro válido
 	 */
-	public boolean cadastraProduto(String nome, double preco, String descricao) {
-		if(!this.produtos.containsKey(nome)) {
-			this.produtos.put(nome, new Produto(nome, preco, descricao));
+	public synchronized boolean cadastraProduto(String nome, double preco, String descricao) {
+		if(nome == null || descricao == null || !this.produtos.containsKey(SondaProduto.posiciona(nome, descricao))) {
+			Produto produto = new Produto(nome, preco, descricao);
+			this.registro.registraProduto(produto);
+			this.produtos.put(produto.getChave(), produto);
+			this.ordenados.add(produto);
 			return true;
 		}
 		throw new IllegalArgumentException("Erro no cadastro de produto: produto ja existe.");
 	}
 	
-	public boolean cadastraCombo(String nome, String descricao, double fator, String produtos) {
+	public synchronized boolean cadastraCombo(String nome, String descricao, double fator, String produtos) {
 		if(nome == null) {
 			throw new NullPointerException("Erro no cadastro de combo: nome nao pode ser vazio ou nulo.");
 		}
@@ -88,50 +164,73 @@ public class ProdutosController {
 			throw new IllegalArgumentException("Erro no cadastro de combo: fator invalido.");
 		}
 		
-		if(this.combos.containsKey(nome)) {
+		ChaveProduto chaveCombo = new ChaveProduto(nome, descricao);
+		if(this.combos.containsKey(chaveCombo)) {
 			throw new IllegalArgumentException("Erro no cadastro de combo: combo ja existe.");
 		}
-		//Confere se os produtos passados estão contidos nos Produtos cadastrados
-		List<String> prods = new ArrayList<String>();
-		
+		//Confere se os produtos passados, no formato "NOME - DESCRICAO", estão contidos nos Produtos cadastrados
+		List<Produto> produtosCombo = new ArrayList<Produto>();
 		
 		for(String produto: produtos.split(", ")) {
-			String nomeProduto = produto.split(" - ")[0];
-			if(this.combos.containsKey(nomeProduto)) {
+			int separador = produto.indexOf(" - ");
+			String nomeProduto = separador < 0 ? produto : produto.substring(0, separador);
+			String descricaoProduto = separador < 0 ? "" : produto.substring(separador + 3);
+			SondaProduto chave = SondaProduto.posiciona(nomeProduto, descricaoProduto);
+			if(this.combos.containsKey(chave)) {
 				throw new IllegalArgumentException("Erro no cadastro de combo: um combo nao pode possuir combos na lista de produtos.");
 			}
-			if(!this.produtos.containsKey(nomeProduto)) {
+			Produto componente = this.produtos.get(chave);
+			if(componente == null) {
 				throw new NullPointerException("Erro no cadastro de combo: produto nao existe.");
 			}
-			prods.add(nomeProduto);
+			produtosCombo.add(componente);
 		}
 		
-		//Adiciona os produtos a uma List que será passada para o Combo
-		List<Produto> produtosCombo = new ArrayList<Produto>();
-		
-		for(String nomeProduto: prods) {
-			produtosCombo.add(this.produtos.get(nomeProduto));
-		}
-		
-		this.combos.put(nome, new Combo(nome, descricao, produtosCombo, fator));
+		Combo combo = new Combo(nome, descricao, produtosCombo, fator, this.registro);
+		this.registro.registraProduto(combo);
+		this.combos.put(chaveCombo, combo);
+		this.ordenados.add(combo);
+		this.indexaCombo(combo);
 		return true;
 		
 	}
+	
+	/**
+	 * Não possui retorno. Adiciona um produto ou combo já montado, como ao restaurar um snapshot, substituindo
+	 * um item existente com o mesmo nome.
+	 * 
+	 * @param produto Produto ou Combo a ser adicionado
+	 */
+	public synchronized void adicionaProduto(Produto produto) {
+		this.registro.registraProduto(produto);
+		if(produto instanceof Combo) {
+			Combo anterior = this.combos.put(produto.getChave(), (Combo) produto);
+			if(anterior != null) {
+				this.desindexaCombo(anterior);
+			}
+			this.indexaCombo((Combo) produto);
+		}else {
+			this.produtos.put(produto.getChave(), produto);
+		}
+		//o item substituído tem a mesma posição na ordem e dá lugar ao novo
+		this.ordenados.remove(produto);
+		this.ordenados.add(produto);
+	}
+	
 	/**
-	 * Retorna String com informações sobre o produto com o nome inserido como parâmetro. Caso não exista
-	 * tal produto, será retornado null.
+	 * Retorna String com informações sobre o produto com o nome e a descrição inseridos como parâmetro.
+	 * Caso não exista tal produto, será retornado null.
 	 * 
 	 * @param nome String com o nome do produto
+	 * @param descricao String com a descrição do produto
 	 * @return String com informações sobre o produto buscado, null caso não exista tal produto
 	 */
-	public String consultaProduto(String nome) {
-		if(this.produtos.get(nome) == null && this.combos.get(nome) == null) {
+	public String consultaProduto(String nome, String descricao) {
+		Produto produto = this.getProduto(nome, descricao);
+		if(produto == null) {
 			return null;
 		}
-		if(this.produtos.get(nome) == null) {
-			return this.combos.get(nome).toString();
-		}
-		return this.produtos.get(nome).toString();
+		return produto.toString();
 	}
 	
 	/**
@@ -141,14 +240,8 @@ public class ProdutosController {
 	 * @return List de String contendo informações sobre cada produto
 	 */
 	public List<String> listaProdutos() {
-		
-		List<Produto> produtosAll = new ArrayList<Produto>(this.produtos.values());
-		produtosAll.addAll(this.combos.values());
-		
-		Collections.sort(produtosAll);
-		
 		List<String> produtosToStringSorted = new ArrayList<String>();
-		for(Produto prod1: produtosAll) {
+		for(Produto prod1: this.listaProdutosOrdenados()) {
 			produtosToStringSorted.add(prod1.toString());
 		}
 		
@@ -156,19 +249,62 @@ public class ProdutosController {
 	}
 	
 	/**
-	 * Retorna um booleano sobre o sucesso deu ma remoção de um produto com base em seu nome. Caso
-	 * não exista o produto respectivo ao nome inserido, será retornado false.
+	 * Retorna uma List com todos os produtos e combos cadastrados, em ordem alfabética de acordo com
+	 * seus nomes. Caso não haja produtos cadastrados, será retornada uma List vazia.
+	 * 
+	 * @return List de Produto ordenada pelo nome dos produtos
+	 */
+	public List<Produto> listaProdutosOrdenados() {
+		return new ArrayList<Produto>(this.ordenados);
+	}
+	
+	/**
+	 * Retorna uma visão, apenas para leitura e em ordem, dos produtos e combos que vêm depois do item com a
+	 * chave passada como parâmetro, tenha ele sido removido ou não. Caso o nome seja null, retorna todos os
+	 * itens. A visão acompanha cadastros e remoções feitos enquanto é percorrida, e localizar o início custa
+	 * O(log n), sem copiar o catálogo.
+	 * 
+	 * @param nome String com o nome do último item já listado, ou null para começar do primeiro
+	 * @param descricao String com a descrição do último item já listado
+	 * @param combo boolean sobre o último item já listado ser um combo
+	 * @return NavigableSet de Produto com os itens seguintes
+	 */
+	public NavigableSet<Produto> getProdutosApos(String nome, String descricao, boolean combo) {
+		if(nome == null) {
+			return Collections.unmodifiableNavigableSet(this.ordenados);
+		}
+		//um produto com a mesma chave fica imediatamente antes do combo na ordem
+		NavigableSet<Produto> seguintes = this.ordenados.tailSet(new Produto(nome, 0.0, descricao), false);
+		if(combo && !seguintes.isEmpty()) {
+			Produto primeiro = seguintes.first();
+			if(primeiro instanceof Combo && primeiro.getNome().equals(nome) && primeiro.getDescricao().equals(descricao)) {
+				seguintes = seguintes.tailSet(primeiro, false);
+			}
+		}
+		return Collections.unmodifiableNavigableSet(seguintes);
+	}
+	
+	/**
+	 * Retorna um booleano sobre o sucesso deu ma remoção de um produto com base em seu nome e sua descrição.
+	 * Caso não exista o produto respectivo, será lançada NullPointerException.
 	 * 
 	 * @param nome String com o nome do produto a ser removido
-	 * @return true para uma remoção bem-sucedida, false caso contrário
+	 * @param descricao String com a descrição do produto a ser removido
+	 * @return true para uma remoção bem-sucedida
 	 */
-	public boolean removeProduto(String nome) {
-		if(this.produtos.containsKey(nome)) {
-			this.produtos.remove(nome);
+	public synchronized boolean removeProduto(String nome, String descricao) {
+		SondaProduto chave = SondaProduto.posiciona(nome, descricao);
+		Produto produto = this.produtos.remove(chave);
+		if(produto != null) {
+			this.ordenados.remove(produto);
+			//os combos mantêm o último preço do produto removido
+			this.combosPorProduto.remove(produto.getId());
 			return true;
 		}
-		else if(this.combos.containsKey(nome)) {
-			this.combos.remove(nome);
+		Combo combo = this.combos.remove(chave);
+		if(combo != null) {
+			this.ordenados.remove(combo);
+			this.desindexaCombo(combo);
 			return true;
 		}
 		
@@ -181,21 +317,90 @@ public class ProdutosController {
 	 * inserido como parâmetro seja negativo, retornará false.
 	 * 
 	 * @param nome String com o nome do produto
+	 * @param descricao String com a descrição do produto
 	 * @param precoNovo novo preço que o produto em questão adotará
 	 * @return true para uma edição de preço bem-sucedida, false caso contrário
 	 */
-	public boolean editaPrecoProduto(String nome, double precoNovo) {
-		if(!this.produtos.containsKey(nome)) {
-			return false;
-		}
+	public synchronized boolean editaPrecoProduto(String nome, String descricao, double precoNovo) {
 		if(precoNovo < 0.0) {
 			throw new IllegalArgumentException("Erro na edicao de produto: preco invalido.");
 		}
-		this.produtos.get(nome).setPreco(precoNovo);
+		Produto produto = this.produtos.get(SondaProduto.posiciona(nome, descricao));
+		if(produto == null) {
+			return false;
+		}
+		long precoAnterior = produto.getPrecoCentavos();
+		produto.setPreco(precoNovo);
+		this.reprecificaCombos(produto, produto.getPrecoCentavos() - precoAnterior);
 		return true;
 	}
 	
-	public boolean editaCombo(String nome, String descricao, double novoFator) {
+	/**
+	 * Não possui retorno. Soma a variação de preço do produto ao preço original de cada combo que o contém,
+	 * uma vez por ocorrência, sem percorrer os demais combos.
+	 * 
+	 * @param produto Produto cujo preço foi alterado
+	 * @param variacao long com a variação do preço, em centavos
+	 */
+	private void reprecificaCombos(Produto produto, long variacao) {
+		List<Combo> afetados = this.combosPorProduto.get(produto.getId());
+		if(afetados == null || variacao == 0) {
+			return;
+		}
+		for(Combo combo: afetados) {
+			combo.setPrecoOriginalCentavos(combo.getPrecoOriginalCentavos() + variacao);
+		}
+	}
+	
+	/**
+	 * Retorna uma List com os combos que contêm o produto passado como parâmetro, sem repetições, consultando
+	 * o índice reverso. Caso nenhum combo contenha o produto, será retornada uma List vazia.
+	 * 
+	 * @param produto Produto cujos combos são buscados
+	 * @return List de Combo com os combos que contêm o produto
+	 */
+	public synchronized List<Combo> getCombosComProduto(Produto produto) {
+		List<Combo> afetados = this.combosPorProduto.get(produto.getId());
+		List<Combo> combosProduto = new ArrayList<Combo>();
+		if(afetados != null) {
+			for(Combo combo: afetados) {
+				if(!combosProduto.contains(combo)) {
+					combosProduto.add(combo);
+				}
+			}
+		}
+		return combosProduto;
+	}
+	
+	/**
+	 * Não possui retorno. Inclui o combo no índice reverso de cada um de seus produtos.
+	 * 
+	 * @param combo Combo a ser indexado
+	 */
+	private void indexaCombo(Combo combo) {
+		for(int id: combo.getIdsProdutos()) {
+			this.combosPorProduto.computeIfAbsent(id, chave -> new ArrayList<Combo>()).add(combo);
+		}
+	}
+	
+	/**
+	 * Não possui retorno. Retira o combo do índice reverso de cada um de seus produtos.
+	 * 
+	 * @param combo Combo a ser retirado do índice
+	 */
+	private void desindexaCombo(Combo combo) {
+		for(int id: combo.getIdsProdutos()) {
+			List<Combo> lista = this.combosPorProduto.get(id);
+			if(lista != null) {
+				lista.remove(combo);
+				if(lista.isEmpty()) {
+					this.combosPorProduto.remove(id);
+				}
+			}
+		}
+	}
+	
+	public synchronized boolean editaCombo(String nome, String descricao, double novoFator) {
 		if(nome == null) {
 			throw new NullPointerException("Erro na edicao de combo: nome nao pode ser vazio ou nulo.");
 		}
@@ -212,22 +417,38 @@ public class ProdutosController {
 			throw new IllegalArgumentException("Erro na edicao de combo: fator invalido.");
 		}
 		
-		if(!this.combos.containsKey(nome)) {
+		Combo combo = this.combos.get(SondaProduto.posiciona(nome, descricao));
+		if(combo == null) {
 			throw new NullPointerException("Erro na edicao de combo: produto nao existe.");
 		}
 		
-		this.combos.get(nome).setFator(novoFator);
+		combo.setFator(novoFator);
 		return true;
 	}
 	
+	/**
+	 * Retorna um booleano sobre o produto passado como parâmetro ainda estar no catálogo, ou seja, não ter
+	 * sido removido nem substituído. Compara a identidade do produto, usando a chave já calculada.
+	 * 
+	 * @param produto Produto ou Combo a ser conferido
+	 * @return true caso o produto esteja no catálogo, false caso contrário
+	 */
+	public boolean contemProduto(Produto produto) {
+		if(produto instanceof Combo) {
+			return this.combos.get(produto.getChave()) == produto;
+		}
+		return this.produtos.get(produto.getChave()) == produto;
+	}
+	
 	/**
 	 * Retorna um booleano sobre a existêcia de um produto no sistema.
 	 * 
 	 * @param nome String com o nome do produto que se quer saber se existe no sistema
-	 * @return true para a existência de um produto com o nome passado como parâmetro, false caso contrário
+	 * @param descricao String com a descrição do produto
+	 * @return true para a existência de um produto com o nome e a descrição passados como parâmetro, false caso contrário
 	 */
-	public boolean existeProduto(String nome) {
-		if(this.produtos.containsKey(nome)) {
+	public boolean existeProduto(String nome, String descricao) {
+		if(nome != null && descricao != null && this.produtos.containsKey(SondaProduto.posiciona(nome, descricao))) {
 			return true;
 		}
 		return false;
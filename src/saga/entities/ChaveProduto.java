@@ -0,0 +1,114 @@
+package saga.entities;
+
+/**
+ * Chave imutável que identifica um produto dentro de um fornecedor: o par nome e descrição. O hash é
+ * calculado uma única vez, na construção, sem concatenar as Strings. Uma chave é igual à SondaProduto com o
+ * mesmo nome e a mesma descrição, de modo que as consultas busquem nos mapas sem construir uma chave.
+ * 
+ * @author Guilherme de Melo Carneiro
+ *
+ */
+public final class ChaveProduto {
+
+	/**
+	 * String com o nome do produto
+	 */
+	private final String nome;
+
+	/**
+	 * String com a descrição do produto
+	 */
+	private final String descricao;
+
+	/**
+	 * Hash do par nome e descrição, calculado na construção
+	 */
+	private final int hash;
+
+	/**
+	 * Constroi a chave de um produto a partir de seu nome e de sua descrição, que não devem ser nulos.
+	 * 
+	 * @param nome String com o nome do produto
+	 * @param descricao String com a descrição do produto
+	 */
+	public ChaveProduto(String nome, String descricao) {
+		this.nome = nome;
+		this.descricao = descricao;
+		this.hash = hash(nome, descricao);
+	}
+
+	/**
+	 * Retorna o hash do par nome e descrição passados como parâmetro, o mesmo de uma chave construída com eles.
+	 * 
+	 * @param nome String com o nome do produto
+	 * @param descricao String com a descrição do produto
+	 * @return int com o hash do par
+	 */
+	public static int hash(String nome, String descricao) {
+		return 31 * nome.hashCode() + descricao.hashCode();
+	}
+
+	/**
+	 * Retorna true caso a chave corresponda ao nome e à descrição passados como parâmetro, cujo hash já foi
+	 * calculado, sem construir outra chave.
+	 * 
+	 * @param nome String com o nome do produto
+	 * @param descricao String com a descrição do produto
+	 * @param hash int com o hash do par, como calculado por hash()
+	 * @return true para o mesmo nome e a mesma descrição, false caso contrário
+	 */
+	public boolean corresponde(String nome, String descricao, int hash) {
+		return this.hash == hash && this.nome.equals(nome) && this.descricao.equals(descricao);
+	}
+
+	/**
+	 * Retorna o nome do produto.
+	 * 
+	 * @return String com o nome do produto
+	 */
+	public String getNome() {
+		return this.nome;
+	}
+
+	/**
+	 * Retorna a descrição do produto.
+	 * 
+	 * @return String com a descrição do produto
+	 */
+	public String getDescricao() {
+		return this.descricao;
+	}
+
+	@Override
+	public int hashCode() {
+		return this.hash;
+	}
+
+	/**
+	 * Retorna true caso o objeto seja uma ChaveProduto ou uma SondaProduto com o mesmo nome e a mesma
+	 * descrição. O hash já calculado é comparado primeiro, descartando a maioria das chaves diferentes sem
+	 * comparar Strings.
+	 * 
+	 * @param obj objeto qualquer a ser comparado
+	 * @return true para chaves iguais, false caso contrário
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if(this == obj) {
+			return true;
+		}
+		if(obj instanceof SondaProduto) {
+			return obj.equals(this);
+		}
+		if(!(obj instanceof ChaveProduto)) {
+			return false;
+		}
+		ChaveProduto outra = (ChaveProduto) obj;
+		return this.corresponde(outra.nome, outra.descricao, outra.hash);
+	}
+
+	@Override
+	public String toString() {
+		return this.nome + " - " + this.descricao;
+	}
+}
@@ -19,17 +19,22 @@ public class Cliente implements Comparable<Cliente>{
 	/**
 	 * Atributo correspondente ao nome do Cliente.
 	 */
-	private String nome;
+	private volatile String nome;
 	
 	/**
 	 * Atributo correspondente ao e-mail do Cliente.
 	 */
-	private String email;
+	private volatile String email;
 	
 	/**
 	 * Atributo correspondente ao laboratório do qual o Cliente faz parte.
 	 */
-	private String localizacao;
+	private volatile String localizacao;
+	
+	/**
+	 * Identificador inteiro atribuído pelo registro do sistema, ou -1 enquanto não registrado.
+	 */
+	private volatile int id = -1;
 	
 	/**
 	 * Constroi um Cliente a partir de um CPF, um nome, um e-mail e de seu laboratório correspondente.
@@ -76,6 +81,24 @@ public class Cliente implements Comparable<Cliente>{
 		this.localizacao = localizacao;
 	}
 	
+	/**
+	 * Retorna o identificador inteiro do cliente no registro do sistema, ou -1 caso ainda não tenha sido registrado.
+	 * 
+	 * @return int com o identificador do cliente
+	 */
+	public int getId() {
+		return this.id;
+	}
+	
+	/**
+	 * Não possui retorno. Define o identificador inteiro do cliente. É chamado apenas pelo registro do sistema.
+	 * 
+	 * @param id int com o identificador atribuído
+	 */
+	public void setId(int id) {
+		this.id = id;
+	}
+	
 	/**
 	 * Retorna String correspondente ao nome do Cliente.
 	 * 
@@ -1,7 +1,12 @@
 package saga.entities;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import saga.services.Registro;
+import saga.util.Dinheiro;
+
 /**
  * 
  * @author guimcarneiro
@@ -10,39 +15,50 @@ import java.util.List;
 public class Combo extends Produto{
 	
 	/**
-	 * 
+	 * Soma dos preços dos produtos do combo, em centavos, antes da aplicação do fator.
 	 */
-	private double precoOriginal;
+	private volatile long precoOriginal;
 	
 	/**
 	 * 
 	 */
-	private double fator;
+	private volatile double fator;
 	
 	/**
-	 * 
+	 * Identificadores, no registro, dos produtos que compõem o combo
+	 */
+	private int[] produtos;
+	
+	/**
+	 * Registro no qual os produtos do combo estão registrados
 	 */
-	private List<Produto> produtos;
+	private Registro registro;
 	
 	/**
+	 * Constroi um combo a partir dos produtos que o compõem, que são registrados no registro passado
+	 * como parâmetro caso ainda não tenham sido. O combo guarda apenas os identificadores dos produtos.
 	 * 
 	 * @param nome
 	 * @param descricao
 	 * @param produtos
 	 * @param fator
+	 * @param registro Registro dos produtos do combo
 	 */
-	public Combo(String nome, String descricao, List<Produto>produtos, double fator) {
+	public Combo(String nome, String descricao, List<Produto>produtos, double fator, Registro registro) {
 		super(nome, 0.0, descricao);
 		
-		double preco = 0.0;
-		for(Produto produto: produtos) {
-			preco += produto.getPreco();
+		this.produtos = new int[produtos.size()];
+		long preco = 0;
+		for(int i=0; i<this.produtos.length; i++) {
+			Produto produto = produtos.get(i);
+			this.produtos[i] = registro.registraProduto(produto);
+			preco += produto.getPrecoCentavos();
 		}
 		this.precoOriginal = preco;
-		super.setPreco(preco*(1.0-fator));
+		super.setPrecoCentavos(Dinheiro.aplicaDesconto(preco, fator));
 		
 		this.fator = fator;
-		this.produtos = produtos;
+		this.registro = registro;
 	}
 	
 	/**
@@ -62,14 +78,47 @@ public class Combo extends Produto{
 			throw new IllegalArgumentException("Fator inválido");
 		}
 		this.fator = fator;
-		this.setPreco(this.precoOriginal*(1.0-this.fator));
+		this.setPrecoCentavos(Dinheiro.aplicaDesconto(this.precoOriginal, this.fator));
 	}
 	
 	/**
+	 * Retorna uma List com os produtos que compõem o combo, recuperados do registro pelos identificadores.
 	 * 
-	 * @return
+	 * @return List de Produto com os produtos do combo
 	 */
 	public List<Produto> getProdutos(){
-		return this.produtos;
+		List<Produto> produtosCombo = new ArrayList<Produto>(this.produtos.length);
+		for(int id: this.produtos) {
+			produtosCombo.add(this.registro.getProduto(id));
+		}
+		return produtosCombo;
+	}
+	
+	/**
+	 * Retorna uma cópia dos identificadores, no registro, dos produtos que compõem o combo.
+	 * 
+	 * @return int[] com os identificadores dos produtos do combo
+	 */
+	public int[] getIdsProdutos() {
+		return Arrays.copyOf(this.produtos, this.produtos.length);
+	}
+	
+	/**
+	 * Retorna a soma dos preços dos produtos do combo, em centavos, sobre a qual o fator é aplicado.
+	 * 
+	 * @return long com o preço original do combo, em centavos
+	 */
+	public long getPrecoOriginalCentavos() {
+		return this.precoOriginal;
+	}
+	
+	/**
+	 * Não possui retorno. Redefine o preço original do combo, em centavos, e recalcula o preço com desconto.
+	 * 
+	 * @param precoOriginal long com o novo preço original, em centavos
+	 */
+	public void setPrecoOriginalCentavos(long precoOriginal) {
+		this.precoOriginal = precoOriginal;
+		this.setPrecoCentavos(Dinheiro.aplicaDesconto(precoOriginal, this.fator));
 	}
 }
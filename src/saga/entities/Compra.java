@@ -1,7 +1,5 @@
 package saga.entities;
 
-import java.util.Date;
-
 /**
  * Classe que representa uma Compra feita por um Cliente. Uma compra possui uma data e um produto.
  * 
@@ -11,9 +9,9 @@ import java.util.Date;
 public class Compra {
 
 	/**
-	 * Date contendo a respectiva data da compra
+	 * int contendo a respectiva data da compra, como dia epoch (dias desde 01/01/1970)
 	 */
-	private Date data;
+	private int data;
 	
 	/**
 	 * Produto que foi comprado
@@ -23,19 +21,19 @@ public class Compra {
 	/**
 	 * Constroi uma compra com base na data de compra do produto, e do produto em si
 	 * 
-	 * @param data Date da compra
+	 * @param data int com a data da compra, como dia epoch
 	 * @param produto Produto comprado
 	 */
-	public Compra(Date data, Produto produto) {
+	public Compra(int data, Produto produto) {
 		this.data = data;
 		this.produto = produto;
 	}
 
 	/**
-	 * Retorna um Date contendo a data de quando aconteceu a compra.
-	 * @return Date da data da compra
+	 * Retorna um int contendo a data de quando aconteceu a compra, como dia epoch.
+	 * @return int com a data da compra, como dia epoch
 	 */
-	public Date getData() {
+	public int getData() {
 		return data;
 	}
 
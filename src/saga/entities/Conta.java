@@ -1,64 +1,206 @@
 package saga.entities;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import saga.services.Registro;
+
 /**
  * Classe equivalente a uma conta de um cliente. Controla o débito de um cliente referente a um fornecedor. Também
  * contém as compras feitas e que o pagamento ainda é pendente.
- * 
+ *
+ * As compras são armazenadas em colunas de tipos primitivos (data, identificador do produto no registro e
+ * preço na hora da compra), que crescem conforme necessário, em vez de um objeto Compra por item. As
+ * compras ficam na ordem das datas e, na mesma data, na ordem em que foram feitas, de modo que as compras de
+ * um período são localizadas por busca binária na coluna de datas.
+ *
  * @author guimcarneiro
  *
  */
 public class Conta {
 
+	/**
+	 * Capacidade inicial das colunas de compras.
+	 */
+	private static final int CAPACIDADE_INICIAL = 4;
+
 	/**
 	 * String contendo o cpf do cliente dono da conta
 	 */
 	private String cpf;
-	
+
 	/**
 	 * String contendo o nome do fornecedor ao qual o cliente deve
 	 */
 	private String fornecedor;
-	
+
 	/**
-	 * double contendo o débito pendente do cliente dono da conta
+	 * long contendo o débito pendente do cliente dono da conta, em centavos
 	 */
-	private double debito;
-	
+	private long debito;
+
+	/**
+	 * Quantidade de compras pendentes armazenadas nas colunas
+	 */
+	private int quantidadeCompras;
+
 	/**
-	 * List contendo todas as compras pendentes de pagamento feitas pelo cliente dono da conta
+	 * Coluna com a data de cada compra pendente, como dia epoch
 	 */
-	private List<Compra> compras;
-	
+	private int[] datas;
+
+	/**
+	 * Coluna com o identificador, no registro, do produto de cada compra pendente
+	 */
+	private int[] produtos;
+
 	/**
-	 * Constrói uma conta a partir do cpf do cliente dono da conta e do nome do Fornecedor nominal a conta
-	 * 
+	 * Coluna com o preço de cada compra pendente no momento da compra, em centavos
+	 */
+	private long[] precos;
+
+	/**
+	 * Registro que resolve os identificadores da coluna de produtos. Um produto removido e recadastrado
+	 * recebe outro identificador, e o removido continua no registro.
+	 */
+	private Registro registro;
+
+	/**
+	 * Identificador, no registro do sistema, do fornecedor nominal a conta, ou -1 enquanto a conta não estiver
+	 * na tabela de contas
+	 */
+	private int idFornecedor;
+
+	/**
+	 * Próxima conta do mesmo cliente, na ordem dos nomes dos fornecedores, ou null caso seja a última. É o
+	 * encadeamento da lista de contas de cada cliente, mantido pela tabela de contas.
+	 */
+	private Conta proxima;
+
+	/**
+	 * Constrói uma conta a partir do cpf do cliente dono da conta e do nome do Fornecedor nominal a conta,
+	 * com um registro de produtos próprio.
+	 *
 	 * @param cpf
 	 * @param fornecedor
 	 */
 	public Conta(String cpf, String fornecedor) {
+		this(cpf, fornecedor, new Registro());
+	}
+
+	/**
+	 * Constrói uma conta a partir do cpf do cliente dono da conta, do nome do Fornecedor nominal a conta e
+	 * do registro no qual os produtos comprados estão registrados.
+	 *
+	 * @param cpf String contendo o cpf do cliente dono da conta
+	 * @param fornecedor String contendo o nome do fornecedor nominal a conta
+	 * @param registro Registro dos produtos comprados
+	 */
+	public Conta(String cpf, String fornecedor, Registro registro) {
 		this.cpf = cpf;
 		this.fornecedor = fornecedor;
-		this.debito = 0.0;
-		this.compras = new ArrayList<Compra>();
+		this.debito = 0;
+		this.quantidadeCompras = 0;
+		this.datas = new int[CAPACIDADE_INICIAL];
+		this.produtos = new int[CAPACIDADE_INICIAL];
+		this.precos = new long[CAPACIDADE_INICIAL];
+		this.registro = registro;
+		this.idFornecedor = -1;
+	}
+
+	/**
+	 * Constroi uma conta já preenchida a partir das suas colunas de compras, como ao restaurar um snapshot.
+	 * Os arrays passados são adotados pela conta, sem cópia. O débito é a soma dos preços. Colunas fora da
+	 * ordem das datas, como as de snapshots gravados antes de as compras serem ordenadas, são reordenadas.
+	 *
+	 * @param cpf String contendo o cpf do cliente dono da conta
+	 * @param fornecedor String contendo o nome do fornecedor nominal a conta
+	 * @param registro Registro no qual os produtos comprados estão registrados
+	 * @param datas int[] com a data de cada compra, como dia epoch
+	 * @param produtos int[] com o identificador, no registro, do produto de cada compra
+	 * @param precos long[] com o preço de cada compra no momento em que foi feita, em centavos
+	 */
+	public Conta(String cpf, String fornecedor, Registro registro, int[] datas, int[] produtos, long[] precos) {
+		this.cpf = cpf;
+		this.fornecedor = fornecedor;
+		this.quantidadeCompras = datas.length;
+		this.datas = datas;
+		this.produtos = produtos;
+		this.precos = precos;
+		this.registro = registro;
+		this.idFornecedor = -1;
+		this.debito = this.recalculaDebito();
+		for(int i=1; i<datas.length; i++) {
+			if(datas[i - 1] > datas[i]) {
+				this.ordenaPorData();
+				break;
+			}
+		}
+		if(datas.length == 0) {
+			this.datas = new int[CAPACIDADE_INICIAL];
+			this.produtos = new int[CAPACIDADE_INICIAL];
+			this.precos = new long[CAPACIDADE_INICIAL];
+		}
 	}
 
 	/**
 	 * Não possui retorno. Adiciona uma compra às compras já feitas pelo cliente. Quando uma Compra é adicionada,
-	 * o débito pendente é aumentado no valor da Compra adicionada.
-	 * 
+	 * o débito pendente é aumentado no valor da Compra adicionada, sem percorrer as compras anteriores.
+	 * O débito acumulado pode ser conferido contra o recálculo completo com isDebitoConsistente(), uma vez
+	 * depois de uma carga em lote, e não a cada compra, o que tornaria quadrática a adição de n compras.
+	 *
 	 * @param compra Compra a ser adicionada às compras já feitas por um cliente
 	 */
 	public void adicionaCompra(Compra compra) {
-		this.compras.add(compra);
-		this.setDebito();
+		this.adicionaCompra(compra.getData(), compra.getProduto());
+	}
+
+	/**
+	 * Retorna o preço registrado para a compra, em centavos. Adiciona uma compra às compras já feitas pelo
+	 * cliente a partir da data e do produto comprado, sem criar um objeto Compra. O preço do produto no
+	 * momento da compra é registrado e somado ao débito pendente. Um produto ainda sem identificador é
+	 * registrado no registro da conta. A compra é inserida depois das compras com data igual ou anterior;
+	 * como as compras costumam chegar em ordem de data, normalmente é apenas anexada ao fim das colunas.
+	 *
+	 * @param data int com a data da compra, como dia epoch
+	 * @param produto Produto comprado
+	 * @return long com o preço da compra, em centavos
+	 */
+	public long adicionaCompra(int data, Produto produto) {
+		if(this.quantidadeCompras == this.datas.length) {
+			int capacidade = this.datas.length * 2;
+			this.datas = Arrays.copyOf(this.datas, capacidade);
+			this.produtos = Arrays.copyOf(this.produtos, capacidade);
+			this.precos = Arrays.copyOf(this.precos, capacidade);
+		}
+		int id = produto.getId();
+		if(id < 0) {
+			id = this.registro.registraProduto(produto);
+		}
+		assert this.registro.getProduto(id) == produto : "Produto registrado em outro registro.";
+		long preco = produto.getPrecoCentavos();
+
+		int posicao = this.quantidadeCompras;
+		if(posicao > 0 && this.datas[posicao - 1] > data) {
+			posicao = this.primeiraCompraApos(data);
+			int seguintes = this.quantidadeCompras - posicao;
+			System.arraycopy(this.datas, posicao, this.datas, posicao + 1, seguintes);
+			System.arraycopy(this.produtos, posicao, this.produtos, posicao + 1, seguintes);
+			System.arraycopy(this.precos, posicao, this.precos, posicao + 1, seguintes);
+		}
+		this.datas[posicao] = data;
+		this.produtos[posicao] = id;
+		this.precos[posicao] = preco;
+		this.quantidadeCompras++;
+
+		this.debito += preco;
+		return preco;
 	}
 
 	/**
 	 * Retorna String contendo o cpf do cliente dono da conta.
-	 * 
+	 *
 	 * @return String contendo o cpf do cliente dono da conta
 	 */
 	public String getCpf() {
@@ -67,7 +209,7 @@ public class Conta {
 
 	/**
 	 * Retorna String contendo o nome do fornecedor nominal a conta.
-	 * 
+	 *
 	 * @return String contendo o nome do fornecedor nominal a conta
 	 */
 	public String getFornecedor() {
@@ -75,53 +217,251 @@ public class Conta {
 	}
 
 	/**
-	 * Retorna uma List de Compras contendo todas as compras pendentes de um cliente
-	 * 
-	 * @return
+	 * Retorna o identificador, no registro do sistema, do fornecedor nominal a conta, ou -1 caso a conta ainda
+	 * não esteja na tabela de contas.
+	 *
+	 * @return int com o identificador do fornecedor
+	 */
+	public int getIdFornecedor() {
+		return this.idFornecedor;
+	}
+
+	/**
+	 * Não possui retorno. Define o identificador do fornecedor nominal a conta, antes de a conta ser inserida na
+	 * tabela de contas, como ao abri-la ou ao restaurar um snapshot.
+	 *
+	 * @param idFornecedor int com o identificador do fornecedor
+	 */
+	public void setIdFornecedor(int idFornecedor) {
+		this.idFornecedor = idFornecedor;
+	}
+
+	/**
+	 * Retorna a próxima conta do mesmo cliente, na ordem dos nomes dos fornecedores, ou null caso esta seja a
+	 * última.
+	 *
+	 * @return Conta seguinte do cliente, ou null
+	 */
+	public Conta getProxima() {
+		return this.proxima;
+	}
+
+	/**
+	 * Não possui retorno. Define a próxima conta do mesmo cliente. É chamado apenas pela tabela de contas, ao
+	 * inserir ou remover contas da lista do cliente.
+	 *
+	 * @param proxima Conta seguinte do cliente, ou null
+	 */
+	public void setProxima(Conta proxima) {
+		this.proxima = proxima;
+	}
+
+	/**
+	 * Retorna uma List de Compras contendo todas as compras pendentes de um cliente, na ordem das datas.
+	 * As compras são montadas a partir das colunas a cada chamada.
+	 *
+	 * @return List de Compra com as compras pendentes
 	 */
 	public List<Compra> getCompras() {
+		List<Compra> compras = new ArrayList<Compra>(this.quantidadeCompras);
+		for(int i=0; i<this.quantidadeCompras; i++) {
+			compras.add(new Compra(this.datas[i], this.getProdutoCompra(i)));
+		}
 		return compras;
 	}
-	
+
+	/**
+	 * Retorna a quantidade de compras pendentes da conta.
+	 *
+	 * @return int com a quantidade de compras pendentes
+	 */
+	public int getQuantidadeCompras() {
+		return this.quantidadeCompras;
+	}
+
+	/**
+	 * Retorna a data da i-ésima compra pendente, como dia epoch.
+	 *
+	 * @param i int com a posição da compra, na ordem das datas
+	 * @return int com a data da compra
+	 */
+	public int getDataCompra(int i) {
+		return this.datas[i];
+	}
+
+	/**
+	 * Retorna o produto da i-ésima compra pendente.
+	 *
+	 * @param i int com a posição da compra, na ordem das datas
+	 * @return Produto comprado
+	 */
+	public Produto getProdutoCompra(int i) {
+		return this.registro.getProduto(this.produtos[i]);
+	}
+
+	/**
+	 * Retorna o identificador, no registro, do produto da i-ésima compra pendente.
+	 *
+	 * @param i int com a posição da compra, na ordem das datas
+	 * @return int com o identificador do produto
+	 */
+	public int getIdProdutoCompra(int i) {
+		return this.produtos[i];
+	}
+
+	/**
+	 * Retorna o preço, em centavos, da i-ésima compra pendente no momento em que foi feita.
+	 *
+	 * @param i int com a posição da compra, na ordem das datas
+	 * @return long com o preço da compra, em centavos
+	 */
+	public long getPrecoCompra(int i) {
+		return this.precos[i];
+	}
+
+	/**
+	 * Não possui retorno. Reordena as colunas de compras pela data, mantendo na mesma data a ordem atual.
+	 */
+	private void ordenaPorData() {
+		Integer[] ordem = new Integer[this.quantidadeCompras];
+		for(int i=0; i<ordem.length; i++) {
+			ordem[i] = i;
+		}
+		int[] datas = this.datas;
+		Arrays.sort(ordem, (a, b) -> Integer.compare(datas[a], datas[b]));
+		int[] produtos = this.produtos;
+		long[] precos = this.precos;
+		this.datas = new int[ordem.length];
+		this.produtos = new int[ordem.length];
+		this.precos = new long[ordem.length];
+		for(int i=0; i<ordem.length; i++) {
+			this.datas[i] = datas[ordem[i]];
+			this.produtos[i] = produtos[ordem[i]];
+			this.precos[i] = precos[ordem[i]];
+		}
+	}
+
 	/**
-	 * Não possui retorno. Redefine o débito da conta igualando o débito à soma dos preços das compras pendentes que a conta possui.
+	 * Retorna a posição da primeira compra pendente com data igual ou posterior à data passada como
+	 * parâmetro, ou a quantidade de compras caso não haja, por busca binária na coluna de datas.
+	 *
+	 * @param data int com a data, como dia epoch
+	 * @return int com a posição da primeira compra a partir da data
 	 */
-	private void setDebito() {
-		this.debito = 0.0;
-		if(!this.compras.isEmpty()) {
-			for(Compra compra: this.compras) {
-				this.debito += compra.getProduto().getPreco();
+	public int primeiraCompraDesde(int data) {
+		int inicio = 0;
+		int fim = this.quantidadeCompras;
+		while(inicio < fim) {
+			int meio = (inicio + fim) >>> 1;
+			if(this.datas[meio] < data) {
+				inicio = meio + 1;
+			}else {
+				fim = meio;
 			}
 		}
+		return inicio;
+	}
+
+	/**
+	 * Retorna a posição da primeira compra pendente com data posterior à data passada como parâmetro, ou a
+	 * quantidade de compras caso não haja.
+	 *
+	 * @param data int com a data, como dia epoch
+	 * @return int com a posição da primeira compra depois da data
+	 */
+	public int primeiraCompraApos(int data) {
+		return data == Integer.MAX_VALUE ? this.quantidadeCompras : this.primeiraCompraDesde(data + 1);
+	}
+
+	/**
+	 * Retorna a soma, em centavos, dos preços das compras pendentes entre as posições passadas como parâmetro.
+	 *
+	 * @param inicio int com a posição da primeira compra, inclusive
+	 * @param fim int com a posição final, exclusive
+	 * @return long com o subtotal das compras, em centavos
+	 */
+	public long getSubtotal(int inicio, int fim) {
+		long soma = 0;
+		for(int i=inicio; i<fim; i++) {
+			soma += this.precos[i];
+		}
+		return soma;
+	}
+
+	/**
+	 * Retorna long com a soma dos preços das compras pendentes que a conta possui, em centavos, recalculada
+	 * a partir de todas as compras. Serve para conferir o débito mantido incrementalmente.
+	 *
+	 * @return long contendo a soma dos preços das compras pendentes, em centavos
+	 */
+	public long recalculaDebito() {
+		long soma = 0;
+		for(int i=0; i<this.quantidadeCompras; i++) {
+			soma += this.precos[i];
+		}
+		return soma;
+	}
+
+	/**
+	 * Retorna booleano sobre a consistência do débito mantido incrementalmente em relação ao recálculo
+	 * completo das compras pendentes. Como ambos somam centavos, devem ser idênticos.
+	 *
+	 * @return true caso o débito acumulado seja igual ao recálculo, false caso contrário
+	 */
+	public boolean isDebitoConsistente() {
+		return this.debito == this.recalculaDebito();
 	}
-	
+
 	/**
-	 * Retorna double contendo o valor do débito pendente do cliente ao fornecedor.
-	 * 
-	 * @return double contendo o valor do débito pendente
+	 * Retorna long contendo o valor do débito pendente do cliente ao fornecedor, em centavos.
+	 *
+	 * @return long contendo o valor do débito pendente, em centavos
 	 */
-	public double getDebito() {
+	public long getDebito() {
 		return this.debito;
 	}
 
 	/**
-	 * Não possui retorno. Realiza o pagamento completo do débito pendente existente.
+	 * Retorna um booleano sobre a conta possuir compras pendentes do produto. Redefine o preço dessas compras
+	 * para o preço passado como parâmetro e ajusta o débito pela diferença, percorrendo apenas as compras
+	 * desta conta. Usado quando o preço das contas em aberto acompanha o catálogo.
+	 *
+	 * @param idProduto int com o identificador do produto no registro
+	 * @param preco long com o novo preço do produto, em centavos
+	 * @return true caso a conta possua compras pendentes do produto, false caso contrário
+	 */
+	public boolean reprecificaProduto(int idProduto, long preco) {
+		boolean contem = false;
+		for(int i=0; i<this.quantidadeCompras; i++) {
+			if(this.produtos[i] == idProduto) {
+				this.debito += preco - this.precos[i];
+				this.precos[i] = preco;
+				contem = true;
+			}
+		}
+		return contem;
+	}
+
+	/**
+	 * Não possui retorno. Realiza o pagamento completo do débito pendente existente. As compras pagas deixam
+	 * de ser pendentes.
 	 */
 	public void realizaPagamento() {
-		this.debito = 0.0;
+		this.quantidadeCompras = 0;
+		this.debito = 0;
 	}
-	
+
 	/**
 	 * Retorna booleano sobre a existência ou não de valores pendentes em uma conta de um cliente para com um fornecedor.
 	 * True para uma conta totalmente quitada, false caso contrário.
-	 * 
+	 *
 	 * @return true para uma conta totalmente quitada, false caso contrário
 	 */
 	public boolean isQuitado() {
-		if(this.debito == 0.0) {
+		if(this.debito == 0) {
 			return true;
 		}
 		return false;
 	}
-	
+
 }
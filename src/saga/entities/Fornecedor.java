@@ -1,6 +1,12 @@
 package saga.entities;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.NavigableSet;
+
 import saga.controllers.ProdutosController;
+import saga.services.Registro;
 
 /**
  * Entidade que representa um fornecedor no sistema. Uma entidade possui um nome, um email,
@@ -20,18 +26,29 @@ public class Fornecedor implements Comparable<Fornecedor>{
 	/**
 	 * String que representa o email do respectivo Fornecedor.
 	 */
-	private String email;
+	private volatile String email;
 	
 	/**
 	 * String que representa o telefone do respectivo Fornecedor.
 	 */
-	private String telefone;
+	private volatile String telefone;
 	
 	/**
 	 * Entidade responsável pela gerência dos produtos pertencentes ao Fornecedor.
 	 */
 	private ProdutosController produtos;
 	
+	/**
+	 * Identificador inteiro atribuído pelo registro do sistema, ou -1 enquanto não registrado.
+	 */
+	private volatile int id = -1;
+	
+	/**
+	 * Indica que o fornecedor foi removido do sistema, de modo que compras validadas antes da remoção não
+	 * abram contas com ele.
+	 */
+	private volatile boolean removido;
+	
 	/**
 	 * Constroi um Fornecedor a partir de um nome, um e-mail e um telefone. Valores nulos
 	 * ou vazios lançam NullPointerException e IllegalArgumentException, respectivamente.
@@ -41,6 +58,20 @@ public class Fornecedor implements Comparable<Fornecedor>{
 	 * @param telefone String correspondente ao telefone do Fornecedor
 	 */
 	public Fornecedor(String nome, String email, String telefone) {
+		this(nome, email, telefone, new Registro());
+	}
+	
+	/**
+	 * Constroi um Fornecedor cujos produtos são registrados no registro passado como parâmetro, que deve
+	 * ser o mesmo do restante do sistema. Valores nulos ou vazios lançam NullPointerException e
+	 * IllegalArgumentException, respectivamente.
+	 * 
+	 * @param nome String correspondente ao nome do Fornecedor, irá identificá-lo unicamente
+	 * @param email String correspondente ao e-mail do Fornecedor
+	 * @param telefone String correspondente ao telefone do Fornecedor
+	 * @param registro Registro que atribui os identificadores dos produtos
+	 */
+	public Fornecedor(String nome, String email, String telefone, Registro registro) {
 		if(nome == null) {
 			throw new NullPointerException("Erro no cadastro do fornecedor: nome nao pode ser vazio ou nulo.");
 		}
@@ -63,7 +94,42 @@ public class Fornecedor implements Comparable<Fornecedor>{
 		this.nome = nome;
 		this.email = email;
 		this.telefone = telefone;
-		this.produtos = new ProdutosController();
+		this.produtos = new ProdutosController(registro);
+	}
+	
+	/**
+	 * Retorna o identificador inteiro do fornecedor no registro do sistema, ou -1 caso ainda não tenha sido registrado.
+	 * 
+	 * @return int com o identificador do fornecedor
+	 */
+	public int getId() {
+		return this.id;
+	}
+	
+	/**
+	 * Não possui retorno. Define o identificador inteiro do fornecedor. É chamado apenas pelo registro do sistema.
+	 * 
+	 * @param id int com o identificador atribuído
+	 */
+	public void setId(int id) {
+		this.id = id;
+	}
+	
+	/**
+	 * Retorna um booleano sobre o fornecedor ter sido removido do sistema.
+	 * 
+	 * @return true caso o fornecedor tenha sido removido, false caso contrário
+	 */
+	public boolean isRemovido() {
+		return this.removido;
+	}
+	
+	/**
+	 * Não possui retorno. Marca o fornecedor como removido do sistema. É chamado apenas pelo controlador
+	 * de fornecedores.
+	 */
+	public void marcaRemovido() {
+		this.removido = true;
 	}
 
 	/**
@@ -130,29 +196,79 @@ public class Fornecedor implements Comparable<Fornecedor>{
 	
 	/**
 	 * Retorna um booleano sobre o sucesso da operação de remover um produto adicionado 
-	 * anteriormente com base em seu nome. 
+	 * anteriormente com base em seu nome e sua descrição. 
 	 * 
 	 * @param nome String que representa o nome do Produto que quer se remover
+	 * @param descricao String que representa a descrição do Produto que quer se remover
 	 * @return true para uma remoção bem-sucedida, false caso contrário
 	 */
-	public boolean removeProduto(String nome) {
-		return this.produtos.removeProduto(nome);
+	public boolean removeProduto(String nome, String descricao) {
+		return this.produtos.removeProduto(nome, descricao);
 	}
 	
 	/**
 	 * Retorna uma String com informações sobre um produto já adicionado no sistema. A busca é
-	 * feita a partir de seu nome. Caso não haja produto armazenado com o nome buscado, será
+	 * feita a partir de seu nome e de sua descrição. Caso não haja produto armazenado com esse par, será
 	 * retornado null. O formato da String retornada será o toString do mesmo.
 	 * 
 	 * @param nome String do nome do produto que quer se buscar
+	 * @param descricao String da descrição do produto que quer se buscar
 	 * @return String com informações sobre o produto, caso não haja produto cadastrado com esse nome, null será retornado
 	 */
-	public String consultaProduto(String nome) {
-		return this.produtos.consultaProduto(nome);
+	public String consultaProduto(String nome, String descricao) {
+		return this.produtos.consultaProduto(nome, descricao);
+	}
+	
+	/**
+	 * Retorna o produto ou combo com o nome e a descrição passados como parâmetro, ou null caso não exista.
+	 * 
+	 * @param nome String do nome do produto
+	 * @param descricao String da descrição do produto
+	 * @return Produto buscado, ou null
+	 */
+	public Produto getProduto(String nome, String descricao) {
+		return this.produtos.getProduto(nome, descricao);
+	}
+	
+	/**
+	 * Retorna um booleano sobre o produto passado como parâmetro ainda estar no catálogo do fornecedor.
+	 * 
+	 * @param produto Produto ou Combo a ser conferido
+	 * @return true caso o produto esteja no catálogo, false caso contrário
+	 */
+	public boolean contemProduto(Produto produto) {
+		return this.produtos.contemProduto(produto);
 	}
 	
-	public Produto getProduto(String nome) {
-		return this.produtos.getProduto(nome);
+	/**
+	 * Retorna uma List com todos os produtos e combos do fornecedor, ordenados.
+	 * 
+	 * @return List de Produto com os produtos do fornecedor
+	 */
+	public List<Produto> getProdutos() {
+		return this.produtos.listaProdutosOrdenados();
+	}
+	
+	/**
+	 * Retorna uma visão, apenas para leitura e em ordem, dos produtos e combos do fornecedor que vêm depois
+	 * do item com a chave passada como parâmetro. Caso o nome seja null, retorna todos os itens.
+	 * 
+	 * @param nome String com o nome do último item já listado, ou null para começar do primeiro
+	 * @param descricao String com a descrição do último item já listado
+	 * @param combo boolean sobre o último item já listado ser um combo
+	 * @return NavigableSet de Produto com os itens seguintes
+	 */
+	public NavigableSet<Produto> getProdutosApos(String nome, String descricao, boolean combo) {
+		return this.produtos.getProdutosApos(nome, descricao, combo);
+	}
+	
+	/**
+	 * Não possui retorno. Adiciona ao fornecedor um produto ou combo já montado, como ao restaurar um snapshot.
+	 * 
+	 * @param produto Produto ou Combo a ser adicionado
+	 */
+	public void adicionaProduto(Produto produto) {
+		this.produtos.adicionaProduto(produto);
 	}
 	
 	/**
@@ -161,16 +277,27 @@ public class Fornecedor implements Comparable<Fornecedor>{
 	 *  seja passado um preço negativo, false será retornado.
 	 * 
 	 * @param nome String do nome do Produto que se quer alterar o preço
+	 * @param descricao String da descrição do Produto que se quer alterar o preço
 	 * @param precoNovo double do novo preço que o Produto adotará, não deve ser negativo
 	 * @return true para uma edição de preço bem-sucecida, false caso contrário
 	 */
-	public boolean editaPrecoProduto(String nome, double precoNovo) {
-		return this.produtos.editaPrecoProduto(nome, precoNovo);
+	public boolean editaPrecoProduto(String nome, String descricao, double precoNovo) {
+		return this.produtos.editaPrecoProduto(nome, descricao, precoNovo);
 	}
 	
 	public boolean editaCombo(String nome, String descricao, double novoFator) {
 		return this.produtos.editaCombo(nome, descricao, novoFator);
 	}
+	
+	/**
+	 * Retorna uma List com os combos do fornecedor que contêm o produto passado como parâmetro.
+	 * 
+	 * @param produto Produto cujos combos são buscados
+	 * @return List de Combo com os combos que contêm o produto
+	 */
+	public List<Combo> getCombosComProduto(Produto produto) {
+		return this.produtos.getCombosComProduto(produto);
+	}
 	/**
 	 * Retorna String com todos os produtos de um fornecedor. Caso não haja produtos cadastrados, será
 	 * retornado uma String vazia. Possuindo Produtos cadastrados, seguirá o seguinte formato:
@@ -179,17 +306,40 @@ public class Fornecedor implements Comparable<Fornecedor>{
 	 * @return String com todos os produtos de um fornecedor
 	 */
 	public String getProdutosAll() {
-		String mensagem = "";
-		
-		for(String produto: this.produtos.listaProdutos()) {
-			mensagem += this.nome + " - " + produto + " | ";
+		StringBuilder mensagem = new StringBuilder();
+		try {
+			this.escreveProdutosAll(mensagem);
+		}catch(IOException ioe) {
+			throw new UncheckedIOException(ioe);
+		}
+		return mensagem.toString();
+	}
+	
+	/**
+	 * Retorna a quantidade de itens escritos. Escreve todos os produtos do fornecedor diretamente na saída
+	 * passada como parâmetro, no mesmo formato de getProdutosAll(). Um fornecedor sem produtos escreve um
+	 * único item, "NOME -".
+	 * 
+	 * @param saida Appendable no qual os produtos serão escritos
+	 * @return int com a quantidade de itens escritos
+	 * @throws IOException caso a escrita na saída falhe
+	 */
+	public int escreveProdutosAll(Appendable saida) throws IOException {
+		NavigableSet<Produto> produtos = this.produtos.getProdutosApos(null, null, false);
+		if(produtos.isEmpty()) {
+			saida.append(this.nome).append(" -");
+			return 1;
 		}
-		if(!"".equals(mensagem)) {
-			mensagem = mensagem.substring(0, mensagem.length()-3);
-		}else {
-			mensagem = this.nome + " -";
+		
+		int itens = 0;
+		for(Produto produto: produtos) {
+			if(itens > 0) {
+				saida.append(" | ");
+			}
+			saida.append(this.nome).append(" - ").append(produto.toString());
+			itens++;
 		}
-		return mensagem;
+		return itens;
 	}
 	
 	/**
@@ -1,5 +1,7 @@
 package saga.entities;
 
+import saga.util.Dinheiro;
+
 /**
  * Entidade que representa um Produto no sistema. Um produto possui um nome, um preço e uma descrição.
  * Um produto é identificado unicamente a partir de seu nome e de sua descrição.
@@ -15,15 +17,25 @@ public class Produto implements Comparable<Produto> {
 	private String nome;
 	
 	/**
-	 * Double que representa o preco do produto. Não pode ser negativo.
+	 * Long que representa o preco do produto, em centavos. Não pode ser negativo.
 	 */
-	private double preco;
+	private volatile long preco;
 	
 	/**
 	 * String que representa a descrição do produto. Um produtivo é identificado unicamente com base no seu nome e na sua descrição.
 	 */
 	private String descricao;
 	
+	/**
+	 * Chave do produto, o par nome e descrição, com o hash já calculado
+	 */
+	private ChaveProduto chave;
+	
+	/**
+	 * Identificador inteiro atribuído pelo registro do sistema, ou -1 enquanto não registrado.
+	 */
+	private volatile int id = -1;
+	
 	/**
 	 * Constroi um produto com base em nome, preco e descrição. NullPointerException será lançada para 
 	 * valores nulos passados como parâmetro. IllegalArgumentException será lançada para valores vazios
@@ -52,8 +64,9 @@ public class Produto implements Comparable<Produto> {
 		}
 		
 		this.nome = nome;
-		this.preco = preco;
+		this.preco = Dinheiro.paraCentavos(preco);
 		this.descricao = descricao;
+		this.chave = new ChaveProduto(nome, descricao);
 	}
 
 	/**
@@ -62,7 +75,16 @@ public class Produto implements Comparable<Produto> {
 	 * @return double contendo o preço do produto
 	 */
 	public double getPreco() {
-		return preco;
+		return Dinheiro.paraReais(this.preco);
+	}
+	
+	/**
+	 * Retorna um long relativo ao preço cadastrado do produto, em centavos.
+	 * 
+	 * @return long contendo o preço do produto em centavos
+	 */
+	public long getPrecoCentavos() {
+		return this.preco;
 	}
 
 	/**
@@ -75,9 +97,49 @@ public class Produto implements Comparable<Produto> {
 		if(preco < 0.0) {
 			throw new IllegalArgumentException("O preço não pode ser negativo");
 		}
+		this.preco = Dinheiro.paraCentavos(preco);
+	}
+	
+	/**
+	 * Não possui retorno. Redefine o preço do produto, em centavos. Será lançada IllegalArgumentException
+	 * caso seja inserido um preço negativo.
+	 * 
+	 * @param preco long respectivo ao novo valor, em centavos, que o produto adotará
+	 */
+	public void setPrecoCentavos(long preco) {
+		if(preco < 0) {
+			throw new IllegalArgumentException("O preço não pode ser negativo");
+		}
 		this.preco = preco;
 	}
 
+	/**
+	 * Retorna o identificador inteiro do produto no registro do sistema, ou -1 caso ainda não tenha sido registrado.
+	 * 
+	 * @return int com o identificador do produto
+	 */
+	public int getId() {
+		return this.id;
+	}
+	
+	/**
+	 * Não possui retorno. Define o identificador inteiro do produto. É chamado apenas pelo registro do sistema.
+	 * 
+	 * @param id int com o identificador atribuído
+	 */
+	public void setId(int id) {
+		this.id = id;
+	}
+	
+	/**
+	 * Retorna a chave do produto: o par nome e descrição.
+	 * 
+	 * @return ChaveProduto do produto
+	 */
+	public ChaveProduto getChave() {
+		return this.chave;
+	}
+
 	/**
 	 * Retorna o nome do produto.
 	 * 
@@ -105,7 +167,7 @@ public class Produto implements Comparable<Produto> {
 	 */
 	@Override
 	public int hashCode() {
-		return (this.nome + this.descricao).hashCode();
+		return this.chave.hashCode();
 	}
 	
 	/**
@@ -116,7 +178,7 @@ public class Produto implements Comparable<Produto> {
 	 */
 	@Override
 	public String toString() {
-		return this.nome + " - " + this.descricao + " - R$" + String.format("%.2f", this.preco);
+		return this.nome + " - " + this.descricao + " - R$" + Dinheiro.formataPreco(this.preco);
 	}
 	
 	/**
@@ -137,10 +199,7 @@ public class Produto implements Comparable<Produto> {
 		}
 		Produto obj1 = (Produto) obj;
 		
-		if(this.nome.equals(obj1.nome) && this.descricao.equals(obj1.descricao)) {
-			return true;
-		}
-		return false;
+		return this.chave.equals(obj1.chave);
 	}
 
 	/**
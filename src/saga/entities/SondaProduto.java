@@ -0,0 +1,79 @@
+package saga.entities;
+
+/**
+ * Sonda usada para buscar produtos nos mapas indexados por ChaveProduto sem construir uma chave a cada
+ * consulta. Cada thread possui uma única sonda, reposicionada a cada consulta: ela vale apenas até a próxima
+ * chamada de posiciona() na mesma thread. Por não ser uma ChaveProduto, a sonda não pode ser guardada como
+ * chave nos mapas; serve apenas para get, containsKey e remove.
+ * 
+ * Uma sonda é igual a uma ChaveProduto com o mesmo nome e a mesma descrição, nos dois sentidos, e tem o
+ * mesmo hash.
+ * 
+ * @author Guilherme de Melo Carneiro
+ *
+ */
+public final class SondaProduto {
+
+	/**
+	 * Sonda de cada thread
+	 */
+	private static final ThreadLocal<SondaProduto> SONDAS = ThreadLocal.withInitial(SondaProduto::new);
+
+	/**
+	 * String com o nome buscado
+	 */
+	private String nome;
+
+	/**
+	 * String com a descrição buscada
+	 */
+	private String descricao;
+
+	/**
+	 * Hash do par nome e descrição, como em ChaveProduto
+	 */
+	private int hash;
+
+	private SondaProduto() {
+	}
+
+	/**
+	 * Retorna a sonda da thread atual posicionada no nome e na descrição passados como parâmetro, que não
+	 * devem ser nulos.
+	 * 
+	 * @param nome String com o nome do produto
+	 * @param descricao String com a descrição do produto
+	 * @return SondaProduto da thread
+	 */
+	public static SondaProduto posiciona(String nome, String descricao) {
+		SondaProduto sonda = SONDAS.get();
+		sonda.nome = nome;
+		sonda.descricao = descricao;
+		sonda.hash = ChaveProduto.hash(nome, descricao);
+		return sonda;
+	}
+
+	@Override
+	public int hashCode() {
+		return this.hash;
+	}
+
+	/**
+	 * Retorna true caso o objeto seja uma ChaveProduto com o nome e a descrição buscados.
+	 * 
+	 * @param obj objeto qualquer a ser comparado
+	 * @return true caso a chave corresponda à busca, false caso contrário
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if(!(obj instanceof ChaveProduto)) {
+			return false;
+		}
+		return ((ChaveProduto) obj).corresponde(this.nome, this.descricao, this.hash);
+	}
+
+	@Override
+	public String toString() {
+		return this.nome + " - " + this.descricao;
+	}
+}
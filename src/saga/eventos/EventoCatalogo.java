@@ -0,0 +1,48 @@
+package saga.eventos;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Evento de uma alteração do catálogo de um fornecedor: cadastro, edição ou remoção de produtos e combos.
+ *
+ * @author Guilherme de Melo Carneiro
+ *
+ */
+@Name("saga.Catalogo")
+@Label("Alteracao de Catalogo")
+@Description("Cadastro, edicao ou remocao de um produto ou combo")
+@Category({"SAGA", "Catalogo"})
+@Threshold("1 ms")
+public class EventoCatalogo extends EventoSaga {
+
+	@Label("Operacao")
+	String operacao;
+
+	@Label("Fornecedor")
+	String fornecedor;
+
+	@Label("Produto")
+	String produto;
+
+	@Label("Descricao do Produto")
+	String descricao;
+
+	/**
+	 * Constroi o evento da operação passada como parâmetro sobre um produto ou combo do fornecedor.
+	 *
+	 * @param operacao String com o nome da operação da fachada
+	 * @param fornecedor String com o nome do fornecedor
+	 * @param produto String com o nome do produto ou combo
+	 * @param descricao String com a descrição do produto ou combo
+	 */
+	public EventoCatalogo(String operacao, String fornecedor, String produto, String descricao) {
+		this.operacao = operacao;
+		this.fornecedor = fornecedor;
+		this.produto = produto;
+		this.descricao = descricao;
+	}
+}
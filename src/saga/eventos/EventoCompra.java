@@ -0,0 +1,49 @@
+package saga.eventos;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Evento de uma compra de um cliente a um fornecedor.
+ *
+ * @author Guilherme de Melo Carneiro
+ *
+ */
+@Name("saga.Compra")
+@Label("Compra")
+@Description("Compra de um produto por um cliente")
+@Category({"SAGA", "Contas"})
+@Threshold("1 ms")
+public class EventoCompra extends EventoSaga {
+
+	@Label("CPF")
+	String cpf;
+
+	@Label("Fornecedor")
+	String fornecedor;
+
+	@Label("Produto")
+	String produto;
+
+	@Label("Descricao do Produto")
+	String descricao;
+
+	/**
+	 * Constroi o evento da compra do produto passado como parâmetro. Os valores são os recebidos pela
+	 * operação e podem ser nulos.
+	 *
+	 * @param cpf String com o cpf do cliente
+	 * @param fornecedor String com o nome do fornecedor
+	 * @param produto String com o nome do produto
+	 * @param descricao String com a descrição do produto
+	 */
+	public EventoCompra(String cpf, String fornecedor, String produto, String descricao) {
+		this.cpf = cpf;
+		this.fornecedor = fornecedor;
+		this.produto = produto;
+		this.descricao = descricao;
+	}
+}
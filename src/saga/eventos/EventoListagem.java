@@ -0,0 +1,110 @@
+package saga.eventos;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+import saga.util.Pagina;
+
+/**
+ * Evento da montagem de uma listagem: clientes, fornecedores, produtos, contas, devedores ou busca. Registra
+ * a quantidade de itens listados e o tamanho da saída. Os itens são contados pela própria listagem, um a um
+ * à medida que os escreve: clientes, fornecedores, produtos, devedores, contas do cliente ou compras do
+ * período, de modo que um " | " no texto de um item não altera a contagem.
+ *
+ * A instrumentação dos eventos pelo JFR não admite, nos métodos do evento, desvios que misturem tipos
+ * distintos, como instanceof; por isso a contagem dos caracteres das listagens escritas em uma saída fica
+ * em SaidaContada.
+ *
+ * @author Guilherme de Melo Carneiro
+ *
+ */
+@Name("saga.Listagem")
+@Label("Listagem")
+@Description("Montagem de uma listagem de clientes, fornecedores, produtos ou contas")
+@Category({"SAGA", "Listagens"})
+@Threshold("10 ms")
+public class EventoListagem extends EventoSaga {
+
+	@Label("Operacao")
+	String operacao;
+
+	@Label("Chave")
+	@Description("CPF do cliente ou nome do fornecedor listado, ou o termo buscado")
+	String chave;
+
+	@Label("Itens")
+	long itens;
+
+	@Label("Tamanho da Saida")
+	long caracteres;
+
+	/**
+	 * Constroi o evento da listagem montada pela operação passada como parâmetro.
+	 *
+	 * @param operacao String com o nome da operação da fachada
+	 * @param chave String com o cpf, o fornecedor ou o termo da listagem, ou null para as listagens gerais
+	 */
+	public EventoListagem(String operacao, String chave) {
+		this.operacao = operacao;
+		this.chave = chave;
+	}
+
+	/**
+	 * Não possui retorno. Encerra a medição e grava o evento da listagem passada como parâmetro, caso sua
+	 * duração atinja o limiar da gravação.
+	 *
+	 * @param listagem String com a listagem montada
+	 * @param itens int com a quantidade de itens escritos pela listagem
+	 */
+	public void conclui(String listagem, int itens) {
+		this.end();
+		if(this.shouldCommit()) {
+			this.sucesso = true;
+			this.caracteres = listagem == null ? 0 : listagem.length();
+			this.itens = itens;
+			this.commit();
+		}
+	}
+
+	/**
+	 * Não possui retorno. Encerra a medição e grava o evento da página passada como parâmetro, caso sua
+	 * duração atinja o limiar da gravação.
+	 *
+	 * @param pagina Pagina montada
+	 */
+	public void conclui(Pagina pagina) {
+		this.end();
+		if(this.shouldCommit()) {
+			this.sucesso = true;
+			this.itens = pagina.getItens().size();
+			long caracteres = 0;
+			for(String item: pagina.getItens()) {
+				caracteres += item.length();
+			}
+			this.caracteres = this.itens == 0 ? 0 : caracteres + SaidaContada.SEPARADOR.length() * (this.itens - 1);
+			this.commit();
+		}
+	}
+
+	/**
+	 * Não possui retorno. Encerra a medição e grava o evento de uma listagem escrita na saída passada como
+	 * parâmetro, caso sua duração atinja o limiar da gravação. A saída é null quando o evento não está
+	 * habilitado.
+	 *
+	 * @param saida SaidaContada na qual a listagem foi escrita, ou null
+	 * @param itens int com a quantidade de itens escritos pela listagem
+	 */
+	public void conclui(SaidaContada saida, int itens) {
+		this.end();
+		if(this.shouldCommit()) {
+			this.sucesso = true;
+			this.itens = itens;
+			if(saida != null) {
+				this.caracteres = saida.caracteres;
+			}
+			this.commit();
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package saga.eventos;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Evento do pagamento da conta de um cliente com um fornecedor.
+ *
+ * @author Guilherme de Melo Carneiro
+ *
+ */
+@Name("saga.Pagamento")
+@Label("Pagamento")
+@Description("Pagamento da conta de um cliente com um fornecedor")
+@Category({"SAGA", "Contas"})
+@Threshold("1 ms")
+public class EventoPagamento extends EventoSaga {
+
+	@Label("CPF")
+	String cpf;
+
+	@Label("Fornecedor")
+	String fornecedor;
+
+	/**
+	 * Constroi o evento do pagamento da conta do cliente com o fornecedor passados como parâmetro.
+	 *
+	 * @param cpf String com o cpf do cliente
+	 * @param fornecedor String com o nome do fornecedor
+	 */
+	public EventoPagamento(String cpf, String fornecedor) {
+		this.cpf = cpf;
+		this.fornecedor = fornecedor;
+	}
+}
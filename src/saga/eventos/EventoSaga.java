@@ -0,0 +1,50 @@
+package saga.eventos;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento do Java Flight Recorder emitido por uma operação do SAGA. Registra a duração da operação, seu
+ * sucesso e, em caso de falha, a mensagem de erro, de modo que operações lentas possam ser relacionadas às
+ * pausas de coleta e às alocações da mesma gravação. Cada tipo de evento tem um limiar padrão de duração,
+ * abaixo do qual não é gravado, que pode ser alterado nas configurações da gravação (por exemplo,
+ * -XX:StartFlightRecording:saga.Compra#threshold=0ms). Com a gravação desligada, o custo de um evento é o
+ * de uma alocação que a JVM normalmente elimina.
+ *
+ * @author Guilherme de Melo Carneiro
+ *
+ */
+@Category("SAGA")
+@StackTrace(false)
+public abstract class EventoSaga extends Event {
+
+	/**
+	 * Indica se a operação foi bem-sucedida
+	 */
+	@Label("Sucesso")
+	boolean sucesso;
+
+	/**
+	 * Mensagem de erro da falha, ou null em caso de sucesso
+	 */
+	@Label("Mensagem de Erro")
+	String mensagem;
+
+	/**
+	 * Não possui retorno. Encerra a medição da operação e grava o evento, caso sua duração atinja o limiar da
+	 * gravação em curso.
+	 *
+	 * @param sucesso boolean que indica se a operação foi bem-sucedida
+	 * @param mensagem String com a mensagem de erro, ou null em caso de sucesso
+	 */
+	public void conclui(boolean sucesso, String mensagem) {
+		this.end();
+		if(this.shouldCommit()) {
+			this.sucesso = sucesso;
+			this.mensagem = mensagem;
+			this.commit();
+		}
+	}
+}
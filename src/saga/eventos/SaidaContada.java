@@ -0,0 +1,51 @@
+package saga.eventos;
+
+import java.io.IOException;
+
+/**
+ * Saída que repassa a escrita a outra, contando os caracteres escritos, para o evento das listagens escritas
+ * diretamente em uma saída (EventoListagem). Os itens são contados pelas próprias listagens, à medida que
+ * os escrevem.
+ *
+ * @author Guilherme de Melo Carneiro
+ *
+ */
+public class SaidaContada implements Appendable {
+
+	/**
+	 * Separador dos itens das listagens
+	 */
+	static final String SEPARADOR = " | ";
+
+	private final Appendable saida;
+
+	long caracteres;
+
+	/**
+	 * Constroi uma saída contada que repassa a escrita à saída passada como parâmetro.
+	 *
+	 * @param saida Appendable no qual a listagem será escrita
+	 */
+	public SaidaContada(Appendable saida) {
+		this.saida = saida;
+	}
+
+	@Override
+	public Appendable append(CharSequence texto) throws IOException {
+		return this.append(texto, 0, texto == null ? 4 : texto.length());
+	}
+
+	@Override
+	public Appendable append(CharSequence texto, int inicio, int fim) throws IOException {
+		this.saida.append(texto, inicio, fim);
+		this.caracteres += fim - inicio;
+		return this;
+	}
+
+	@Override
+	public Appendable append(char c) throws IOException {
+		this.saida.append(c);
+		this.caracteres++;
+		return this;
+	}
+}
@@ -1,16 +1,52 @@
 package saga.facade;
 
-import java.text.DecimalFormat;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 import easyaccept.EasyAccept;
 import saga.controllers.ClientesController;
 import saga.controllers.FornecedoresController;
+import saga.entities.Cliente;
+import saga.entities.Fornecedor;
+import saga.entities.Produto;
+import saga.eventos.EventoCatalogo;
+import saga.eventos.EventoCompra;
+import saga.eventos.EventoListagem;
+import saga.eventos.EventoPagamento;
+import saga.eventos.EventoSaga;
+import saga.eventos.SaidaContada;
+import saga.persistencia.Diario;
+import saga.persistencia.Operacao;
+import saga.persistencia.Snapshot;
 import saga.services.FornecedorService;
+import saga.services.Registro;
+import saga.util.Dinheiro;
+import saga.util.Pagina;
+import saga.util.Resultado;
 
 /**
  * Fachada de métodos do Sistema SAGA. Contém todos os métodos necessários para gerir
  * um sistema de auto-gestão de alimentos.
  * 
+ * Uma mesma fachada pode ser compartilhada por vários terminais (threads): compras e pagamentos de
+ * clientes diferentes prosseguem em paralelo, e o catálogo de fornecedores pode ser consultado sem travas.
+ * 
+ * Uma fachada construída a partir de um diretório registra cada operação que altera o estado em um diário
+ * (saga.persistencia.Diario) e, ao ser construída novamente, reproduz o diário e recupera o estado anterior.
+ * Periodicamente, salvaSnapshot() grava o estado completo em um snapshot (saga.persistencia.Snapshot) e
+ * descarta o diário já coberto por ele, de modo que a recuperação carrega o snapshot e reproduz apenas as
+ * operações posteriores.
+ * 
+ * Compras, pagamentos, alterações do catálogo e listagens emitem eventos do Java Flight Recorder
+ * (saga.eventos), com o cliente, o fornecedor e o tamanho das listagens, para que as operações lentas
+ * apareçam nas gravações junto às coletas de lixo e alocações.
+ * 
  * @author Guilherme de Melo Carneiro
  */
 public class Facade {
@@ -27,13 +63,124 @@ public class Facade {
 	private FornecedoresController fornecedores;
 	
 	/**
-	 * Constroi uma fachada.
+	 * Registro compartilhado pelos controladores, que atribui os identificadores usados como handles
+	 */
+	private Registro registro;
+	
+	/**
+	 * Serviço de acesso aos fornecedores usado pelas operações de clientes, com o cache de consultas de produto
+	 */
+	private FornecedorService fornecedorService;
+	
+	/**
+	 * Diário das operações que alteram o estado, ou null para uma fachada apenas em memória. Permanece null
+	 * enquanto o diário é reproduzido, para que a reprodução não seja registrada novamente.
+	 */
+	private Diario diario;
+	
+	private static final String ARQUIVO_SNAPSHOT = "saga.snapshot";
+	
+	/**
+	 * Trava que mantém a ordem das operações no diário igual à ordem em que foram aplicadas. Compras e
+	 * pagamentos a seguram compartilhada e são ordenados pela trava do cpf do cliente, pois operações sobre
+	 * clientes diferentes comutam entre si; as demais operações, o fechamento e o snapshot a seguram exclusiva.
+	 */
+	private final ReentrantReadWriteLock travaDiario = new ReentrantReadWriteLock();
+	
+	/**
+	 * Monitor das operações exclusivas. Nunca é disputado, pois só é tomado sob a trava exclusiva do diário.
+	 */
+	private final Object ordemExclusiva = new Object();
+	
+	/**
+	 * Diretório onde ficam o snapshot e os diários de uma fachada persistente
+	 */
+	private Path diretorio;
+	
+	/**
+	 * Geração do diário em uso. Cada snapshot inicia uma nova geração, e os diários de gerações anteriores
+	 * ao snapshot são descartados.
+	 */
+	private long geracaoDiario;
+	
+	/**
+	 * Constroi uma fachada. Cada compra mantém o preço do produto no momento em que foi feita.
 	 */
 	public Facade() {
-		this.clientes = new ClientesController();
-		this.fornecedores = new FornecedoresController();
+		this(false);
 	}
-
+	
+	/**
+	 * Constroi uma fachada. Caso reprecificaContas seja true, as compras pendentes acompanham as edições de
+	 * preço dos produtos e combos, e apenas as contas que compraram o produto editado são atualizadas; caso
+	 * contrário, cada compra mantém o preço do momento em que foi feita.
+	 * 
+	 * @param reprecificaContas boolean que indica se as contas em aberto acompanham o preço do catálogo
+	 */
+	public Facade(boolean reprecificaContas) {
+		this.registro = new Registro();
+		this.clientes = new ClientesController(this.registro, reprecificaContas);
+		this.fornecedores = new FornecedoresController(this.registro);
+		this.fornecedorService = new FornecedorService(this.fornecedores);
+	}
+	
+	/**
+	 * Constroi uma fachada persistente, cujo snapshot e diários ficam no diretório passado como parâmetro.
+	 * Caso já exista um estado salvo no diretório, o snapshot é carregado e as operações registradas depois
+	 * dele são reproduzidas, restaurando o estado anterior. Cada operação que altera o estado só retorna
+	 * depois de gravada em disco.
+	 * 
+	 * @param diretorio Path do diretório onde o snapshot e os diários são armazenados
+	 * @throws IOException caso o snapshot ou o diário não possam ser lidos
+	 */
+	public Facade(Path diretorio) throws IOException {
+		this(diretorio, false);
+	}
+	
+	/**
+	 * Constroi uma fachada persistente no diretório passado como parâmetro, na qual as contas em aberto
+	 * acompanham ou não o preço do catálogo. O estado salvo deve ser reaberto sempre com a mesma opção,
+	 * para que a reprodução do diário chegue aos mesmos débitos.
+	 * 
+	 * @param diretorio Path do diretório onde o snapshot e os diários são armazenados
+	 * @param reprecificaContas boolean que indica se as contas em aberto acompanham o preço do catálogo
+	 * @throws IOException caso o snapshot ou o diário não possam ser lidos
+	 */
+	public Facade(Path diretorio, boolean reprecificaContas) throws IOException {
+		this(reprecificaContas);
+		Files.createDirectories(diretorio);
+		this.diretorio = diretorio;
+		
+		Path snapshot = diretorio.resolve(ARQUIVO_SNAPSHOT);
+		long geracao = 0;
+		if(Files.exists(snapshot)) {
+			geracao = Snapshot.carrega(snapshot, this.clientes, this.fornecedores);
+		}
+		
+		long ultimaGeracao = geracao;
+		while(Files.exists(this.arquivoDiario(ultimaGeracao + 1))) {
+			ultimaGeracao++;
+		}
+		this.descartaDiarios(geracao);
+		
+		Diario diario = null;
+		for(long g = geracao; g <= ultimaGeracao; g++) {
+			diario = new Diario(this.arquivoDiario(g));
+			try {
+				diario.reproduz(this::reproduz);
+			}catch(IOException | RuntimeException e) {
+				diario.fecha();
+				throw e;
+			}
+			if(g < ultimaGeracao) {
+				diario.fecha();
+			}
+		}
+		this.geracaoDiario = ultimaGeracao;
+		this.diario = diario;
+		assert this.clientes.isDebitosConsistentes() : "Debito acumulado divergente do recalculo das compras.";
+	}
+	
 	/**
 	 * Retorna o CPF do cliente cadastrado, se bem-sucedido, e null caso contrário. Cadastra um cliente
 	 * no SAGA com base em seu cpf, seu nome, seu e-mail e laboratório de origem(localizacao). Um 
@@ -48,7 +195,7 @@ public class Facade {
 	 * @return String contendo o CPF do cliente cadastrado quando o cadastro for bem-sucedido, null caso contrário
 	 */
 	public String adicionaCliente(String cpf, String nome, String email, String localizacao) {
-		return this.clientes.cadastraCliente(cpf, nome, email, localizacao);
+		return this.registra(Operacao.ADICIONA_CLIENTE, () -> this.clientes.cadastraCliente(cpf, nome, email, localizacao), cpf, nome, email, localizacao);
 	}
 	
 	/**
@@ -70,7 +217,32 @@ public class Facade {
 	 * @return String contendo informações sobre todos os clientes já cadastrados no sistema
 	 */
 	public String exibeClientes() {
-		return this.clientes.consultaClientesAll();
+		return this.lista(new EventoListagem("exibeClientes", null), this.clientes::escreveClientesAll);
+	}
+	
+	/**
+	 * Não possui retorno. Escreve todos os clientes já cadastrados no sistema diretamente na saída passada
+	 * como parâmetro (um Writer, um StringBuilder, um PrintStream, etc.), no mesmo formato de exibeClientes(),
+	 * sem montar a listagem inteira em memória.
+	 * 
+	 * @param saida Appendable no qual a listagem será escrita
+	 * @throws IOException caso a escrita na saída falhe
+	 */
+	public void exibeClientes(Appendable saida) throws IOException {
+		this.escreve(new EventoListagem("exibeClientes", null), saida, this.clientes::escreveClientesAll);
+	}
+	
+	/**
+	 * Retorna uma página da listagem de clientes, no mesmo formato e na mesma ordem de exibeClientes(), com
+	 * no máximo limite clientes. A primeira página é obtida com cursor null; as seguintes, com o cursor
+	 * devolvido pela página anterior, até que ela seja a última.
+	 * 
+	 * @param cursor String com o cursor devolvido pela página anterior, ou null
+	 * @param limite int com a quantidade máxima de clientes da página
+	 * @return Pagina com os clientes e o cursor da próxima página
+	 */
+	public Pagina exibeClientesPagina(String cursor, int limite) {
+		return this.listaPagina(new EventoListagem("exibeClientesPagina", null), () -> this.clientes.exibeClientesPagina(cursor, limite));
 	}
 	
 	/**
@@ -85,7 +257,7 @@ public class Facade {
 	 * @return true para uma edição de cliente bem-sucedida, false caso contrário
 	 */
 	public boolean editaCliente(String cpf, String atributo, String informacao) {
-		return this.clientes.editaCliente(cpf, atributo, informacao);
+		return this.registra(Operacao.EDITA_CLIENTE, () -> this.clientes.editaCliente(cpf, atributo, informacao), cpf, atributo, informacao);
 	}
 	
 	/**
@@ -96,7 +268,7 @@ public class Facade {
 	 * @return true para uma remoção de cliente bem-sucedida, false caso contrário
 	 */
 	public boolean removeCliente(String cpf) {
-		return this.clientes.removeCliente(cpf);
+		return this.registra(Operacao.REMOVE_CLIENTE, () -> this.clientes.removeCliente(cpf), cpf);
 	}
 	
 	/**
@@ -112,7 +284,7 @@ public class Facade {
 	 * @return String com o nome do fornecedor para um cadastro bem-sucedido
 	 */
 	public String adicionaFornecedor(String nome, String email, String telefone) {
-		return this.fornecedores.cadastraFornecedor(nome, email, telefone);
+		return this.registra(Operacao.ADICIONA_FORNECEDOR, () -> this.fornecedores.cadastraFornecedor(nome, email, telefone), nome, email, telefone);
 	}
 
 	/**
@@ -133,7 +305,30 @@ public class Facade {
 	 * @return String contendo todos os fornecedores já cadastrados
 	 */
 	public String exibeFornecedores() {
-		return this.fornecedores.imprimeFornecedoresAll();
+		return this.lista(new EventoListagem("exibeFornecedores", null), this.fornecedores::escreveFornecedoresAll);
+	}
+	
+	/**
+	 * Não possui retorno. Escreve todos os fornecedores já cadastrados no sistema diretamente na saída passada
+	 * como parâmetro, no mesmo formato de exibeFornecedores(), sem montar a listagem inteira em memória.
+	 * 
+	 * @param saida Appendable no qual a listagem será escrita
+	 * @throws IOException caso a escrita na saída falhe
+	 */
+	public void exibeFornecedores(Appendable saida) throws IOException {
+		this.escreve(new EventoListagem("exibeFornecedores", null), saida, this.fornecedores::escreveFornecedoresAll);
+	}
+	
+	/**
+	 * Retorna uma página da listagem de fornecedores, no mesmo formato e na mesma ordem de exibeFornecedores(),
+	 * com no máximo limite fornecedores. A primeira página é obtida com cursor null.
+	 * 
+	 * @param cursor String com o cursor devolvido pela página anterior, ou null
+	 * @param limite int com a quantidade máxima de fornecedores da página
+	 * @return Pagina com os fornecedores e o cursor da próxima página
+	 */
+	public Pagina exibeFornecedoresPagina(String cursor, int limite) {
+		return this.listaPagina(new EventoListagem("exibeFornecedoresPagina", null), () -> this.fornecedores.exibeFornecedoresPagina(cursor, limite));
 	}
 	
 	/**
@@ -147,18 +342,65 @@ public class Facade {
 	 * @return true para uma edição de fornecedor bem-sucedida, false caso contrário
 	 */
 	public boolean editaFornecedor(String nome, String atributo, String novoValor) {
-		return this.fornecedores.editaFornecedor(nome, atributo, novoValor);
+		return this.registra(Operacao.EDITA_FORNECEDOR, () -> this.fornecedores.editaFornecedor(nome, atributo, novoValor), nome, atributo, novoValor);
 	}
 	
 	/**
 	 * Retorna um booleano sobre o sucesso da remoção de um fornecedor do sistema. Caso seja passado
-	 * um nome de fornecedor que não existe no sistema, será retornado false.
+	 * um nome de fornecedor que não existe no sistema, será retornado false. As contas em aberto dos
+	 * clientes com o fornecedor removido também são removidas.
 	 * 
 	 * @param nome String contendo o nome do fornecedor que se quer remover
 	 * @return true para uma remoção de fornecedor bem-sucedida, false caso contrário.
 	 */
 	public boolean removeFornecedor(String nome){
-		return this.fornecedores.removeFornecedor(nome);
+		return this.registra(Operacao.REMOVE_FORNECEDOR, () -> {
+			boolean removido = this.fornecedores.removeFornecedor(nome);
+			this.clientes.removeContasFornecedor(nome);
+			return removido;
+		}, nome);
+	}
+	
+	/**
+	 * Retorna uma String com os clientes que possuem conta em aberto com o fornecedor, ordenados pelo nome, no
+	 * formato "NOME - CPF - DEBITO", separados por " | ". O custo é proporcional à quantidade de clientes do
+	 * fornecedor. Lança Exceptions para fornecedor nulo, vazio ou inexistente.
+	 * 
+	 * @param fornecedor String com o nome do fornecedor
+	 * @return String com os devedores do fornecedor
+	 */
+	public String exibeDevedores(String fornecedor) {
+		return this.lista(new EventoListagem("exibeDevedores", fornecedor), mensagem -> this.clientes.escreveDevedores(fornecedor, this.fornecedorService, mensagem));
+	}
+	
+	/**
+	 * Retorna uma String com o total a receber do fornecedor, com duas casas decimais: a soma dos débitos em
+	 * aberto de todos os clientes com ele. O total é mantido a cada compra e pagamento, sem percorrer as
+	 * contas. Lança Exceptions para fornecedor nulo, vazio ou inexistente.
+	 * 
+	 * @param fornecedor String com o nome do fornecedor
+	 * @return String com o total a receber do fornecedor
+	 */
+	public String getRecebiveis(String fornecedor) {
+		if(fornecedor == null) {
+			throw new NullPointerException("Erro ao recuperar recebiveis: fornecedor nao pode ser vazio ou nulo.");
+		}
+		if(fornecedor.trim().isEmpty()) {
+			throw new IllegalArgumentException("Erro ao recuperar recebiveis: fornecedor nao pode ser vazio ou nulo.");
+		}
+		if(!this.fornecedores.existeFornecedor(fornecedor)) {
+			throw new NullPointerException("Erro ao recuperar recebiveis: fornecedor nao existe.");
+		}
+		return Dinheiro.formataDebito(this.clientes.getRecebiveis(fornecedor));
+	}
+	
+	/**
+	 * Retorna uma String com o total a receber de todos os fornecedores, com duas casas decimais.
+	 * 
+	 * @return String com o total a receber
+	 */
+	public String getRecebiveisTotal() {
+		return Dinheiro.formataDebito(this.clientes.getRecebiveisTotal());
 	}
 	
 	/**
@@ -176,7 +418,7 @@ public class Facade {
 	 * @return true para um cadastro bem-sucedido, false caso contrário
 	 */
 	public boolean adicionaProduto(String fornecedor, String nome, String descricao, double preco) {
-		return this.fornecedores.cadastraProduto(fornecedor, nome, preco, descricao);
+		return this.emite(new EventoCatalogo("adicionaProduto", fornecedor, nome, descricao), () -> this.registra(Operacao.ADICIONA_PRODUTO, () -> this.fornecedores.cadastraProduto(fornecedor, nome, preco, descricao), fornecedor, nome, descricao, preco));
 	}
 	
 	/**
@@ -189,7 +431,7 @@ public class Facade {
 	 * @return
 	 */
 	public boolean adicionaCombo(String fornecedor, String nome, String descricao, double fator, String produtos) {
-		return this.fornecedores.adicionaCombo(fornecedor, nome, descricao, fator, produtos);
+		return this.emite(new EventoCatalogo("adicionaCombo", fornecedor, nome, descricao), () -> this.registra(Operacao.ADICIONA_COMBO, () -> this.fornecedores.adicionaCombo(fornecedor, nome, descricao, fator, produtos), fornecedor, nome, descricao, fator, produtos));
 	}
 	/**
 	 * Retorna String contendo informações sobre um produto. Recupera informações sobre um produto pertencente
@@ -214,7 +456,20 @@ public class Facade {
 	 * @return String contendo informações sobre o fornecedor buscado, null caso não exista tal fornecedor no sistema
 	 */
 	public String exibeProdutosFornecedor(String fornecedor) {
-		return this.fornecedores.imprimeProdutosFornecedor(fornecedor);
+		return this.lista(new EventoListagem("exibeProdutosFornecedor", fornecedor), mensagem -> this.fornecedores.escreveProdutosFornecedor(fornecedor, mensagem));
+	}
+	
+	/**
+	 * Retorna uma página dos produtos de um fornecedor, no mesmo formato e na mesma ordem de
+	 * exibeProdutosFornecedor(), com no máximo limite produtos. A primeira página é obtida com cursor null.
+	 * 
+	 * @param fornecedor String com o nome do fornecedor
+	 * @param cursor String com o cursor devolvido pela página anterior, ou null
+	 * @param limite int com a quantidade máxima de produtos da página
+	 * @return Pagina com os produtos e o cursor da próxima página
+	 */
+	public Pagina exibeProdutosFornecedorPagina(String fornecedor, String cursor, int limite) {
+		return this.listaPagina(new EventoListagem("exibeProdutosFornecedorPagina", fornecedor), () -> this.fornecedores.exibeProdutosFornecedorPagina(fornecedor, cursor, limite));
 	}
 
 	/**
@@ -224,7 +479,46 @@ public class Facade {
 	 * @return String contendo todos os produtos já cadastrados no sistema, de todos os fornecedores
 	 */
 	public String exibeProdutos() {
-		return this.fornecedores.imprimeProdutosAll();
+		return this.lista(new EventoListagem("exibeProdutos", null), this.fornecedores::escreveProdutosAll);
+	}
+	
+	/**
+	 * Retorna uma página da listagem de produtos de todos os fornecedores, no mesmo formato e na mesma ordem
+	 * de exibeProdutos(), com no máximo limite itens. A primeira página é obtida com cursor null.
+	 * 
+	 * @param cursor String com o cursor devolvido pela página anterior, ou null
+	 * @param limite int com a quantidade máxima de itens da página
+	 * @return Pagina com os produtos e o cursor da próxima página
+	 */
+	public Pagina exibeProdutosPagina(String cursor, int limite) {
+		return this.listaPagina(new EventoListagem("exibeProdutosPagina", null), () -> this.fornecedores.exibeProdutosPagina(cursor, limite));
+	}
+	
+	/**
+	 * Retorna uma String com os produtos de todos os fornecedores que correspondem ao termo buscado, do mais
+	 * ao menos relevante, com no máximo limite produtos, no mesmo formato de exibeProdutos(). O termo é
+	 * comparado, sem diferenciar maiúsculas e acentos, com o início das palavras do nome e da descrição dos
+	 * produtos; palavras com erros de digitação são aceitas quando nenhum produto corresponde. Caso
+	 * nenhum produto corresponda, uma String vazia é retornada.
+	 * 
+	 * @param termo String com o termo buscado
+	 * @param limite int com a quantidade máxima de produtos retornados
+	 * @return String com os produtos encontrados
+	 */
+	public String buscaProdutos(String termo, int limite) {
+		return this.lista(new EventoListagem("buscaProdutos", termo), mensagem -> this.fornecedores.escreveBusca(termo, limite, mensagem));
+	}
+	
+	/**
+	 * Não possui retorno. Escreve todos os produtos já cadastrados no sistema, de todos os fornecedores,
+	 * diretamente na saída passada como parâmetro, no mesmo formato de exibeProdutos(), sem montar a
+	 * listagem inteira em memória.
+	 * 
+	 * @param saida Appendable no qual a listagem será escrita
+	 * @throws IOException caso a escrita na saída falhe
+	 */
+	public void exibeProdutos(Appendable saida) throws IOException {
+		this.escreve(new EventoListagem("exibeProdutos", null), saida, this.fornecedores::escreveProdutosAll);
 	}
 
 	/**
@@ -239,7 +533,7 @@ public class Facade {
 	 * @return true para uma edição de preço de produto bem-sucedida, false caso contrário
 	 */
 	public boolean editaProduto(String nomeProduto, String descricao, String nomeFornecedor, double precoProduto) {
-		return this.fornecedores.editarPrecoProduto(nomeFornecedor, nomeProduto, descricao, precoProduto);
+		return this.emite(new EventoCatalogo("editaProduto", nomeFornecedor, nomeProduto, descricao), () -> this.registra(Operacao.EDITA_PRODUTO, () -> this.reprecifica(this.fornecedores.editarPrecoProduto(nomeFornecedor, nomeProduto, descricao, precoProduto), nomeFornecedor, nomeProduto, descricao), nomeProduto, descricao, nomeFornecedor, precoProduto));
 	}
 	
 	/**
@@ -254,7 +548,24 @@ public class Facade {
 	 * @return true para uma edição bem-sucedida, false caso contrário
 	 */
 	public boolean editaCombo(String nome, String descricao, String fornecedor, double novoFator) {
-		return this.fornecedores.editaCombo(nome, descricao, fornecedor, novoFator);
+		return this.emite(new EventoCatalogo("editaCombo", fornecedor, nome, descricao), () -> this.registra(Operacao.EDITA_COMBO, () -> this.reprecifica(this.fornecedores.editaCombo(nome, descricao, fornecedor, novoFator), fornecedor, nome, descricao), nome, descricao, fornecedor, novoFator));
+	}
+	
+	/**
+	 * Retorna o resultado da edição de preço. Caso a edição tenha sido bem-sucedida e as contas em aberto
+	 * acompanhem o catálogo, atualiza as compras pendentes do produto editado e dos combos que o contêm.
+	 * 
+	 * @param editado boolean com o resultado da edição
+	 * @param fornecedor String com o nome do fornecedor do produto
+	 * @param nome String com o nome do produto ou combo editado
+	 * @param descricao String com a descrição do produto ou combo editado
+	 * @return o próprio resultado da edição
+	 */
+	private boolean reprecifica(boolean editado, String fornecedor, String nome, String descricao) {
+		if(editado && this.clientes.isReprecificaContas()) {
+			this.clientes.reprecificaContas(this.fornecedores.getFornecedor(fornecedor), this.fornecedores.getProdutosAfetados(fornecedor, nome, descricao));
+		}
+		return editado;
 	}
 
 	/**
@@ -267,7 +578,7 @@ public class Facade {
 	 * @return true para uma remoção de produto bem-sucedida, false caso contrário
 	 */
 	public boolean removeProduto(String nome, String descricao, String fornecedor) {
-		return this.fornecedores.removeProduto(fornecedor, nome, descricao);
+		return this.emite(new EventoCatalogo("removeProduto", fornecedor, nome, descricao), () -> this.registra(Operacao.REMOVE_PRODUTO, () -> this.fornecedores.removeProduto(fornecedor, nome, descricao), nome, descricao, fornecedor));
 	}
 	
 	/**
@@ -282,20 +593,20 @@ public class Facade {
 	 * @return true para uma compra bem-sucedida, false caso contrário
 	 */
 	public boolean adicionaCompra(String cpf, String fornecedor, String data, String nome_prod, String desc_prod) {
-		return this.clientes.adicionaCompra(cpf, fornecedor, data, nome_prod, desc_prod, new FornecedorService(this.fornecedores));
+		return this.emite(new EventoCompra(cpf, fornecedor, nome_prod, desc_prod), () -> this.registraConta(cpf, Operacao.ADICIONA_COMPRA, () -> this.clientes.adicionaCompra(cpf, fornecedor, data, nome_prod, desc_prod, this.fornecedorService), cpf, fornecedor, data, nome_prod, desc_prod));
 	}
 	
 	/**
-	 * Retorna um double contendo o valor do débito do cliente passado como parâmetro. Lança Exceptions para valores nulos ou
+	 * Retorna uma String contendo o valor do débito do cliente passado como parâmetro, com duas casas decimais. Lança Exceptions para valores nulos ou
 	 * vazios passados como parâmetros(NullPointerException e IllegalArgumentException, respectivamente). Lança Exceptions
 	 * para casos em que o cliente não exista, o fornecedor não exista ou a conta não exista.
 	 * 
 	 * @param cpf String contendo o cpf do cliente que possui a conta que possui o debito
 	 * @param fornecedor fornecedor que possui a conta do débito
-	 * @return double contendo o débito do cliente
+	 * @return String contendo o débito do cliente
 	 */
 	public String getDebito(String cpf, String fornecedor) {
-		return new DecimalFormat("####.00").format(this.clientes.getDebitoFornecedor(cpf, fornecedor, new FornecedorService(this.fornecedores))).replaceAll(",", ".");
+		return Dinheiro.formataDebito(this.clientes.getDebitoFornecedor(cpf, fornecedor, this.fornecedorService));
 	}
 	
 	/**
@@ -308,7 +619,7 @@ public class Facade {
 	 * @return String contendo informaçoes sobre a conta do cliente a determinado fornecedor
 	 */
 	public String exibeContas(String cpf, String fornecedor) {
-		return this.clientes.exibeConta(cpf, fornecedor, new FornecedorService(this.fornecedores));
+		return this.clientes.exibeConta(cpf, fornecedor, this.fornecedorService);
 	}
 	
 	/**
@@ -319,7 +630,38 @@ public class Facade {
 	 * @return String contendo informações sobre todas as contas que o cliente possui
 	 */
 	public String exibeContasClientes(String cpf) {
-		return this.clientes.exibeContasAll(cpf);
+		return this.lista(new EventoListagem("exibeContasClientes", cpf), mensagem -> this.clientes.tentaEscreveContasAll(cpf, mensagem).getValorOuLanca());
+	}
+	
+	/**
+	 * Retorna String com as compras pendentes do cliente com o fornecedor feitas entre as datas passadas como
+	 * parâmetro, inclusive, na ordem das datas, seguidas do subtotal, no formato
+	 * "Cliente: NOME | FORNECEDOR | NOME_PRODUTO - dd-MM-yyyy | ... | Subtotal: DEBITO". O custo é o de uma
+	 * busca binária mais o das compras listadas. Lança Exceptions para parâmetros nulos, vazios ou inválidos,
+	 * cliente ou fornecedor inexistentes, data inicial posterior à final ou ausência de conta com o fornecedor.
+	 * 
+	 * @param cpf String com o cpf do cliente
+	 * @param fornecedor String com o nome do fornecedor
+	 * @param dataInicial String com a data inicial do período, no formato dd/MM/yyyy
+	 * @param dataFinal String com a data final do período, no formato dd/MM/yyyy
+	 * @return String com as compras do período e o subtotal
+	 */
+	public String exibeComprasPeriodo(String cpf, String fornecedor, String dataInicial, String dataFinal) {
+		return this.lista(new EventoListagem("exibeComprasPeriodo", cpf), mensagem -> this.clientes.tentaEscreveComprasPeriodo(cpf, fornecedor, dataInicial, dataFinal, this.fornecedorService, mensagem).getValorOuLanca());
+	}
+	
+	/**
+	 * Retorna uma página das contas de um cliente, na mesma ordem de exibeContasClientes(), com no máximo
+	 * limite contas. Cada item tem o formato "NOME_FORNECEDOR | NOME_PRODUTO - dd-MM-yyyy | ...". A primeira
+	 * página é obtida com cursor null.
+	 * 
+	 * @param cpf String com o cpf do cliente
+	 * @param cursor String com o cursor devolvido pela página anterior, ou null
+	 * @param limite int com a quantidade máxima de contas da página
+	 * @return Pagina com as contas e o cursor da próxima página
+	 */
+	public Pagina exibeContasClientesPagina(String cpf, String cursor, int limite) {
+		return this.listaPagina(new EventoListagem("exibeContasClientesPagina", cpf), () -> this.clientes.exibeContasClientePagina(cpf, cursor, limite));
 	}
 	
 	/**
@@ -330,7 +672,621 @@ public class Facade {
 	 * @param fornecedor String contendo o nome do fornecedor
 	 */
 	public void realizaPagamento(String cpf, String fornecedor) {
-		this.clientes.realizaPagamento(cpf, fornecedor, new FornecedorService(this.fornecedores));
+		this.emite(new EventoPagamento(cpf, fornecedor), () -> this.registraConta(cpf, Operacao.REALIZA_PAGAMENTO, () -> {
+			this.clientes.realizaPagamento(cpf, fornecedor, this.fornecedorService);
+			return null;
+		}, cpf, fornecedor));
+	}
+	
+	/**
+	 * Retorna um handle opaco para o cliente com o cpf passado como parâmetro. Chamadores que repetem o mesmo
+	 * cliente em muitas operações resolvem o cpf uma única vez e usam o handle em adicionaCompraPorHandle,
+	 * getDebitoPorHandle e realizaPagamentoPorHandle, sem repetir a validação nem o hash do cpf. O handle deixa de
+	 * ser válido se o cliente for removido, e volta a valer caso o mesmo cpf seja cadastrado novamente. Lança Exceptions para cpf nulo, vazio, inválido ou inexistente.
+	 * 
+	 * @param cpf String contendo o cpf do cliente
+	 * @return int com o handle do cliente
+	 */
+	public int resolveCliente(String cpf) {
+		return this.clientes.resolveCliente(cpf);
+	}
+	
+	/**
+	 * Retorna um handle opaco para o fornecedor com o nome passado como parâmetro. O handle deixa de ser válido
+	 * se o fornecedor for removido. Lança Exceptions para nome nulo, vazio ou inexistente.
+	 * 
+	 * @param fornecedor String contendo o nome do fornecedor
+	 * @return int com o handle do fornecedor
+	 */
+	public int resolveFornecedor(String fornecedor) {
+		return this.fornecedores.resolveFornecedor(fornecedor);
+	}
+	
+	/**
+	 * Retorna um handle opaco para o produto ou combo do fornecedor. O handle deixa de ser válido se o produto
+	 * for removido. Lança Exceptions para parâmetros nulos, vazios ou inexistentes.
+	 * 
+	 * @param fornecedor String contendo o nome do fornecedor
+	 * @param nome String contendo o nome do produto
+	 * @param descricao String contendo a descrição do produto
+	 * @return int com o handle do produto
+	 */
+	public int resolveProduto(String fornecedor, String nome, String descricao) {
+		return this.fornecedores.resolveProduto(fornecedor, nome, descricao);
+	}
+	
+	/**
+	 * Retorna true para uma compra bem-sucedida. Equivale a adicionaCompra com cpf, fornecedor, nome e descrição,
+	 * mas recebe os handles obtidos com resolveCliente, resolveFornecedor e resolveProduto. Lança Exceptions caso
+	 * algum handle não seja mais válido ou a data seja inválida.
+	 * 
+	 * @param cliente int com o handle do cliente
+	 * @param fornecedor int com o handle do fornecedor
+	 * @param data String com a data da compra do produto
+	 * @param produto int com o handle do produto
+	 * @return true para uma compra bem-sucedida
+	 */
+	public boolean adicionaCompraPorHandle(int cliente, int fornecedor, String data, int produto) {
+		Cliente comprador = this.registro.getCliente(cliente);
+		Fornecedor vendedor = this.registro.getFornecedor(fornecedor);
+		Produto comprado = this.registro.getProduto(produto);
+		String cpf = comprador == null ? null : comprador.getCpf();
+		String nomeFornecedor = vendedor == null ? null : vendedor.getNome();
+		String nome = comprado == null ? null : comprado.getNome();
+		String descricao = comprado == null ? null : comprado.getDescricao();
+		return this.emite(new EventoCompra(cpf, nomeFornecedor, nome, descricao), () -> this.registraConta(cpf, Operacao.ADICIONA_COMPRA,
+				() -> this.clientes.adicionaCompra(cliente, fornecedor, data, produto, this.fornecedorService), cpf, nomeFornecedor, data, nome, descricao));
+	}
+	
+	/**
+	 * Retorna uma String contendo o valor do débito do cliente com o fornecedor, com duas casas decimais, a partir
+	 * dos seus handles. Lança Exceptions caso algum handle não seja mais válido ou a conta não exista.
+	 * 
+	 * @param cliente int com o handle do cliente
+	 * @param fornecedor int com o handle do fornecedor
+	 * @return String contendo o débito do cliente
+	 */
+	public String getDebitoPorHandle(int cliente, int fornecedor) {
+		return Dinheiro.formataDebito(this.clientes.getDebitoFornecedor(cliente, fornecedor, this.fornecedorService));
+	}
+	
+	/**
+	 * Não possui retorno. Zera o débito do cliente com o fornecedor a partir dos seus handles. Lança Exceptions
+	 * caso algum handle não seja mais válido ou não haja conta.
+	 * 
+	 * @param cliente int com o handle do cliente
+	 * @param fornecedor int com o handle do fornecedor
+	 */
+	public void realizaPagamentoPorHandle(int cliente, int fornecedor) {
+		Cliente devedor = this.registro.getCliente(cliente);
+		Fornecedor credor = this.registro.getFornecedor(fornecedor);
+		String cpf = devedor == null ? null : devedor.getCpf();
+		String nomeFornecedor = credor == null ? null : credor.getNome();
+		this.emite(new EventoPagamento(cpf, nomeFornecedor), () -> this.registraConta(cpf, Operacao.REALIZA_PAGAMENTO, () -> {
+			this.clientes.realizaPagamento(cliente, fornecedor, this.fornecedorService);
+			return null;
+		}, cpf, nomeFornecedor));
+	}
+	
+	/*
+	 * Variantes que não lançam exceções: cada uma equivale ao método de mesmo nome sem o prefixo "tenta", mas
+	 * retorna um Resultado com o valor ou com a falha esperada (entidade inexistente, valor vazio, data
+	 * inválida), com a mesma mensagem da exceção que o método tradicional lançaria. Servem para processar
+	 * entradas com muitos registros inválidos, como feeds de compras, sem o custo de construir exceções.
+	 */
+	
+	/**
+	 * Retorna o Resultado de uma compra, equivalente a adicionaCompra(), sem lançar exceções para entradas
+	 * inválidas. Apenas compras bem-sucedidas são gravadas no diário.
+	 * 
+	 * @param cpf String com o cpf do cliente que faz a compra
+	 * @param fornecedor String com o fornecedor dono do produto
+	 * @param data String com a data da compra
+	 * @param nome_prod String com o nome do produto
+	 * @param desc_prod String com a descricao do produto
+	 * @return Resultado da compra
+	 */
+	public Resultado<Boolean> tentaAdicionaCompra(String cpf, String fornecedor, String data, String nome_prod, String desc_prod) {
+		return this.emiteResultado(new EventoCompra(cpf, fornecedor, nome_prod, desc_prod), () -> this.registraResultadoConta(cpf, Operacao.ADICIONA_COMPRA, () -> this.clientes.tentaAdicionaCompra(cpf, fornecedor, data, nome_prod, desc_prod, this.fornecedorService), cpf, fornecedor, data, nome_prod, desc_prod));
+	}
+	
+	/**
+	 * Retorna o Resultado de uma compra a partir dos handles, equivalente a adicionaCompraPorHandle(), sem
+	 * lançar exceções para handles que não são mais válidos ou datas inválidas.
+	 * 
+	 * @param cliente int com o handle do cliente
+	 * @param fornecedor int com o handle do fornecedor
+	 * @param data String com a data da compra
+	 * @param produto int com o handle do produto
+	 * @return Resultado da compra
+	 */
+	public Resultado<Boolean> tentaAdicionaCompraPorHandle(int cliente, int fornecedor, String data, int produto) {
+		Cliente comprador = this.registro.getCliente(cliente);
+		Fornecedor vendedor = this.registro.getFornecedor(fornecedor);
+		Produto comprado = this.registro.getProduto(produto);
+		String cpf = comprador == null ? null : comprador.getCpf();
+		String nomeFornecedor = vendedor == null ? null : vendedor.getNome();
+		String nome = comprado == null ? null : comprado.getNome();
+		String descricao = comprado == null ? null : comprado.getDescricao();
+		return this.emiteResultado(new EventoCompra(cpf, nomeFornecedor, nome, descricao), () -> this.registraResultadoConta(cpf, Operacao.ADICIONA_COMPRA,
+				() -> this.clientes.tentaAdicionaCompra(cliente, fornecedor, data, produto, this.fornecedorService), cpf, nomeFornecedor, data, nome, descricao));
+	}
+	
+	/**
+	 * Retorna o Resultado com o débito do cliente com o fornecedor, com duas casas decimais, equivalente a
+	 * getDebito(), sem lançar exceções.
+	 * 
+	 * @param cpf String com o cpf do cliente
+	 * @param fornecedor String com o nome do fornecedor
+	 * @return Resultado com o débito, ou com a falha
+	 */
+	public Resultado<String> tentaGetDebito(String cpf, String fornecedor) {
+		return this.clientes.tentaGetDebitoFornecedor(cpf, fornecedor, this.fornecedorService).mapeia(Dinheiro::formataDebito);
+	}
+	
+	/**
+	 * Retorna o Resultado com o débito do cliente com o fornecedor a partir dos handles, equivalente a
+	 * getDebitoPorHandle(), sem lançar exceções.
+	 * 
+	 * @param cliente int com o handle do cliente
+	 * @param fornecedor int com o handle do fornecedor
+	 * @return Resultado com o débito, ou com a falha
+	 */
+	public Resultado<String> tentaGetDebitoPorHandle(int cliente, int fornecedor) {
+		return this.clientes.tentaGetDebitoFornecedor(cliente, fornecedor, this.fornecedorService).mapeia(Dinheiro::formataDebito);
+	}
+	
+	/**
+	 * Retorna o Resultado do pagamento da conta do cliente com o fornecedor, equivalente a realizaPagamento(),
+	 * sem lançar exceções. Apenas pagamentos bem-sucedidos são gravados no diário.
+	 * 
+	 * @param cpf String com o cpf do cliente
+	 * @param fornecedor String com o nome do fornecedor
+	 * @return Resultado do pagamento
+	 */
+	public Resultado<Boolean> tentaRealizaPagamento(String cpf, String fornecedor) {
+		return this.emiteResultado(new EventoPagamento(cpf, fornecedor), () -> this.registraResultadoConta(cpf, Operacao.REALIZA_PAGAMENTO, () -> this.clientes.tentaRealizaPagamento(cpf, fornecedor, this.fornecedorService), cpf, fornecedor));
+	}
+	
+	/**
+	 * Retorna o Resultado do pagamento a partir dos handles, equivalente a realizaPagamentoPorHandle(), sem
+	 * lançar exceções.
+	 * 
+	 * @param cliente int com o handle do cliente
+	 * @param fornecedor int com o handle do fornecedor
+	 * @return Resultado do pagamento
+	 */
+	public Resultado<Boolean> tentaRealizaPagamentoPorHandle(int cliente, int fornecedor) {
+		Cliente devedor = this.registro.getCliente(cliente);
+		Fornecedor credor = this.registro.getFornecedor(fornecedor);
+		String cpf = devedor == null ? null : devedor.getCpf();
+		String nomeFornecedor = credor == null ? null : credor.getNome();
+		return this.emiteResultado(new EventoPagamento(cpf, nomeFornecedor), () -> this.registraResultadoConta(cpf, Operacao.REALIZA_PAGAMENTO,
+				() -> this.clientes.tentaRealizaPagamento(cliente, fornecedor, this.fornecedorService), cpf, nomeFornecedor));
+	}
+	
+	/**
+	 * Retorna o Resultado com a conta do cliente com o fornecedor, equivalente a exibeContas(), sem lançar
+	 * exceções.
+	 * 
+	 * @param cpf String com o cpf do cliente
+	 * @param fornecedor String com o nome do fornecedor
+	 * @return Resultado com a conta, ou com a falha
+	 */
+	public Resultado<String> tentaExibeContas(String cpf, String fornecedor) {
+		return this.clientes.tentaExibeConta(cpf, fornecedor, this.fornecedorService);
+	}
+	
+	/**
+	 * Retorna o Resultado com todas as contas do cliente, equivalente a exibeContasClientes(), sem lançar
+	 * exceções.
+	 * 
+	 * @param cpf String com o cpf do cliente
+	 * @return Resultado com as contas, ou com a falha
+	 */
+	public Resultado<String> tentaExibeContasClientes(String cpf) {
+		return this.clientes.tentaExibeContasAll(cpf);
+	}
+	
+	/**
+	 * Retorna o Resultado com as compras do cliente com o fornecedor no período, equivalente a
+	 * exibeComprasPeriodo(), sem lançar exceções.
+	 * 
+	 * @param cpf String com o cpf do cliente
+	 * @param fornecedor String com o nome do fornecedor
+	 * @param dataInicial String com a data inicial do período, no formato dd/MM/yyyy
+	 * @param dataFinal String com a data final do período, no formato dd/MM/yyyy
+	 * @return Resultado com as compras do período, ou com a falha
+	 */
+	public Resultado<String> tentaExibeComprasPeriodo(String cpf, String fornecedor, String dataInicial, String dataFinal) {
+		return this.clientes.tentaExibeComprasPeriodo(cpf, fornecedor, dataInicial, dataFinal, this.fornecedorService);
+	}
+	
+	/**
+	 * Retorna o Resultado com as informações sobre o cliente, equivalente a exibeCliente(), sem lançar exceções.
+	 * 
+	 * @param cpf String com o cpf do cliente
+	 * @return Resultado com as informações sobre o cliente, ou com a falha
+	 */
+	public Resultado<String> tentaExibeCliente(String cpf) {
+		return this.clientes.tentaConsultaCliente(cpf);
+	}
+	
+	/**
+	 * Retorna o Resultado com as informações sobre o fornecedor, equivalente a exibeFornecedor(), sem lançar
+	 * exceções.
+	 * 
+	 * @param nome String com o nome do fornecedor
+	 * @return Resultado com as informações sobre o fornecedor, ou com a falha
+	 */
+	public Resultado<String> tentaExibeFornecedor(String nome) {
+		return this.fornecedores.tentaImprimeFornecedor(nome);
+	}
+	
+	/**
+	 * Retorna o Resultado com as informações sobre o produto do fornecedor, equivalente a exibeProduto(), sem
+	 * lançar exceções.
+	 * 
+	 * @param nome String com o nome do produto
+	 * @param descricao String com a descrição do produto
+	 * @param fornecedor String com o nome do fornecedor
+	 * @return Resultado com as informações sobre o produto, ou com a falha
+	 */
+	public Resultado<String> tentaExibeProduto(String nome, String descricao, String fornecedor) {
+		return this.fornecedores.tentaImprimeProduto(fornecedor, nome, descricao);
+	}
+	
+	/**
+	 * Retorna o Resultado com o handle do cliente, equivalente a resolveCliente(), sem lançar exceções.
+	 * 
+	 * @param cpf String com o cpf do cliente
+	 * @return Resultado com o handle do cliente, ou com a falha
+	 */
+	public Resultado<Integer> tentaResolveCliente(String cpf) {
+		return this.clientes.tentaResolveCliente(cpf);
+	}
+	
+	/**
+	 * Retorna o Resultado com o handle do fornecedor, equivalente a resolveFornecedor(), sem lançar exceções.
+	 * 
+	 * @param fornecedor String com o nome do fornecedor
+	 * @return Resultado com o handle do fornecedor, ou com a falha
+	 */
+	public Resultado<Integer> tentaResolveFornecedor(String fornecedor) {
+		return this.fornecedores.tentaResolveFornecedor(fornecedor);
+	}
+	
+	/**
+	 * Retorna o Resultado com o handle do produto, equivalente a resolveProduto(), sem lançar exceções.
+	 * 
+	 * @param fornecedor String com o nome do fornecedor
+	 * @param nome String com o nome do produto
+	 * @param descricao String com a descrição do produto
+	 * @return Resultado com o handle do produto, ou com a falha
+	 */
+	public Resultado<Integer> tentaResolveProduto(String fornecedor, String nome, String descricao) {
+		return this.fornecedores.tentaResolveProduto(fornecedor, nome, descricao);
+	}
+	
+	/**
+	 * Não possui retorno. Grava as operações pendentes e fecha o diário de uma fachada persistente. Depois de
+	 * fechada, a fachada não aceita mais operações que alterem o estado: elas lançam IllegalStateException
+	 * sem alterá-lo. Para uma fachada apenas em memória, não faz nada.
+	 * 
+	 * @throws IOException caso a gravação do diário falhe
+	 */
+	public void fecha() throws IOException {
+		if(this.diario == null) {
+			return;
+		}
+		this.travaDiario.writeLock().lock();
+		try {
+			this.diario.fecha();
+		}finally {
+			this.travaDiario.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Não possui retorno. Grava o estado completo de uma fachada persistente em um snapshot e descarta o
+	 * diário coberto por ele, encurtando a recuperação. As operações que alteram o estado esperam enquanto o
+	 * snapshot é escrito; as consultas continuam livres. Lança IllegalStateException para uma fachada apenas
+	 * em memória.
+	 * 
+	 * @throws IOException caso a escrita do snapshot ou do diário falhe
+	 */
+	public void salvaSnapshot() throws IOException {
+		if(this.diario == null) {
+			throw new IllegalStateException("Erro ao salvar snapshot: fachada nao e persistente.");
+		}
+		this.travaDiario.writeLock().lock();
+		try {
+			Diario novo = new Diario(this.arquivoDiario(this.geracaoDiario + 1));
+			this.diario.fecha();
+			this.diario = novo;
+			this.geracaoDiario++;
+			
+			Snapshot.escreve(this.diretorio.resolve(ARQUIVO_SNAPSHOT), this.geracaoDiario, this.clientes, this.fornecedores);
+			this.descartaDiarios(this.geracaoDiario);
+		}finally {
+			this.travaDiario.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Não possui retorno. Apaga os diários de gerações anteriores à passada como parâmetro, já cobertos pelo
+	 * snapshot. Diários antigos podem sobrar de uma queda ou falha durante salvaSnapshot().
+	 */
+	private void descartaDiarios(long geracao) throws IOException {
+		long anterior = geracao - 1;
+		while(anterior >= 0 && Files.deleteIfExists(this.arquivoDiario(anterior))) {
+			anterior--;
+		}
+	}
+	
+	/**
+	 * Retorna o caminho do diário da geração passada como parâmetro.
+	 */
+	private Path arquivoDiario(long geracao) {
+		return this.diretorio.resolve("saga-" + geracao + ".diario");
+	}
+	
+	/**
+	 * Retorna o resultado da operação passada como parâmetro, registrando-a no diário caso a fachada seja
+	 * persistente. A operação é aplicada e anexada ao diário sob a trava exclusiva, para que a reprodução siga a
+	 * ordem real das operações; apenas operações que não lançaram exceção são registradas. A espera pela
+	 * gravação em disco acontece fora da trava, de modo que operações concorrentes compartilham o mesmo force().
+	 * 
+	 * @param operacao Operacao que identifica o registro no diário
+	 * @param mutacao Supplier que aplica a operação
+	 * @param campos Object com os parâmetros da operação
+	 * @return resultado da operação
+	 */
+	private <T> T registra(Operacao operacao, Supplier<T> mutacao, Object... campos) {
+		if(this.diario == null) {
+			return mutacao.get();
+		}
+		return this.aplica(this.travaDiario.writeLock(), this.ordemExclusiva, operacao, mutacao, resultado -> true, campos);
+	}
+	
+	/**
+	 * Retorna o resultado da compra ou pagamento passado como parâmetro, como registra(), mas sob a trava
+	 * compartilhada do diário e a trava do cpf do cliente, de modo que operações sobre clientes diferentes
+	 * prossigam em paralelo e as de um mesmo cliente cheguem ao diário na ordem em que foram aplicadas. Sem
+	 * cpf, a operação vai falhar na validação e segue pelo caminho exclusivo.
+	 * 
+	 * @param cpf String com o cpf do cliente, ou null
+	 * @param operacao Operacao que identifica o registro no diário
+	 * @param mutacao Supplier que aplica a operação
+	 * @param campos Object com os parâmetros da operação
+	 * @return resultado da operação
+	 */
+	private <T> T registraConta(String cpf, Operacao operacao, Supplier<T> mutacao, Object... campos) {
+		if(this.diario == null) {
+			return mutacao.get();
+		}
+		if(cpf == null) {
+			return this.registra(operacao, mutacao, campos);
+		}
+		return this.aplica(this.travaDiario.readLock(), this.clientes.getTravaContas(cpf), operacao, mutacao, resultado -> true, campos);
+	}
+	
+	/**
+	 * Retorna o Resultado da compra ou pagamento passado como parâmetro, como registraConta(), mas para as
+	 * variantes que não lançam exceções: a operação só é anexada ao diário quando o Resultado é bem-sucedido.
+	 * 
+	 * @param cpf String com o cpf do cliente, ou null
+	 * @param operacao Operacao que identifica o registro no diário
+	 * @param mutacao Supplier que aplica a operação
+	 * @param campos Object com os parâmetros da operação
+	 * @return Resultado da operação
+	 */
+	private <T> Resultado<T> registraResultadoConta(String cpf, Operacao operacao, Supplier<Resultado<T>> mutacao, Object... campos) {
+		if(this.diario == null) {
+			return mutacao.get();
+		}
+		Lock trava = cpf == null ? this.travaDiario.writeLock() : this.travaDiario.readLock();
+		Object ordem = cpf == null ? this.ordemExclusiva : this.clientes.getTravaContas(cpf);
+		return this.aplica(trava, ordem, operacao, mutacao, Resultado::isSucesso, campos);
+	}
+	
+	/**
+	 * Retorna o resultado da operação passada como parâmetro, aplicada e anexada ao diário sob as duas travas
+	 * passadas como parâmetro. A trava do diário é sempre tomada antes do monitor que ordena a operação. Um
+	 * diário fechado ou com falha de gravação é conferido antes de aplicar a operação, que então é recusada
+	 * sem alterar o estado.
+	 * 
+	 * @param trava Lock do diário, compartilhada ou exclusiva
+	 * @param ordem Object cujo monitor ordena a operação no diário
+	 * @param operacao Operacao que identifica o registro no diário
+	 * @param mutacao Supplier que aplica a operação
+	 * @param registravel Predicate que indica se o resultado deve ser anexado ao diário
+	 * @param campos Object com os parâmetros da operação
+	 * @return resultado da operação
+	 */
+	private <T> T aplica(Lock trava, Object ordem, Operacao operacao, Supplier<T> mutacao, Predicate<T> registravel, Object... campos) {
+		Diario diario;
+		T resultado;
+		long sequencia;
+		trava.lock();
+		try {
+			synchronized(ordem) {
+				diario = this.diario;
+				diario.confereDisponivel();
+				resultado = mutacao.get();
+				if(!registravel.test(resultado)) {
+					return resultado;
+				}
+				sequencia = diario.anexa(operacao, campos);
+			}
+		}finally {
+			trava.unlock();
+		}
+		diario.aguarda(sequencia);
+		return resultado;
+	}
+	
+	/**
+	 * Retorna o resultado da operação passada como parâmetro, medindo-a com o evento de JFR passado como
+	 * parâmetro. A operação é considerada malsucedida caso retorne false ou lance exceção, cuja mensagem é
+	 * gravada no evento.
+	 * 
+	 * @param evento EventoSaga da operação
+	 * @param operacao Supplier que executa a operação
+	 * @return resultado da operação
+	 */
+	private <T> T emite(EventoSaga evento, Supplier<T> operacao) {
+		evento.begin();
+		try {
+			T resultado = operacao.get();
+			evento.conclui(!Boolean.FALSE.equals(resultado), null);
+			return resultado;
+		}catch(RuntimeException re) {
+			evento.conclui(false, re.getMessage());
+			throw re;
+		}
+	}
+	
+	/**
+	 * Retorna o Resultado da operação passada como parâmetro, como emite(), para as variantes que não lançam
+	 * exceções: a falha do Resultado é gravada no evento.
+	 * 
+	 * @param evento EventoSaga da operação
+	 * @param operacao Supplier que executa a operação
+	 * @return Resultado da operação
+	 */
+	private <T> Resultado<T> emiteResultado(EventoSaga evento, Supplier<Resultado<T>> operacao) {
+		evento.begin();
+		try {
+			Resultado<T> resultado = operacao.get();
+			evento.conclui(resultado.isSucesso(), resultado.getMensagem());
+			return resultado;
+		}catch(RuntimeException re) {
+			evento.conclui(false, re.getMessage());
+			throw re;
+		}
+	}
+	
+	/**
+	 * Retorna a listagem montada pela operação passada como parâmetro, medindo-a com o evento de JFR. A
+	 * quantidade de itens do evento é a informada pela própria escrita da listagem.
+	 * 
+	 * @param evento EventoListagem da operação
+	 * @param escrita Escrita que escreve a listagem
+	 * @return String com a listagem
+	 */
+	private String lista(EventoListagem evento, Escrita<StringBuilder> escrita) {
+		StringBuilder listagem = new StringBuilder();
+		evento.begin();
+		try {
+			int itens = escrita.escreve(listagem);
+			String resultado = listagem.toString();
+			evento.conclui(resultado, itens);
+			return resultado;
+		}catch(IOException ioe) {
+			evento.conclui(false, ioe.getMessage());
+			throw new UncheckedIOException(ioe);
+		}catch(RuntimeException re) {
+			evento.conclui(false, re.getMessage());
+			throw re;
+		}
+	}
+	
+	/**
+	 * Retorna a página montada pela operação passada como parâmetro, medindo-a com o evento de JFR.
+	 * 
+	 * @param evento EventoListagem da operação
+	 * @param pagina Supplier que monta a página
+	 * @return Pagina montada
+	 */
+	private Pagina listaPagina(EventoListagem evento, Supplier<Pagina> pagina) {
+		evento.begin();
+		try {
+			Pagina resultado = pagina.get();
+			evento.conclui(resultado);
+			return resultado;
+		}catch(RuntimeException re) {
+			evento.conclui(false, re.getMessage());
+			throw re;
+		}
+	}
+	
+	/**
+	 * Escrita de uma listagem em uma saída, que retorna a quantidade de itens escritos
+	 */
+	private interface Escrita<A extends Appendable> {
+		int escreve(A saida) throws IOException;
+	}
+	
+	/**
+	 * Não possui retorno. Escreve a listagem na saída passada como parâmetro, medindo a escrita e contando o
+	 * tamanho da saída com o evento de JFR. A quantidade de itens é a informada pela própria escrita.
+	 * 
+	 * @param evento EventoListagem da operação
+	 * @param saida Appendable no qual a listagem será escrita
+	 * @param escrita Escrita que escreve a listagem
+	 * @throws IOException caso a escrita na saída falhe
+	 */
+	private void escreve(EventoListagem evento, Appendable saida, Escrita<Appendable> escrita) throws IOException {
+		SaidaContada contada = evento.isEnabled() ? new SaidaContada(saida) : null;
+		evento.begin();
+		try {
+			int itens = escrita.escreve(contada == null ? saida : contada);
+			evento.conclui(contada, itens);
+		}catch(IOException | RuntimeException e) {
+			evento.conclui(false, e.getMessage());
+			throw e;
+		}
+	}
+	
+	/**
+	 * Não possui retorno. Reaplica uma operação lida do diário.
+	 * 
+	 * @param operacao Operacao lida
+	 * @param c Object com os campos da operação, na ordem dos parâmetros do método correspondente
+	 */
+	private void reproduz(Operacao operacao, Object[] c) {
+		switch(operacao) {
+		case ADICIONA_CLIENTE:
+			this.adicionaCliente((String) c[0], (String) c[1], (String) c[2], (String) c[3]);
+			break;
+		case EDITA_CLIENTE:
+			this.editaCliente((String) c[0], (String) c[1], (String) c[2]);
+			break;
+		case REMOVE_CLIENTE:
+			this.removeCliente((String) c[0]);
+			break;
+		case ADICIONA_FORNECEDOR:
+			this.adicionaFornecedor((String) c[0], (String) c[1], (String) c[2]);
+			break;
+		case EDITA_FORNECEDOR:
+			this.editaFornecedor((String) c[0], (String) c[1], (String) c[2]);
+			break;
+		case REMOVE_FORNECEDOR:
+			this.removeFornecedor((String) c[0]);
+			break;
+		case ADICIONA_PRODUTO:
+			this.adicionaProduto((String) c[0], (String) c[1], (String) c[2], (Double) c[3]);
+			break;
+		case ADICIONA_COMBO:
+			this.adicionaCombo((String) c[0], (String) c[1], (String) c[2], (Double) c[3], (String) c[4]);
+			break;
+		case EDITA_PRODUTO:
+			this.editaProduto((String) c[0], (String) c[1], (String) c[2], (Double) c[3]);
+			break;
+		case EDITA_COMBO:
+			this.editaCombo((String) c[0], (String) c[1], (String) c[2], (Double) c[3]);
+			break;
+		case REMOVE_PRODUTO:
+			this.removeProduto((String) c[0], (String) c[1], (String) c[2]);
+			break;
+		case ADICIONA_COMPRA:
+			this.adicionaCompra((String) c[0], (String) c[1], (String) c[2], (String) c[3], (String) c[4]);
+			break;
+		case REALIZA_PAGAMENTO:
+			this.realizaPagamento((String) c[0], (String) c[1]);
+			break;
+		}
 	}
 	
 	public static void main(String[] args) {
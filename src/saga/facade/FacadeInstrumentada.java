@@ -0,0 +1,417 @@
+package saga.facade;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+import saga.metricas.Metricas;
+import saga.metricas.MetricasOperacao;
+import saga.util.Pagina;
+import saga.util.Resultado;
+
+/**
+ * Fachada instrumentada: oferece os mesmos métodos de Facade, delegando cada chamada à fachada envolvida e
+ * registrando, para cada método, a quantidade de chamadas, as falhas por mensagem de erro e o histograma das
+ * latências (saga.metricas). Falhas são as exceções lançadas e, nas variantes "tenta", os Resultados com
+ * falha. O custo por chamada é o de duas leituras de System.nanoTime() e alguns incrementos atômicos, sem
+ * travas.
+ * 
+ * As métricas podem ser consultadas por getMetricas(), publicadas como MBeans com publicaMetricas() e
+ * gravadas em arquivo com Metricas.salva().
+ * 
+ * @author Guilherme de Melo Carneiro
+ */
+public class FacadeInstrumentada {
+	
+	/**
+	 * Nome usado nos MBeans quando nenhum é informado
+	 */
+	private static final String NOME_PADRAO = "saga";
+	
+	/**
+	 * Fachada que executa as operações
+	 */
+	private final Facade facade;
+	
+	/**
+	 * Métricas das operações da fachada
+	 */
+	private final Metricas metricas;
+	
+	/**
+	 * Constroi uma fachada instrumentada que envolve a fachada passada como parâmetro.
+	 * 
+	 * @param facade Facade que executa as operações
+	 */
+	public FacadeInstrumentada(Facade facade) {
+		this(facade, NOME_PADRAO);
+	}
+	
+	/**
+	 * Constroi uma fachada instrumentada que envolve a fachada passada como parâmetro, identificada nos
+	 * MBeans pelo nome passado como parâmetro, para distinguir várias fachadas no mesmo processo.
+	 * 
+	 * @param facade Facade que executa as operações
+	 * @param nome String com o nome da fachada nos MBeans
+	 */
+	public FacadeInstrumentada(Facade facade, String nome) {
+		this.facade = facade;
+		this.metricas = new Metricas(nome);
+	}
+	
+	/**
+	 * Retorna a fachada envolvida.
+	 * 
+	 * @return Facade que executa as operações
+	 */
+	public Facade getFacade() {
+		return this.facade;
+	}
+	
+	/**
+	 * Retorna as métricas das operações já chamadas.
+	 * 
+	 * @return Metricas da fachada
+	 */
+	public Metricas getMetricas() {
+		return this.metricas;
+	}
+	
+	/**
+	 * Não possui retorno. Publica as métricas como MBeans no servidor da plataforma, no domínio saga.metricas.
+	 */
+	public void publicaMetricas() {
+		this.metricas.publica();
+	}
+	
+	public String adicionaCliente(String cpf, String nome, String email, String localizacao) {
+		return this.mede("adicionaCliente", () -> this.facade.adicionaCliente(cpf, nome, email, localizacao));
+	}
+	
+	public String exibeCliente(String cpf) {
+		return this.mede("exibeCliente", () -> this.facade.exibeCliente(cpf));
+	}
+	
+	public String exibeClientes() {
+		return this.mede("exibeClientes", () -> this.facade.exibeClientes());
+	}
+	
+	public void exibeClientes(Appendable saida) throws IOException {
+		this.medeES("exibeClientes", () -> {
+			this.facade.exibeClientes(saida);
+			return null;
+		});
+	}
+	
+	public Pagina exibeClientesPagina(String cursor, int limite) {
+		return this.mede("exibeClientesPagina", () -> this.facade.exibeClientesPagina(cursor, limite));
+	}
+	
+	public boolean editaCliente(String cpf, String atributo, String informacao) {
+		return this.mede("editaCliente", () -> this.facade.editaCliente(cpf, atributo, informacao));
+	}
+	
+	public boolean removeCliente(String cpf) {
+		return this.mede("removeCliente", () -> this.facade.removeCliente(cpf));
+	}
+	
+	public String adicionaFornecedor(String nome, String email, String telefone) {
+		return this.mede("adicionaFornecedor", () -> this.facade.adicionaFornecedor(nome, email, telefone));
+	}
+	
+	public String exibeFornecedor(String nome) {
+		return this.mede("exibeFornecedor", () -> this.facade.exibeFornecedor(nome));
+	}
+	
+	public String exibeFornecedores() {
+		return this.mede("exibeFornecedores", () -> this.facade.exibeFornecedores());
+	}
+	
+	public void exibeFornecedores(Appendable saida) throws IOException {
+		this.medeES("exibeFornecedores", () -> {
+			this.facade.exibeFornecedores(saida);
+			return null;
+		});
+	}
+	
+	public Pagina exibeFornecedoresPagina(String cursor, int limite) {
+		return this.mede("exibeFornecedoresPagina", () -> this.facade.exibeFornecedoresPagina(cursor, limite));
+	}
+	
+	public boolean editaFornecedor(String nome, String atributo, String novoValor) {
+		return this.mede("editaFornecedor", () -> this.facade.editaFornecedor(nome, atributo, novoValor));
+	}
+	
+	public boolean removeFornecedor(String nome) {
+		return this.mede("removeFornecedor", () -> this.facade.removeFornecedor(nome));
+	}
+	
+	public String exibeDevedores(String fornecedor) {
+		return this.mede("exibeDevedores", () -> this.facade.exibeDevedores(fornecedor));
+	}
+	
+	public String getRecebiveis(String fornecedor) {
+		return this.mede("getRecebiveis", () -> this.facade.getRecebiveis(fornecedor));
+	}
+	
+	public String getRecebiveisTotal() {
+		return this.mede("getRecebiveisTotal", () -> this.facade.getRecebiveisTotal());
+	}
+	
+	public boolean adicionaProduto(String fornecedor, String nome, String descricao, double preco) {
+		return this.mede("adicionaProduto", () -> this.facade.adicionaProduto(fornecedor, nome, descricao, preco));
+	}
+	
+	public boolean adicionaCombo(String fornecedor, String nome, String descricao, double fator, String produtos) {
+		return this.mede("adicionaCombo", () -> this.facade.adicionaCombo(fornecedor, nome, descricao, fator, produtos));
+	}
+	
+	public String exibeProduto(String nome, String descricao, String fornecedor) {
+		return this.mede("exibeProduto", () -> this.facade.exibeProduto(nome, descricao, fornecedor));
+	}
+	
+	public String exibeProdutosFornecedor(String fornecedor) {
+		return this.mede("exibeProdutosFornecedor", () -> this.facade.exibeProdutosFornecedor(fornecedor));
+	}
+	
+	public Pagina exibeProdutosFornecedorPagina(String fornecedor, String cursor, int limite) {
+		return this.mede("exibeProdutosFornecedorPagina", () -> this.facade.exibeProdutosFornecedorPagina(fornecedor, cursor, limite));
+	}
+	
+	public String exibeProdutos() {
+		return this.mede("exibeProdutos", () -> this.facade.exibeProdutos());
+	}
+	
+	public Pagina exibeProdutosPagina(String cursor, int limite) {
+		return this.mede("exibeProdutosPagina", () -> this.facade.exibeProdutosPagina(cursor, limite));
+	}
+	
+	public String buscaProdutos(String termo, int limite) {
+		return this.mede("buscaProdutos", () -> this.facade.buscaProdutos(termo, limite));
+	}
+	
+	public void exibeProdutos(Appendable saida) throws IOException {
+		this.medeES("exibeProdutos", () -> {
+			this.facade.exibeProdutos(saida);
+			return null;
+		});
+	}
+	
+	public boolean editaProduto(String nomeProduto, String descricao, String nomeFornecedor, double precoProduto) {
+		return this.mede("editaProduto", () -> this.facade.editaProduto(nomeProduto, descricao, nomeFornecedor, precoProduto));
+	}
+	
+	public boolean editaCombo(String nome, String descricao, String fornecedor, double novoFator) {
+		return this.mede("editaCombo", () -> this.facade.editaCombo(nome, descricao, fornecedor, novoFator));
+	}
+	
+	public boolean removeProduto(String nome, String descricao, String fornecedor) {
+		return this.mede("removeProduto", () -> this.facade.removeProduto(nome, descricao, fornecedor));
+	}
+	
+	public boolean adicionaCompra(String cpf, String fornecedor, String data, String nome_prod, String desc_prod) {
+		return this.mede("adicionaCompra", () -> this.facade.adicionaCompra(cpf, fornecedor, data, nome_prod, desc_prod));
+	}
+	
+	public String getDebito(String cpf, String fornecedor) {
+		return this.mede("getDebito", () -> this.facade.getDebito(cpf, fornecedor));
+	}
+	
+	public String exibeContas(String cpf, String fornecedor) {
+		return this.mede("exibeContas", () -> this.facade.exibeContas(cpf, fornecedor));
+	}
+	
+	public String exibeContasClientes(String cpf) {
+		return this.mede("exibeContasClientes", () -> this.facade.exibeContasClientes(cpf));
+	}
+	
+	public String exibeComprasPeriodo(String cpf, String fornecedor, String dataInicial, String dataFinal) {
+		return this.mede("exibeComprasPeriodo", () -> this.facade.exibeComprasPeriodo(cpf, fornecedor, dataInicial, dataFinal));
+	}
+	
+	public Pagina exibeContasClientesPagina(String cpf, String cursor, int limite) {
+		return this.mede("exibeContasClientesPagina", () -> this.facade.exibeContasClientesPagina(cpf, cursor, limite));
+	}
+	
+	public void realizaPagamento(String cpf, String fornecedor) {
+		this.mede("realizaPagamento", () -> {
+			this.facade.realizaPagamento(cpf, fornecedor);
+			return null;
+		});
+	}
+	
+	public int resolveCliente(String cpf) {
+		return this.mede("resolveCliente", () -> this.facade.resolveCliente(cpf));
+	}
+	
+	public int resolveFornecedor(String fornecedor) {
+		return this.mede("resolveFornecedor", () -> this.facade.resolveFornecedor(fornecedor));
+	}
+	
+	public int resolveProduto(String fornecedor, String nome, String descricao) {
+		return this.mede("resolveProduto", () -> this.facade.resolveProduto(fornecedor, nome, descricao));
+	}
+	
+	public boolean adicionaCompraPorHandle(int cliente, int fornecedor, String data, int produto) {
+		return this.mede("adicionaCompraPorHandle", () -> this.facade.adicionaCompraPorHandle(cliente, fornecedor, data, produto));
+	}
+	
+	public String getDebitoPorHandle(int cliente, int fornecedor) {
+		return this.mede("getDebitoPorHandle", () -> this.facade.getDebitoPorHandle(cliente, fornecedor));
+	}
+	
+	public void realizaPagamentoPorHandle(int cliente, int fornecedor) {
+		this.mede("realizaPagamentoPorHandle", () -> {
+			this.facade.realizaPagamentoPorHandle(cliente, fornecedor);
+			return null;
+		});
+	}
+	
+	public Resultado<Boolean> tentaAdicionaCompra(String cpf, String fornecedor, String data, String nome_prod, String desc_prod) {
+		return this.medeResultado("tentaAdicionaCompra", () -> this.facade.tentaAdicionaCompra(cpf, fornecedor, data, nome_prod, desc_prod));
+	}
+	
+	public Resultado<Boolean> tentaAdicionaCompraPorHandle(int cliente, int fornecedor, String data, int produto) {
+		return this.medeResultado("tentaAdicionaCompraPorHandle", () -> this.facade.tentaAdicionaCompraPorHandle(cliente, fornecedor, data, produto));
+	}
+	
+	public Resultado<String> tentaGetDebito(String cpf, String fornecedor) {
+		return this.medeResultado("tentaGetDebito", () -> this.facade.tentaGetDebito(cpf, fornecedor));
+	}
+	
+	public Resultado<String> tentaGetDebitoPorHandle(int cliente, int fornecedor) {
+		return this.medeResultado("tentaGetDebitoPorHandle", () -> this.facade.tentaGetDebitoPorHandle(cliente, fornecedor));
+	}
+	
+	public Resultado<Boolean> tentaRealizaPagamento(String cpf, String fornecedor) {
+		return this.medeResultado("tentaRealizaPagamento", () -> this.facade.tentaRealizaPagamento(cpf, fornecedor));
+	}
+	
+	public Resultado<Boolean> tentaRealizaPagamentoPorHandle(int cliente, int fornecedor) {
+		return this.medeResultado("tentaRealizaPagamentoPorHandle", () -> this.facade.tentaRealizaPagamentoPorHandle(cliente, fornecedor));
+	}
+	
+	public Resultado<String> tentaExibeContas(String cpf, String fornecedor) {
+		return this.medeResultado("tentaExibeContas", () -> this.facade.tentaExibeContas(cpf, fornecedor));
+	}
+	
+	public Resultado<String> tentaExibeContasClientes(String cpf) {
+		return this.medeResultado("tentaExibeContasClientes", () -> this.facade.tentaExibeContasClientes(cpf));
+	}
+	
+	public Resultado<String> tentaExibeComprasPeriodo(String cpf, String fornecedor, String dataInicial, String dataFinal) {
+		return this.medeResultado("tentaExibeComprasPeriodo", () -> this.facade.tentaExibeComprasPeriodo(cpf, fornecedor, dataInicial, dataFinal));
+	}
+	
+	public Resultado<String> tentaExibeCliente(String cpf) {
+		return this.medeResultado("tentaExibeCliente", () -> this.facade.tentaExibeCliente(cpf));
+	}
+	
+	public Resultado<String> tentaExibeFornecedor(String nome) {
+		return this.medeResultado("tentaExibeFornecedor", () -> this.facade.tentaExibeFornecedor(nome));
+	}
+	
+	public Resultado<String> tentaExibeProduto(String nome, String descricao, String fornecedor) {
+		return this.medeResultado("tentaExibeProduto", () -> this.facade.tentaExibeProduto(nome, descricao, fornecedor));
+	}
+	
+	public Resultado<Integer> tentaResolveCliente(String cpf) {
+		return this.medeResultado("tentaResolveCliente", () -> this.facade.tentaResolveCliente(cpf));
+	}
+	
+	public Resultado<Integer> tentaResolveFornecedor(String fornecedor) {
+		return this.medeResultado("tentaResolveFornecedor", () -> this.facade.tentaResolveFornecedor(fornecedor));
+	}
+	
+	public Resultado<Integer> tentaResolveProduto(String fornecedor, String nome, String descricao) {
+		return this.medeResultado("tentaResolveProduto", () -> this.facade.tentaResolveProduto(fornecedor, nome, descricao));
+	}
+	
+	public void fecha() throws IOException {
+		this.medeES("fecha", () -> {
+			this.facade.fecha();
+			return null;
+		});
+	}
+	
+	public void salvaSnapshot() throws IOException {
+		this.medeES("salvaSnapshot", () -> {
+			this.facade.salvaSnapshot();
+			return null;
+		});
+	}
+
+	/**
+	 * Ação da fachada que pode lançar IOException
+	 */
+	private interface Chamada<T> {
+		T executa() throws IOException;
+	}
+	
+	/**
+	 * Retorna o resultado da chamada, registrando sua latência nas métricas da operação e, caso lance
+	 * exceção, a mensagem de erro.
+	 * 
+	 * @param operacao String com o nome da operação
+	 * @param chamada Supplier que executa a operação na fachada envolvida
+	 * @return resultado da chamada
+	 */
+	private <T> T mede(String operacao, Supplier<T> chamada) {
+		MetricasOperacao metricas = this.metricas.operacao(operacao);
+		long inicio = System.nanoTime();
+		try {
+			T resultado = chamada.get();
+			metricas.registra(System.nanoTime() - inicio);
+			return resultado;
+		}catch(RuntimeException re) {
+			metricas.registraErro(System.nanoTime() - inicio, re.getMessage());
+			throw re;
+		}
+	}
+	
+	/**
+	 * Retorna o resultado da chamada, como mede(), para as operações de entrada e saída.
+	 * 
+	 * @param operacao String com o nome da operação
+	 * @param chamada Chamada que executa a operação na fachada envolvida
+	 * @return resultado da chamada
+	 * @throws IOException caso a operação falhe na entrada ou saída
+	 */
+	private <T> T medeES(String operacao, Chamada<T> chamada) throws IOException {
+		MetricasOperacao metricas = this.metricas.operacao(operacao);
+		long inicio = System.nanoTime();
+		try {
+			T resultado = chamada.executa();
+			metricas.registra(System.nanoTime() - inicio);
+			return resultado;
+		}catch(IOException | RuntimeException e) {
+			metricas.registraErro(System.nanoTime() - inicio, e.getMessage());
+			throw e;
+		}
+	}
+	
+	/**
+	 * Retorna o Resultado da chamada, registrando sua latência nas métricas da operação e, caso o Resultado
+	 * seja uma falha, a mensagem de erro.
+	 * 
+	 * @param operacao String com o nome da operação
+	 * @param chamada Supplier que executa a operação na fachada envolvida
+	 * @return Resultado da chamada
+	 */
+	private <T> Resultado<T> medeResultado(String operacao, Supplier<Resultado<T>> chamada) {
+		MetricasOperacao metricas = this.metricas.operacao(operacao);
+		long inicio = System.nanoTime();
+		Resultado<T> resultado;
+		try {
+			resultado = chamada.get();
+		}catch(RuntimeException re) {
+			metricas.registraErro(System.nanoTime() - inicio, re.getMessage());
+			throw re;
+		}
+		if(resultado.isSucesso()) {
+			metricas.registra(System.nanoTime() - inicio);
+		}else {
+			metricas.registraErro(System.nanoTime() - inicio, resultado.getMensagem());
+		}
+		return resultado;
+	}
+}
@@ -0,0 +1,166 @@
+package saga.metricas;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latências, em nanossegundos, com faixas log-lineares no estilo do HdrHistogram: cada
+ * potência de dois é dividida em SUBFAIXAS faixas de mesma largura, de modo que o erro relativo de
+ * qualquer percentil é menor que 1/SUBFAIXAS (cerca de 3%) em toda a escala, de nanossegundos a horas.
+ * Registrar um valor é um cálculo de índice com operações de bits e um incremento atômico, sem travas
+ * nem alocação, e pode ser feito por várias threads ao mesmo tempo.
+ *
+ * @author Guilherme de Melo Carneiro
+ *
+ */
+public class Histograma {
+
+	/**
+	 * Quantidade de bits da subfaixa dentro de cada potência de dois
+	 */
+	private static final int BITS_SUBFAIXA = 5;
+
+	/**
+	 * Quantidade de faixas em que cada potência de dois é dividida
+	 */
+	private static final int SUBFAIXAS = 1 << BITS_SUBFAIXA;
+
+	/**
+	 * Quantidade total de faixas, suficiente para qualquer long não negativo
+	 */
+	private static final int FAIXAS = (64 - BITS_SUBFAIXA) * SUBFAIXAS;
+
+	/**
+	 * Contagem de valores registrados em cada faixa
+	 */
+	private final AtomicLongArray contagens;
+
+	/**
+	 * Quantidade de valores registrados
+	 */
+	private final LongAdder quantidade;
+
+	/**
+	 * Soma dos valores registrados, para a média
+	 */
+	private final LongAdder soma;
+
+	/**
+	 * Maior valor registrado
+	 */
+	private final LongAccumulator maximo;
+
+	/**
+	 * Constroi um histograma vazio.
+	 */
+	public Histograma() {
+		this.contagens = new AtomicLongArray(FAIXAS);
+		this.quantidade = new LongAdder();
+		this.soma = new LongAdder();
+		this.maximo = new LongAccumulator(Math::max, 0);
+	}
+
+	/**
+	 * Não possui retorno. Registra um valor no histograma. Valores negativos são registrados como zero.
+	 *
+	 * @param valor long com o valor, em nanossegundos
+	 */
+	public void registra(long valor) {
+		if(valor < 0) {
+			valor = 0;
+		}
+		this.contagens.incrementAndGet(faixa(valor));
+		this.quantidade.increment();
+		this.soma.add(valor);
+		this.maximo.accumulate(valor);
+	}
+
+	/**
+	 * Retorna a quantidade de valores registrados.
+	 *
+	 * @return long com a quantidade de valores
+	 */
+	public long getQuantidade() {
+		return this.quantidade.sum();
+	}
+
+	/**
+	 * Retorna a média dos valores registrados, ou zero caso não haja valores.
+	 *
+	 * @return double com a média, em nanossegundos
+	 */
+	public double getMedia() {
+		long quantidade = this.quantidade.sum();
+		return quantidade == 0 ? 0.0 : (double) this.soma.sum() / quantidade;
+	}
+
+	/**
+	 * Retorna o maior valor registrado, ou zero caso não haja valores.
+	 *
+	 * @return long com o maior valor, em nanossegundos
+	 */
+	public long getMaximo() {
+		return this.maximo.get();
+	}
+
+	/**
+	 * Retorna o valor abaixo do qual está a porcentagem passada como parâmetro dos valores registrados,
+	 * com o erro relativo da faixa. Caso não haja valores, retorna zero.
+	 *
+	 * @param porcentagem double entre 0 e 100
+	 * @return long com o percentil, em nanossegundos
+	 */
+	public long percentil(double porcentagem) {
+		long[] copia = new long[FAIXAS];
+		long total = 0;
+		for(int i=0; i<FAIXAS; i++) {
+			copia[i] = this.contagens.get(i);
+			total += copia[i];
+		}
+		if(total == 0) {
+			return 0;
+		}
+		long alvo = Math.max(1, (long) Math.ceil(porcentagem / 100.0 * total));
+		long acumulado = 0;
+		for(int i=0; i<FAIXAS; i++) {
+			acumulado += copia[i];
+			if(acumulado >= alvo) {
+				return Math.min(limiteSuperior(i), this.getMaximo());
+			}
+		}
+		return this.getMaximo();
+	}
+
+	/**
+	 * Retorna o índice da faixa do valor. Valores menores que SUBFAIXAS têm faixa própria; os demais caem na
+	 * potência de dois do seu bit mais alto, subdividida pelos BITS_SUBFAIXA bits seguintes.
+	 *
+	 * @param valor long não negativo
+	 * @return int com o índice da faixa
+	 */
+	static int faixa(long valor) {
+		if(valor < SUBFAIXAS) {
+			return (int) valor;
+		}
+		int expoente = 63 - Long.numberOfLeadingZeros(valor);
+		int deslocamento = expoente - BITS_SUBFAIXA;
+		int subfaixa = (int) (valor >>> deslocamento) - SUBFAIXAS;
+		return (deslocamento + 1) * SUBFAIXAS + subfaixa;
+	}
+
+	/**
+	 * Retorna o maior valor que cai na faixa passada como parâmetro.
+	 *
+	 * @param faixa int com o índice da faixa
+	 * @return long com o limite superior da faixa
+	 */
+	static long limiteSuperior(int faixa) {
+		if(faixa < SUBFAIXAS) {
+			return faixa;
+		}
+		int deslocamento = faixa / SUBFAIXAS - 1;
+		long inferior = (long) (SUBFAIXAS + faixa % SUBFAIXAS) << deslocamento;
+		return inferior + (1L << deslocamento) - 1;
+	}
+}
@@ -0,0 +1,204 @@
+package saga.metricas;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Conjunto das métricas das operações de uma fachada, indexadas pelo nome da operação. As métricas de uma
+ * operação são criadas na primeira chamada. Depois de publicado, o conjunto e cada operação ficam visíveis
+ * como MBeans no domínio saga.metricas (por exemplo, no jconsole), e o resumo pode ser gravado em arquivo.
+ *
+ * @author Guilherme de Melo Carneiro
+ *
+ */
+public class Metricas implements MetricasMBean {
+
+	/**
+	 * Domínio dos nomes dos MBeans
+	 */
+	private static final String DOMINIO = "saga.metricas";
+
+	/**
+	 * Nome que distingue, nos MBeans, as métricas desta fachada das de outras no mesmo processo
+	 */
+	private final String nome;
+
+	/**
+	 * Métricas de cada operação, na ordem dos nomes
+	 */
+	private final Map<String, MetricasOperacao> operacoes;
+
+	/**
+	 * Servidor no qual as métricas foram publicadas, ou null caso não tenham sido
+	 */
+	private volatile MBeanServer servidor;
+
+	/**
+	 * Constroi um conjunto de métricas vazio, identificado nos MBeans pelo nome passado como parâmetro.
+	 *
+	 * @param nome String com o nome da fachada instrumentada
+	 */
+	public Metricas(String nome) {
+		this.nome = nome;
+		this.operacoes = new ConcurrentSkipListMap<String, MetricasOperacao>();
+	}
+
+	/**
+	 * Retorna as métricas da operação com o nome passado como parâmetro, criando-as (e publicando-as, caso o
+	 * conjunto já tenha sido publicado) na primeira chamada.
+	 *
+	 * @param operacao String com o nome da operação
+	 * @return MetricasOperacao da operação
+	 */
+	public MetricasOperacao operacao(String operacao) {
+		MetricasOperacao metricas = this.operacoes.get(operacao);
+		if(metricas != null) {
+			return metricas;
+		}
+		synchronized(this) {
+			metricas = this.operacoes.get(operacao);
+			if(metricas == null) {
+				metricas = new MetricasOperacao(operacao);
+				this.operacoes.put(operacao, metricas);
+				if(this.servidor != null) {
+					this.registra(this.servidor, metricas, this.nomeMBean(operacao));
+				}
+			}
+			return metricas;
+		}
+	}
+
+	/**
+	 * Não possui retorno. Publica o conjunto e as métricas de cada operação como MBeans no servidor da
+	 * plataforma. Publicar mais de uma vez não tem efeito.
+	 */
+	public synchronized void publica() {
+		if(this.servidor != null) {
+			return;
+		}
+		MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+		this.registra(servidor, this, this.nomeMBean(null));
+		for(MetricasOperacao metricas: this.operacoes.values()) {
+			this.registra(servidor, metricas, this.nomeMBean(metricas.getNome()));
+		}
+		this.servidor = servidor;
+	}
+
+	/**
+	 * Não possui retorno. Retira os MBeans publicados por publica(). Caso não tenham sido publicados, não
+	 * faz nada.
+	 */
+	public synchronized void retira() {
+		if(this.servidor == null) {
+			return;
+		}
+		this.retira(this.nomeMBean(null));
+		for(String operacao: this.operacoes.keySet()) {
+			this.retira(this.nomeMBean(operacao));
+		}
+		this.servidor = null;
+	}
+
+	private void retira(ObjectName nome) {
+		try {
+			this.servidor.unregisterMBean(nome);
+		}catch(InstanceNotFoundException infe) {
+			//já retirado por outro meio
+		}catch(JMException jme) {
+			throw new IllegalStateException("Erro ao retirar metricas: " + jme.getMessage(), jme);
+		}
+	}
+
+	/**
+	 * Retorna o nome do MBean do conjunto, caso a operação seja null, ou das métricas da operação.
+	 *
+	 * @param operacao String com o nome da operação, ou null
+	 * @return ObjectName do MBean
+	 */
+	public ObjectName nomeMBean(String operacao) {
+		try {
+			String nome = DOMINIO + ":facade=" + ObjectName.quote(this.nome);
+			if(operacao == null) {
+				return new ObjectName(nome + ",type=Metricas");
+			}
+			return new ObjectName(nome + ",type=Operacao,name=" + ObjectName.quote(operacao));
+		}catch(JMException jme) {
+			throw new IllegalArgumentException("Erro ao publicar metricas: nome invalido.", jme);
+		}
+	}
+
+	private void registra(MBeanServer servidor, Object mbean, ObjectName nome) {
+		try {
+			servidor.registerMBean(mbean, nome);
+		}catch(InstanceAlreadyExistsException iaee) {
+			throw new IllegalStateException("Erro ao publicar metricas: ja existem metricas publicadas com o nome " + this.nome + ".", iaee);
+		}catch(JMException jme) {
+			throw new IllegalStateException("Erro ao publicar metricas: " + jme.getMessage(), jme);
+		}
+	}
+
+	/**
+	 * Retorna as métricas de todas as operações já chamadas, na ordem dos nomes.
+	 *
+	 * @return Map com as métricas de cada operação
+	 */
+	public Map<String, MetricasOperacao> getOperacoes() {
+		return this.operacoes;
+	}
+
+	/**
+	 * Não possui retorno. Escreve as métricas de todas as operações na saída passada como parâmetro, no
+	 * formato de MetricasOperacao.escreve().
+	 *
+	 * @param saida Appendable no qual as métricas serão escritas
+	 * @throws IOException caso a escrita na saída falhe
+	 */
+	public void escreve(Appendable saida) throws IOException {
+		for(MetricasOperacao metricas: this.operacoes.values()) {
+			metricas.escreve(saida);
+		}
+	}
+
+	/**
+	 * Não possui retorno. Grava as métricas de todas as operações no arquivo passado como parâmetro,
+	 * substituindo seu conteúdo.
+	 *
+	 * @param arquivo Path do arquivo
+	 * @throws IOException caso a gravação falhe
+	 */
+	public void salva(Path arquivo) throws IOException {
+		try(Writer saida = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8)) {
+			this.escreve(saida);
+		}
+	}
+
+	@Override
+	public void salva(String arquivo) throws IOException {
+		this.salva(Paths.get(arquivo));
+	}
+
+	@Override
+	public String getResumo() {
+		StringBuilder resumo = new StringBuilder();
+		try {
+			this.escreve(resumo);
+		}catch(IOException ioe) {
+			throw new UncheckedIOException(ioe);
+		}
+		return resumo.toString();
+	}
+}
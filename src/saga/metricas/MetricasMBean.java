@@ -0,0 +1,25 @@
+package saga.metricas;
+
+import java.io.IOException;
+
+/**
+ * Interface de gerenciamento (JMX) do conjunto de métricas de uma fachada.
+ *
+ * @author Guilherme de Melo Carneiro
+ *
+ */
+public interface MetricasMBean {
+
+	/**
+	 * @return String com as métricas de todas as operações, uma por linha
+	 */
+	String getResumo();
+
+	/**
+	 * Grava as métricas de todas as operações no arquivo passado como parâmetro.
+	 *
+	 * @param arquivo String com o caminho do arquivo
+	 * @throws IOException caso a gravação falhe
+	 */
+	void salva(String arquivo) throws IOException;
+}
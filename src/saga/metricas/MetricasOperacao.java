@@ -0,0 +1,204 @@
+package saga.metricas;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas de uma operação da fachada: quantidade de chamadas, quantidade de falhas por mensagem de erro e
+ * histograma das latências. Pode ser atualizada por várias threads ao mesmo tempo sem travas.
+ *
+ * @author Guilherme de Melo Carneiro
+ *
+ */
+public class MetricasOperacao implements MetricasOperacaoMBean {
+
+	/**
+	 * Quantidade máxima de mensagens de erro distintas contadas separadamente; as demais são somadas em OUTRAS.
+	 */
+	private static final int MAXIMO_MENSAGENS = 64;
+
+	/**
+	 * Chave das falhas cujas mensagens excederam MAXIMO_MENSAGENS
+	 */
+	private static final String OUTRAS = "(outras)";
+
+	/**
+	 * Chave das falhas sem mensagem de erro
+	 */
+	private static final String SEM_MENSAGEM = "(sem mensagem)";
+
+	/**
+	 * Nome da operação
+	 */
+	private final String nome;
+
+	/**
+	 * Quantidade de chamadas
+	 */
+	private final LongAdder chamadas;
+
+	/**
+	 * Quantidade de falhas
+	 */
+	private final LongAdder erros;
+
+	/**
+	 * Quantidade de falhas de cada mensagem de erro
+	 */
+	private final Map<String, LongAdder> errosPorMensagem;
+
+	/**
+	 * Latências das chamadas, em nanossegundos
+	 */
+	private final Histograma latencias;
+
+	/**
+	 * Constroi as métricas, vazias, da operação com o nome passado como parâmetro.
+	 *
+	 * @param nome String com o nome da operação
+	 */
+	public MetricasOperacao(String nome) {
+		this.nome = nome;
+		this.chamadas = new LongAdder();
+		this.erros = new LongAdder();
+		this.errosPorMensagem = new ConcurrentHashMap<String, LongAdder>();
+		this.latencias = new Histograma();
+	}
+
+	/**
+	 * Não possui retorno. Registra uma chamada bem-sucedida com a latência passada como parâmetro.
+	 *
+	 * @param nanos long com a latência da chamada, em nanossegundos
+	 */
+	public void registra(long nanos) {
+		this.chamadas.increment();
+		this.latencias.registra(nanos);
+	}
+
+	/**
+	 * Não possui retorno. Registra uma chamada que falhou com a mensagem de erro passada como parâmetro.
+	 * Mensagens nulas são contadas como SEM_MENSAGEM.
+	 *
+	 * @param nanos long com a latência da chamada, em nanossegundos
+	 * @param mensagem String com a mensagem de erro
+	 */
+	public void registraErro(long nanos, String mensagem) {
+		if(mensagem == null) {
+			mensagem = SEM_MENSAGEM;
+		}
+		this.registra(nanos);
+		this.erros.increment();
+		LongAdder contador = this.errosPorMensagem.get(mensagem);
+		if(contador == null) {
+			String chave = this.errosPorMensagem.size() < MAXIMO_MENSAGENS ? mensagem : OUTRAS;
+			contador = this.errosPorMensagem.computeIfAbsent(chave, m -> new LongAdder());
+		}
+		contador.increment();
+	}
+
+	/**
+	 * Retorna o nome da operação.
+	 *
+	 * @return String com o nome da operação
+	 */
+	public String getNome() {
+		return this.nome;
+	}
+
+	/**
+	 * Retorna o histograma das latências da operação.
+	 *
+	 * @return Histograma das latências, em nanossegundos
+	 */
+	public Histograma getLatencias() {
+		return this.latencias;
+	}
+
+	@Override
+	public long getChamadas() {
+		return this.chamadas.sum();
+	}
+
+	@Override
+	public long getErros() {
+		return this.erros.sum();
+	}
+
+	/**
+	 * Retorna um Map, ordenado pela mensagem, com a quantidade de falhas de cada mensagem de erro.
+	 *
+	 * @return Map com a quantidade de falhas por mensagem
+	 */
+	public Map<String, Long> getContagemErros() {
+		Map<String, Long> contagem = new TreeMap<String, Long>();
+		for(Map.Entry<String, LongAdder> erro: this.errosPorMensagem.entrySet()) {
+			contagem.put(erro.getKey(), erro.getValue().sum());
+		}
+		return contagem;
+	}
+
+	@Override
+	public String getErrosPorMensagem() {
+		return this.getContagemErros().toString();
+	}
+
+	@Override
+	public double getMediaMicros() {
+		return this.latencias.getMedia() / 1000.0;
+	}
+
+	@Override
+	public double getP50Micros() {
+		return this.latencias.percentil(50) / 1000.0;
+	}
+
+	@Override
+	public double getP90Micros() {
+		return this.latencias.percentil(90) / 1000.0;
+	}
+
+	@Override
+	public double getP99Micros() {
+		return this.latencias.percentil(99) / 1000.0;
+	}
+
+	@Override
+	public double getP999Micros() {
+		return this.latencias.percentil(99.9) / 1000.0;
+	}
+
+	@Override
+	public double getMaximoMicros() {
+		return this.latencias.getMaximo() / 1000.0;
+	}
+
+	/**
+	 * Não possui retorno. Escreve as métricas da operação na saída passada como parâmetro: uma linha com
+	 * chamadas, falhas e latências, em microssegundos, seguida de uma linha para cada mensagem de erro.
+	 *
+	 * @param saida Appendable no qual as métricas serão escritas
+	 * @throws IOException caso a escrita na saída falhe
+	 */
+	public void escreve(Appendable saida) throws IOException {
+		saida.append(this.nome)
+				.append(" chamadas=").append(String.valueOf(this.getChamadas()))
+				.append(" erros=").append(String.valueOf(this.getErros()))
+				.append(" media=").append(micros(this.getMediaMicros()))
+				.append(" p50=").append(micros(this.getP50Micros()))
+				.append(" p90=").append(micros(this.getP90Micros()))
+				.append(" p99=").append(micros(this.getP99Micros()))
+				.append(" p999=").append(micros(this.getP999Micros()))
+				.append(" max=").append(micros(this.getMaximoMicros()))
+				.append(System.lineSeparator());
+		for(Map.Entry<String, Long> erro: this.getContagemErros().entrySet()) {
+			saida.append("  ").append(String.valueOf(erro.getValue())).append(" x ").append(erro.getKey()).append(System.lineSeparator());
+		}
+	}
+
+	private static String micros(double micros) {
+		return String.format("%.1fus", micros);
+	}
+}
@@ -0,0 +1,56 @@
+package saga.metricas;
+
+/**
+ * Interface de gerenciamento (JMX) das métricas de uma operação da fachada. As latências são expostas em
+ * microssegundos.
+ *
+ * @author Guilherme de Melo Carneiro
+ *
+ */
+public interface MetricasOperacaoMBean {
+
+	/**
+	 * @return long com a quantidade de chamadas da operação
+	 */
+	long getChamadas();
+
+	/**
+	 * @return long com a quantidade de chamadas que falharam
+	 */
+	long getErros();
+
+	/**
+	 * @return String com a quantidade de falhas de cada mensagem de erro
+	 */
+	String getErrosPorMensagem();
+
+	/**
+	 * @return double com a latência média, em microssegundos
+	 */
+	double getMediaMicros();
+
+	/**
+	 * @return double com a mediana da latência, em microssegundos
+	 */
+	double getP50Micros();
+
+	/**
+	 * @return double com o percentil 90 da latência, em microssegundos
+	 */
+	double getP90Micros();
+
+	/**
+	 * @return double com o percentil 99 da latência, em microssegundos
+	 */
+	double getP99Micros();
+
+	/**
+	 * @return double com o percentil 99,9 da latência, em microssegundos
+	 */
+	double getP999Micros();
+
+	/**
+	 * @return double com a maior latência, em microssegundos
+	 */
+	double getMaximoMicros();
+}
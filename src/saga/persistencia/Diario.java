@@ -0,0 +1,391 @@
+package saga.persistencia;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Diário de escrita antecipada (write-ahead log) das operações que alteram o estado da fachada. Cada operação
+ * é gravada ao final do arquivo como um registro binário:
+ *
+ * [int tamanho][int crc][byte código da operação][campos]
+ *
+ * onde tamanho e crc se referem ao trecho que começa no código da operação. Strings são gravadas como o
+ * tamanho em UTF-8 mais um, em base 128 (0 representa null), seguido dos bytes; doubles ocupam 8 bytes.
+ *
+ * A durabilidade é feita em lote (group commit): os registros anexados vão para um buffer em memória e uma
+ * única thread gravadora escreve tudo o que se acumulou e chama force() no arquivo. Quem anexa um registro
+ * espera apenas até que a gravação que o inclui termine, de modo que várias operações concorrentes
+ * compartilham a mesma sincronização com o disco.
+ *
+ * @author Guilherme de Melo Carneiro
+ *
+ */
+public class Diario {
+
+	/**
+	 * Tamanho do cabeçalho de cada registro: tamanho e crc
+	 */
+	private static final int CABECALHO = 8;
+
+	/**
+	 * Tamanho máximo aceito para um registro. Valores maiores indicam um cabeçalho corrompido.
+	 */
+	private static final int TAMANHO_MAXIMO = 1 << 24;
+
+	/**
+	 * Canal do arquivo do diário
+	 */
+	private final FileChannel canal;
+
+	/**
+	 * Trava que protege os buffers, as sequências e o estado da thread gravadora
+	 */
+	private final Object trava;
+
+	/**
+	 * Registros anexados que ainda não foram entregues à thread gravadora
+	 */
+	private byte[] pendentes;
+
+	/**
+	 * Quantidade de bytes válidos em pendentes
+	 */
+	private int tamanhoPendentes;
+
+	/**
+	 * Buffer em gravação, trocado com pendentes a cada lote
+	 */
+	private byte[] gravando;
+
+	/**
+	 * Quantidade de registros anexados desde a abertura
+	 */
+	private long sequenciaAnexada;
+
+	/**
+	 * Quantidade de registros já gravados e sincronizados com o disco
+	 */
+	private long sequenciaDuravel;
+
+	/**
+	 * Primeira falha de escrita, que torna o diário inutilizável
+	 */
+	private IOException falha;
+
+	private boolean fechado;
+
+	private final Thread gravador;
+
+	/**
+	 * Abre o diário armazenado no arquivo passado como parâmetro, criando-o caso não exista. Os registros já
+	 * existentes devem ser reproduzidos com reproduz() antes que novos registros sejam anexados.
+	 *
+	 * @param arquivo Path do arquivo do diário
+	 * @throws IOException caso o arquivo não possa ser aberto
+	 */
+	public Diario(Path arquivo) throws IOException {
+		this.canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		this.trava = new Object();
+		this.pendentes = new byte[4096];
+		this.gravando = new byte[4096];
+		this.gravador = new Thread(this::grava, "saga-diario");
+		this.gravador.setDaemon(true);
+		this.gravador.start();
+	}
+
+	/**
+	 * Retorna a quantidade de registros reproduzidos. Lê o diário do início e entrega cada registro íntegro,
+	 * na ordem em que foi gravado, ao consumidor passado como parâmetro. A leitura para no primeiro registro
+	 * incompleto ou com crc divergente, que só pode ser fruto de uma gravação interrompida; o arquivo é então
+	 * truncado no fim do último registro íntegro, e os novos registros são anexados a partir dali.
+	 *
+	 * @param consumidor BiConsumer que recebe a operação e os seus campos
+	 * @return long com a quantidade de registros reproduzidos
+	 * @throws IOException caso a leitura do arquivo falhe
+	 */
+	public long reproduz(BiConsumer<Operacao, Object[]> consumidor) throws IOException {
+		long posicao = 0;
+		long reproduzidos = 0;
+		this.canal.position(0);
+		DataInputStream entrada = new DataInputStream(new BufferedInputStream(Channels.newInputStream(this.canal), 1 << 16));
+		CRC32 crc = new CRC32();
+		byte[] conteudo = new byte[256];
+		while(true) {
+			int tamanho;
+			int crcGravado;
+			try {
+				tamanho = entrada.readInt();
+				crcGravado = entrada.readInt();
+				if(tamanho <= 0 || tamanho > TAMANHO_MAXIMO) {
+					break;
+				}
+				if(conteudo.length < tamanho) {
+					conteudo = new byte[Math.max(tamanho, conteudo.length * 2)];
+				}
+				entrada.readFully(conteudo, 0, tamanho);
+			}catch(EOFException e) {
+				break;
+			}
+			crc.reset();
+			crc.update(conteudo, 0, tamanho);
+			if((int) crc.getValue() != crcGravado) {
+				break;
+			}
+			Operacao operacao = Operacao.doCodigo(conteudo[0]);
+			if(operacao == null) {
+				break;
+			}
+			consumidor.accept(operacao, decodifica(operacao, ByteBuffer.wrap(conteudo, 1, tamanho - 1)));
+			posicao += CABECALHO + tamanho;
+			reproduzidos++;
+		}
+		if(this.canal.size() > posicao) {
+			this.canal.truncate(posicao);
+			this.canal.force(true);
+		}
+		this.canal.position(posicao);
+		return reproduzidos;
+	}
+
+	/**
+	 * Não possui retorno. Lança IllegalStateException caso o diário tenha sido fechado, ou UncheckedIOException
+	 * caso uma gravação anterior tenha falhado. Deve ser chamado antes de aplicar uma operação que será anexada,
+	 * para que ela seja recusada sem efeitos colaterais; fechar o diário entre esta conferência e anexa() cabe
+	 * a quem o usa impedir.
+	 */
+	public void confereDisponivel() {
+		synchronized(this.trava) {
+			if(this.fechado) {
+				throw new IllegalStateException("Diario fechado.");
+			}
+			if(this.falha != null) {
+				throw new UncheckedIOException("Erro na gravacao do diario.", this.falha);
+			}
+		}
+	}
+
+	/**
+	 * Retorna o número de sequência do registro anexado. Codifica a operação e os seus campos e os anexa ao
+	 * lote pendente, sem esperar pela gravação em disco; para isso, deve-se chamar aguarda() com o número
+	 * retornado. Os registros são gravados na ordem em que são anexados. Depois de uma falha de gravação, o
+	 * registro ainda é aceito, mas aguarda() lança a falha, pois ele nunca chegará ao disco.
+	 *
+	 * @param operacao Operacao realizada
+	 * @param campos Object com os campos da operação, de acordo com a sua assinatura
+	 * @return long com o número de sequência do registro
+	 */
+	public long anexa(Operacao operacao, Object... campos) {
+		byte[] registro = codifica(operacao, campos);
+		synchronized(this.trava) {
+			if(this.fechado) {
+				throw new IllegalStateException("Diario fechado.");
+			}
+			if(this.tamanhoPendentes + registro.length > this.pendentes.length) {
+				this.pendentes = Arrays.copyOf(this.pendentes, Math.max(this.tamanhoPendentes + registro.length, this.pendentes.length * 2));
+			}
+			System.arraycopy(registro, 0, this.pendentes, this.tamanhoPendentes, registro.length);
+			this.tamanhoPendentes += registro.length;
+			this.sequenciaAnexada++;
+			this.trava.notifyAll();
+			return this.sequenciaAnexada;
+		}
+	}
+
+	/**
+	 * Não possui retorno. Espera até que o registro com o número de sequência passado como parâmetro esteja
+	 * gravado e sincronizado com o disco. Lança UncheckedIOException caso a gravação tenha falhado.
+	 *
+	 * @param sequencia long com o número de sequência retornado por anexa()
+	 */
+	public void aguarda(long sequencia) {
+		boolean interrompido = false;
+		synchronized(this.trava) {
+			while(this.sequenciaDuravel < sequencia && this.falha == null) {
+				try {
+					this.trava.wait();
+				}catch(InterruptedException e) {
+					interrompido = true;
+				}
+			}
+			if(interrompido) {
+				Thread.currentThread().interrupt();
+			}
+			if(this.sequenciaDuravel < sequencia) {
+				throw new UncheckedIOException("Erro na gravacao do diario.", this.falha);
+			}
+		}
+	}
+
+	/**
+	 * Não possui retorno. Grava os registros pendentes, encerra a thread gravadora e fecha o arquivo.
+	 *
+	 * @throws IOException caso a gravação dos registros pendentes tenha falhado
+	 */
+	public void fecha() throws IOException {
+		synchronized(this.trava) {
+			if(this.fechado) {
+				return;
+			}
+			this.fechado = true;
+			this.trava.notifyAll();
+		}
+		try {
+			this.gravador.join();
+		}catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		this.canal.close();
+		if(this.falha != null) {
+			throw this.falha;
+		}
+	}
+
+	/**
+	 * Laço da thread gravadora. Troca o buffer pendente pelo buffer de gravação, grava o lote inteiro, chama
+	 * force() e acorda quem espera pelos registros do lote. Enquanto um lote é gravado, os novos registros se
+	 * acumulam no outro buffer e formam o lote seguinte.
+	 */
+	private void grava() {
+		while(true) {
+			int tamanho;
+			long alvo;
+			synchronized(this.trava) {
+				while(this.tamanhoPendentes == 0 && !this.fechado) {
+					try {
+						this.trava.wait();
+					}catch(InterruptedException e) {
+						// a thread gravadora só termina quando o diário é fechado
+					}
+				}
+				if(this.tamanhoPendentes == 0) {
+					return;
+				}
+				byte[] lote = this.pendentes;
+				this.pendentes = this.gravando;
+				this.gravando = lote;
+				tamanho = this.tamanhoPendentes;
+				this.tamanhoPendentes = 0;
+				alvo = this.sequenciaAnexada;
+			}
+			try {
+				ByteBuffer buffer = ByteBuffer.wrap(this.gravando, 0, tamanho);
+				while(buffer.hasRemaining()) {
+					this.canal.write(buffer);
+				}
+				this.canal.force(false);
+			}catch(IOException e) {
+				synchronized(this.trava) {
+					this.falha = e;
+					this.trava.notifyAll();
+				}
+				return;
+			}
+			synchronized(this.trava) {
+				this.sequenciaDuravel = alvo;
+				this.trava.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Retorna o registro completo, com cabeçalho, correspondente à operação e aos seus campos.
+	 */
+	private static byte[] codifica(Operacao operacao, Object[] campos) {
+		String assinatura = operacao.getAssinatura();
+		if(campos.length != assinatura.length()) {
+			throw new IllegalArgumentException("Erro no diario: quantidade de campos invalida para " + operacao + ".");
+		}
+		byte[][] textos = new byte[campos.length][];
+		int tamanho = 1;
+		for(int i=0; i<campos.length; i++) {
+			if(assinatura.charAt(i) == 'D') {
+				tamanho += 8;
+			}else if(campos[i] == null) {
+				tamanho += 1;
+			}else {
+				textos[i] = ((String) campos[i]).getBytes(StandardCharsets.UTF_8);
+				tamanho += tamanhoVarint(textos[i].length + 1) + textos[i].length;
+			}
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate(CABECALHO + tamanho);
+		buffer.position(CABECALHO);
+		buffer.put(operacao.getCodigo());
+		for(int i=0; i<campos.length; i++) {
+			if(assinatura.charAt(i) == 'D') {
+				buffer.putDouble((Double) campos[i]);
+			}else if(textos[i] == null) {
+				buffer.put((byte) 0);
+			}else {
+				escreveVarint(buffer, textos[i].length + 1);
+				buffer.put(textos[i]);
+			}
+		}
+
+		CRC32 crc = new CRC32();
+		crc.update(buffer.array(), CABECALHO, tamanho);
+		buffer.putInt(0, tamanho);
+		buffer.putInt(4, (int) crc.getValue());
+		return buffer.array();
+	}
+
+	/**
+	 * Retorna os campos de um registro, de acordo com a assinatura da operação.
+	 */
+	private static Object[] decodifica(Operacao operacao, ByteBuffer buffer) {
+		String assinatura = operacao.getAssinatura();
+		Object[] campos = new Object[assinatura.length()];
+		for(int i=0; i<campos.length; i++) {
+			if(assinatura.charAt(i) == 'D') {
+				campos[i] = buffer.getDouble();
+				continue;
+			}
+			int tamanho = leVarint(buffer);
+			if(tamanho > 0) {
+				campos[i] = new String(buffer.array(), buffer.position(), tamanho - 1, StandardCharsets.UTF_8);
+				buffer.position(buffer.position() + tamanho - 1);
+			}
+		}
+		return campos;
+	}
+
+	private static int tamanhoVarint(int valor) {
+		int bytes = 1;
+		while((valor >>>= 7) != 0) {
+			bytes++;
+		}
+		return bytes;
+	}
+
+	private static void escreveVarint(ByteBuffer buffer, int valor) {
+		while((valor & ~0x7F) != 0) {
+			buffer.put((byte) ((valor & 0x7F) | 0x80));
+			valor >>>= 7;
+		}
+		buffer.put((byte) valor);
+	}
+
+	private static int leVarint(ByteBuffer buffer) {
+		int valor = 0;
+		int deslocamento = 0;
+		byte b;
+		do {
+			b = buffer.get();
+			valor |= (b & 0x7F) << deslocamento;
+			deslocamento += 7;
+		}while((b & 0x80) != 0);
+		return valor;
+	}
+}
@@ -0,0 +1,80 @@
+package saga.persistencia;
+
+/**
+ * Operações da fachada que alteram o estado do sistema e, por isso, são registradas no diário. Cada operação
+ * possui um código estável, gravado em cada registro, e a assinatura dos seus campos: 'S' para String e
+ * 'D' para double, na ordem dos parâmetros do método correspondente da fachada.
+ *
+ * @author Guilherme de Melo Carneiro
+ *
+ */
+public enum Operacao {
+
+	ADICIONA_CLIENTE(1, "SSSS"),
+	EDITA_CLIENTE(2, "SSS"),
+	REMOVE_CLIENTE(3, "S"),
+	ADICIONA_FORNECEDOR(4, "SSS"),
+	EDITA_FORNECEDOR(5, "SSS"),
+	REMOVE_FORNECEDOR(6, "S"),
+	ADICIONA_PRODUTO(7, "SSSD"),
+	ADICIONA_COMBO(8, "SSSDS"),
+	EDITA_PRODUTO(9, "SSSD"),
+	EDITA_COMBO(10, "SSSD"),
+	REMOVE_PRODUTO(11, "SSS"),
+	ADICIONA_COMPRA(12, "SSSSS"),
+	REALIZA_PAGAMENTO(13, "SS");
+
+	private static final Operacao[] POR_CODIGO = new Operacao[14];
+
+	static {
+		for(Operacao operacao: values()) {
+			POR_CODIGO[operacao.codigo] = operacao;
+		}
+	}
+
+	/**
+	 * Código da operação gravado no registro
+	 */
+	private final byte codigo;
+
+	/**
+	 * Tipos dos campos da operação, um caractere por campo
+	 */
+	private final String assinatura;
+
+	private Operacao(int codigo, String assinatura) {
+		this.codigo = (byte) codigo;
+		this.assinatura = assinatura;
+	}
+
+	/**
+	 * Retorna o código da operação gravado no registro.
+	 *
+	 * @return byte com o código da operação
+	 */
+	public byte getCodigo() {
+		return this.codigo;
+	}
+
+	/**
+	 * Retorna a assinatura dos campos da operação: 'S' para String e 'D' para double.
+	 *
+	 * @return String com um caractere por campo
+	 */
+	public String getAssinatura() {
+		return this.assinatura;
+	}
+
+	/**
+	 * Retorna a operação correspondente ao código, ou null caso o código seja desconhecido.
+	 *
+	 * @param codigo byte com o código lido de um registro
+	 * @return Operacao correspondente, ou null
+	 */
+	public static Operacao doCodigo(byte codigo) {
+		if(codigo <= 0 || codigo >= POR_CODIGO.length) {
+			return null;
+		}
+		return POR_CODIGO[codigo];
+	}
+}
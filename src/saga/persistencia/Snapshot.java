@@ -0,0 +1,420 @@
+package saga.persistencia;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import saga.controllers.ClientesController;
+import saga.controllers.FornecedoresController;
+import saga.entities.Cliente;
+import saga.entities.Combo;
+import saga.entities.Conta;
+import saga.entities.Fornecedor;
+import saga.entities.Produto;
+import saga.services.Registro;
+
+/**
+ * Snapshot binário do estado completo do sistema: clientes, fornecedores, produtos, combos e contas em
+ * aberto. O arquivo tem o formato:
+ *
+ * [int MAGICO][int VERSAO][long geração do diário]
+ * [clientes][fornecedores][produtos][contas]
+ * [int crc de tudo o que vem antes]
+ *
+ * Os produtos formam uma única tabela, referenciada pelos combos e pelas contas por posição, de modo que
+ * produtos removidos do catálogo mas ainda presentes em compras ou combos são preservados. Os produtos
+ * simples vêm antes dos combos, para que os componentes de um combo já existam quando ele é lido. Cada
+ * conta é gravada em colunas, como em memória: datas, posições dos produtos na tabela e preços, que são
+ * lidas em bloco. Os identificadores do registro não são gravados; eles são atribuídos de novo na leitura
+ * e as posições da tabela são traduzidas para eles.
+ *
+ * O snapshot é escrito em um arquivo temporário, sincronizado com o disco e então movido atomicamente por
+ * cima do anterior, de modo que sempre existe um snapshot completo. A leitura mapeia o arquivo em memória
+ * com FileChannel.map, sem cópias intermediárias.
+ *
+ * @author Guilherme de Melo Carneiro
+ *
+ */
+public final class Snapshot {
+
+	private static final int MAGICO = 0x53414741;
+
+	private static final int VERSAO = 2;
+
+	private static final byte PRODUTO = 0;
+
+	private static final byte COMBO = 1;
+
+	/**
+	 * Posição, na tabela de fornecedores, de um produto que não pertence mais a nenhum catálogo
+	 */
+	private static final int FORA_DO_CATALOGO = -1;
+
+	private Snapshot() {
+	}
+
+	/**
+	 * Não possui retorno. Escreve atomicamente o snapshot do estado dos controladores no arquivo passado como
+	 * parâmetro. O estado não deve ser alterado durante a escrita.
+	 *
+	 * @param arquivo Path do arquivo do snapshot
+	 * @param geracao long com a geração do primeiro diário que deve ser reproduzido após o snapshot
+	 * @param clientes ClientesController com os clientes e contas
+	 * @param fornecedores FornecedoresController com os fornecedores e produtos
+	 * @throws IOException caso a escrita falhe
+	 */
+	public static void escreve(Path arquivo, long geracao, ClientesController clientes, FornecedoresController fornecedores) throws IOException {
+		Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+		try(FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			Escritor saida = new Escritor(canal);
+			saida.putInt(MAGICO);
+			saida.putInt(VERSAO);
+			saida.putLong(geracao);
+			escreveEstado(saida, clientes, fornecedores);
+			saida.fecha();
+			canal.force(true);
+		}
+		Files.move(temporario, arquivo, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		sincronizaDiretorio(arquivo.toAbsolutePath().getParent());
+	}
+
+	/**
+	 * Retorna a geração do primeiro diário que deve ser reproduzido após o snapshot. Carrega o snapshot do
+	 * arquivo passado como parâmetro nos controladores, que devem estar vazios. Lança IOException caso o
+	 * arquivo não seja um snapshot ou esteja corrompido.
+	 *
+	 * @param arquivo Path do arquivo do snapshot
+	 * @param clientes ClientesController que receberá os clientes e contas
+	 * @param fornecedores FornecedoresController que receberá os fornecedores e produtos
+	 * @return long com a geração do diário
+	 * @throws IOException caso a leitura falhe ou o snapshot seja inválido
+	 */
+	public static long carrega(Path arquivo, ClientesController clientes, FornecedoresController fornecedores) throws IOException {
+		MappedByteBuffer buffer;
+		try(FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+			buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+		}
+		if(buffer.limit() < 20 || buffer.getInt(0) != MAGICO || buffer.getInt(4) != VERSAO) {
+			throw new IOException("Snapshot invalido: " + arquivo);
+		}
+		int fim = buffer.limit() - 4;
+		CRC32 crc = new CRC32();
+		ByteBuffer conteudo = buffer.duplicate();
+		conteudo.limit(fim);
+		crc.update(conteudo);
+		if((int) crc.getValue() != buffer.getInt(fim)) {
+			throw new IOException("Snapshot corrompido: " + arquivo);
+		}
+
+		buffer.position(8);
+		long geracao = buffer.getLong();
+		try {
+			carregaEstado(buffer, clientes, fornecedores);
+		}catch(RuntimeException e) {
+			throw new IOException("Snapshot invalido: " + arquivo, e);
+		}
+		return geracao;
+	}
+
+	private static void escreveEstado(Escritor saida, ClientesController clientes, FornecedoresController fornecedores) throws IOException {
+		List<Cliente> listaClientes = new ArrayList<Cliente>(clientes.getClientes());
+		saida.putInt(listaClientes.size());
+		for(Cliente cliente: listaClientes) {
+			saida.putString(cliente.getCpf());
+			saida.putString(cliente.getNome());
+			saida.putString(cliente.getEmail());
+			saida.putString(cliente.getLocalizacao());
+		}
+
+		List<Fornecedor> listaFornecedores = new ArrayList<Fornecedor>(fornecedores.getFornecedores());
+		saida.putInt(listaFornecedores.size());
+		for(Fornecedor fornecedor: listaFornecedores) {
+			saida.putString(fornecedor.getNome());
+			saida.putString(fornecedor.getEmail());
+			saida.putString(fornecedor.getTelefone());
+		}
+
+		// Tabela de produtos: primeiro os catálogos, depois os componentes de combos e os produtos das compras
+		Map<Produto, Integer> catalogo = new IdentityHashMap<Produto, Integer>();
+		Set<Produto> vistos = Collections.newSetFromMap(new IdentityHashMap<Produto, Boolean>());
+		List<Produto> simples = new ArrayList<Produto>();
+		List<Combo> combos = new ArrayList<Combo>();
+		for(int i=0; i<listaFornecedores.size(); i++) {
+			for(Produto produto: listaFornecedores.get(i).getProdutos()) {
+				catalogo.put(produto, i);
+				registraProduto(produto, vistos, simples, combos);
+			}
+		}
+		List<String> cpfs = new ArrayList<String>(clientes.getCpfsContas());
+		List<List<Conta>> contas = new ArrayList<List<Conta>>(cpfs.size());
+		for(String cpf: cpfs) {
+			List<Conta> contasCliente = clientes.getContas(cpf);
+			contas.add(contasCliente);
+			for(Conta conta: contasCliente) {
+				for(int j=0; j<conta.getQuantidadeCompras(); j++) {
+					registraProduto(conta.getProdutoCompra(j), vistos, simples, combos);
+				}
+			}
+		}
+		for(int i=0; i<combos.size(); i++) {
+			for(Produto componente: combos.get(i).getProdutos()) {
+				registraProduto(componente, vistos, simples, combos);
+			}
+		}
+
+		Map<Produto, Integer> indices = new IdentityHashMap<Produto, Integer>();
+		saida.putInt(simples.size() + combos.size());
+		for(Produto produto: simples) {
+			indices.put(produto, indices.size());
+			saida.put(PRODUTO);
+			escreveProduto(saida, produto, catalogo);
+		}
+		for(Combo combo: combos) {
+			indices.put(combo, indices.size());
+			saida.put(COMBO);
+			escreveProduto(saida, combo, catalogo);
+			saida.putDouble(combo.getFator());
+			saida.putLong(combo.getPrecoOriginalCentavos());
+			saida.putInt(combo.getProdutos().size());
+			for(Produto componente: combo.getProdutos()) {
+				saida.putInt(indices.get(componente));
+			}
+		}
+
+		saida.putInt(cpfs.size());
+		for(int i=0; i<cpfs.size(); i++) {
+			saida.putString(cpfs.get(i));
+			saida.putInt(contas.get(i).size());
+			for(Conta conta: contas.get(i)) {
+				int quantidade = conta.getQuantidadeCompras();
+				saida.putString(conta.getFornecedor());
+				saida.putInt(quantidade);
+				for(int j=0; j<quantidade; j++) {
+					saida.putInt(conta.getDataCompra(j));
+				}
+				for(int j=0; j<quantidade; j++) {
+					saida.putInt(indices.get(conta.getProdutoCompra(j)));
+				}
+				for(int j=0; j<quantidade; j++) {
+					saida.putLong(conta.getPrecoCompra(j));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Inclui o produto na lista de simples ou de combos, caso ainda não tenha sido incluído.
+	 */
+	private static void registraProduto(Produto produto, Set<Produto> vistos, List<Produto> simples, List<Combo> combos) {
+		if(!vistos.add(produto)) {
+			return;
+		}
+		if(produto instanceof Combo) {
+			combos.add((Combo) produto);
+		}else {
+			simples.add(produto);
+		}
+	}
+
+	private static void escreveProduto(Escritor saida, Produto produto, Map<Produto, Integer> catalogo) throws IOException {
+		Integer fornecedor = catalogo.get(produto);
+		saida.putInt(fornecedor == null ? FORA_DO_CATALOGO : fornecedor);
+		saida.putString(produto.getNome());
+		saida.putString(produto.getDescricao());
+		saida.putLong(produto.getPrecoCentavos());
+	}
+
+	private static void carregaEstado(ByteBuffer entrada, ClientesController clientes, FornecedoresController fornecedores) {
+		Registro registro = fornecedores.getRegistro();
+		int quantidadeClientes = entrada.getInt();
+		for(int i=0; i<quantidadeClientes; i++) {
+			clientes.cadastraCliente(getString(entrada), getString(entrada), getString(entrada), getString(entrada));
+		}
+
+		int quantidadeFornecedores = entrada.getInt();
+		Fornecedor[] listaFornecedores = new Fornecedor[quantidadeFornecedores];
+		for(int i=0; i<quantidadeFornecedores; i++) {
+			String nome = getString(entrada);
+			fornecedores.cadastraFornecedor(nome, getString(entrada), getString(entrada));
+			listaFornecedores[i] = fornecedores.getFornecedor(nome);
+		}
+
+		int quantidadeProdutos = entrada.getInt();
+		Produto[] produtos = new Produto[quantidadeProdutos];
+		int[] ids = new int[quantidadeProdutos];
+		for(int i=0; i<quantidadeProdutos; i++) {
+			byte tipo = entrada.get();
+			int fornecedor = entrada.getInt();
+			String nome = getString(entrada);
+			String descricao = getString(entrada);
+			long preco = entrada.getLong();
+			Produto produto;
+			if(tipo == COMBO) {
+				double fator = entrada.getDouble();
+				long precoOriginal = entrada.getLong();
+				List<Produto> componentes = new ArrayList<Produto>();
+				int quantidadeComponentes = entrada.getInt();
+				for(int j=0; j<quantidadeComponentes; j++) {
+					componentes.add(produtos[entrada.getInt()]);
+				}
+				Combo combo = new Combo(nome, descricao, componentes, fator, registro);
+				combo.setPrecoOriginalCentavos(precoOriginal);
+				produto = combo;
+			}else {
+				produto = new Produto(nome, 0.0, descricao);
+				produto.setPrecoCentavos(preco);
+			}
+			produtos[i] = produto;
+			ids[i] = registro.registraProduto(produto);
+			if(fornecedor != FORA_DO_CATALOGO) {
+				fornecedores.adicionaProduto(listaFornecedores[fornecedor], produto);
+			}
+		}
+
+		int quantidadeCpfs = entrada.getInt();
+		for(int i=0; i<quantidadeCpfs; i++) {
+			String cpf = getString(entrada);
+			int quantidadeContas = entrada.getInt();
+			List<Conta> contas = new ArrayList<Conta>(quantidadeContas);
+			for(int j=0; j<quantidadeContas; j++) {
+				String fornecedor = getString(entrada);
+				int quantidadeCompras = entrada.getInt();
+				int[] datas = new int[quantidadeCompras];
+				int[] indices = new int[quantidadeCompras];
+				long[] precos = new long[quantidadeCompras];
+				entrada.asIntBuffer().get(datas);
+				entrada.position(entrada.position() + 4 * quantidadeCompras);
+				entrada.asIntBuffer().get(indices);
+				entrada.position(entrada.position() + 4 * quantidadeCompras);
+				entrada.asLongBuffer().get(precos);
+				entrada.position(entrada.position() + 8 * quantidadeCompras);
+				for(int k=0; k<quantidadeCompras; k++) {
+					indices[k] = ids[indices[k]];
+				}
+				Fornecedor credor = fornecedores.getFornecedor(fornecedor);
+				if(credor != null) {
+					Conta conta = new Conta(cpf, fornecedor, registro, datas, indices, precos);
+					conta.setIdFornecedor(credor.getId());
+					contas.add(conta);
+				}
+			}
+			clientes.adicionaContas(cpf, contas);
+		}
+	}
+
+	private static String getString(ByteBuffer entrada) {
+		int tamanho = entrada.getInt();
+		if(tamanho < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[tamanho];
+		entrada.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Sincroniza a entrada do diretório com o disco, para que a troca de nome do arquivo sobreviva a uma queda.
+	 * Nem todo sistema permite abrir diretórios; nesse caso a sincronização é omitida.
+	 */
+	private static void sincronizaDiretorio(Path diretorio) {
+		try(FileChannel canal = FileChannel.open(diretorio, StandardOpenOption.READ)) {
+			canal.force(true);
+		}catch(IOException e) {
+			// sistema de arquivos não permite sincronizar diretórios
+		}
+	}
+
+	/**
+	 * Escrita bufferizada no canal do snapshot, que calcula o crc de tudo o que é escrito.
+	 */
+	private static final class Escritor {
+
+		private final FileChannel canal;
+
+		private final ByteBuffer buffer;
+
+		private final CRC32 crc;
+
+		Escritor(FileChannel canal) {
+			this.canal = canal;
+			this.buffer = ByteBuffer.allocate(1 << 20);
+			this.crc = new CRC32();
+		}
+
+		void put(byte valor) throws IOException {
+			this.garante(1);
+			this.buffer.put(valor);
+		}
+
+		void putInt(int valor) throws IOException {
+			this.garante(4);
+			this.buffer.putInt(valor);
+		}
+
+		void putLong(long valor) throws IOException {
+			this.garante(8);
+			this.buffer.putLong(valor);
+		}
+
+		void putDouble(double valor) throws IOException {
+			this.garante(8);
+			this.buffer.putDouble(valor);
+		}
+
+		void putString(String valor) throws IOException {
+			if(valor == null) {
+				this.putInt(-1);
+				return;
+			}
+			byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+			this.putInt(bytes.length);
+			int posicao = 0;
+			while(posicao < bytes.length) {
+				this.garante(1);
+				int tamanho = Math.min(this.buffer.remaining(), bytes.length - posicao);
+				this.buffer.put(bytes, posicao, tamanho);
+				posicao += tamanho;
+			}
+		}
+
+		/**
+		 * Escreve o crc ao final e esvazia o buffer no canal.
+		 */
+		void fecha() throws IOException {
+			this.esvazia();
+			this.buffer.putInt((int) this.crc.getValue());
+			this.buffer.flip();
+			while(this.buffer.hasRemaining()) {
+				this.canal.write(this.buffer);
+			}
+		}
+
+		private void garante(int tamanho) throws IOException {
+			if(this.buffer.remaining() < tamanho) {
+				this.esvazia();
+			}
+		}
+
+		private void esvazia() throws IOException {
+			this.crc.update(this.buffer.array(), 0, this.buffer.position());
+			this.buffer.flip();
+			while(this.buffer.hasRemaining()) {
+				this.canal.write(this.buffer);
+			}
+			this.buffer.clear();
+		}
+	}
+}
@@ -1,24 +1,127 @@
 package saga.services;
 
 import saga.controllers.FornecedoresController;
+import saga.entities.ChaveProduto;
+import saga.entities.Fornecedor;
 import saga.entities.Produto;
 
+/**
+ * Serviço que dá aos clientes acesso aos fornecedores e aos seus produtos. Uma única instância vive enquanto
+ * a fachada, e mantém um cache limitado das consultas de produto por fornecedor, nome e descrição, de modo
+ * que compras repetidas de um mesmo produto sejam resolvidas com uma única consulta ao cache.
+ * 
+ * O cache é um array de tamanho fixo indexado pelo hash da consulta; uma entrada nova substitui a que
+ * ocupava a mesma posição. Cada entrada guarda a geração do catálogo em que foi obtida, e deixa de valer
+ * quando o catálogo muda de geração (remoção de fornecedor ou de produto, edição de preço). As entradas são
+ * imutáveis, de modo que o cache pode ser lido e escrito por várias threads sem travas.
+ * 
+ * @author Guilherme de Melo Carneiro
+ *
+ */
 public class FornecedorService {
 
+	/**
+	 * Quantidade de entradas do cache. Deve ser uma potência de dois.
+	 */
+	private static final int TAMANHO_CACHE = 1 << 12;
+
 	private FornecedoresController fornecedores;
 	
+	/**
+	 * Cache das consultas de produto, indexado pelo hash do fornecedor e da chave do produto
+	 */
+	private final Entrada[] cache;
+	
 	public FornecedorService(FornecedoresController fornecedores) {
 		this.fornecedores = fornecedores;
+		this.cache = new Entrada[TAMANHO_CACHE];
 	}
 	
 	public boolean existeFornecedor(String fornecedor) {
 		return this.fornecedores.existeFornecedor(fornecedor);
 	}
 	
-	public Produto getProduto(String fornecedor, String nome) {
-		if(this.fornecedores.getFornecedor(fornecedor) == null) {
+	/**
+	 * Retorna o produto ou combo do fornecedor com o nome e a descrição passados como parâmetro, ou null caso
+	 * o fornecedor ou o produto não existam. Consulta primeiro o cache; apenas consultas bem-sucedidas são
+	 * guardadas nele.
+	 * 
+	 * @param fornecedor String com o nome do fornecedor
+	 * @param nome String com o nome do produto
+	 * @param descricao String com a descrição do produto
+	 * @return Produto buscado, ou null
+	 */
+	public Produto getProduto(String fornecedor, String nome, String descricao) {
+		if(fornecedor == null || nome == null || descricao == null) {
+			return null;
+		}
+		long geracao = this.fornecedores.getGeracaoCatalogo();
+		int hashProduto = ChaveProduto.hash(nome, descricao);
+		int hash = fornecedor.hashCode() * 31 + hashProduto;
+		int posicao = (hash ^ (hash >>> 16)) & (TAMANHO_CACHE - 1);
+		
+		Entrada entrada = this.cache[posicao];
+		if(entrada != null && entrada.geracao == geracao && entrada.fornecedor.equals(fornecedor) && entrada.produto.getChave().corresponde(nome, descricao, hashProduto)) {
+			return entrada.produto;
+		}
+		
+		Fornecedor dono = this.fornecedores.getFornecedor(fornecedor);
+		if(dono == null) {
 			return null;
 		}
-		return this.fornecedores.getFornecedor(fornecedor).getProduto(nome);
+		Produto produto = dono.getProduto(nome, descricao);
+		if(produto != null) {
+			this.cache[posicao] = new Entrada(fornecedor, produto, geracao);
+		}
+		return produto;
+	}
+	
+	/**
+	 * Retorna o fornecedor com o nome passado como parâmetro, ou null caso não exista.
+	 * 
+	 * @param fornecedor String com o nome do fornecedor
+	 * @return Fornecedor com o nome, ou null
+	 */
+	public Fornecedor getFornecedor(String fornecedor) {
+		return this.fornecedores.getFornecedor(fornecedor);
+	}
+	
+	public Fornecedor getFornecedor(int fornecedor) {
+		return this.fornecedores.getFornecedor(fornecedor);
+	}
+	
+	/**
+	 * Retorna o produto com o identificador passado como parâmetro, caso esteja no catálogo do fornecedor,
+	 * ou null caso contrário.
+	 * 
+	 * @param fornecedor Fornecedor dono do produto
+	 * @param produto int com o identificador do produto
+	 * @return Produto do catálogo, ou null
+	 */
+	public Produto getProduto(Fornecedor fornecedor, int produto) {
+		Produto resolvido = this.fornecedores.getRegistro().getProduto(produto);
+		if(resolvido == null || !fornecedor.contemProduto(resolvido)) {
+			return null;
+		}
+		return resolvido;
+	}
+	
+	/**
+	 * Entrada imutável do cache: o fornecedor consultado, o produto encontrado, cuja chave é o restante da
+	 * consulta, e a geração do catálogo em que foi feita.
+	 */
+	private static final class Entrada {
+		
+		final String fornecedor;
+		
+		final Produto produto;
+		
+		final long geracao;
+		
+		Entrada(String fornecedor, Produto produto, long geracao) {
+			this.fornecedor = fornecedor;
+			this.produto = produto;
+			this.geracao = geracao;
+		}
 	}
 }
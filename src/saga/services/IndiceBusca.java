@@ -0,0 +1,611 @@
+package saga.services;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.regex.Pattern;
+
+import saga.entities.Fornecedor;
+import saga.entities.Produto;
+
+/**
+ * Índice de busca em memória sobre os nomes e descrições dos produtos e combos de todos os fornecedores.
+ * Cada palavra é guardada em uma árvore de prefixos (trie), cujos nós separam os produtos que têm a palavra
+ * no nome dos que a têm na descrição; assim, a busca por prefixo percorre os resultados já na ordem de
+ * relevância e para ao atingir o limite. Os trigramas das palavras distintas ficam em um índice invertido,
+ * usado para encontrar palavras com erros de digitação quando nenhum produto corresponde ao termo.
+ *
+ * A comparação ignora maiúsculas e acentos. O índice é mantido pelo controlador de fornecedores a cada
+ * cadastro e remoção; os preços exibidos são lidos dos próprios produtos, e por isso estão sempre atuais.
+ * As operações são sincronizadas no índice.
+ *
+ * @author Guilherme de Melo Carneiro
+ *
+ */
+public class IndiceBusca {
+
+	/**
+	 * Quantidade máxima de produtos examinados por uma busca.
+	 */
+	private static final int LIMITE_CANDIDATOS = 10000;
+
+	/**
+	 * Quantas vezes o limite uma busca com mais de um termo reúne antes de ordenar, já que a pontuação dos
+	 * demais termos pode alterar a ordem das faixas do termo mais seletivo.
+	 */
+	private static final int FOLGA_ORDENACAO = 4;
+
+	/**
+	 * Fração mínima de trigramas em comum para que uma palavra seja considerada semelhante ao termo.
+	 */
+	private static final double SIMILARIDADE_MINIMA = 0.5;
+
+	/**
+	 * Pontuação de um termo em cada faixa de relevância: palavra do nome, prefixo de palavra do nome,
+	 * palavra da descrição e prefixo de palavra da descrição.
+	 */
+	private static final int[] PESOS = {4, 3, 2, 1};
+
+	private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+
+	private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+	/**
+	 * Ordem dos resultados: maior pontuação primeiro. A ordenação é estável, de modo que empates mantêm a
+	 * ordem em que foram encontrados.
+	 */
+	private static final Comparator<Correspondencia> ORDEM_RELEVANCIA = new Comparator<Correspondencia>() {
+		@Override
+		public int compare(Correspondencia c1, Correspondencia c2) {
+			return Double.compare(c2.pontuacao, c1.pontuacao);
+		}
+	};
+
+	/**
+	 * Produtos indexados, pelo identificador no registro
+	 */
+	private Map<Integer, Documento> documentos;
+
+	/**
+	 * Raiz da árvore de prefixos das palavras indexadas
+	 */
+	private No raiz;
+
+	/**
+	 * Índice invertido dos trigramas das palavras distintas indexadas
+	 */
+	private Map<String, Set<String>> trigramas;
+
+	/**
+	 * Constroi um índice vazio.
+	 */
+	public IndiceBusca() {
+		this.documentos = new HashMap<Integer, Documento>();
+		this.raiz = new No();
+		this.trigramas = new HashMap<String, Set<String>>();
+	}
+
+	/**
+	 * Não possui retorno. Indexa o produto ou combo do fornecedor pelo nome e pela descrição. O produto deve
+	 * estar registrado; um produto já indexado é indexado novamente.
+	 *
+	 * @param fornecedor Fornecedor dono do produto
+	 * @param produto Produto ou Combo a ser indexado
+	 */
+	public synchronized void indexa(Fornecedor fornecedor, Produto produto) {
+		this.remove(produto);
+		Documento documento = new Documento(fornecedor, produto);
+		this.documentos.put(produto.getId(), documento);
+		for(String palavra: documento.palavrasNome) {
+			this.adicionaPalavra(palavra).adicionaNome(produto.getId());
+		}
+		for(String palavra: documento.palavrasDescricao) {
+			this.adicionaPalavra(palavra).adicionaDescricao(produto.getId());
+		}
+	}
+
+	/**
+	 * Retorna o nó da palavra na trie, criando-o e incluindo a palavra no índice de trigramas caso seja nova.
+	 */
+	private No adicionaPalavra(String palavra) {
+		No no = this.raiz.adiciona(palavra, 0);
+		if(no.isVazio()) {
+			for(String trigrama: trigramas(palavra)) {
+				this.trigramas.computeIfAbsent(trigrama, t -> new HashSet<String>()).add(palavra);
+			}
+		}
+		return no;
+	}
+
+	/**
+	 * Não possui retorno. Retira o produto do índice. Não faz nada caso o produto não esteja indexado.
+	 *
+	 * @param produto Produto ou Combo a ser retirado
+	 */
+	public synchronized void remove(Produto produto) {
+		Documento documento = this.documentos.remove(produto.getId());
+		if(documento == null) {
+			return;
+		}
+		Set<String> palavras = new HashSet<String>(Arrays.asList(documento.palavrasNome));
+		palavras.addAll(Arrays.asList(documento.palavrasDescricao));
+		for(String palavra: palavras) {
+			this.raiz.remove(palavra, 0, produto.getId());
+			No no = this.raiz.desce(palavra);
+			if(no == null || no.isVazio()) {
+				for(String trigrama: trigramas(palavra)) {
+					Set<String> comTrigrama = this.trigramas.get(trigrama);
+					comTrigrama.remove(palavra);
+					if(comTrigrama.isEmpty()) {
+						this.trigramas.remove(trigrama);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Retorna a quantidade de produtos indexados.
+	 *
+	 * @return int com a quantidade de produtos indexados
+	 */
+	public synchronized int getQuantidade() {
+		return this.documentos.size();
+	}
+
+	/**
+	 * Retorna uma List com os produtos que correspondem ao termo buscado, em ordem de relevância, com no
+	 * máximo limite elementos. Um produto corresponde quando cada palavra do termo inicia alguma palavra
+	 * do seu nome ou da sua descrição; palavras do nome pesam mais que as da descrição, e palavras
+	 * completas mais que prefixos. Empates ficam na ordem de cadastro, com as palavras mais curtas primeiro.
+	 * Caso nenhum produto corresponda, são retornados os produtos com palavras semelhantes aos termos, como
+	 * palavras com erros de digitação.
+	 *
+	 * @param termo String com o termo buscado
+	 * @param limite int com a quantidade máxima de resultados
+	 * @return List de Correspondencia com os produtos encontrados
+	 */
+	public List<Correspondencia> busca(String termo, int limite) {
+		return this.busca(termo, limite, (fornecedor, produto) -> true);
+	}
+
+	/**
+	 * Retorna uma List com os produtos que correspondem ao termo buscado, como busca(termo, limite), mas
+	 * considerando apenas os produtos aceitos pelo filtro passado como parâmetro. O filtro é aplicado antes do
+	 * corte no limite, de modo que entradas descartadas, como as de produtos já removidos, não reduzam a
+	 * quantidade de resultados. O filtro é chamado sob a trava do índice.
+	 *
+	 * @param termo String com o termo buscado
+	 * @param limite int com a quantidade máxima de resultados
+	 * @param filtro BiPredicate que aceita o fornecedor e o produto de cada resultado
+	 * @return List de Correspondencia com os produtos encontrados
+	 */
+	public synchronized List<Correspondencia> busca(String termo, int limite, BiPredicate<Fornecedor, Produto> filtro) {
+		List<Correspondencia> encontrados = new ArrayList<Correspondencia>();
+		String[] termos = palavras(termo);
+		if(termos.length == 0 || limite <= 0) {
+			return encontrados;
+		}
+
+		No no = null;
+		for(String t: termos) {
+			No candidato = this.raiz.desce(t);
+			if(candidato == null) {
+				no = null;
+				break;
+			}
+			if(no == null || candidato.ocorrencias < no.ocorrencias) {
+				no = candidato;
+			}
+		}
+		if(no != null) {
+			this.buscaPrefixo(no, termos, limite, filtro, encontrados);
+		}
+		if(encontrados.isEmpty()) {
+			this.buscaAproximada(termos, limite, filtro, encontrados);
+		}
+		return encontrados;
+	}
+
+	/**
+	 * Não possui retorno. Percorre os produtos do nó do termo mais seletivo e de seus descendentes, faixa por
+	 * faixa de relevância. Com um único termo a pontuação é a da faixa, e a busca termina ao atingir o limite;
+	 * com mais termos, cada produto é pontuado por todos eles, e a busca reúne FOLGA_ORDENACAO vezes o limite
+	 * antes de ordenar.
+	 */
+	private void buscaPrefixo(No no, String[] termos, int limite, BiPredicate<Fornecedor, Produto> filtro, List<Correspondencia> encontrados) {
+		int suficientes = termos.length == 1 ? limite : limite * FOLGA_ORDENACAO;
+		Set<Integer> vistos = new HashSet<Integer>();
+		for(int faixa=0; faixa<PESOS.length; faixa++) {
+			Iterable<No> nos = faixa % 2 == 0 ? Collections.singletonList(no) : no.descendentes();
+			for(No atual: nos) {
+				Set<Integer> ids = faixa < 2 ? atual.nomes : atual.descricoes;
+				if(ids == null) {
+					continue;
+				}
+				for(int id: ids) {
+					if(!vistos.add(id)) {
+						continue;
+					}
+					Documento documento = this.documentos.get(id);
+					double pontuacao = termos.length == 1 ? PESOS[faixa] : documento.pontua(termos, null);
+					if(pontuacao > 0 && filtro.test(documento.fornecedor, documento.produto)) {
+						encontrados.add(new Correspondencia(documento.fornecedor, documento.produto, pontuacao));
+					}
+					if(encontrados.size() >= suficientes || vistos.size() >= LIMITE_CANDIDATOS) {
+						ordenaECorta(encontrados, limite);
+						return;
+					}
+				}
+			}
+		}
+		ordenaECorta(encontrados, limite);
+	}
+
+	/**
+	 * Não possui retorno. Busca os produtos com palavras semelhantes aos termos que não iniciam nenhuma palavra
+	 * indexada, das palavras mais semelhantes para as menos, até atingir o limite. Os demais termos continuam
+	 * sendo exigidos como prefixos. Um termo aproximado vale o peso da palavra exata, proporcional à semelhança.
+	 */
+	private void buscaAproximada(String[] termos, int limite, BiPredicate<Fornecedor, Produto> filtro, List<Correspondencia> encontrados) {
+		Map<String, Map<String, Double>> semelhantes = new HashMap<String, Map<String, Double>>();
+		String guia = null;
+		for(String t: termos) {
+			if(this.raiz.desce(t) == null) {
+				semelhantes.put(t, this.palavrasSemelhantes(t));
+				if(guia == null) {
+					guia = t;
+				}
+			}
+		}
+		if(guia == null) {
+			return;
+		}
+
+		List<Map.Entry<String, Double>> candidatas = new ArrayList<Map.Entry<String, Double>>(semelhantes.get(guia).entrySet());
+		candidatas.sort(Map.Entry.<String, Double>comparingByValue().reversed());
+		Set<Integer> vistos = new HashSet<Integer>();
+		for(Map.Entry<String, Double> palavra: candidatas) {
+			No no = this.raiz.desce(palavra.getKey());
+			for(Set<Integer> ids: Arrays.asList(no.nomes, no.descricoes)) {
+				if(ids == null) {
+					continue;
+				}
+				for(int id: ids) {
+					if(vistos.add(id)) {
+						Documento documento = this.documentos.get(id);
+						double pontuacao = documento.pontua(termos, semelhantes);
+						if(pontuacao > 0 && filtro.test(documento.fornecedor, documento.produto)) {
+							encontrados.add(new Correspondencia(documento.fornecedor, documento.produto, pontuacao));
+						}
+					}
+					if(encontrados.size() >= limite || vistos.size() >= LIMITE_CANDIDATOS) {
+						ordenaECorta(encontrados, limite);
+						return;
+					}
+				}
+			}
+		}
+		ordenaECorta(encontrados, limite);
+	}
+
+	/**
+	 * Retorna as palavras indexadas que compartilham ao menos SIMILARIDADE_MINIMA dos trigramas com o termo,
+	 * em relação à maior das duas palavras, com a respectiva semelhança.
+	 */
+	private Map<String, Double> palavrasSemelhantes(String termo) {
+		Set<String> trigramasTermo = trigramas(termo);
+		Map<String, Integer> comuns = new HashMap<String, Integer>();
+		for(String trigrama: trigramasTermo) {
+			Set<String> palavras = this.trigramas.get(trigrama);
+			if(palavras != null) {
+				for(String palavra: palavras) {
+					comuns.merge(palavra, 1, Integer::sum);
+				}
+			}
+		}
+		Map<String, Double> semelhantes = new HashMap<String, Double>();
+		for(Map.Entry<String, Integer> entrada: comuns.entrySet()) {
+			int maior = Math.max(trigramasTermo.size(), entrada.getKey().length());
+			double similaridade = (double) entrada.getValue() / maior;
+			if(similaridade >= SIMILARIDADE_MINIMA) {
+				semelhantes.put(entrada.getKey(), similaridade);
+			}
+		}
+		return semelhantes;
+	}
+
+	private static void ordenaECorta(List<Correspondencia> encontrados, int limite) {
+		encontrados.sort(ORDEM_RELEVANCIA);
+		if(encontrados.size() > limite) {
+			encontrados.subList(limite, encontrados.size()).clear();
+		}
+	}
+
+	/**
+	 * Retorna as palavras do texto, em minúsculas e sem acentos.
+	 */
+	static String[] palavras(String texto) {
+		String normalizado = ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+		return Arrays.stream(SEPARADORES.split(normalizado)).filter(p -> !p.isEmpty()).toArray(String[]::new);
+	}
+
+	/**
+	 * Retorna os trigramas da palavra, delimitada por espaços para que o início e o fim contem. Uma palavra
+	 * de n letras possui n trigramas.
+	 */
+	private static Set<String> trigramas(String palavra) {
+		Set<String> trigramas = new HashSet<String>();
+		String delimitada = " " + palavra + " ";
+		for(int i=0; i+3 <= delimitada.length(); i++) {
+			trigramas.add(delimitada.substring(i, i + 3));
+		}
+		return trigramas;
+	}
+
+	/**
+	 * Produto encontrado por uma busca, com o fornecedor que o possui e a pontuação de relevância.
+	 */
+	public static final class Correspondencia {
+
+		private final Fornecedor fornecedor;
+
+		private final Produto produto;
+
+		private final double pontuacao;
+
+		Correspondencia(Fornecedor fornecedor, Produto produto, double pontuacao) {
+			this.fornecedor = fornecedor;
+			this.produto = produto;
+			this.pontuacao = pontuacao;
+		}
+
+		public Fornecedor getFornecedor() {
+			return this.fornecedor;
+		}
+
+		public Produto getProduto() {
+			return this.produto;
+		}
+
+		public double getPontuacao() {
+			return this.pontuacao;
+		}
+	}
+
+	/**
+	 * Produto indexado, com as palavras distintas do nome e da descrição já normalizadas.
+	 */
+	private static final class Documento {
+
+		private final Fornecedor fornecedor;
+
+		private final Produto produto;
+
+		private final String[] palavrasNome;
+
+		private final String[] palavrasDescricao;
+
+		Documento(Fornecedor fornecedor, Produto produto) {
+			this.fornecedor = fornecedor;
+			this.produto = produto;
+			this.palavrasNome = new LinkedHashSet<String>(Arrays.asList(palavras(produto.getNome()))).toArray(new String[0]);
+			this.palavrasDescricao = new LinkedHashSet<String>(Arrays.asList(palavras(produto.getDescricao()))).toArray(new String[0]);
+		}
+
+		/**
+		 * Retorna a soma das pontuações dos termos no produto, ou zero caso algum termo não corresponda. Os
+		 * termos presentes em semelhantes, quando não é null, correspondem às palavras semelhantes a eles.
+		 */
+		double pontua(String[] termos, Map<String, Map<String, Double>> semelhantes) {
+			double total = 0;
+			for(String termo: termos) {
+				Map<String, Double> palavras = semelhantes == null ? null : semelhantes.get(termo);
+				double melhor = palavras == null
+						? Math.max(pontua(termo, this.palavrasNome, 0), pontua(termo, this.palavrasDescricao, 2))
+						: Math.max(aproxima(palavras, this.palavrasNome, PESOS[0]), aproxima(palavras, this.palavrasDescricao, PESOS[2]));
+				if(melhor == 0) {
+					return 0;
+				}
+				total += melhor;
+			}
+			return total;
+		}
+
+		private static int pontua(String termo, String[] palavras, int faixaExata) {
+			int melhor = 0;
+			for(String palavra: palavras) {
+				if(palavra.equals(termo)) {
+					return PESOS[faixaExata];
+				}
+				if(palavra.startsWith(termo)) {
+					melhor = PESOS[faixaExata + 1];
+				}
+			}
+			return melhor;
+		}
+
+		private static double aproxima(Map<String, Double> semelhantes, String[] palavras, int peso) {
+			double melhor = 0;
+			for(String palavra: palavras) {
+				Double similaridade = semelhantes.get(palavra);
+				if(similaridade != null) {
+					melhor = Math.max(melhor, similaridade * peso);
+				}
+			}
+			return melhor;
+		}
+	}
+
+	/**
+	 * Nó da árvore de prefixos. Os filhos ficam em arrays paralelos, pois cada nó costuma ter poucos. Os
+	 * conjuntos guardam, na ordem de cadastro, os identificadores dos produtos que possuem a palavra que
+	 * termina no nó no nome ou na descrição, e só são criados nos nós em que alguma palavra termina.
+	 */
+	private static final class No {
+
+		private char[] letras = new char[0];
+
+		private No[] filhos = new No[0];
+
+		private Set<Integer> nomes;
+
+		private Set<Integer> descricoes;
+
+		/**
+		 * Quantidade de ocorrências de palavras indexadas neste nó e abaixo dele, usada para escolher o
+		 * termo mais seletivo de uma busca.
+		 */
+		private int ocorrencias;
+
+		void adicionaNome(int id) {
+			if(this.nomes == null) {
+				this.nomes = new LinkedHashSet<Integer>();
+			}
+			this.nomes.add(id);
+		}
+
+		void adicionaDescricao(int id) {
+			if(this.descricoes == null) {
+				this.descricoes = new LinkedHashSet<Integer>();
+			}
+			this.descricoes.add(id);
+		}
+
+		/**
+		 * Retorna true caso nenhuma palavra indexada termine neste nó.
+		 */
+		boolean isVazio() {
+			return this.nomes == null && this.descricoes == null;
+		}
+
+		private No filho(char letra) {
+			for(int i=0; i<this.letras.length; i++) {
+				if(this.letras[i] == letra) {
+					return this.filhos[i];
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Retorna o nó do prefixo, ou null caso nenhuma palavra indexada comece por ele.
+		 */
+		No desce(String prefixo) {
+			No no = this;
+			for(int i=0; i<prefixo.length() && no != null; i++) {
+				no = no.filho(prefixo.charAt(i));
+			}
+			return no;
+		}
+
+		No adiciona(String palavra, int posicao) {
+			No no = this;
+			no.ocorrencias++;
+			for(int i=posicao; i<palavra.length(); i++) {
+				char letra = palavra.charAt(i);
+				No filho = no.filho(letra);
+				if(filho == null) {
+					filho = new No();
+					no.letras = Arrays.copyOf(no.letras, no.letras.length + 1);
+					no.filhos = Arrays.copyOf(no.filhos, no.filhos.length + 1);
+					no.letras[no.letras.length - 1] = letra;
+					no.filhos[no.filhos.length - 1] = filho;
+				}
+				no = filho;
+				no.ocorrencias++;
+			}
+			return no;
+		}
+
+		/**
+		 * Retira o identificador da palavra, descartando os nós que ficarem sem palavras abaixo. Retorna
+		 * a quantidade de ocorrências retiradas.
+		 */
+		int remove(String palavra, int posicao, int id) {
+			int removidas = 0;
+			if(posicao == palavra.length()) {
+				if(this.nomes != null && this.nomes.remove(id)) {
+					removidas++;
+					if(this.nomes.isEmpty()) {
+						this.nomes = null;
+					}
+				}
+				if(this.descricoes != null && this.descricoes.remove(id)) {
+					removidas++;
+					if(this.descricoes.isEmpty()) {
+						this.descricoes = null;
+					}
+				}
+			}else {
+				char letra = palavra.charAt(posicao);
+				for(int i=0; i<this.letras.length; i++) {
+					if(this.letras[i] == letra) {
+						removidas = this.filhos[i].remove(palavra, posicao + 1, id);
+						if(this.filhos[i].ocorrencias == 0) {
+							int ultimo = this.letras.length - 1;
+							this.letras[i] = this.letras[ultimo];
+							this.filhos[i] = this.filhos[ultimo];
+							this.letras = Arrays.copyOf(this.letras, ultimo);
+							this.filhos = Arrays.copyOf(this.filhos, ultimo);
+						}
+						break;
+					}
+				}
+			}
+			this.ocorrencias -= removidas;
+			return removidas;
+		}
+
+		/**
+		 * Retorna os nós abaixo deste em que alguma palavra termina, das palavras mais curtas para as mais
+		 * longas. Os nós são visitados à medida que a iteração avança, de modo que uma busca que atinge o
+		 * limite não percorre a subárvore inteira.
+		 */
+		Iterable<No> descendentes() {
+			return () -> new Iterator<No>() {
+				private final ArrayDeque<No> fila = new ArrayDeque<No>(Arrays.asList(No.this.filhos));
+				private No proximo = this.avanca();
+
+				private No avanca() {
+					while(!this.fila.isEmpty()) {
+						No atual = this.fila.poll();
+						this.fila.addAll(Arrays.asList(atual.filhos));
+						if(!atual.isVazio()) {
+							return atual;
+						}
+					}
+					return null;
+				}
+
+				@Override
+				public boolean hasNext() {
+					return this.proximo != null;
+				}
+
+				@Override
+				public No next() {
+					if(this.proximo == null) {
+						throw new NoSuchElementException();
+					}
+					No atual = this.proximo;
+					this.proximo = this.avanca();
+					return atual;
+				}
+			};
+		}
+	}
+}
@@ -0,0 +1,215 @@
+package saga.services;
+
+import java.util.Arrays;
+
+import saga.entities.Cliente;
+import saga.entities.Fornecedor;
+import saga.entities.Produto;
+
+/**
+ * Registro global que atribui identificadores inteiros densos (0, 1, 2, ...) a clientes, fornecedores e
+ * produtos no momento em que são criados. Contas e combos guardam esses identificadores em vez de chaves
+ * String, e a entidade é recuperada indexando um array, sem percorrer os mapas de cada controlador.
+ *
+ * Os identificadores não são reaproveitados: entidades removidas continuam no registro, para que compras
+ * e combos antigos ainda as encontrem. Eles valem apenas durante a execução e não são persistidos.
+ *
+ * O registro de uma entidade é sincronizado; a consulta por identificador não usa travas. Quem obtém um
+ * identificador de uma entidade já publicada (por um mapa concorrente, por exemplo) enxerga a entidade
+ * no registro.
+ *
+ * @author Guilherme de Melo Carneiro
+ *
+ */
+public class Registro {
+
+	/**
+	 * Capacidade inicial de cada tabela do registro.
+	 */
+	private static final int CAPACIDADE_INICIAL = 16;
+
+	/**
+	 * Tabela dos clientes registrados, indexada pelo identificador
+	 */
+	private final Tabela clientes;
+
+	/**
+	 * Tabela dos fornecedores registrados, indexada pelo identificador
+	 */
+	private final Tabela fornecedores;
+
+	/**
+	 * Tabela dos produtos e combos registrados, indexada pelo identificador
+	 */
+	private final Tabela produtos;
+
+	/**
+	 * Constroi um registro vazio.
+	 */
+	public Registro() {
+		this.clientes = new Tabela();
+		this.fornecedores = new Tabela();
+		this.produtos = new Tabela();
+	}
+
+	/**
+	 * Retorna o identificador do cliente, atribuindo o próximo identificador livre caso o cliente ainda
+	 * não tenha sido registrado.
+	 *
+	 * @param cliente Cliente a ser registrado
+	 * @return int com o identificador do cliente
+	 */
+	public synchronized int registraCliente(Cliente cliente) {
+		if(cliente.getId() < 0) {
+			cliente.setId(this.clientes.adiciona(cliente));
+		}
+		return cliente.getId();
+	}
+
+	/**
+	 * Retorna um identificador de cliente novo, ainda sem cliente, como para as contas de um cpf removido
+	 * restauradas de um snapshot. O identificador passa a ter cliente em recadastraCliente().
+	 *
+	 * @return int com o identificador reservado
+	 */
+	public synchronized int reservaCliente() {
+		return this.clientes.adiciona(null);
+	}
+
+	/**
+	 * Retorna o identificador passado como parâmetro, atribuindo-o ao cliente e associando-o a ele no lugar
+	 * do cliente anterior com o mesmo identificador, como quando um cpf removido é cadastrado novamente.
+	 *
+	 * @param cliente Cliente a ser registrado
+	 * @param id int com o identificador já atribuído ao cpf do cliente
+	 * @return int com o identificador do cliente
+	 */
+	public synchronized int recadastraCliente(Cliente cliente, int id) {
+		cliente.setId(id);
+		this.clientes.substitui(id, cliente);
+		return id;
+	}
+
+	/**
+	 * Retorna o identificador do fornecedor, atribuindo o próximo identificador livre caso o fornecedor
+	 * ainda não tenha sido registrado.
+	 *
+	 * @param fornecedor Fornecedor a ser registrado
+	 * @return int com o identificador do fornecedor
+	 */
+	public synchronized int registraFornecedor(Fornecedor fornecedor) {
+		if(fornecedor.getId() < 0) {
+			fornecedor.setId(this.fornecedores.adiciona(fornecedor));
+		}
+		return fornecedor.getId();
+	}
+
+	/**
+	 * Retorna o identificador do produto ou combo, atribuindo o próximo identificador livre caso ainda
+	 * não tenha sido registrado.
+	 *
+	 * @param produto Produto a ser registrado
+	 * @return int com o identificador do produto
+	 */
+	public synchronized int registraProduto(Produto produto) {
+		if(produto.getId() < 0) {
+			produto.setId(this.produtos.adiciona(produto));
+		}
+		return produto.getId();
+	}
+
+	/**
+	 * Retorna o cliente com o identificador passado como parâmetro, ou null caso o identificador nunca
+	 * tenha sido atribuído.
+	 *
+	 * @param id int com o identificador do cliente
+	 * @return Cliente registrado com esse identificador, ou null
+	 */
+	public Cliente getCliente(int id) {
+		return (Cliente) this.clientes.get(id);
+	}
+
+	/**
+	 * Retorna o fornecedor com o identificador passado como parâmetro, ou null caso o identificador nunca
+	 * tenha sido atribuído.
+	 *
+	 * @param id int com o identificador do fornecedor
+	 * @return Fornecedor registrado com esse identificador, ou null
+	 */
+	public Fornecedor getFornecedor(int id) {
+		return (Fornecedor) this.fornecedores.get(id);
+	}
+
+	/**
+	 * Retorna o produto ou combo com o identificador passado como parâmetro, ou null caso o identificador
+	 * nunca tenha sido atribuído.
+	 *
+	 * @param id int com o identificador do produto
+	 * @return Produto registrado com esse identificador, ou null
+	 */
+	public Produto getProduto(int id) {
+		return (Produto) this.produtos.get(id);
+	}
+
+	/**
+	 * Retorna a quantidade de clientes já registrados, que é também o próximo identificador livre.
+	 *
+	 * @return int com a quantidade de clientes registrados
+	 */
+	public int getQuantidadeClientes() {
+		return this.clientes.quantidade;
+	}
+
+	/**
+	 * Retorna a quantidade de fornecedores já registrados, que é também o próximo identificador livre.
+	 *
+	 * @return int com a quantidade de fornecedores registrados
+	 */
+	public int getQuantidadeFornecedores() {
+		return this.fornecedores.quantidade;
+	}
+
+	/**
+	 * Retorna a quantidade de produtos e combos já registrados, que é também o próximo identificador livre.
+	 *
+	 * @return int com a quantidade de produtos registrados
+	 */
+	public int getQuantidadeProdutos() {
+		return this.produtos.quantidade;
+	}
+
+	/**
+	 * Array que cresce por duplicação. Só é alterado sob a trava do registro; o array é publicado por
+	 * um campo volátil, de modo que a leitura enxergue uma cópia completa após um crescimento.
+	 */
+	private static final class Tabela {
+
+		private volatile Object[] entidades = new Object[CAPACIDADE_INICIAL];
+
+		private volatile int quantidade;
+
+		int adiciona(Object entidade) {
+			Object[] atual = this.entidades;
+			if(this.quantidade == atual.length) {
+				atual = Arrays.copyOf(atual, atual.length * 2);
+			}
+			atual[this.quantidade] = entidade;
+			this.entidades = atual;
+			return this.quantidade++;
+		}
+
+		void substitui(int id, Object entidade) {
+			Object[] atual = this.entidades;
+			atual[id] = entidade;
+			this.entidades = atual;
+		}
+
+		Object get(int id) {
+			Object[] atual = this.entidades;
+			if(id < 0 || id >= atual.length) {
+				return null;
+			}
+			return atual[id];
+		}
+	}
+}
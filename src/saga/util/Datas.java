@@ -0,0 +1,139 @@
+package saga.util;
+
+/**
+ * Classe utilitária para datas representadas como dia epoch: a quantidade de dias desde 01/01/1970,
+ * guardada em um int. A conversão de e para o calendário gregoriano é feita apenas com aritmética inteira,
+ * sem Date, SimpleDateFormat ou exceções.
+ *
+ * @author Guilherme de Melo Carneiro
+ *
+ */
+public final class Datas {
+
+	/**
+	 * Valor retornado por paraDiaEpoch quando a data recebida não é válida.
+	 */
+	public static final int DATA_INVALIDA = Integer.MIN_VALUE;
+
+	private Datas() {
+	}
+
+	/**
+	 * Retorna o dia epoch correspondente a uma data no formato "dd/MM/yyyy", ou DATA_INVALIDA caso a data
+	 * seja mal-formada ou não exista no calendário (ex.: 31/04/2018 ou 29/02/2019). Dia e mês podem ter
+	 * um ou dois dígitos; o ano deve ter quatro. A String é percorrida uma única vez.
+	 *
+	 * @param data String contendo a data no formato "dd/MM/yyyy"
+	 * @return int com o dia epoch da data, ou DATA_INVALIDA
+	 */
+	public static int paraDiaEpoch(String data) {
+		int tamanho = data.length();
+		int posicao = 0;
+
+		int dia = 0;
+		int digitos = 0;
+		while(posicao < tamanho && ehDigito(data.charAt(posicao))) {
+			dia = dia * 10 + (data.charAt(posicao++) - '0');
+			digitos++;
+		}
+		if(digitos < 1 || digitos > 2 || posicao >= tamanho || data.charAt(posicao++) != '/') {
+			return DATA_INVALIDA;
+		}
+
+		int mes = 0;
+		digitos = 0;
+		while(posicao < tamanho && ehDigito(data.charAt(posicao))) {
+			mes = mes * 10 + (data.charAt(posicao++) - '0');
+			digitos++;
+		}
+		if(digitos < 1 || digitos > 2 || posicao >= tamanho || data.charAt(posicao++) != '/') {
+			return DATA_INVALIDA;
+		}
+
+		int ano = 0;
+		digitos = 0;
+		while(posicao < tamanho && ehDigito(data.charAt(posicao))) {
+			ano = ano * 10 + (data.charAt(posicao++) - '0');
+			digitos++;
+		}
+		if(digitos != 4 || posicao != tamanho) {
+			return DATA_INVALIDA;
+		}
+
+		if(mes < 1 || mes > 12 || dia < 1 || dia > diasNoMes(mes, ano)) {
+			return DATA_INVALIDA;
+		}
+		return diaEpoch(dia, mes, ano);
+	}
+
+	/**
+	 * Retorna o dia epoch correspondente a um dia, mês e ano já validados.
+	 *
+	 * @param dia int com o dia do mês
+	 * @param mes int com o mês, de 1 a 12
+	 * @param ano int com o ano
+	 * @return int com a quantidade de dias desde 01/01/1970
+	 */
+	public static int diaEpoch(int dia, int mes, int ano) {
+		int y = mes <= 2 ? ano - 1 : ano;
+		int era = (y >= 0 ? y : y - 399) / 400;
+		int anoDaEra = y - era * 400;
+		int diaDoAno = (153 * (mes > 2 ? mes - 3 : mes + 9) + 2) / 5 + dia - 1;
+		int diaDaEra = anoDaEra * 365 + anoDaEra / 4 - anoDaEra / 100 + diaDoAno;
+		return era * 146097 + diaDaEra - 719468;
+	}
+
+	/**
+	 * Retorna String com a data correspondente ao dia epoch no formato "dd-MM-yyyy", usado na exibição
+	 * das contas.
+	 *
+	 * @param diaEpoch int com a quantidade de dias desde 01/01/1970
+	 * @return String com a data no formato "dd-MM-yyyy"
+	 */
+	public static String formata(int diaEpoch) {
+		int z = diaEpoch + 719468;
+		int era = (z >= 0 ? z : z - 146096) / 146097;
+		int diaDaEra = z - era * 146097;
+		int anoDaEra = (diaDaEra - diaDaEra / 1460 + diaDaEra / 36524 - diaDaEra / 146096) / 365;
+		int diaDoAno = diaDaEra - (365 * anoDaEra + anoDaEra / 4 - anoDaEra / 100);
+		int mp = (5 * diaDoAno + 2) / 153;
+		int dia = diaDoAno - (153 * mp + 2) / 5 + 1;
+		int mes = mp < 10 ? mp + 3 : mp - 9;
+		int ano = anoDaEra + era * 400 + (mes <= 2 ? 1 : 0);
+
+		char[] buffer = new char[10];
+		buffer[0] = (char) ('0' + dia / 10);
+		buffer[1] = (char) ('0' + dia % 10);
+		buffer[2] = '-';
+		buffer[3] = (char) ('0' + mes / 10);
+		buffer[4] = (char) ('0' + mes % 10);
+		buffer[5] = '-';
+		buffer[6] = (char) ('0' + ano / 1000 % 10);
+		buffer[7] = (char) ('0' + ano / 100 % 10);
+		buffer[8] = (char) ('0' + ano / 10 % 10);
+		buffer[9] = (char) ('0' + ano % 10);
+		return new String(buffer);
+	}
+
+	/**
+	 * Retorna a quantidade de dias de um mês, considerando anos bissextos.
+	 *
+	 * @param mes int com o mês, de 1 a 12
+	 * @param ano int com o ano
+	 * @return int com a quantidade de dias do mês
+	 */
+	private static int diasNoMes(int mes, int ano) {
+		if(mes == 2) {
+			boolean bissexto = (ano % 4 == 0 && ano % 100 != 0) || ano % 400 == 0;
+			return bissexto ? 29 : 28;
+		}
+		if(mes == 4 || mes == 6 || mes == 9 || mes == 11) {
+			return 30;
+		}
+		return 31;
+	}
+
+	private static boolean ehDigito(char c) {
+		return c >= '0' && c <= '9';
+	}
+}
@@ -0,0 +1,116 @@
+package saga.util;
+
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Classe utilitária para valores monetários representados em centavos, como long. Somar débitos em
+ * centavos é exato, e a formatação é feita diretamente sobre os dígitos, sem DecimalFormat ou String.format.
+ *
+ * @author Guilherme de Melo Carneiro
+ *
+ */
+public final class Dinheiro {
+
+	/**
+	 * Quantidade de partes em que o fator de desconto de um combo é dividido (décimos de milésimo).
+	 */
+	private static final long PARTES_FATOR = 10000L;
+
+	/**
+	 * Separador decimal da localidade padrão, o mesmo usado por String.format("%.2f") na exibição de preços.
+	 */
+	private static final char SEPARADOR_LOCAL = DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT)).getDecimalSeparator();
+
+	private Dinheiro() {
+	}
+
+	/**
+	 * Retorna a quantidade de centavos correspondente a um valor em reais, arredondada ao centavo mais próximo.
+	 *
+	 * @param reais double com o valor em reais
+	 * @return long com o valor em centavos
+	 */
+	public static long paraCentavos(double reais) {
+		return Math.round(reais * 100.0);
+	}
+
+	/**
+	 * Retorna o valor em reais correspondente a uma quantidade de centavos.
+	 *
+	 * @param centavos long com o valor em centavos
+	 * @return double com o valor em reais
+	 */
+	public static double paraReais(long centavos) {
+		return centavos / 100.0;
+	}
+
+	/**
+	 * Retorna o valor em centavos após a aplicação de um fator de desconto. O fator é convertido para décimos
+	 * de milésimo e o resultado é arredondado ao centavo mais próximo (metade para cima) em aritmética inteira,
+	 * de modo que o mesmo preço e o mesmo fator produzam sempre o mesmo valor.
+	 *
+	 * @param centavos long com o valor original, em centavos
+	 * @param fator double com o fator de desconto, entre 0 e 1
+	 * @return long com o valor com desconto, em centavos
+	 */
+	public static long aplicaDesconto(long centavos, double fator) {
+		long partesDesconto = Math.round(fator * PARTES_FATOR);
+		return (centavos * (PARTES_FATOR - partesDesconto) + PARTES_FATOR / 2) / PARTES_FATOR;
+	}
+
+	/**
+	 * Retorna String com o valor formatado com duas casas decimais e o separador decimal da localidade
+	 * padrão, no mesmo formato de String.format("%.2f"). Ex.: 480 centavos resulta em "4,80" em pt-BR.
+	 *
+	 * @param centavos long com o valor em centavos
+	 * @return String com o valor formatado
+	 */
+	public static String formataPreco(long centavos) {
+		return formata(centavos, SEPARADOR_LOCAL, true);
+	}
+
+	/**
+	 * Retorna String com o valor formatado com duas casas decimais e ponto como separador, no formato
+	 * historicamente usado na exibição de débitos ("####.00"): valores abaixo de um real não possuem o
+	 * zero à esquerda. Ex.: 500 centavos resulta em "5.00" e 50 centavos em ".50".
+	 *
+	 * @param centavos long com o valor em centavos
+	 * @return String com o valor formatado
+	 */
+	public static String formataDebito(long centavos) {
+		return formata(centavos, '.', false);
+	}
+
+	/**
+	 * Retorna String com o valor em centavos formatado com duas casas decimais, escrevendo os dígitos do
+	 * fim para o começo em um único buffer.
+	 *
+	 * @param centavos long com o valor em centavos
+	 * @param separador char usado como separador decimal
+	 * @param zeroAEsquerda true para escrever "0" quando a parte inteira for zero
+	 * @return String com o valor formatado
+	 */
+	private static String formata(long centavos, char separador, boolean zeroAEsquerda) {
+		char[] buffer = new char[24];
+		int posicao = buffer.length;
+		boolean negativo = centavos < 0;
+		long valor = Math.abs(centavos);
+
+		buffer[--posicao] = (char) ('0' + valor % 10);
+		valor /= 10;
+		buffer[--posicao] = (char) ('0' + valor % 10);
+		valor /= 10;
+		buffer[--posicao] = separador;
+		if(valor != 0 || zeroAEsquerda) {
+			do {
+				buffer[--posicao] = (char) ('0' + valor % 10);
+				valor /= 10;
+			}while(valor != 0);
+		}
+		if(negativo) {
+			buffer[--posicao] = '-';
+		}
+		return new String(buffer, posicao, buffer.length - posicao);
+	}
+}
@@ -0,0 +1,97 @@
+package saga.util;
+
+/**
+ * Falha esperada de uma operação, como um cliente que não existe ou uma data inválida: a mensagem de erro
+ * e o tipo da exceção que a API tradicional lançaria. Criar uma falha não preenche pilha de chamadas, de
+ * modo que entradas inválidas custam tão pouco quanto as válidas; a exceção só é construída quando quem
+ * chamou pede por ela.
+ *
+ * @author Guilherme de Melo Carneiro
+ *
+ */
+public final class Falha {
+
+	/**
+	 * Tipo da falha, que corresponde à exceção lançada pela API tradicional.
+	 */
+	public enum Tipo {
+		/**
+		 * Valor nulo ou entidade inexistente, correspondente a NullPointerException
+		 */
+		NULO,
+		/**
+		 * Valor vazio ou inválido, correspondente a IllegalArgumentException
+		 */
+		INVALIDO
+	}
+
+	/**
+	 * Tipo da falha
+	 */
+	private final Tipo tipo;
+
+	/**
+	 * Mensagem de erro, a mesma da exceção correspondente
+	 */
+	private final String mensagem;
+
+	private Falha(Tipo tipo, String mensagem) {
+		this.tipo = tipo;
+		this.mensagem = mensagem;
+	}
+
+	/**
+	 * Retorna uma falha correspondente a NullPointerException com a mensagem passada como parâmetro.
+	 *
+	 * @param mensagem String com a mensagem de erro
+	 * @return Falha do tipo NULO
+	 */
+	public static Falha nulo(String mensagem) {
+		return new Falha(Tipo.NULO, mensagem);
+	}
+
+	/**
+	 * Retorna uma falha correspondente a IllegalArgumentException com a mensagem passada como parâmetro.
+	 *
+	 * @param mensagem String com a mensagem de erro
+	 * @return Falha do tipo INVALIDO
+	 */
+	public static Falha invalido(String mensagem) {
+		return new Falha(Tipo.INVALIDO, mensagem);
+	}
+
+	/**
+	 * Retorna o tipo da falha.
+	 *
+	 * @return Tipo da falha
+	 */
+	public Tipo getTipo() {
+		return this.tipo;
+	}
+
+	/**
+	 * Retorna a mensagem de erro da falha.
+	 *
+	 * @return String com a mensagem de erro
+	 */
+	public String getMensagem() {
+		return this.mensagem;
+	}
+
+	/**
+	 * Retorna a exceção que a API tradicional lança para esta falha, com a mesma mensagem.
+	 *
+	 * @return RuntimeException correspondente ao tipo da falha
+	 */
+	public RuntimeException excecao() {
+		if(this.tipo == Tipo.NULO) {
+			return new NullPointerException(this.mensagem);
+		}
+		return new IllegalArgumentException(this.mensagem);
+	}
+
+	@Override
+	public String toString() {
+		return this.mensagem;
+	}
+}
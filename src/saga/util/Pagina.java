@@ -0,0 +1,140 @@
+package saga.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de uma listagem: os itens já formatados, na ordem da listagem completa, e o cursor a partir do qual
+ * a próxima página começa. O cursor é opaco para quem lista: guarda a chave de ordenação do último item
+ * da página, de modo que a próxima página continua logo depois dele mesmo que itens tenham sido incluídos
+ * ou removidos entre as consultas.
+ *
+ * @author Guilherme de Melo Carneiro
+ *
+ */
+public final class Pagina {
+
+	/**
+	 * Separador das partes da chave dentro do cursor, que não ocorre em nomes digitados.
+	 */
+	private static final String SEPARADOR = "\u001F";
+
+	/**
+	 * Itens da página, já formatados
+	 */
+	private final List<String> itens;
+
+	/**
+	 * Cursor da próxima página, ou null caso esta seja a última
+	 */
+	private final String proximo;
+
+	/**
+	 * Constroi uma página com os itens e o cursor da próxima página.
+	 *
+	 * @param itens List de String com os itens da página
+	 * @param proximo String com o cursor da próxima página, ou null caso esta seja a última
+	 */
+	public Pagina(List<String> itens, String proximo) {
+		this.itens = Collections.unmodifiableList(itens);
+		this.proximo = proximo;
+	}
+
+	/**
+	 * Retorna uma List, apenas para leitura, com os itens da página.
+	 *
+	 * @return List de String com os itens da página
+	 */
+	public List<String> getItens() {
+		return this.itens;
+	}
+
+	/**
+	 * Retorna o cursor a ser passado para obter a próxima página, ou null caso esta seja a última.
+	 *
+	 * @return String com o cursor da próxima página, ou null
+	 */
+	public String getProximo() {
+		return this.proximo;
+	}
+
+	/**
+	 * Retorna um booleano sobre esta ser a última página da listagem.
+	 *
+	 * @return true caso não haja próxima página, false caso contrário
+	 */
+	public boolean isUltima() {
+		return this.proximo == null;
+	}
+
+	/**
+	 * Retorna os itens da página separados por " | ", no mesmo formato da listagem completa.
+	 *
+	 * @return String com os itens da página
+	 */
+	@Override
+	public String toString() {
+		return String.join(" | ", this.itens);
+	}
+
+	/**
+	 * Retorna a página formada pelos primeiros itens da sequência, com no máximo limite itens, percorrendo
+	 * apenas esses itens e mais um, para saber se há próxima página.
+	 *
+	 * @param restantes Iterable com os elementos a partir do início da página, na ordem da listagem
+	 * @param limite int com a quantidade máxima de itens da página
+	 * @param formato Function que formata cada elemento como item da página
+	 * @param chave Function que retorna o cursor de um elemento
+	 * @return Pagina com os itens e o cursor da próxima página
+	 */
+	public static <T> Pagina de(Iterable<T> restantes, int limite, Function<T, String> formato, Function<T, String> chave) {
+		List<String> itens = new ArrayList<String>();
+		Iterator<T> iterador = restantes.iterator();
+		T ultimo = null;
+		while(itens.size() < limite && iterador.hasNext()) {
+			ultimo = iterador.next();
+			itens.add(formato.apply(ultimo));
+		}
+		return new Pagina(itens, iterador.hasNext() ? chave.apply(ultimo) : null);
+	}
+
+	/**
+	 * Retorna o cursor que representa a chave de ordenação formada pelas partes passadas como parâmetro.
+	 *
+	 * @param partes String com as partes da chave, na ordem de comparação
+	 * @return String com o cursor
+	 */
+	public static String cursor(String... partes) {
+		return String.join(SEPARADOR, partes);
+	}
+
+	/**
+	 * Retorna as partes da chave guardada no cursor. Lança IllegalArgumentException caso o cursor não
+	 * tenha a quantidade de partes esperada.
+	 *
+	 * @param cursor String com o cursor recebido
+	 * @param quantidade int com a quantidade de partes esperada
+	 * @return array de String com as partes da chave
+	 */
+	public static String[] partes(String cursor, int quantidade) {
+		String[] partes = cursor.split(SEPARADOR, -1);
+		if(partes.length != quantidade) {
+			throw new IllegalArgumentException("Erro na paginacao: cursor invalido.");
+		}
+		return partes;
+	}
+
+	/**
+	 * Não possui retorno. Lança IllegalArgumentException caso o limite de itens por página não seja positivo.
+	 *
+	 * @param limite int com a quantidade máxima de itens da página
+	 */
+	public static void validaLimite(int limite) {
+		if(limite <= 0) {
+			throw new IllegalArgumentException("Erro na paginacao: limite invalido.");
+		}
+	}
+}
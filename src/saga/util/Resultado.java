@@ -0,0 +1,135 @@
+package saga.util;
+
+import java.util.function.Function;
+
+/**
+ * Resultado de uma operação que pode falhar de forma esperada: o valor produzido, em caso de sucesso, ou a
+ * Falha com a mensagem de erro. É retornado pelas variantes da API que não lançam exceções para entradas
+ * inválidas, e as variantes tradicionais apenas lançam a exceção da falha.
+ *
+ * @author Guilherme de Melo Carneiro
+ *
+ * @param <T> tipo do valor produzido pela operação
+ */
+public final class Resultado<T> {
+
+	/**
+	 * Resultado compartilhado pelas operações bem-sucedidas que não produzem valor
+	 */
+	private static final Resultado<Boolean> VERDADEIRO = new Resultado<Boolean>(Boolean.TRUE, null);
+
+	/**
+	 * Valor produzido, ou null em caso de falha
+	 */
+	private final T valor;
+
+	/**
+	 * Falha ocorrida, ou null em caso de sucesso
+	 */
+	private final Falha falha;
+
+	private Resultado(T valor, Falha falha) {
+		this.valor = valor;
+		this.falha = falha;
+	}
+
+	/**
+	 * Retorna um resultado bem-sucedido com o valor passado como parâmetro.
+	 *
+	 * @param valor valor produzido pela operação
+	 * @return Resultado bem-sucedido
+	 */
+	public static <T> Resultado<T> sucesso(T valor) {
+		return new Resultado<T>(valor, null);
+	}
+
+	/**
+	 * Retorna o resultado bem-sucedido, compartilhado, das operações que retornam true.
+	 *
+	 * @return Resultado bem-sucedido com o valor true
+	 */
+	public static Resultado<Boolean> verdadeiro() {
+		return VERDADEIRO;
+	}
+
+	/**
+	 * Retorna um resultado que registra a falha passada como parâmetro.
+	 *
+	 * @param falha Falha ocorrida
+	 * @return Resultado com a falha
+	 */
+	public static <T> Resultado<T> falha(Falha falha) {
+		return new Resultado<T>(null, falha);
+	}
+
+	/**
+	 * Retorna um booleano sobre a operação ter sido bem-sucedida.
+	 *
+	 * @return true em caso de sucesso, false caso contrário
+	 */
+	public boolean isSucesso() {
+		return this.falha == null;
+	}
+
+	/**
+	 * Retorna o valor produzido pela operação, ou null em caso de falha.
+	 *
+	 * @return valor produzido, ou null
+	 */
+	public T getValor() {
+		return this.valor;
+	}
+
+	/**
+	 * Retorna a falha ocorrida, ou null em caso de sucesso.
+	 *
+	 * @return Falha ocorrida, ou null
+	 */
+	public Falha getFalha() {
+		return this.falha;
+	}
+
+	/**
+	 * Retorna a mensagem de erro da falha, a mesma da exceção lançada pela API tradicional, ou null em caso
+	 * de sucesso.
+	 *
+	 * @return String com a mensagem de erro, ou null
+	 */
+	public String getMensagem() {
+		return this.falha == null ? null : this.falha.getMensagem();
+	}
+
+	/**
+	 * Retorna o valor produzido pela operação. Em caso de falha, lança a exceção correspondente, como a API
+	 * tradicional.
+	 *
+	 * @return valor produzido
+	 */
+	public T getValorOuLanca() {
+		if(this.falha != null) {
+			throw this.falha.excecao();
+		}
+		return this.valor;
+	}
+
+	/**
+	 * Retorna o resultado da aplicação da função ao valor, em caso de sucesso, ou um resultado com a mesma
+	 * falha, sem aplicar a função.
+	 *
+	 * @param funcao Function aplicada ao valor
+	 * @return Resultado com o valor transformado, ou com a falha
+	 */
+	@SuppressWarnings("unchecked")
+	public <U> Resultado<U> mapeia(Function<? super T, ? extends U> funcao) {
+		if(this.falha != null) {
+			//sem valor, o resultado com a falha serve para qualquer tipo
+			return (Resultado<U>) this;
+		}
+		return new Resultado<U>(funcao.apply(this.valor), null);
+	}
+
+	@Override
+	public String toString() {
+		return this.falha == null ? String.valueOf(this.valor) : this.falha.getMensagem();
+	}
+}
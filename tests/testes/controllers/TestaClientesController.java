@@ -6,10 +6,14 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.StringWriter;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import saga.controllers.ClientesController;
+import saga.controllers.FornecedoresController;
+import saga.services.FornecedorService;
 
 class TestaClientesController {
 
@@ -73,6 +77,31 @@ class TestaClientesController {
 		assertEquals("Retornou uma saída mal-formatada","nome - lcc - email@ | nome2 - lcc2 - email2@" ,this.clientes.consultaClientesAll());
 	}
 	
+	@Test
+	void testaEscreveClientesAll() throws Exception {
+		StringBuilder saida = new StringBuilder();
+		this.clientes.escreveClientesAll(saida);
+		assertEquals("Escreveu algo na saída quando sem clientes cadastrados", "", saida.toString());
+		this.clientes.cadastraCliente("22222222222", "nome2", "email2@", "lcc2");
+		this.clientes.cadastraCliente("11111111111", "nome", "email@", "lcc");
+		StringWriter escritor = new StringWriter();
+		this.clientes.escreveClientesAll(escritor);
+		assertEquals("Escreveu uma saída mal-formatada", "nome - lcc - email@ | nome2 - lcc2 - email2@", escritor.toString());
+		assertEquals("A saída escrita difere da String retornada", this.clientes.consultaClientesAll(), escritor.toString());
+	}
+	
+	@Test
+	void testaOrdemListagemAposEdicaoERemocao() {
+		this.clientes.cadastraCliente("11111111111", "Bruno", "b@", "lcc");
+		this.clientes.cadastraCliente("22222222222", "ana", "a@", "lcc");
+		this.clientes.cadastraCliente("33333333333", "Ana", "a2@", "lsd");
+		assertEquals("Não listou em ordem alfabética mantendo homônimos", "ana - lcc - a@ | Ana - lsd - a2@ | Bruno - lcc - b@", this.clientes.consultaClientesAll());
+		this.clientes.editaCliente("11111111111", "nome", "Aaron");
+		assertEquals("Não reposicionou o cliente após a edição do nome", "Aaron - lcc - b@ | ana - lcc - a@ | Ana - lsd - a2@", this.clientes.consultaClientesAll());
+		this.clientes.removeCliente("22222222222");
+		assertEquals("Listou um cliente já removido", "Aaron - lcc - b@ | Ana - lsd - a2@", this.clientes.consultaClientesAll());
+	}
+	
 	@Test
 	void testaEditaCliente() {
 		this.clientes.cadastraCliente("22222", "Nome", "email", "lcc");
@@ -97,4 +126,88 @@ class TestaClientesController {
 		assertFalse("Retornou true para uma remoção mal-sucedida(CPF nulo)", this.clientes.removeCliente(null));
 	}
 
+	
+	@Test
+	void testaDevedoresFornecedor() {
+		FornecedoresController fornecedores = new FornecedoresController(this.clientes.getRegistro());
+		FornecedorService servico = new FornecedorService(fornecedores);
+		fornecedores.cadastraFornecedor("Marcos", "marcos@", "1111-1111");
+		fornecedores.cadastraFornecedor("Seu Olavo", "olavo@", "2222-2222");
+		fornecedores.cadastraProduto("Marcos", "Coxao", 2.5, "Coxao de frango");
+		fornecedores.cadastraProduto("Seu Olavo", "Suco", 1.0, "Suco de goiaba");
+		this.clientes.cadastraCliente("11111111111", "Beatriz", "b@", "lcc");
+		this.clientes.cadastraCliente("22222222222", "Ana", "a@", "lcc");
+		this.clientes.cadastraCliente("33333333333", "Carla", "c@", "lcc");
+		this.clientes.adicionaCompra("11111111111", "Marcos", "01/01/2018", "Coxao", "Coxao de frango", servico);
+		this.clientes.adicionaCompra("11111111111", "Marcos", "02/01/2018", "Coxao", "Coxao de frango", servico);
+		this.clientes.adicionaCompra("22222222222", "Marcos", "01/01/2018", "Coxao", "Coxao de frango", servico);
+		this.clientes.adicionaCompra("33333333333", "Seu Olavo", "01/01/2018", "Suco", "Suco de goiaba", servico);
+		
+		assertEquals("Devedores listados incorretamente", "Ana - 22222222222 - 2.50 | Beatriz - 11111111111 - 5.00", this.clientes.exibeDevedores("Marcos", servico));
+		this.clientes.realizaPagamento("22222222222", "Marcos", servico);
+		assertEquals("Cliente que pagou continua como devedor", "Beatriz - 11111111111 - 5.00", this.clientes.exibeDevedores("Marcos", servico));
+		assertTrue("Índice reverso não contém apenas os devedores", this.clientes.getCpfsDevedores("Marcos").size() == 1);
+	}
+	
+	@Test
+	void testaRemoveContasFornecedor() {
+		FornecedoresController fornecedores = new FornecedoresController(this.clientes.getRegistro());
+		FornecedorService servico = new FornecedorService(fornecedores);
+		fornecedores.cadastraFornecedor("Marcos", "marcos@", "1111-1111");
+		fornecedores.cadastraFornecedor("Seu Olavo", "olavo@", "2222-2222");
+		fornecedores.cadastraProduto("Marcos", "Coxao", 2.5, "Coxao de frango");
+		fornecedores.cadastraProduto("Seu Olavo", "Suco", 1.0, "Suco de goiaba");
+		this.clientes.cadastraCliente("11111111111", "Beatriz", "b@", "lcc");
+		this.clientes.adicionaCompra("11111111111", "Marcos", "01/01/2018", "Coxao", "Coxao de frango", servico);
+		this.clientes.adicionaCompra("11111111111", "Seu Olavo", "01/01/2018", "Suco", "Suco de goiaba", servico);
+		
+		this.clientes.removeContasFornecedor("Marcos");
+		assertTrue("Índice reverso manteve o fornecedor removido", this.clientes.getCpfsDevedores("Marcos").isEmpty());
+		assertEquals("Removeu contas de outro fornecedor", "Cliente: Beatriz | Seu Olavo | Suco - 01-01-2018", this.clientes.exibeContasAll("11111111111"));
+	}
+	
+	@Test
+	void testaRecebiveisFornecedor() {
+		FornecedoresController fornecedores = new FornecedoresController(this.clientes.getRegistro());
+		FornecedorService servico = new FornecedorService(fornecedores);
+		fornecedores.cadastraFornecedor("Marcos", "marcos@", "1111-1111");
+		fornecedores.cadastraFornecedor("Seu Olavo", "olavo@", "2222-2222");
+		fornecedores.cadastraProduto("Marcos", "Coxao", 2.5, "Coxao de frango");
+		fornecedores.cadastraProduto("Seu Olavo", "Suco", 1.0, "Suco de goiaba");
+		this.clientes.cadastraCliente("11111111111", "Beatriz", "b@", "lcc");
+		this.clientes.cadastraCliente("22222222222", "Ana", "a@", "lcc");
+		assertEquals("Fornecedor sem vendas possui recebiveis", 0, this.clientes.getRecebiveis("Marcos"));
+		this.clientes.adicionaCompra("11111111111", "Marcos", "01/01/2018", "Coxao", "Coxao de frango", servico);
+		this.clientes.adicionaCompra("22222222222", "Marcos", "01/01/2018", "Coxao", "Coxao de frango", servico);
+		this.clientes.adicionaCompra("11111111111", "Seu Olavo", "01/01/2018", "Suco", "Suco de goiaba", servico);
+		assertEquals("Recebiveis do fornecedor calculados incorretamente", 500, this.clientes.getRecebiveis("Marcos"));
+		assertEquals("Recebiveis totais calculados incorretamente", 600, this.clientes.getRecebiveisTotal());
+		
+		fornecedores.editarPrecoProduto("Marcos", "Coxao", "Coxao de frango", 4.0);
+		assertEquals("Edicao de preco alterou o debito ja registrado", 500, this.clientes.getRecebiveis("Marcos"));
+		
+		this.clientes.realizaPagamento("22222222222", "Marcos", servico);
+		assertEquals("Pagamento nao abateu os recebiveis", 250, this.clientes.getRecebiveis("Marcos"));
+		this.clientes.removeContasFornecedor("Seu Olavo");
+		assertEquals("Remocao das contas nao abateu os recebiveis", 0, this.clientes.getRecebiveis("Seu Olavo"));
+		assertEquals("Recebiveis totais divergentes apos pagamento e remocao", 250, this.clientes.getRecebiveisTotal());
+	}
+	
+	@Test
+	void testaRecadastroRecuperaContas() {
+		FornecedoresController fornecedores = new FornecedoresController(this.clientes.getRegistro());
+		FornecedorService servico = new FornecedorService(fornecedores);
+		fornecedores.cadastraFornecedor("Marcos", "marcos@", "1111-1111");
+		fornecedores.cadastraProduto("Marcos", "Coxao", 2.5, "Coxao de frango");
+		this.clientes.cadastraCliente("11111111111", "Beatriz", "b@", "lcc");
+		this.clientes.adicionaCompra("11111111111", "Marcos", "01/01/2018", "Coxao", "Coxao de frango", servico);
+		
+		this.clientes.removeCliente("11111111111");
+		assertTrue("Remocao do cliente retirou-o dos devedores", this.clientes.getCpfsDevedores("Marcos").contains("11111111111"));
+		assertEquals("Remocao do cliente abateu os recebiveis", 250, this.clientes.getRecebiveis("Marcos"));
+		
+		this.clientes.cadastraCliente("11111111111", "Bia", "b@", "lcc");
+		assertEquals("Cliente recadastrado nao recuperou o debito", 250, this.clientes.getDebitoFornecedor("11111111111", "Marcos", servico));
+		assertEquals("Cliente recadastrado nao recuperou as contas", "Cliente: Bia | Marcos | Coxao - 01-01-2018", this.clientes.exibeContasAll("11111111111"));
+	}
 }
@@ -0,0 +1,98 @@
+package testes.controllers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import saga.controllers.ContasController;
+import saga.entities.Conta;
+import saga.entities.Produto;
+import saga.services.Registro;
+import saga.util.Pagina;
+
+class TestaContasController {
+
+	private Registro registro;
+
+	private ContasController contas;
+
+	private Produto coxao;
+
+	@BeforeEach
+	void setUp() {
+		this.registro = new Registro();
+		this.contas = new ContasController(this.registro);
+		this.coxao = new Produto("Coxao", 2.5, "Coxao de frango");
+		this.registro.registraProduto(this.coxao);
+	}
+
+	@Test
+	void testaTabelaCresceERemove() {
+		for(int cliente=0; cliente<50; cliente++) {
+			for(int fornecedor=0; fornecedor<20; fornecedor++) {
+				this.contas.abreConta(cliente, "cpf" + cliente, fornecedor, "F" + fornecedor).adicionaCompra(0, this.coxao);
+			}
+		}
+		assertEquals("Quantidade de contas incorreta", 1000, this.contas.getQuantidadeContas());
+		for(int cliente=0; cliente<50; cliente+=2) {
+			for(int fornecedor=0; fornecedor<20; fornecedor++) {
+				assertEquals("Removeu a conta errada", "F" + fornecedor, this.contas.removeConta(cliente, fornecedor).getFornecedor());
+			}
+		}
+		assertEquals("Quantidade de contas incorreta após remoções", 500, this.contas.getQuantidadeContas());
+		for(int cliente=0; cliente<50; cliente++) {
+			for(int fornecedor=0; fornecedor<20; fornecedor++) {
+				Conta conta = this.contas.getConta(cliente, fornecedor);
+				if(cliente % 2 == 0) {
+					assertNull("Conta removida continua na tabela", conta);
+				}else {
+					assertEquals("Conta perdida após remoções vizinhas", "cpf" + cliente, conta.getCpf());
+					assertEquals("Conta perdida após remoções vizinhas", "F" + fornecedor, conta.getFornecedor());
+				}
+			}
+		}
+		assertTrue("Cliente com todas as contas removidas perdeu o registro", this.contas.possuiRegistro(0));
+		assertFalse("Cliente sem compras possui registro", this.contas.possuiRegistro(50));
+	}
+
+	@Test
+	void testaListaNaOrdemDosFornecedores() {
+		this.contas.abreConta(0, "11111111111", 7, "Seu Olavo").adicionaCompra(0, this.coxao);
+		this.contas.abreConta(0, "11111111111", 3, "Marcos").adicionaCompra(1, this.coxao);
+		this.contas.abreConta(0, "11111111111", 9, "Ana").adicionaCompra(2, this.coxao);
+		this.contas.abreConta(1, "22222222222", 3, "Marcos");
+
+		List<Conta> contasCliente = this.contas.getContas(0);
+		assertEquals("Quantidade de contas do cliente incorreta", 3, contasCliente.size());
+		assertEquals("Contas fora da ordem dos fornecedores", "Ana", contasCliente.get(0).getFornecedor());
+		assertEquals("Contas fora da ordem dos fornecedores", "Marcos", contasCliente.get(1).getFornecedor());
+		assertEquals("Contas fora da ordem dos fornecedores", "Seu Olavo", contasCliente.get(2).getFornecedor());
+		assertSame("Busca pelo nome não encontrou a conta", contasCliente.get(1), this.contas.getConta(0, "Marcos"));
+		assertNull("Busca pelo nome encontrou conta inexistente", this.contas.getConta(0, "Bruno"));
+
+		this.contas.removeConta(0, 3);
+		assertEquals("Remoção não atualizou a lista do cliente", "Cliente: Beatriz | Ana | Coxao - 03-01-1970 | Seu Olavo | Coxao - 01-01-1970",
+				this.contas.imprimeContasAll(0, "Beatriz"));
+		assertEquals("Remoção afetou a lista de outro cliente", 1, this.contas.getContas(1).size());
+	}
+
+	@Test
+	void testaPaginaContinuaDepoisDoCursor() {
+		this.contas.abreConta(0, "11111111111", 1, "Ana").adicionaCompra(0, this.coxao);
+		this.contas.abreConta(0, "11111111111", 2, "Marcos").adicionaCompra(0, this.coxao);
+		this.contas.abreConta(0, "11111111111", 3, "Seu Olavo").adicionaCompra(0, this.coxao);
+
+		Pagina primeira = this.contas.imprimeContasPagina(0, null, 2);
+		assertEquals("Primeira página incorreta", 2, primeira.getItens().size());
+		Pagina segunda = this.contas.imprimeContasPagina(0, primeira.getProximo(), 2);
+		assertEquals("Segunda página incorreta", "Seu Olavo | Coxao - 01-01-1970", segunda.getItens().get(0));
+		assertTrue("Última página possui cursor", segunda.isUltima());
+	}
+}
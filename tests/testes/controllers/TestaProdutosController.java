@@ -10,6 +10,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import saga.controllers.ProdutosController;
+import saga.util.Dinheiro;
 
 class TestaProdutosController {
 
@@ -48,33 +49,79 @@ class TestaProdutosController {
 	
 	@Test
 	void testaConsultaProduto() {
-		assertNull("Não retornou null para uma busca de produto não cadastrado", this.produtos.consultaProduto("nome inexistente"));
+		assertNull("Não retornou null para uma busca de produto não cadastrado", this.produtos.consultaProduto("nome inexistente", "descricao"));
 		this.produtos.cadastraProduto("produto", 20.0, "descricao produto");
-		assertEquals("Retornou uma String do produto mal-formatada", "produto - descricao produto - R$20,00",this.produtos.consultaProduto("produto"));
+		assertEquals("Retornou uma String do produto mal-formatada", "produto - descricao produto - R$20,00",this.produtos.consultaProduto("produto", "descricao produto"));
 	}
 	
 	@Test
 	void testaRemoveProduto() {
-		assertFalse("Retornou true para uma remoção de produto inexistente no sistema", this.produtos.removeProduto("produto inexistente"));
+		assertFalse("Retornou true para uma remoção de produto inexistente no sistema", this.produtos.removeProduto("produto inexistente", "descricao"));
 		this.produtos.cadastraProduto("produto1", 1.0, "descricao produto1");
-		assertTrue("Retornou false para uma remoção bem-sucedida", this.produtos.removeProduto("produto1"));
-		assertFalse("Retornou true para uma remoção de um produto que já tinha sido removido anteriormente", this.produtos.removeProduto("produto1"));
-		assertNull("Não retornou null na busca de um produto que já tinha sido removido do sistema", this.produtos.consultaProduto("produto1"));
+		assertTrue("Retornou false para uma remoção bem-sucedida", this.produtos.removeProduto("produto1", "descricao produto1"));
+		assertFalse("Retornou true para uma remoção de um produto que já tinha sido removido anteriormente", this.produtos.removeProduto("produto1", "descricao produto1"));
+		assertNull("Não retornou null na busca de um produto que já tinha sido removido do sistema", this.produtos.consultaProduto("produto1", "descricao produto1"));
 	}
 	
 	@Test
 	void testaEditaPrecoProduto() {
-		assertFalse("Retornou true ao editar o preço de um produto inexistente no sistema", this.produtos.editaPrecoProduto("produto inexistente", 3.0));
+		assertFalse("Retornou true ao editar o preço de um produto inexistente no sistema", this.produtos.editaPrecoProduto("produto inexistente", "descricao", 3.0));
 		this.produtos.cadastraProduto("produto1", 5.0, "descricao produto1");
-		assertFalse("Retornou true ao editar o preco de um produto existente no sistema para um valor negativo", this.produtos.editaPrecoProduto("produto1", -5.0));
-		assertTrue("Retornou false ao editar o preço de um produto de maneira válida", this.produtos.editaPrecoProduto("produto1", 6.0));
-		assertEquals("Não alterou corretamente o preço do produto, apesar de a edição ter sido bem-sucedida","produto1 - descricao produto1 - R$6,00" ,this.produtos.consultaProduto("produto1"));
+		assertFalse("Retornou true ao editar o preco de um produto existente no sistema para um valor negativo", this.produtos.editaPrecoProduto("produto1", "descricao produto1", -5.0));
+		assertTrue("Retornou false ao editar o preço de um produto de maneira válida", this.produtos.editaPrecoProduto("produto1", "descricao produto1", 6.0));
+		assertEquals("Não alterou corretamente o preço do produto, apesar de a edição ter sido bem-sucedida","produto1 - descricao produto1 - R$6,00" ,this.produtos.consultaProduto("produto1", "descricao produto1"));
 	}
 	
 	@Test
 	void testaExisteProduto() {
-		assertFalse("Retornou true para um produto inexistente no sistema", this.produtos.existeProduto("produto inexistente"));
+		assertFalse("Retornou true para um produto inexistente no sistema", this.produtos.existeProduto("produto inexistente", "descricao"));
 		this.produtos.cadastraProduto("produto1", 1.0, "descricao produto1");
-		assertTrue("Retornou false para um produto existente no sistema", this.produtos.existeProduto("produto1"));
+		assertTrue("Retornou false para um produto existente no sistema", this.produtos.existeProduto("produto1", "descricao produto1"));
+	}
+	
+	@Test
+	void testaMesmoNomeDescricoesDiferentes() {
+		this.produtos.cadastraProduto("Suco", 2.0, "Suco de goiaba");
+		this.produtos.cadastraProduto("Suco", 3.0, "Suco de laranja");
+		assertEquals("Não diferenciou produtos de mesmo nome pela descrição", "Suco - Suco de goiaba - R$" + Dinheiro.formataPreco(200), this.produtos.consultaProduto("Suco", "Suco de goiaba"));
+		assertEquals("Não diferenciou produtos de mesmo nome pela descrição", "Suco - Suco de laranja - R$" + Dinheiro.formataPreco(300), this.produtos.consultaProduto("Suco", "Suco de laranja"));
+		assertNull("Encontrou produto com descrição não cadastrada", this.produtos.getProduto("Suco", "Suco de uva"));
+		
+		this.produtos.removeProduto("Suco", "Suco de goiaba");
+		assertNull("Não removeu o produto com a descrição informada", this.produtos.consultaProduto("Suco", "Suco de goiaba"));
+		assertTrue("Removeu o produto de mesmo nome e descrição diferente", this.produtos.existeProduto("Suco", "Suco de laranja"));
+	}
+	
+	@Test
+	void testaComboComponentesPorNomeEDescricao() {
+		this.produtos.cadastraProduto("Suco", 2.0, "Suco de goiaba");
+		this.produtos.cadastraProduto("Suco", 4.0, "Suco de laranja");
+		this.produtos.cadastraCombo("Combo sucos", "Dois sucos", 0.5, "Suco - Suco de goiaba, Suco - Suco de laranja");
+		assertEquals("Não montou o combo com os componentes pela descrição", "Combo sucos - Dois sucos - R$" + Dinheiro.formataPreco(300), this.produtos.consultaProduto("Combo sucos", "Dois sucos"));
+		try {
+			this.produtos.cadastraCombo("Combo uva", "Suco de uva", 0.5, "Suco - Suco de uva");
+			fail("Não lançou NullPointerException para um componente com descrição não cadastrada");
+		}catch(NullPointerException npe) {}
+	}
+	
+	@Test
+	void testaEdicaoPrecoReprecificaCombos() {
+		this.produtos.cadastraProduto("Suco", 2.0, "Suco de goiaba");
+		this.produtos.cadastraProduto("Coxao", 4.0, "Coxao de frango");
+		this.produtos.cadastraCombo("Combo duplo", "Dois sucos", 0.5, "Suco - Suco de goiaba, Suco - Suco de goiaba");
+		this.produtos.cadastraCombo("Combo lanche", "Suco e coxao", 0.5, "Suco - Suco de goiaba, Coxao - Coxao de frango");
+		
+		this.produtos.editaPrecoProduto("Suco", "Suco de goiaba", 3.0);
+		assertEquals("Não reprecificou o combo com o produto repetido", "Combo duplo - Dois sucos - R$" + Dinheiro.formataPreco(300), this.produtos.consultaProduto("Combo duplo", "Dois sucos"));
+		assertEquals("Não reprecificou o combo afetado", "Combo lanche - Suco e coxao - R$" + Dinheiro.formataPreco(350), this.produtos.consultaProduto("Combo lanche", "Suco e coxao"));
+		
+		this.produtos.removeProduto("Combo lanche", "Suco e coxao");
+		this.produtos.editaPrecoProduto("Coxao", "Coxao de frango", 6.0);
+		assertEquals("Edição de outro produto alterou o combo", "Combo duplo - Dois sucos - R$" + Dinheiro.formataPreco(300), this.produtos.consultaProduto("Combo duplo", "Dois sucos"));
+		
+		this.produtos.removeProduto("Suco", "Suco de goiaba");
+		this.produtos.cadastraProduto("Suco", 10.0, "Suco de goiaba");
+		this.produtos.editaPrecoProduto("Suco", "Suco de goiaba", 20.0);
+		assertEquals("Produto recadastrado alterou combo do produto removido", "Combo duplo - Dois sucos - R$" + Dinheiro.formataPreco(300), this.produtos.consultaProduto("Combo duplo", "Dois sucos"));
 	}
 }
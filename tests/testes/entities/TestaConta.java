@@ -0,0 +1,126 @@
+package testes.entities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import saga.entities.Compra;
+import saga.entities.Conta;
+import saga.entities.Produto;
+import saga.services.Registro;
+
+class TestaConta {
+
+	private Conta conta;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		this.conta = new Conta("11111111111", "Marcos");
+	}
+
+	@Test
+	void testaAdicionaCompra() {
+		assertTrue("Uma conta sem compras não está quitada", this.conta.isQuitado());
+		this.conta.adicionaCompra(new Compra(0, new Produto("Coxao", 2.5, "Coxao de frango")));
+		this.conta.adicionaCompra(new Compra(0, new Produto("Refrigerante", 2.5, "Refrigerante (lata)")));
+		assertEquals("Não acumulou o débito das compras corretamente", 500L, this.conta.getDebito());
+	}
+
+	@Test
+	void testaDebitoConsistente() {
+		Produto produto = new Produto("Suco", 0.1, "Suco de goiaba");
+		for(int i=0; i<1000; i++) {
+			this.conta.adicionaCompra(new Compra(0, produto));
+		}
+		assertTrue("Débito acumulado divergiu do recálculo completo", this.conta.isDebitoConsistente());
+		assertEquals("Débito acumulado difere do recálculo", this.conta.recalculaDebito(), this.conta.getDebito());
+		assertEquals("Somou centavos com erro de arredondamento", 10000L, this.conta.getDebito());
+	}
+
+	@Test
+	void testaGetCompras() {
+		Produto coxao = new Produto("Coxao", 2.5, "Coxao de frango");
+		Produto suco = new Produto("Suco", 1.5, "Suco de goiaba");
+		for(int i=0; i<100; i++) {
+			this.conta.adicionaCompra(i, i % 2 == 0 ? coxao : suco);
+		}
+		List<Compra> compras = this.conta.getCompras();
+		assertEquals("Não retornou todas as compras", 100, compras.size());
+		for(int i=0; i<100; i++) {
+			assertEquals("Data da compra não preservada", i, compras.get(i).getData());
+			assertSame("Produto da compra não preservado", i % 2 == 0 ? coxao : suco, compras.get(i).getProduto());
+		}
+		coxao.setPreco(10.0);
+		assertEquals("Preço na hora da compra não foi preservado", 250L, this.conta.getPrecoCompra(0));
+		assertEquals("Débito foi alterado por uma edição de preço posterior", 20000L, this.conta.getDebito());
+	}
+
+	@Test
+	void testaRealizaPagamento() {
+		this.conta.adicionaCompra(new Compra(0, new Produto("Coxao", 2.5, "Coxao de frango")));
+		this.conta.realizaPagamento();
+		assertTrue("Conta não foi quitada após o pagamento", this.conta.isQuitado());
+		assertTrue("Débito inconsistente após o pagamento", this.conta.isDebitoConsistente());
+	}
+
+	@Test
+	void testaContaPorColunas() {
+		Registro registro = new Registro();
+		Produto coxao = new Produto("Coxao", 2.5, "Coxao de frango");
+		Produto suco = new Produto("Suco", 1.0, "Suco de goiaba");
+		int idCoxao = registro.registraProduto(coxao);
+		int idSuco = registro.registraProduto(suco);
+		Conta restaurada = new Conta("11111111111", "Marcos", registro, new int[] {10, 11, 12}, new int[] {idCoxao, idSuco, idCoxao}, new long[] {200, 100, 250});
+		assertEquals("Débito não é a soma das colunas de preço", 550L, restaurada.getDebito());
+		assertSame("Identificador de produto resolvido incorretamente", suco, restaurada.getProdutoCompra(1));
+		assertEquals("Data da compra restaurada incorretamente", 12, restaurada.getDataCompra(2));
+
+		restaurada.adicionaCompra(13, suco);
+		Produto tapioca = new Produto("Tapioca", 3.0, "Tapioca de queijo");
+		restaurada.adicionaCompra(14, tapioca);
+		assertEquals("Compra não referencia o identificador do produto", idSuco, restaurada.getIdProdutoCompra(3));
+		assertSame("Produto sem identificador não foi registrado pela conta", tapioca, registro.getProduto(restaurada.getIdProdutoCompra(4)));
+		assertEquals("Compras adicionadas após a restauração não somaram ao débito", 950L, restaurada.getDebito());
+	}
+
+	@Test
+	void testaComprasEmOrdemDeData() {
+		Produto coxao = new Produto("Coxao", 2.0, "Coxao de frango");
+		Produto suco = new Produto("Suco", 1.0, "Suco de goiaba");
+		int[] datas = {5, 1, 9, 5, 3, 9, 0};
+		for(int i=0; i<datas.length; i++) {
+			this.conta.adicionaCompra(datas[i], i % 2 == 0 ? coxao : suco);
+		}
+		int[] ordenadas = {0, 1, 3, 5, 5, 9, 9};
+		for(int i=0; i<ordenadas.length; i++) {
+			assertEquals("Compras fora da ordem das datas", ordenadas[i], this.conta.getDataCompra(i));
+		}
+		assertSame("Compras da mesma data fora da ordem em que foram feitas", coxao, this.conta.getProdutoCompra(3));
+		assertSame("Compras da mesma data fora da ordem em que foram feitas", suco, this.conta.getProdutoCompra(4));
+		assertTrue("Débito inconsistente após inserção fora de ordem", this.conta.isDebitoConsistente());
+
+		assertEquals("Busca da primeira compra a partir da data incorreta", 3, this.conta.primeiraCompraDesde(4));
+		assertEquals("Busca da primeira compra a partir da data incorreta", 3, this.conta.primeiraCompraDesde(5));
+		assertEquals("Busca da primeira compra após a data incorreta", 5, this.conta.primeiraCompraApos(5));
+		assertEquals("Busca após a última compra incorreta", 7, this.conta.primeiraCompraApos(9));
+		assertEquals("Subtotal do período incorreto", 300L, this.conta.getSubtotal(this.conta.primeiraCompraDesde(4), this.conta.primeiraCompraApos(5)));
+	}
+
+	@Test
+	void testaColunasForaDeOrdemSaoOrdenadas() {
+		Registro registro = new Registro();
+		int idCoxao = registro.registraProduto(new Produto("Coxao", 2.5, "Coxao de frango"));
+		int idSuco = registro.registraProduto(new Produto("Suco", 1.0, "Suco de goiaba"));
+		Conta restaurada = new Conta("11111111111", "Marcos", registro, new int[] {12, 10, 12, 11}, new int[] {idCoxao, idSuco, idSuco, idCoxao}, new long[] {250, 100, 101, 200});
+		assertEquals("Colunas restauradas não foram ordenadas pela data", 10, restaurada.getDataCompra(0));
+		assertEquals("Preço não acompanhou a data na ordenação", 200L, restaurada.getPrecoCompra(1));
+		assertEquals("Ordem da mesma data não foi preservada", 250L, restaurada.getPrecoCompra(2));
+		assertEquals("Produto não acompanhou a data na ordenação", idSuco, restaurada.getIdProdutoCompra(3));
+		assertEquals("Débito alterado pela ordenação", 651L, restaurada.getDebito());
+	}
+}
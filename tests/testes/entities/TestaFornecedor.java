@@ -10,6 +10,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import saga.entities.Fornecedor;
+import saga.util.Dinheiro;
 
 class TestaFornecedor {
 
@@ -56,26 +57,39 @@ class TestaFornecedor {
 	
 	@Test
 	void testaRemoveProduto() {
-		assertFalse("Retornou true para a remoção de um produto inexistente no fornecedor", this.fornecedor.removeProduto("produto inexistente"));
+		assertFalse("Retornou true para a remoção de um produto inexistente no fornecedor", this.fornecedor.removeProduto("produto inexistente", "descricao produto"));
 		this.fornecedor.adicionaProduto("produto1", 10.0, "descricao produto");
-		assertTrue("Retornou false para a remoção de um produto já existente", this.fornecedor.removeProduto("produto1"));
-		assertFalse("Retornou true para a remoção de um produto que já tinha sido removido anteriormente", this.fornecedor.removeProduto("produto1"));
+		assertTrue("Retornou false para a remoção de um produto já existente", this.fornecedor.removeProduto("produto1", "descricao produto"));
+		assertFalse("Retornou true para a remoção de um produto que já tinha sido removido anteriormente", this.fornecedor.removeProduto("produto1", "descricao produto"));
 	}
 	
 	@Test
 	void testaConsultaProduto() {
-		assertNull("Não retornou null para uma busca de produto inexistente",this.fornecedor.consultaProduto("produto inexistente"));
+		assertNull("Não retornou null para uma busca de produto inexistente",this.fornecedor.consultaProduto("produto inexistente", "descricao produto"));
 		this.fornecedor.adicionaProduto("produto1", 10.0, "descricao produto");
-		assertEquals("String de retorno da consulta mal-formatada", "produto1 - descricao produto - R$10,00", this.fornecedor.consultaProduto("produto1"));
+		assertEquals("String de retorno da consulta mal-formatada", "produto1 - descricao produto - R$10,00", this.fornecedor.consultaProduto("produto1", "descricao produto"));
 	}
 	
 	@Test
 	void testaEditaPrecoProduto() {
-		assertFalse("Retornou true para a edição do preço de um produto inexistente", this.fornecedor.editaPrecoProduto("produto inexistente", 10.0));
+		assertFalse("Retornou true para a edição do preço de um produto inexistente", this.fornecedor.editaPrecoProduto("produto inexistente", "descricao produto", 10.0));
 		this.fornecedor.adicionaProduto("produto1", 10.0, "descricao produto");
-		assertFalse("Retornou true para a edição do preço do produto para um valor negativo", this.fornecedor.editaPrecoProduto("produto1", -10.0));
-		assertTrue("Retornou false para uma edição de preço do produto bem-sucedida", this.fornecedor.editaPrecoProduto("produto1", 15.0));
-		assertEquals("A alteração do preço não surtiu o efeito desejado","produto1 - descricao produto - R$15,00", this.fornecedor.consultaProduto("produto1"));
+		assertFalse("Retornou true para a edição do preço do produto para um valor negativo", this.fornecedor.editaPrecoProduto("produto1", "descricao produto", -10.0));
+		assertTrue("Retornou false para uma edição de preço do produto bem-sucedida", this.fornecedor.editaPrecoProduto("produto1", "descricao produto", 15.0));
+		assertEquals("A alteração do preço não surtiu o efeito desejado","produto1 - descricao produto - R$15,00", this.fornecedor.consultaProduto("produto1", "descricao produto"));
+	}
+	
+	@Test
+	void testaProdutosMesmoNomeDescricoesDiferentes() {
+		assertTrue("Não adicionou o primeiro produto", this.fornecedor.adicionaProduto("Suco", 3.0, "Suco de goiaba"));
+		assertTrue("Não adicionou produto de mesmo nome e descrição diferente", this.fornecedor.adicionaProduto("Suco", 4.0, "Suco de uva"));
+		assertEquals("Consulta retornou o produto errado", "Suco - Suco de goiaba - R$" + Dinheiro.formataPreco(300), this.fornecedor.consultaProduto("Suco", "Suco de goiaba"));
+		assertEquals("Consulta retornou o produto errado", "Suco - Suco de uva - R$" + Dinheiro.formataPreco(400), this.fornecedor.consultaProduto("Suco", "Suco de uva"));
+		assertTrue("Não editou o preço do produto", this.fornecedor.editaPrecoProduto("Suco", "Suco de uva", 5.0));
+		assertEquals("Edição alterou o produto homônimo", "Suco - Suco de goiaba - R$" + Dinheiro.formataPreco(300), this.fornecedor.consultaProduto("Suco", "Suco de goiaba"));
+		assertTrue("Não removeu o produto", this.fornecedor.removeProduto("Suco", "Suco de goiaba"));
+		assertNull("Produto removido continua no fornecedor", this.fornecedor.consultaProduto("Suco", "Suco de goiaba"));
+		assertEquals("Remoção afetou o produto homônimo", "Suco - Suco de uva - R$" + Dinheiro.formataPreco(500), this.fornecedor.consultaProduto("Suco", "Suco de uva"));
 	}
 	
 	@Test
@@ -0,0 +1,44 @@
+package testes.entities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+
+import saga.entities.ChaveProduto;
+import saga.entities.SondaProduto;
+
+class TestaSondaProduto {
+
+	@Test
+	void testaIgualAChave() {
+		ChaveProduto chave = new ChaveProduto("Suco", "Suco de uva");
+		SondaProduto sonda = SondaProduto.posiciona("Suco", "Suco de uva");
+		assertTrue("Sonda diferente da chave com o mesmo par", sonda.equals(chave));
+		assertTrue("Chave diferente da sonda com o mesmo par", chave.equals(sonda));
+		assertEquals("Sonda com hash diferente da chave", chave.hashCode(), sonda.hashCode());
+
+		sonda = SondaProduto.posiciona("Suco", "Suco de goiaba");
+		assertFalse("Sonda igual a chave de outra descricao", sonda.equals(chave));
+		assertFalse("Chave igual a sonda de outra descricao", chave.equals(sonda));
+	}
+
+	@Test
+	void testaBuscaNaoAlteraChaves() {
+		Map<ChaveProduto, String> produtos = new ConcurrentHashMap<ChaveProduto, String>();
+		ChaveProduto uva = new ChaveProduto("Suco", "Suco de uva");
+		produtos.put(uva, "uva");
+		produtos.put(new ChaveProduto("Suco", "Suco de goiaba"), "goiaba");
+
+		assertEquals("Sonda não encontrou o produto", "uva", produtos.get(SondaProduto.posiciona("Suco", "Suco de uva")));
+		assertEquals("Sonda não encontrou o produto", "goiaba", produtos.get(SondaProduto.posiciona("Suco", "Suco de goiaba")));
+		assertEquals("Sonda não removeu o produto", "goiaba", produtos.remove(SondaProduto.posiciona("Suco", "Suco de goiaba")));
+		assertSame("Busca alterou a chave guardada", uva, produtos.keySet().iterator().next());
+		assertEquals("Busca alterou a chave guardada", "Suco de uva", uva.getDescricao());
+	}
+}
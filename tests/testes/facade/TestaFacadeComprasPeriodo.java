@@ -0,0 +1,65 @@
+package testes.facade;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import saga.facade.Facade;
+
+class TestaFacadeComprasPeriodo {
+
+	private Facade facade;
+
+	@BeforeEach
+	void setUp() {
+		this.facade = new Facade();
+		this.facade.adicionaCliente("11111111111", "Ana", "a@", "lcc");
+		this.facade.adicionaFornecedor("Marcos", "marcos@", "1111-1111");
+		this.facade.adicionaFornecedor("Seu Olavo", "olavo@", "2222-2222");
+		this.facade.adicionaProduto("Marcos", "Coxao", "Coxao de frango", 2.0);
+		this.facade.adicionaProduto("Marcos", "Suco", "Suco de goiaba", 1.5);
+		this.facade.adicionaCompra("11111111111", "Marcos", "10/06/2018", "Suco", "Suco de goiaba");
+		this.facade.adicionaCompra("11111111111", "Marcos", "15/02/2018", "Coxao", "Coxao de frango");
+		this.facade.adicionaCompra("11111111111", "Marcos", "01/03/2018", "Coxao", "Coxao de frango");
+		this.facade.adicionaCompra("11111111111", "Marcos", "30/06/2018", "Coxao", "Coxao de frango");
+		this.facade.adicionaCompra("11111111111", "Marcos", "01/07/2018", "Suco", "Suco de goiaba");
+	}
+
+	@Test
+	void testaComprasNoPeriodo() {
+		assertEquals("Compras do período incorretas", "Cliente: Ana | Marcos | Coxao - 01-03-2018 | Suco - 10-06-2018 | Coxao - 30-06-2018 | Subtotal: 5.50",
+				this.facade.exibeComprasPeriodo("11111111111", "Marcos", "01/03/2018", "30/06/2018"));
+		assertEquals("Período de um dia incorreto", "Cliente: Ana | Marcos | Suco - 01-07-2018 | Subtotal: 1.50",
+				this.facade.exibeComprasPeriodo("11111111111", "Marcos", "01/07/2018", "01/07/2018"));
+		assertEquals("Período sem compras incorreto", "Cliente: Ana | Marcos | Subtotal: .00",
+				this.facade.exibeComprasPeriodo("11111111111", "Marcos", "01/01/2019", "31/12/2019"));
+		assertEquals("Conta exibida fora da ordem das datas", "Cliente: Ana | Marcos | Coxao - 15-02-2018 | Coxao - 01-03-2018 | Suco - 10-06-2018 | Coxao - 30-06-2018 | Suco - 01-07-2018",
+				this.facade.exibeContas("11111111111", "Marcos"));
+	}
+
+	@Test
+	void testaFalhas() {
+		try {
+			this.facade.exibeComprasPeriodo("11111111111", "Marcos", "30/06/2018", "01/03/2018");
+			fail("Não lançou exceção para período invertido");
+		}catch(IllegalArgumentException iae) {
+			assertEquals("Mensagem incorreta", "Erro ao consultar compras: data inicial posterior a data final.", iae.getMessage());
+		}
+		try {
+			this.facade.exibeComprasPeriodo("11111111111", "Marcos", "01/03/2018", "31/06/2018");
+			fail("Não lançou exceção para data inválida");
+		}catch(IllegalArgumentException iae) {
+			assertEquals("Mensagem incorreta", "Erro ao consultar compras: data final invalida.", iae.getMessage());
+		}
+		try {
+			this.facade.exibeComprasPeriodo("11111111111", "Seu Olavo", "01/03/2018", "30/06/2018");
+			fail("Não lançou exceção para conta inexistente");
+		}catch(NullPointerException npe) {
+			assertEquals("Mensagem incorreta", "Erro ao consultar compras: cliente nao tem nenhuma conta com o fornecedor.", npe.getMessage());
+		}
+		assertFalse("Resultado bem-sucedido para data inicial nula", this.facade.tentaExibeComprasPeriodo("11111111111", "Marcos", null, "30/06/2018").isSucesso());
+	}
+}
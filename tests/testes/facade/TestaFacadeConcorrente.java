@@ -0,0 +1,129 @@
+package testes.facade;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import saga.facade.Facade;
+
+class TestaFacadeConcorrente {
+
+	private static final int THREADS = 8;
+
+	private static final int COMPRAS_POR_THREAD = 2000;
+
+	private Facade facade;
+
+	private ExecutorService executor;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		this.facade = new Facade();
+		this.executor = Executors.newFixedThreadPool(THREADS);
+		this.facade.adicionaFornecedor("Marcos", "marcos@gmail.com", "83 99151-3570");
+		this.facade.adicionaProduto("Marcos", "Coxao", "Coxao de frango", 2.5);
+		for(int i=0; i<THREADS; i++) {
+			this.facade.adicionaCliente(cpf(i), "Cliente " + i, "cliente" + i + "@", "lcc");
+		}
+		this.facade.adicionaCliente("99999999999", "Compartilhado", "c@", "lcc");
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		this.executor.shutdownNow();
+	}
+
+	@Test
+	void testaComprasConcorrentes() throws Exception {
+		List<Callable<Void>> tarefas = new ArrayList<Callable<Void>>();
+		for(int i=0; i<THREADS; i++) {
+			final String cpf = cpf(i);
+			tarefas.add(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					for(int j=0; j<COMPRAS_POR_THREAD; j++) {
+						facade.adicionaCompra(cpf, "Marcos", "01/01/2018", "Coxao", "Coxao de frango");
+						facade.adicionaCompra("99999999999", "Marcos", "01/01/2018", "Coxao", "Coxao de frango");
+						if(j % 100 == 0) {
+							facade.getDebito(cpf, "Marcos");
+							facade.exibeClientes();
+						}
+					}
+					return null;
+				}
+			});
+		}
+		tarefas.add(new Callable<Void>() {
+			@Override
+			public Void call() throws Exception {
+				for(int j=0; j<500; j++) {
+					facade.adicionaFornecedor("Fornecedor " + j, "f@", "0000-0000");
+					facade.adicionaProduto("Fornecedor " + j, "Suco", "Suco de goiaba", 1.0);
+					facade.editaProduto("Suco", "Suco de goiaba", "Fornecedor " + j, 2.0);
+				}
+				return null;
+			}
+		});
+		for(Future<Void> resultado: this.executor.invokeAll(tarefas)) {
+			resultado.get();
+		}
+
+		for(int i=0; i<THREADS; i++) {
+			assertEquals("Débito de um cliente perdeu compras concorrentes", "5000.00", this.facade.getDebito(cpf(i), "Marcos"));
+		}
+		assertEquals("Débito compartilhado perdeu compras concorrentes", "40000.00", this.facade.getDebito("99999999999", "Marcos"));
+	}
+
+	@Test
+	void testaRemocaoDeFornecedorDuranteCompras() throws Exception {
+		this.facade.adicionaFornecedor("Seu Olavo", "olavo@", "2222-2222");
+		this.facade.adicionaProduto("Seu Olavo", "Suco", "Suco de goiaba", 1.0);
+		int olavo = this.facade.resolveFornecedor("Seu Olavo");
+		int suco = this.facade.resolveProduto("Seu Olavo", "Suco", "Suco de goiaba");
+		List<Callable<Void>> tarefas = new ArrayList<Callable<Void>>();
+		for(int i=0; i<THREADS; i++) {
+			final String cpf = cpf(i);
+			final int cliente = this.facade.resolveCliente(cpf);
+			tarefas.add(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					facade.adicionaCompra(cpf, "Marcos", "01/01/2018", "Coxao", "Coxao de frango");
+					for(int j=0; j<COMPRAS_POR_THREAD; j++) {
+						facade.tentaAdicionaCompraPorHandle(cliente, olavo, "01/01/2018", suco);
+						facade.tentaRealizaPagamentoPorHandle(cliente, olavo);
+					}
+					return null;
+				}
+			});
+		}
+		tarefas.add(new Callable<Void>() {
+			@Override
+			public Void call() throws Exception {
+				Thread.sleep(5);
+				facade.removeFornecedor("Seu Olavo");
+				return null;
+			}
+		});
+		for(Future<Void> resultado: this.executor.invokeAll(tarefas)) {
+			resultado.get();
+		}
+
+		for(int i=0; i<THREADS; i++) {
+			assertEquals("Compra concorrente deixou conta com fornecedor removido", "Cliente: Cliente " + i + " | Marcos | Coxao - 01-01-2018",
+					this.facade.exibeContasClientes(cpf(i)));
+		}
+	}
+
+	private static String cpf(int i) {
+		return String.format("%011d", i);
+	}
+}
@@ -0,0 +1,141 @@
+package testes.facade;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import saga.facade.Facade;
+
+class TestaFacadeEventos {
+
+	@TempDir
+	Path diretorio;
+
+	private Facade facade;
+
+	@BeforeEach
+	void setUp() {
+		this.facade = new Facade();
+		this.facade.adicionaCliente("11111111111", "Ana", "a@", "lcc");
+		this.facade.adicionaFornecedor("Marcos", "marcos@", "1111-1111");
+	}
+
+	/**
+	 * Executa as operações com uma gravação que aceita eventos de qualquer duração e retorna os eventos
+	 * gravados do tipo passado como parâmetro, na ordem em que foram emitidos.
+	 */
+	private List<RecordedEvent> grava(String tipo, Runnable operacoes) throws Exception {
+		Path arquivo = this.diretorio.resolve(tipo + ".jfr");
+		try(Recording gravacao = new Recording()) {
+			gravacao.enable(tipo).withThreshold(Duration.ZERO);
+			gravacao.start();
+			operacoes.run();
+			gravacao.stop();
+			gravacao.dump(arquivo);
+		}
+		return RecordingFile.readAllEvents(arquivo).stream()
+				.filter(e -> e.getEventType().getName().equals(tipo))
+				.sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+				.collect(Collectors.toList());
+	}
+
+	@Test
+	void testaEventosDeCompraEPagamento() throws Exception {
+		this.facade.adicionaProduto("Marcos", "Coxao", "Coxao de frango", 2.0);
+		List<RecordedEvent> compras = this.grava("saga.Compra", () -> {
+			this.facade.adicionaCompra("11111111111", "Marcos", "01/01/2018", "Coxao", "Coxao de frango");
+			try {
+				this.facade.adicionaCompra("11111111111", "Marcos", "31/02/2018", "Coxao", "Coxao de frango");
+				fail("Não lançou exceção para data inválida");
+			}catch(IllegalArgumentException iae) {}
+			this.facade.tentaAdicionaCompra("11111111111", "Marcos", "01/01/2018", "Suco", "Suco de goiaba");
+		});
+		assertEquals("Quantidade de eventos de compra incorreta", 3, compras.size());
+		assertEquals("CPF incorreto", "11111111111", compras.get(0).getString("cpf"));
+		assertEquals("Fornecedor incorreto", "Marcos", compras.get(0).getString("fornecedor"));
+		assertTrue("Compra válida registrada como falha", compras.get(0).getBoolean("sucesso"));
+		assertFalse("Compra inválida registrada como sucesso", compras.get(1).getBoolean("sucesso"));
+		assertEquals("Mensagem da exceção ausente", "Erro ao cadastrar compra: data invalida.", compras.get(1).getString("mensagem"));
+		assertFalse("Falha do Resultado registrada como sucesso", compras.get(2).getBoolean("sucesso"));
+
+		List<RecordedEvent> pagamentos = this.grava("saga.Pagamento", () -> this.facade.realizaPagamento("11111111111", "Marcos"));
+		assertEquals("Quantidade de eventos de pagamento incorreta", 1, pagamentos.size());
+		assertTrue("Pagamento registrado como falha", pagamentos.get(0).getBoolean("sucesso"));
+	}
+
+	@Test
+	void testaEventosDeCatalogo() throws Exception {
+		List<RecordedEvent> eventos = this.grava("saga.Catalogo", () -> {
+			this.facade.adicionaProduto("Marcos", "Coxao", "Coxao de frango", 2.0);
+			this.facade.editaProduto("Coxao", "Coxao de frango", "Marcos", 3.0);
+			this.facade.removeProduto("Coxao", "Coxao de frango", "Marcos");
+		});
+		assertEquals("Quantidade de eventos de catálogo incorreta", 3, eventos.size());
+		assertEquals("Operação incorreta", "adicionaProduto", eventos.get(0).getString("operacao"));
+		assertEquals("Operação incorreta", "editaProduto", eventos.get(1).getString("operacao"));
+		assertEquals("Operação incorreta", "removeProduto", eventos.get(2).getString("operacao"));
+		assertEquals("Produto incorreto", "Coxao", eventos.get(2).getString("produto"));
+	}
+
+	@Test
+	void testaEventosDeListagem() throws Exception {
+		this.facade.adicionaProduto("Marcos", "Coxao", "Coxao de frango", 2.0);
+		this.facade.adicionaProduto("Marcos", "Suco", "Suco de goiaba", 3.0);
+		StringWriter saida = new StringWriter();
+		List<RecordedEvent> eventos = this.grava("saga.Listagem", () -> {
+			this.facade.exibeProdutos();
+			try {
+				this.facade.exibeProdutos(saida);
+			}catch(Exception e) {
+				fail("Escrita falhou: " + e.getMessage());
+			}
+			this.facade.exibeProdutosPagina(null, 1);
+		});
+		String listagem = this.facade.exibeProdutos();
+		assertEquals("Quantidade de eventos de listagem incorreta", 3, eventos.size());
+		for(int i=0; i<2; i++) {
+			assertEquals("Operação incorreta", "exibeProdutos", eventos.get(i).getString("operacao"));
+			assertEquals("Quantidade de itens incorreta", 2, eventos.get(i).getLong("itens"));
+			assertEquals("Tamanho da saída incorreto", listagem.length(), eventos.get(i).getLong("caracteres"));
+		}
+		assertEquals("Itens da página incorretos", 1, eventos.get(2).getLong("itens"));
+	}
+
+	@Test
+	void testaItensComSeparadorNaDescricao() throws Exception {
+		this.facade.adicionaProduto("Marcos", "Coxao", "Coxao | frango", 2.0);
+		this.facade.adicionaProduto("Marcos", "Suco", "Suco | goiaba | 300ml", 3.0);
+		this.facade.adicionaCompra("11111111111", "Marcos", "01/01/2018", "Suco", "Suco | goiaba | 300ml");
+		StringWriter saida = new StringWriter();
+		List<RecordedEvent> eventos = this.grava("saga.Listagem", () -> {
+			this.facade.exibeProdutos();
+			try {
+				this.facade.exibeProdutos(saida);
+			}catch(Exception e) {
+				fail("Escrita falhou: " + e.getMessage());
+			}
+			this.facade.buscaProdutos("suco", 10);
+			this.facade.exibeContasClientes("11111111111");
+		});
+		assertEquals("Quantidade de eventos de listagem incorreta", 4, eventos.size());
+		assertEquals("Separador na descrição contado como item", 2, eventos.get(0).getLong("itens"));
+		assertEquals("Separador na descrição contado como item na escrita", 2, eventos.get(1).getLong("itens"));
+		assertEquals("Tamanho da saída incorreto", saida.toString().length(), eventos.get(1).getLong("caracteres"));
+		assertEquals("Separador na descrição contado como item na busca", 1, eventos.get(2).getLong("itens"));
+		assertEquals("Quantidade de contas incorreta", 1, eventos.get(3).getLong("itens"));
+	}
+}
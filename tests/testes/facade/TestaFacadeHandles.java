@@ -0,0 +1,108 @@
+package testes.facade;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import saga.facade.Facade;
+
+class TestaFacadeHandles {
+
+	@TempDir
+	Path diretorio;
+
+	private Facade facade;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		this.facade = new Facade();
+		this.facade.adicionaCliente("11111111111", "Cliente", "cliente@", "lcc");
+		this.facade.adicionaFornecedor("Marcos", "marcos@gmail.com", "83 99151-3570");
+		this.facade.adicionaProduto("Marcos", "Coxao", "Coxao de frango", 2.5);
+	}
+
+	@Test
+	void testaCompraPorHandles() {
+		int cliente = this.facade.resolveCliente("11111111111");
+		int fornecedor = this.facade.resolveFornecedor("Marcos");
+		int produto = this.facade.resolveProduto("Marcos", "Coxao", "Coxao de frango");
+		this.facade.adicionaCompraPorHandle(cliente, fornecedor, "01/01/2018", produto);
+		this.facade.adicionaCompra("11111111111", "Marcos", "02/01/2018", "Coxao", "Coxao de frango");
+		assertEquals("Débito por handles difere do débito por Strings", this.facade.getDebito("11111111111", "Marcos"), this.facade.getDebitoPorHandle(cliente, fornecedor));
+		assertEquals("Compra por handles não somou ao débito", "5.00", this.facade.getDebitoPorHandle(cliente, fornecedor));
+		assertEquals("Compra por handles não aparece na conta", "Cliente: Cliente | Marcos | Coxao - 01-01-2018 | Coxao - 02-01-2018", this.facade.exibeContas("11111111111", "Marcos"));
+
+		this.facade.realizaPagamentoPorHandle(cliente, fornecedor);
+		try {
+			this.facade.getDebitoPorHandle(cliente, fornecedor);
+			fail("Não lançou exceção para o débito de uma conta paga");
+		}catch(RuntimeException e) {}
+	}
+
+	@Test
+	void testaResolveInexistente() {
+		try {
+			this.facade.resolveCliente("22222222222");
+			fail("Não lançou NullPointerException para cliente inexistente");
+		}catch(NullPointerException npe) {}
+		try {
+			this.facade.resolveFornecedor("Helhao");
+			fail("Não lançou NullPointerException para fornecedor inexistente");
+		}catch(NullPointerException npe) {}
+		try {
+			this.facade.resolveProduto("Marcos", "Coxao", "Coxao de boi");
+			fail("Não lançou NullPointerException para produto inexistente");
+		}catch(NullPointerException npe) {}
+	}
+
+	@Test
+	void testaHandleInvalidadoPelaRemocao() {
+		int cliente = this.facade.resolveCliente("11111111111");
+		int fornecedor = this.facade.resolveFornecedor("Marcos");
+		int produto = this.facade.resolveProduto("Marcos", "Coxao", "Coxao de frango");
+		this.facade.removeProduto("Coxao", "Coxao de frango", "Marcos");
+		this.facade.adicionaProduto("Marcos", "Coxao", "Coxao de frango", 3.0);
+		try {
+			this.facade.adicionaCompraPorHandle(cliente, fornecedor, "01/01/2018", produto);
+			fail("Aceitou o handle de um produto removido");
+		}catch(NullPointerException npe) {
+			assertEquals("Mensagem de erro incorreta", "Erro ao cadastrar compra: produto nao existe.", npe.getMessage());
+		}
+		this.facade.adicionaCompraPorHandle(cliente, fornecedor, "01/01/2018", this.facade.resolveProduto("Marcos", "Coxao", "Coxao de frango"));
+		assertEquals("Compra com o handle do produto recadastrado falhou", "3.00", this.facade.getDebitoPorHandle(cliente, fornecedor));
+
+		this.facade.removeCliente("11111111111");
+		try {
+			this.facade.adicionaCompraPorHandle(cliente, fornecedor, "01/01/2018", produto);
+			fail("Aceitou o handle de um cliente removido");
+		}catch(NullPointerException npe) {
+			assertEquals("Mensagem de erro incorreta", "Erro ao cadastrar compra: cliente nao existe.", npe.getMessage());
+		}
+		try {
+			this.facade.adicionaCompraPorHandle(42, fornecedor, "01/01/2018", produto);
+			fail("Aceitou um handle que nunca foi atribuído");
+		}catch(NullPointerException npe) {}
+	}
+
+	@Test
+	void testaHandlesNoDiario() throws Exception {
+		Facade persistente = new Facade(this.diretorio);
+		persistente.adicionaCliente("11111111111", "Cliente", "cliente@", "lcc");
+		persistente.adicionaFornecedor("Marcos", "marcos@gmail.com", "83 99151-3570");
+		persistente.adicionaProduto("Marcos", "Coxao", "Coxao de frango", 2.5);
+		int cliente = persistente.resolveCliente("11111111111");
+		int fornecedor = persistente.resolveFornecedor("Marcos");
+		persistente.adicionaCompraPorHandle(cliente, fornecedor, "01/01/2018", persistente.resolveProduto("Marcos", "Coxao", "Coxao de frango"));
+		persistente.adicionaCompraPorHandle(cliente, fornecedor, "02/01/2018", persistente.resolveProduto("Marcos", "Coxao", "Coxao de frango"));
+		persistente.fecha();
+
+		Facade recuperada = new Facade(this.diretorio);
+		assertEquals("Compras por handles não foram registradas no diário", "5.00", recuperada.getDebito("11111111111", "Marcos"));
+		recuperada.fecha();
+	}
+}
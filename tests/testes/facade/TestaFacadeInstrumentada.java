@@ -0,0 +1,93 @@
+package testes.facade;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import saga.facade.Facade;
+import saga.facade.FacadeInstrumentada;
+import saga.metricas.Metricas;
+import saga.metricas.MetricasOperacao;
+
+class TestaFacadeInstrumentada {
+
+	@TempDir
+	Path diretorio;
+
+	private FacadeInstrumentada facade;
+
+	@BeforeEach
+	void setUp() {
+		this.facade = new FacadeInstrumentada(new Facade(), "teste-" + System.nanoTime());
+		this.facade.adicionaCliente("11111111111", "Ana", "a@", "lcc");
+		this.facade.adicionaFornecedor("Marcos", "marcos@", "1111-1111");
+		this.facade.adicionaProduto("Marcos", "Coxao", "Coxao de frango", 2.0);
+	}
+
+	@Test
+	void testaContagens() {
+		for(int i=0; i<3; i++) {
+			this.facade.exibeCliente("11111111111");
+		}
+		try {
+			this.facade.exibeCliente("22222222222");
+			fail("Não lançou exceção para cliente inexistente");
+		}catch(NullPointerException npe) {}
+		assertFalse("Compra com data inválida bem-sucedida", this.facade.tentaAdicionaCompra("11111111111", "Marcos", "1/1/18", "Coxao", "Coxao de frango").isSucesso());
+		assertTrue("Compra válida falhou", this.facade.tentaAdicionaCompra("11111111111", "Marcos", "01/01/2018", "Coxao", "Coxao de frango").isSucesso());
+
+		MetricasOperacao exibe = this.facade.getMetricas().operacao("exibeCliente");
+		assertEquals("Quantidade de chamadas incorreta", 4, exibe.getChamadas());
+		assertEquals("Quantidade de falhas incorreta", 1, exibe.getErros());
+		assertEquals("Falhas por mensagem incorretas", Long.valueOf(1), exibe.getContagemErros().get("Erro na exibicao do cliente: cliente nao existe."));
+		assertEquals("Latências não registradas", 4, exibe.getLatencias().getQuantidade());
+
+		MetricasOperacao compra = this.facade.getMetricas().operacao("tentaAdicionaCompra");
+		assertEquals("Quantidade de chamadas incorreta", 2, compra.getChamadas());
+		assertEquals("Falha de Resultado não contada", 1, compra.getErros());
+		assertEquals("Operação de cadastro não contada", 1, this.facade.getMetricas().operacao("adicionaCliente").getChamadas());
+	}
+
+	@Test
+	void testaSalva() throws Exception {
+		this.facade.exibeCliente("11111111111");
+		Path arquivo = this.diretorio.resolve("metricas.txt");
+		this.facade.getMetricas().salva(arquivo);
+		String conteudo = new String(Files.readAllBytes(arquivo), StandardCharsets.UTF_8);
+		assertTrue("Operação ausente do arquivo", conteudo.contains("exibeCliente chamadas=1 erros=0"));
+		assertEquals("Arquivo diferente do resumo", this.facade.getMetricas().getResumo(), conteudo);
+	}
+
+	@Test
+	void testaPublicacao() throws Exception {
+		MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+		Metricas metricas = this.facade.getMetricas();
+		this.facade.publicaMetricas();
+		try {
+			this.facade.exibeCliente("11111111111");
+			assertTrue("Conjunto não publicado", servidor.isRegistered(metricas.nomeMBean(null)));
+			assertEquals("Chamadas incorretas no MBean", 1L, servidor.getAttribute(metricas.nomeMBean("exibeCliente"), "Chamadas"));
+			try {
+				new Metricas(ObjectName.unquote(metricas.nomeMBean(null).getKeyProperty("facade"))).publica();
+				fail("Publicou métricas com nome repetido");
+			}catch(IllegalStateException ise) {}
+		}finally {
+			metricas.retira();
+		}
+		assertFalse("Conjunto não retirado", servidor.isRegistered(metricas.nomeMBean(null)));
+		assertFalse("Operação não retirada", servidor.isRegistered(metricas.nomeMBean("exibeCliente")));
+	}
+}
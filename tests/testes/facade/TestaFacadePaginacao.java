@@ -0,0 +1,108 @@
+package testes.facade;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import saga.facade.Facade;
+import saga.util.Dinheiro;
+import saga.util.Pagina;
+
+class TestaFacadePaginacao {
+
+	private Facade facade;
+
+	@BeforeEach
+	void setUp() {
+		this.facade = new Facade();
+		this.facade.adicionaCliente("33333333333", "Carla", "c@", "lcc");
+		this.facade.adicionaCliente("11111111111", "Ana", "a@", "lcc");
+		this.facade.adicionaCliente("44444444444", "ana", "a2@", "lcc");
+		this.facade.adicionaCliente("22222222222", "Bruno", "b@", "lcc");
+		this.facade.adicionaFornecedor("Seu Olavo", "olavo@", "2222-2222");
+		this.facade.adicionaFornecedor("Marcos", "marcos@", "1111-1111");
+		this.facade.adicionaFornecedor("Dona Alba", "alba@", "3333-3333");
+		this.facade.adicionaProduto("Marcos", "Suco", "Suco de laranja", 2.5);
+		this.facade.adicionaProduto("Marcos", "Coxao", "Coxao de frango", 2.0);
+		this.facade.adicionaProduto("Marcos", "Suco", "Suco de goiaba", 1.0);
+		this.facade.adicionaCombo("Marcos", "Suco", "Suco de goiaba", 0.5, "Suco - Suco de goiaba, Suco - Suco de laranja");
+		this.facade.adicionaProduto("Seu Olavo", "Tapioca", "Tapioca de queijo", 3.0);
+	}
+
+	/**
+	 * Percorre todas as páginas da listagem e retorna os itens concatenados como na listagem completa.
+	 */
+	private static String percorre(Function<String, Pagina> listagem) {
+		List<String> itens = new ArrayList<String>();
+		String cursor = null;
+		do {
+			Pagina pagina = listagem.apply(cursor);
+			assertTrue("Página com mais itens que o limite", pagina.getItens().size() <= 2);
+			itens.addAll(pagina.getItens());
+			cursor = pagina.getProximo();
+		}while(cursor != null);
+		return String.join(" | ", itens);
+	}
+
+	@Test
+	void testaPaginasReproduzemListagens() {
+		assertEquals("Páginas de clientes diferentes da listagem", this.facade.exibeClientes(), percorre(cursor -> this.facade.exibeClientesPagina(cursor, 2)));
+		assertEquals("Páginas de fornecedores diferentes da listagem", this.facade.exibeFornecedores(), percorre(cursor -> this.facade.exibeFornecedoresPagina(cursor, 2)));
+		assertEquals("Páginas de produtos diferentes da listagem", this.facade.exibeProdutos(), percorre(cursor -> this.facade.exibeProdutosPagina(cursor, 2)));
+		assertEquals("Páginas de produtos do fornecedor diferentes da listagem", this.facade.exibeProdutosFornecedor("Marcos"), percorre(cursor -> this.facade.exibeProdutosFornecedorPagina("Marcos", cursor, 2)));
+	}
+
+	@Test
+	void testaPaginaDeContas() {
+		this.facade.adicionaCompra("11111111111", "Seu Olavo", "02/01/2018", "Tapioca", "Tapioca de queijo");
+		this.facade.adicionaCompra("11111111111", "Marcos", "01/01/2018", "Coxao", "Coxao de frango");
+		Pagina primeira = this.facade.exibeContasClientesPagina("11111111111", null, 1);
+		assertEquals("Primeira página de contas incorreta", "Marcos | Coxao - 01-01-2018", primeira.toString());
+		Pagina segunda = this.facade.exibeContasClientesPagina("11111111111", primeira.getProximo(), 1);
+		assertEquals("Segunda página de contas incorreta", "Seu Olavo | Tapioca - 02-01-2018", segunda.toString());
+		assertTrue("Última página com cursor", segunda.isUltima());
+	}
+
+	@Test
+	void testaCursorSobreviveAlteracoes() {
+		Pagina primeira = this.facade.exibeClientesPagina(null, 2);
+		assertEquals("Primeira página de clientes incorreta", "Ana - lcc - a@ | ana - lcc - a2@", primeira.toString());
+		this.facade.removeCliente("44444444444");
+		this.facade.adicionaCliente("55555555555", "Aline", "al@", "lcc");
+		this.facade.adicionaCliente("66666666666", "Bia", "bi@", "lcc");
+		assertEquals("Página seguinte não continuou depois do cliente removido", "Bia - lcc - bi@ | Bruno - lcc - b@", this.facade.exibeClientesPagina(primeira.getProximo(), 2).toString());
+
+		Pagina produtos = this.facade.exibeProdutosPagina(null, 4);
+		assertEquals("Não listou o fornecedor sem produtos", "Dona Alba -", produtos.getItens().get(0));
+		this.facade.removeProduto("Suco", "Suco de goiaba", "Marcos");
+		this.facade.removeProduto("Suco", "Suco de goiaba", "Marcos");
+		assertEquals("Página seguinte ao produto removido incorreta", "Marcos - Suco - Suco de laranja - R$" + Dinheiro.formataPreco(250) + " | Seu Olavo - Tapioca - Tapioca de queijo - R$" + Dinheiro.formataPreco(300), this.facade.exibeProdutosPagina(produtos.getProximo(), 4).toString());
+	}
+
+	@Test
+	void testaCursorELimiteInvalidos() {
+		try {
+			this.facade.exibeClientesPagina(null, 0);
+			fail("Não lançou IllegalArgumentException para limite zero");
+		}catch(IllegalArgumentException iae) {}
+		try {
+			this.facade.exibeFornecedoresPagina("", 2);
+			fail("Não lançou IllegalArgumentException para cursor vazio");
+		}catch(IllegalArgumentException iae) {}
+		try {
+			this.facade.exibeProdutosFornecedorPagina("Marcos", "a\u001Fb\u001FX", 2);
+			fail("Não lançou IllegalArgumentException para tipo de item inválido");
+		}catch(IllegalArgumentException iae) {}
+		try {
+			this.facade.exibeProdutosFornecedorPagina("Ninguem", null, 2);
+			fail("Não lançou NullPointerException para fornecedor inexistente");
+		}catch(NullPointerException npe) {}
+	}
+}
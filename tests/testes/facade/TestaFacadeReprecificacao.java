@@ -0,0 +1,72 @@
+package testes.facade;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import saga.facade.Facade;
+
+class TestaFacadeReprecificacao {
+
+	@TempDir
+	Path diretorio;
+
+	private static void popula(Facade facade) {
+		facade.adicionaCliente("11111111111", "Beatriz", "b@", "lcc");
+		facade.adicionaCliente("22222222222", "Ana", "a@", "lcc");
+		facade.adicionaFornecedor("Marcos", "marcos@gmail.com", "83 99151-3570");
+		facade.adicionaProduto("Marcos", "Coxao", "Coxao de frango", 2.0);
+		facade.adicionaProduto("Marcos", "Suco", "Suco de goiaba", 1.0);
+		facade.adicionaCombo("Marcos", "Lanche", "Coxao e suco", 0.5, "Coxao - Coxao de frango, Suco - Suco de goiaba");
+		facade.adicionaCompra("11111111111", "Marcos", "01/01/2018", "Coxao", "Coxao de frango");
+		facade.adicionaCompra("11111111111", "Marcos", "02/01/2018", "Lanche", "Coxao e suco");
+		facade.adicionaCompra("22222222222", "Marcos", "01/01/2018", "Suco", "Suco de goiaba");
+	}
+
+	@Test
+	void testaPrecoDaCompraPorPadrao() {
+		Facade facade = new Facade();
+		popula(facade);
+		facade.editaProduto("Coxao", "Coxao de frango", "Marcos", 4.0);
+		assertEquals("Edição de preço alterou compra já feita", "3.50", facade.getDebito("11111111111", "Marcos"));
+		assertEquals("Recebíveis alterados pela edição de preço", "4.50", facade.getRecebiveis("Marcos"));
+	}
+
+	@Test
+	void testaReprecificacaoContasAbertas() {
+		Facade facade = new Facade(true);
+		popula(facade);
+		facade.editaProduto("Coxao", "Coxao de frango", "Marcos", 4.0);
+		assertEquals("Não reprecificou o produto e o combo da conta", "6.50", facade.getDebito("11111111111", "Marcos"));
+		assertEquals("Reprecificou conta sem o produto editado", "1.00", facade.getDebito("22222222222", "Marcos"));
+		assertEquals("Recebíveis não acompanharam a reprecificação", "7.50", facade.getRecebiveis("Marcos"));
+
+		facade.editaCombo("Lanche", "Coxao e suco", "Marcos", 0.2);
+		assertEquals("Não reprecificou o combo com novo fator", "8.00", facade.getDebito("11111111111", "Marcos"));
+
+		facade.realizaPagamento("11111111111", "Marcos");
+		facade.editaProduto("Coxao", "Coxao de frango", "Marcos", 1.0);
+		assertEquals("Conta paga foi reprecificada", "1.00", facade.getRecebiveis("Marcos"));
+		facade.adicionaCompra("11111111111", "Marcos", "03/01/2018", "Coxao", "Coxao de frango");
+		assertEquals("Compra nova não usou o preço atual", "1.00", facade.getDebito("11111111111", "Marcos"));
+	}
+
+	@Test
+	void testaReprecificacaoAposReabrir() throws Exception {
+		Facade facade = new Facade(this.diretorio, true);
+		popula(facade);
+		facade.salvaSnapshot();
+		facade.editaProduto("Suco", "Suco de goiaba", "Marcos", 3.0);
+		facade.fecha();
+
+		Facade reaberta = new Facade(this.diretorio, true);
+		assertEquals("Reprodução do diário não reprecificou a conta", "3.00", reaberta.getDebito("22222222222", "Marcos"));
+		reaberta.editaProduto("Suco", "Suco de goiaba", "Marcos", 2.0);
+		assertEquals("Contas carregadas do snapshot não foram indexadas", "2.00", reaberta.getDebito("22222222222", "Marcos"));
+		assertEquals("Combo carregado do snapshot não foi reprecificado", "4.00", reaberta.getDebito("11111111111", "Marcos"));
+		reaberta.fecha();
+	}
+}
@@ -0,0 +1,94 @@
+package testes.facade;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import saga.facade.Facade;
+import saga.util.Falha;
+import saga.util.Resultado;
+
+class TestaFacadeResultado {
+
+	@TempDir
+	Path diretorio;
+
+	private Facade facade;
+
+	@BeforeEach
+	void setUp() {
+		this.facade = new Facade();
+		popula(this.facade);
+	}
+
+	private static void popula(Facade facade) {
+		facade.adicionaCliente("11111111111", "Ana", "a@", "lcc");
+		facade.adicionaFornecedor("Marcos", "marcos@", "1111-1111");
+		facade.adicionaProduto("Marcos", "Coxao", "Coxao de frango", 2.0);
+	}
+
+	/**
+	 * Confere que o Resultado falhou com a mesma mensagem e o mesmo tipo da exceção da API tradicional.
+	 */
+	private static void assertMesmaFalha(Resultado<?> resultado, Runnable tradicional) {
+		assertFalse("Resultado bem-sucedido para entrada inválida", resultado.isSucesso());
+		try {
+			tradicional.run();
+			fail("A API tradicional não lançou exceção");
+		}catch(NullPointerException npe) {
+			assertEquals("Tipo da falha diferente da exceção", Falha.Tipo.NULO, resultado.getFalha().getTipo());
+			assertEquals("Mensagem diferente da exceção", npe.getMessage(), resultado.getMensagem());
+		}catch(IllegalArgumentException iae) {
+			assertEquals("Tipo da falha diferente da exceção", Falha.Tipo.INVALIDO, resultado.getFalha().getTipo());
+			assertEquals("Mensagem diferente da exceção", iae.getMessage(), resultado.getMensagem());
+		}
+	}
+
+	@Test
+	void testaFalhasTemMesmasMensagens() {
+		assertMesmaFalha(this.facade.tentaAdicionaCompra("11111111111", "Marcos", "31/02/2018", "Coxao", "Coxao de frango"),
+				() -> this.facade.adicionaCompra("11111111111", "Marcos", "31/02/2018", "Coxao", "Coxao de frango"));
+		assertMesmaFalha(this.facade.tentaAdicionaCompra("22222222222", "Marcos", "01/01/2018", "Coxao", "Coxao de frango"),
+				() -> this.facade.adicionaCompra("22222222222", "Marcos", "01/01/2018", "Coxao", "Coxao de frango"));
+		assertMesmaFalha(this.facade.tentaAdicionaCompra("11111111111", "Marcos", "01/01/2018", "Suco", "Suco de goiaba"),
+				() -> this.facade.adicionaCompra("11111111111", "Marcos", "01/01/2018", "Suco", "Suco de goiaba"));
+		assertMesmaFalha(this.facade.tentaGetDebito("11111111111", "Marcos"), () -> this.facade.getDebito("11111111111", "Marcos"));
+		assertMesmaFalha(this.facade.tentaRealizaPagamento("11111111111", "Ninguem"), () -> this.facade.realizaPagamento("11111111111", "Ninguem"));
+		assertMesmaFalha(this.facade.tentaExibeProduto("Suco", "Suco de goiaba", "Marcos"), () -> this.facade.exibeProduto("Suco", "Suco de goiaba", "Marcos"));
+		assertMesmaFalha(this.facade.tentaResolveProduto("Ninguem", "Coxao", "Coxao de frango"), () -> this.facade.resolveProduto("Ninguem", "Coxao", "Coxao de frango"));
+		assertMesmaFalha(this.facade.tentaAdicionaCompraPorHandle(-1, 0, "01/01/2018", 0), () -> this.facade.adicionaCompraPorHandle(-1, 0, "01/01/2018", 0));
+	}
+
+	@Test
+	void testaSucessos() {
+		assertTrue("Compra válida falhou", this.facade.tentaAdicionaCompra("11111111111", "Marcos", "01/01/2018", "Coxao", "Coxao de frango").isSucesso());
+		assertEquals("Débito incorreto", "2.00", this.facade.tentaGetDebito("11111111111", "Marcos").getValor());
+		int cliente = this.facade.tentaResolveCliente("11111111111").getValor();
+		int fornecedor = this.facade.tentaResolveFornecedor("Marcos").getValor();
+		int produto = this.facade.tentaResolveProduto("Marcos", "Coxao", "Coxao de frango").getValor();
+		assertTrue("Compra por handle falhou", this.facade.tentaAdicionaCompraPorHandle(cliente, fornecedor, "02/01/2018", produto).isSucesso());
+		assertEquals("Débito por handle incorreto", "4.00", this.facade.tentaGetDebitoPorHandle(cliente, fornecedor).getValor());
+		assertTrue("Pagamento falhou", this.facade.tentaRealizaPagamento("11111111111", "Marcos").isSucesso());
+		assertFalse("Pagou conta já paga", this.facade.tentaRealizaPagamentoPorHandle(cliente, fornecedor).isSucesso());
+	}
+
+	@Test
+	void testaApenasSucessosVaoParaODiario() throws Exception {
+		Facade persistente = new Facade(this.diretorio);
+		popula(persistente);
+		assertFalse("Compra com data inválida bem-sucedida", persistente.tentaAdicionaCompra("11111111111", "Marcos", "1/1/18", "Coxao", "Coxao de frango").isSucesso());
+		assertTrue("Compra válida falhou", persistente.tentaAdicionaCompra("11111111111", "Marcos", "01/01/2018", "Coxao", "Coxao de frango").isSucesso());
+		persistente.fecha();
+
+		Facade reaberta = new Facade(this.diretorio);
+		assertEquals("Reprodução do diário incorreta", "Cliente: Ana | Marcos | Coxao - 01-01-2018", reaberta.exibeContas("11111111111", "Marcos"));
+		reaberta.fecha();
+	}
+}
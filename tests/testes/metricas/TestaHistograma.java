@@ -0,0 +1,52 @@
+package testes.metricas;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import saga.metricas.Histograma;
+
+class TestaHistograma {
+
+	private static void assertProximo(String mensagem, long esperado, long obtido) {
+		double erro = Math.abs(obtido - esperado) / (double) esperado;
+		assertTrue(mensagem + ": esperado " + esperado + ", obtido " + obtido, erro <= 1.0 / 32);
+	}
+
+	@Test
+	void testaHistogramaVazio() {
+		Histograma histograma = new Histograma();
+		assertEquals("Quantidade de histograma vazio", 0, histograma.getQuantidade());
+		assertEquals("Percentil de histograma vazio", 0, histograma.percentil(99));
+		assertEquals("Média de histograma vazio", 0.0, histograma.getMedia(), 0.0);
+	}
+
+	@Test
+	void testaPercentis() {
+		Histograma histograma = new Histograma();
+		for(long valor=1; valor<=100000; valor++) {
+			histograma.registra(valor * 1000);
+		}
+		assertEquals("Quantidade incorreta", 100000, histograma.getQuantidade());
+		assertEquals("Máximo incorreto", 100000000, histograma.getMaximo());
+		assertEquals("Média incorreta", 50000500.0, histograma.getMedia(), 0.5);
+		assertProximo("p50 incorreto", 50000000, histograma.percentil(50));
+		assertProximo("p90 incorreto", 90000000, histograma.percentil(90));
+		assertProximo("p99 incorreto", 99000000, histograma.percentil(99));
+		assertProximo("p99.9 incorreto", 99900000, histograma.percentil(99.9));
+		assertEquals("p100 diferente do máximo", 100000000, histograma.percentil(100));
+	}
+
+	@Test
+	void testaValoresPequenosSaoExatos() {
+		Histograma histograma = new Histograma();
+		for(long valor=0; valor<32; valor++) {
+			histograma.registra(valor);
+		}
+		histograma.registra(-5);
+		assertEquals("Valor negativo não registrado como zero", 0, histograma.percentil(1));
+		assertEquals("Percentil de valor pequeno inexato", 15, histograma.percentil(50));
+		assertEquals("Máximo incorreto", 31, histograma.getMaximo());
+	}
+}
@@ -0,0 +1,152 @@
+package testes.persistencia;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import saga.facade.Facade;
+import saga.persistencia.Diario;
+import saga.persistencia.Operacao;
+import saga.util.Dinheiro;
+
+class TestaDiario {
+
+	@TempDir
+	Path diretorio;
+
+	@Test
+	void testaReproduzRegistros() throws IOException {
+		Path arquivo = this.diretorio.resolve("teste.diario");
+		Diario diario = new Diario(arquivo);
+		diario.reproduz((operacao, campos) -> {});
+		diario.aguarda(diario.anexa(Operacao.ADICIONA_PRODUTO, "Marcos", "Coxao", "Coxão de frango", 2.5));
+		diario.aguarda(diario.anexa(Operacao.EDITA_CLIENTE, "00000000000", "email", null));
+		diario.fecha();
+
+		List<Object[]> lidos = new ArrayList<Object[]>();
+		diario = new Diario(arquivo);
+		assertEquals("Não reproduziu todos os registros", 2, diario.reproduz((operacao, campos) -> lidos.add(campos)));
+		diario.fecha();
+		assertEquals("Campo String reproduzido incorretamente", "Coxão de frango", lidos.get(0)[2]);
+		assertEquals("Campo double reproduzido incorretamente", 2.5, lidos.get(0)[3]);
+		assertEquals("Campo nulo reproduzido incorretamente", null, lidos.get(1)[2]);
+	}
+
+	@Test
+	void testaFacadeRecuperaEstado() throws IOException {
+		Facade facade = new Facade(this.diretorio);
+		facade.adicionaCliente("00023827490", "Victor Emanuel", "vitao@ccc.ufcg.edu.br", "Labarc");
+		facade.adicionaCliente("11111111111", "Ana", "ana@ccc.ufcg.edu.br", "LSD");
+		facade.adicionaFornecedor("Marcos", "marcos@gmail.com", "83 99151-3570");
+		facade.adicionaProduto("Marcos", "Coxao", "Coxao de frango", 2.5);
+		facade.adicionaCompra("00023827490", "Marcos", "01/01/2018", "Coxao", "Coxao de frango");
+		facade.editaProduto("Coxao", "Coxao de frango", "Marcos", 3.0);
+		facade.adicionaCompra("00023827490", "Marcos", "02/01/2018", "Coxao", "Coxao de frango");
+		facade.adicionaCompra("11111111111", "Marcos", "02/01/2018", "Coxao", "Coxao de frango");
+		facade.realizaPagamento("11111111111", "Marcos");
+		facade.removeCliente("11111111111");
+		String clientes = facade.exibeClientes();
+		String contas = facade.exibeContas("00023827490", "Marcos");
+		facade.fecha();
+
+		Facade recuperada = new Facade(this.diretorio);
+		assertEquals("Clientes não foram recuperados", clientes, recuperada.exibeClientes());
+		assertEquals("Contas não foram recuperadas", contas, recuperada.exibeContas("00023827490", "Marcos"));
+		assertEquals("Débito não foi recuperado", "5.50", recuperada.getDebito("00023827490", "Marcos"));
+		recuperada.fecha();
+	}
+
+	@Test
+	void testaFinalCorrompidoEhDescartado() throws IOException {
+		Facade facade = new Facade(this.diretorio);
+		facade.adicionaCliente("00023827490", "Victor Emanuel", "vitao@ccc.ufcg.edu.br", "Labarc");
+		facade.fecha();
+
+		Path arquivo = this.diretorio.resolve("saga-0.diario");
+		long tamanhoIntegro = Files.size(arquivo);
+		try(FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.APPEND)) {
+			canal.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 40, 1, 2, 3, 4, 12, 5}));
+		}
+
+		facade = new Facade(this.diretorio);
+		assertEquals("Registro incompleto não foi descartado", tamanhoIntegro, Files.size(arquivo));
+		facade.adicionaCliente("11111111111", "Ana", "ana@ccc.ufcg.edu.br", "LSD");
+		facade.fecha();
+
+		facade = new Facade(this.diretorio);
+		assertEquals("Registro posterior ao descarte foi perdido", "Ana - LSD - ana@ccc.ufcg.edu.br", facade.exibeCliente("11111111111"));
+		facade.fecha();
+	}
+
+	@Test
+	void testaComprasConcorrentesSaoRecuperadas() throws Exception {
+		Facade facade = new Facade(this.diretorio);
+		facade.adicionaFornecedor("Marcos", "marcos@gmail.com", "83 99151-3570");
+		facade.adicionaProduto("Marcos", "Coxao", "Coxao de frango", 2.5);
+		facade.adicionaCliente("99999999999", "Ana", "ana@ccc.ufcg.edu.br", "LSD");
+		for(int i=0; i<4; i++) {
+			facade.adicionaCliente("0000000000" + i, "Cliente " + i, "cliente@ccc.ufcg.edu.br", "LCC");
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<?>> tarefas = new ArrayList<Future<?>>();
+		for(int i=0; i<4; i++) {
+			String cpf = "0000000000" + i;
+			tarefas.add(executor.submit(() -> {
+				for(int j=0; j<50; j++) {
+					facade.adicionaCompra(cpf, "Marcos", "01/01/2018", "Coxao", "Coxao de frango");
+					facade.adicionaCompra("99999999999", "Marcos", "01/01/2018", "Coxao", "Coxao de frango");
+					if(j % 10 == 9) {
+						facade.tentaRealizaPagamento("99999999999", "Marcos");
+					}
+				}
+			}));
+		}
+		for(Future<?> tarefa : tarefas) {
+			tarefa.get();
+		}
+		executor.shutdown();
+		facade.adicionaCompra("99999999999", "Marcos", "02/01/2018", "Coxao", "Coxao de frango");
+		String contas = facade.exibeContas("99999999999", "Marcos");
+		facade.fecha();
+
+		Facade recuperada = new Facade(this.diretorio);
+		assertEquals("Ordem das compras e pagamentos do mesmo cliente não foi recuperada", contas, recuperada.exibeContas("99999999999", "Marcos"));
+		for(int i=0; i<4; i++) {
+			assertEquals("Compras concorrentes não foram recuperadas", "125.00", recuperada.getDebito("0000000000" + i, "Marcos"));
+		}
+		recuperada.fecha();
+	}
+
+	@Test
+	void testaFachadaFechadaRecusaOperacoes() throws IOException {
+		Facade facade = new Facade(this.diretorio);
+		facade.adicionaFornecedor("Marcos", "marcos@gmail.com", "83 99151-3570");
+		facade.adicionaProduto("Marcos", "Coxao", "Coxao de frango", 2.5);
+		facade.adicionaCliente("00023827490", "Victor Emanuel", "vitao@ccc.ufcg.edu.br", "Labarc");
+		facade.adicionaCompra("00023827490", "Marcos", "01/01/2018", "Coxao", "Coxao de frango");
+		facade.fecha();
+
+		assertThrows(IllegalStateException.class, () -> facade.adicionaCompra("00023827490", "Marcos", "02/01/2018", "Coxao", "Coxao de frango"));
+		assertThrows(IllegalStateException.class, () -> facade.tentaRealizaPagamento("00023827490", "Marcos"));
+		assertThrows(IllegalStateException.class, () -> facade.adicionaCliente("11111111111", "Ana", "ana@ccc.ufcg.edu.br", "LSD"));
+		assertThrows(IllegalStateException.class, () -> facade.editaProduto("Coxao", "Coxao de frango", "Marcos", 3.0));
+		assertEquals("Compra recusada alterou o débito", "2.50", facade.getDebito("00023827490", "Marcos"));
+		assertEquals("Cadastro recusado alterou os clientes", "Victor Emanuel - Labarc - vitao@ccc.ufcg.edu.br", facade.exibeClientes());
+		assertEquals("Edição recusada alterou o preço", "Coxao - Coxao de frango - R$" + Dinheiro.formataPreco(250), facade.exibeProduto("Coxao", "Coxao de frango", "Marcos"));
+	}
+}
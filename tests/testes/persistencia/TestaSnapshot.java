@@ -0,0 +1,112 @@
+package testes.persistencia;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import saga.facade.Facade;
+
+class TestaSnapshot {
+
+	@TempDir
+	Path diretorio;
+
+	private Facade facade;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		this.facade = new Facade(this.diretorio);
+		this.facade.adicionaCliente("00023827490", "Victor Emanuel", "vitao@ccc.ufcg.edu.br", "Labarc");
+		this.facade.adicionaCliente("11111111111", "Ana", "ana@ccc.ufcg.edu.br", "LSD");
+		this.facade.adicionaFornecedor("Marcos", "marcos@gmail.com", "83 99151-3570");
+		this.facade.adicionaFornecedor("Helhao", "helhao@ufcg.edu.br", "83 99828-1234");
+		this.facade.adicionaProduto("Marcos", "Coxao", "Coxao de frango", 2.5);
+		this.facade.adicionaProduto("Marcos", "Tapioca", "Tapioca de queijo", 3.0);
+		this.facade.adicionaProduto("Helhao", "Suco", "Suco de goiaba", 1.5);
+		this.facade.adicionaCombo("Marcos", "Lanche", "Coxao e tapioca", 0.2, "Coxao - Coxao de frango, Tapioca - Tapioca de queijo");
+		this.facade.adicionaCompra("00023827490", "Marcos", "01/01/2018", "Coxao", "Coxao de frango");
+		this.facade.adicionaCompra("00023827490", "Marcos", "02/01/2018", "Lanche", "Coxao e tapioca");
+		this.facade.adicionaCompra("00023827490", "Helhao", "02/01/2018", "Suco", "Suco de goiaba");
+		this.facade.editaProduto("Coxao", "Coxao de frango", "Marcos", 4.0);
+		this.facade.adicionaCompra("11111111111", "Marcos", "03/01/2018", "Tapioca", "Tapioca de queijo");
+		this.facade.realizaPagamento("11111111111", "Marcos");
+		this.facade.removeProduto("Suco", "Suco de goiaba", "Helhao");
+	}
+
+	@Test
+	void testaRecuperaSnapshot() throws IOException {
+		String esperado = this.estado(this.facade);
+		this.facade.salvaSnapshot();
+		this.facade.fecha();
+
+		assertFalse("Diário coberto pelo snapshot não foi descartado", Files.exists(this.diretorio.resolve("saga-0.diario")));
+		assertEquals("Diário novo deveria estar vazio", 0, Files.size(this.diretorio.resolve("saga-1.diario")));
+
+		Facade recuperada = new Facade(this.diretorio);
+		assertEquals("Estado recuperado do snapshot é diferente do original", esperado, this.estado(recuperada));
+		recuperada.fecha();
+	}
+
+	@Test
+	void testaRecuperaSnapshotEDiario() throws IOException {
+		this.facade.salvaSnapshot();
+		this.facade.adicionaCompra("11111111111", "Marcos", "04/01/2018", "Coxao", "Coxao de frango");
+		this.facade.editaCombo("Lanche", "Coxao e tapioca", "Marcos", 0.5);
+		this.facade.adicionaCliente("22222222222", "Temporario", "t@ccc.ufcg.edu.br", "LCC3");
+		this.facade.editaCliente("00023827490", "nome", "Victor");
+		this.facade.removeCliente("22222222222");
+		String esperado = this.estado(this.facade);
+		this.facade.fecha();
+
+		Facade recuperada = new Facade(this.diretorio);
+		assertEquals("Operações posteriores ao snapshot não foram reproduzidas", esperado, this.estado(recuperada));
+		recuperada.salvaSnapshot();
+		recuperada.fecha();
+		assertTrue("Segundo snapshot não iniciou nova geração de diário", Files.exists(this.diretorio.resolve("saga-2.diario")));
+
+		recuperada = new Facade(this.diretorio);
+		assertEquals("Segundo snapshot não preservou o estado", esperado, this.estado(recuperada));
+		recuperada.fecha();
+	}
+
+	@Test
+	void testaSnapshotMantemContasDeClienteRemovido() throws IOException {
+		this.facade.removeCliente("00023827490");
+		this.facade.salvaSnapshot();
+		this.facade.fecha();
+
+		Facade recuperada = new Facade(this.diretorio);
+		recuperada.adicionaCliente("00023827490", "Victor", "vitao@ccc.ufcg.edu.br", "Labarc");
+		assertEquals("Contas do cliente removido não foram recuperadas", "Cliente: Victor | Helhao | Suco - 02-01-2018 | Marcos | Coxao - 01-01-2018 | Lanche - 02-01-2018",
+				recuperada.exibeContasClientes("00023827490"));
+		recuperada.fecha();
+	}
+
+	@Test
+	void testaSnapshotCorrompido() throws IOException {
+		this.facade.salvaSnapshot();
+		this.facade.fecha();
+		try(FileChannel canal = FileChannel.open(this.diretorio.resolve("saga.snapshot"), StandardOpenOption.WRITE)) {
+			canal.write(ByteBuffer.wrap(new byte[] {(byte) 0xFF}), 30);
+		}
+		assertThrows(IOException.class, () -> new Facade(this.diretorio));
+	}
+
+	private String estado(Facade facade) {
+		return facade.exibeClientes() + "\n" + facade.exibeFornecedores() + "\n" + facade.exibeProdutos() + "\n"
+				+ facade.exibeContasClientes("00023827490") + "\n" + facade.exibeContasClientes("11111111111") + "\n"
+				+ facade.getDebito("00023827490", "Marcos") + "\n" + facade.exibeProduto("Lanche", "Coxao e tapioca", "Marcos");
+	}
+}
@@ -0,0 +1,95 @@
+package testes.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import saga.controllers.FornecedoresController;
+import saga.entities.Produto;
+import saga.services.FornecedorService;
+
+class TestaFornecedorService {
+
+	private FornecedoresController fornecedores;
+
+	private FornecedorService servico;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		this.fornecedores = new FornecedoresController();
+		this.servico = new FornecedorService(this.fornecedores);
+		this.fornecedores.cadastraFornecedor("Marcos", "marcos@", "1111-1111");
+		this.fornecedores.cadastraProduto("Marcos", "Coxao", 2.5, "Coxao de frango");
+	}
+
+	@Test
+	void testaConsultaRepetida() {
+		Produto produto = this.servico.getProduto("Marcos", "Coxao", "Coxao de frango");
+		assertSame("Consulta repetida retornou outro produto", produto, this.servico.getProduto("Marcos", "Coxao", "Coxao de frango"));
+		assertNull("Encontrou produto com descrição não cadastrada", this.servico.getProduto("Marcos", "Coxao", "Coxao de boi"));
+		assertNull("Encontrou produto de fornecedor inexistente", this.servico.getProduto("Helhao", "Coxao", "Coxao de frango"));
+	}
+
+	@Test
+	void testaInvalidacaoNaRemocaoDeProduto() {
+		Produto produto = this.servico.getProduto("Marcos", "Coxao", "Coxao de frango");
+		this.fornecedores.removeProduto("Marcos", "Coxao", "Coxao de frango");
+		assertNull("Cache retornou um produto removido", this.servico.getProduto("Marcos", "Coxao", "Coxao de frango"));
+
+		this.fornecedores.cadastraProduto("Marcos", "Coxao", 3.0, "Coxao de frango");
+		Produto recadastrado = this.servico.getProduto("Marcos", "Coxao", "Coxao de frango");
+		assertNotSame("Cache retornou o produto anterior ao recadastro", produto, recadastrado);
+	}
+
+	@Test
+	void testaInvalidacaoNaRemocaoDeFornecedor() {
+		this.servico.getProduto("Marcos", "Coxao", "Coxao de frango");
+		this.fornecedores.removeFornecedor("Marcos");
+		assertNull("Cache retornou produto de fornecedor removido", this.servico.getProduto("Marcos", "Coxao", "Coxao de frango"));
+	}
+
+	@Test
+	void testaMaisProdutosQueOCache() {
+		for(int i=0; i<10000; i++) {
+			this.fornecedores.cadastraProduto("Marcos", "Produto " + i, 1.0, "Descricao " + i);
+		}
+		for(int rodada=0; rodada<2; rodada++) {
+			for(int i=0; i<10000; i++) {
+				Produto produto = this.servico.getProduto("Marcos", "Produto " + i, "Descricao " + i);
+				assertSame("Colisão no cache retornou o produto errado", this.fornecedores.getFornecedor("Marcos").getProduto("Produto " + i, "Descricao " + i), produto);
+			}
+		}
+	}
+
+	@Test
+	void testaEdicaoFalhaNaoInvalidaCache() {
+		long geracao = this.fornecedores.getGeracaoCatalogo();
+		assertFalse("Editou produto inexistente", this.fornecedores.editarPrecoProduto("Marcos", "Suco", "Suco de goiaba", 3.0));
+		try {
+			this.fornecedores.editaCombo("Lanche", "Coxao e suco", "Marcos", 0.5);
+			fail("Editou combo inexistente");
+		}catch(NullPointerException e) {}
+		assertEquals("Edição malsucedida invalidou o cache", geracao, this.fornecedores.getGeracaoCatalogo());
+
+		assertTrue("Não editou produto existente", this.fornecedores.editarPrecoProduto("Marcos", "Coxao", "Coxao de frango", 3.0));
+		assertEquals("Edição bem-sucedida não invalidou o cache", geracao + 1, this.fornecedores.getGeracaoCatalogo());
+	}
+
+	@Test
+	void testaChavesComMesmoHash() {
+		this.fornecedores.cadastraProduto("Marcos", "Aa", 1.0, "Suco");
+		this.fornecedores.cadastraProduto("Marcos", "BB", 2.0, "Suco");
+		for(int rodada=0; rodada<2; rodada++) {
+			assertEquals("Cache confundiu produtos com o mesmo hash", "Aa", this.servico.getProduto("Marcos", "Aa", "Suco").getNome());
+			assertEquals("Cache confundiu produtos com o mesmo hash", "BB", this.servico.getProduto("Marcos", "BB", "Suco").getNome());
+		}
+		assertEquals("Consulta alterou a chave de um produto cadastrado", "Aa", this.fornecedores.getFornecedor("Marcos").getProduto("Aa", "Suco").getChave().getNome());
+	}
+}
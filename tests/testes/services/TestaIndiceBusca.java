@@ -0,0 +1,115 @@
+package testes.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import saga.controllers.FornecedoresController;
+import saga.entities.Fornecedor;
+import saga.entities.Produto;
+import saga.services.IndiceBusca;
+import saga.services.Registro;
+import saga.util.Dinheiro;
+
+class TestaIndiceBusca {
+
+	private Registro registro;
+
+	private IndiceBusca indice;
+
+	private Fornecedor marcos;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		this.registro = new Registro();
+		this.indice = new IndiceBusca();
+		this.marcos = new Fornecedor("Marcos", "marcos@", "1111-1111", this.registro);
+	}
+
+	private Produto indexa(String nome, String descricao) {
+		Produto produto = new Produto(nome, 1.0, descricao);
+		this.registro.registraProduto(produto);
+		this.indice.indexa(this.marcos, produto);
+		return produto;
+	}
+
+	private String nomes(List<IndiceBusca.Correspondencia> encontrados) {
+		StringBuilder nomes = new StringBuilder();
+		for(IndiceBusca.Correspondencia encontrado: encontrados) {
+			nomes.append(encontrado.getProduto().getNome()).append(";");
+		}
+		return nomes.toString();
+	}
+
+	@Test
+	void testaBuscaPorPrefixo() {
+		this.indexa("Coxao", "Coxao de frango");
+		this.indexa("Suco", "Suco de goiaba");
+		this.indexa("Salgado", "Coxinha de frango");
+		assertEquals("Não priorizou o prefixo do nome sobre o da descrição", "Coxao;Salgado;", this.nomes(this.indice.busca("cox", 10)));
+		assertEquals("Não ordenou pela relevância", "Coxao;Salgado;", this.nomes(this.indice.busca("frango", 10)));
+		assertEquals("Não exigiu todos os termos", "Salgado;", this.nomes(this.indice.busca("coxi fran", 10)));
+	}
+
+	@Test
+	void testaBuscaIgnoraAcentosEMaiusculas() {
+		this.indexa("Pão de queijo", "Pão mineiro");
+		assertEquals("Não ignorou acentos e maiúsculas", "Pão de queijo;", this.nomes(this.indice.busca("PAO", 10)));
+	}
+
+	@Test
+	void testaBuscaAproximada() {
+		this.indexa("Coxao", "Coxao de frango");
+		this.indexa("Suco", "Suco de goiaba");
+		assertEquals("Não encontrou palavra com erro de digitação", "Suco;", this.nomes(this.indice.busca("goyaba", 10)));
+		assertTrue("Encontrou produto sem relação com o termo", this.indice.busca("xyzw", 10).isEmpty());
+	}
+
+	@Test
+	void testaRemocaoELimite() {
+		Produto coxao = this.indexa("Coxao", "Coxao de frango");
+		this.indexa("Coxinha", "Coxinha de frango");
+		this.indexa("Coxa", "Coxa assada");
+		assertEquals("Não respeitou o limite", 2, this.indice.busca("cox", 2).size());
+		this.indice.remove(coxao);
+		assertEquals("Manteve o produto removido", "Coxa;Coxinha;", this.nomes(this.indice.busca("cox", 10)));
+		assertEquals("Quantidade de produtos indexados incorreta", 2, this.indice.getQuantidade());
+	}
+
+	@Test
+	void testaBuscaNoControlador() {
+		FornecedoresController fornecedores = new FornecedoresController(this.registro);
+		fornecedores.cadastraFornecedor("Marcos", "marcos@", "1111-1111");
+		fornecedores.cadastraFornecedor("Seu Olavo", "olavo@", "2222-2222");
+		fornecedores.cadastraProduto("Marcos", "Suco", 2.5, "Suco de laranja");
+		fornecedores.cadastraProduto("Seu Olavo", "Suco", 1.0, "Suco de goiaba");
+		fornecedores.adicionaCombo("Seu Olavo", "Combo sucos", "Dois sucos", 0.5, "Suco - Suco de goiaba, Suco - Suco de goiaba");
+		assertEquals("Busca no controlador incorreta", "Marcos - Suco - Suco de laranja - R$" + Dinheiro.formataPreco(250) + " | Seu Olavo - Suco - Suco de goiaba - R$" + Dinheiro.formataPreco(100) + " | Seu Olavo - Combo sucos - Dois sucos - R$" + Dinheiro.formataPreco(100), fornecedores.buscaProdutos("suco", 10));
+		fornecedores.removeFornecedor("Seu Olavo");
+		assertEquals("Manteve produtos do fornecedor removido", "Marcos - Suco - Suco de laranja - R$" + Dinheiro.formataPreco(250), fornecedores.buscaProdutos("suco", 10));
+	}
+
+	@Test
+	void testaFiltroAntesDoLimite() {
+		Produto coxao = this.indexa("Coxao", "Coxao de frango");
+		this.indexa("Coxinha", "Coxinha de frango");
+		this.indexa("Coxa", "Coxa assada");
+		assertEquals("Produto descartado reduziu os resultados", "Coxa;Coxinha;", this.nomes(this.indice.busca("cox", 2, (fornecedor, produto) -> produto != coxao)));
+	}
+
+	@Test
+	void testaEntradaObsoletaNaoReduzLimite() {
+		FornecedoresController fornecedores = new FornecedoresController(this.registro);
+		fornecedores.cadastraFornecedor("Marcos", "marcos@", "1111-1111");
+		fornecedores.cadastraProduto("Marcos", "Suco", 2.5, "Suco de laranja");
+		fornecedores.cadastraProduto("Marcos", "Suco", 1.0, "Suco de goiaba");
+		fornecedores.cadastraProduto("Marcos", "Suco", 3.0, "Suco de uva");
+		//remoção direta no fornecedor, como uma remoção concorrente ao cadastro, deixa a entrada no índice
+		fornecedores.getFornecedor("Marcos").removeProduto("Suco", "Suco de laranja");
+		assertEquals("Entrada obsoleta reduziu os resultados", "Marcos - Suco - Suco de goiaba - R$" + Dinheiro.formataPreco(100) + " | Marcos - Suco - Suco de uva - R$" + Dinheiro.formataPreco(300), fornecedores.buscaProdutos("suco", 2));
+	}
+}
@@ -0,0 +1,82 @@
+package testes.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import saga.controllers.FornecedoresController;
+import saga.entities.Cliente;
+import saga.entities.Combo;
+import saga.entities.Fornecedor;
+import saga.entities.Produto;
+import saga.services.Registro;
+
+class TestaRegistro {
+
+	private Registro registro;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		this.registro = new Registro();
+	}
+
+	@Test
+	void testaIdentificadoresDensos() {
+		for(int i=0; i<100; i++) {
+			Produto produto = new Produto("Produto " + i, 1.0, "Descricao " + i);
+			assertEquals("Identificador não é o próximo livre", i, this.registro.registraProduto(produto));
+			assertSame("Identificador não recupera o produto", produto, this.registro.getProduto(i));
+		}
+		assertEquals("Quantidade de produtos registrados incorreta", 100, this.registro.getQuantidadeProdutos());
+
+		Cliente cliente = new Cliente("11111111111", "Cliente", "cliente@", "lcc");
+		Fornecedor fornecedor = new Fornecedor("Marcos", "marcos@", "1111-1111", this.registro);
+		assertEquals("Clientes não têm numeração própria", 0, this.registro.registraCliente(cliente));
+		assertEquals("Fornecedores não têm numeração própria", 0, this.registro.registraFornecedor(fornecedor));
+		assertSame("Identificador não recupera o cliente", cliente, this.registro.getCliente(0));
+		assertSame("Identificador não recupera o fornecedor", fornecedor, this.registro.getFornecedor(0));
+	}
+
+	@Test
+	void testaRegistroIdempotente() {
+		Produto produto = new Produto("Suco", 1.0, "Suco de goiaba");
+		int id = this.registro.registraProduto(produto);
+		assertEquals("Registrar de novo mudou o identificador", id, this.registro.registraProduto(produto));
+		assertEquals("Registrar de novo ocupou outro identificador", 1, this.registro.getQuantidadeProdutos());
+	}
+
+	@Test
+	void testaProdutoRemovidoPermanece() {
+		FornecedoresController fornecedores = new FornecedoresController(this.registro);
+		fornecedores.cadastraFornecedor("Marcos", "marcos@", "1111-1111");
+		Fornecedor marcos = fornecedores.getFornecedor("Marcos");
+		marcos.adicionaProduto(new Produto("Suco", 1.0, "Suco de goiaba"));
+		Produto suco = marcos.getProduto("Suco", "Suco de goiaba");
+		marcos.removeProduto("Suco", "Suco de goiaba");
+		assertSame("Produto removido saiu do registro", suco, this.registro.getProduto(suco.getId()));
+
+		marcos.adicionaProduto(new Produto("Suco", 1.0, "Suco de goiaba"));
+		Produto recadastrado = marcos.getProduto("Suco", "Suco de goiaba");
+		assertEquals("Identificador foi reaproveitado", suco.getId() + 1, recadastrado.getId());
+	}
+
+	@Test
+	void testaComboPorIdentificadores() {
+		FornecedoresController fornecedores = new FornecedoresController(this.registro);
+		fornecedores.cadastraFornecedor("Marcos", "marcos@", "1111-1111");
+		Fornecedor marcos = fornecedores.getFornecedor("Marcos");
+		marcos.adicionaProduto(new Produto("Suco", 2.0, "Suco de goiaba"));
+		marcos.adicionaProduto(new Produto("Tapioca", 4.0, "Tapioca de queijo"));
+		Produto suco = marcos.getProduto("Suco", "Suco de goiaba");
+		Produto tapioca = marcos.getProduto("Tapioca", "Tapioca de queijo");
+		fornecedores.adicionaCombo("Marcos", "Lanche", "Suco e tapioca", 0.5, "Suco - Suco de goiaba, Tapioca - Tapioca de queijo");
+
+		Combo combo = (Combo) marcos.getProduto("Lanche", "Suco e tapioca");
+		int[] ids = combo.getIdsProdutos();
+		assertEquals("Combo não guardou os identificadores dos componentes", suco.getId(), ids[0]);
+		assertEquals("Combo não guardou os identificadores dos componentes", tapioca.getId(), ids[1]);
+		assertSame("Componente não resolvido pelo registro", tapioca, combo.getProdutos().get(1));
+	}
+}
@@ -0,0 +1,40 @@
+package testes.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+import org.junit.jupiter.api.Test;
+
+import saga.util.Datas;
+
+class TestaDatas {
+
+	@Test
+	void testaParaDiaEpoch() {
+		assertEquals("Não converteu a data para o dia epoch corretamente", 0, Datas.paraDiaEpoch("01/01/1970"));
+		assertEquals("Não converteu a data para o dia epoch corretamente", LocalDate.of(2013, 12, 3).toEpochDay(), Datas.paraDiaEpoch("03/12/2013"));
+		assertEquals("Não aceitou dia e mês com um dígito", LocalDate.of(2018, 2, 1).toEpochDay(), Datas.paraDiaEpoch("1/2/2018"));
+		assertEquals("Não aceitou 29 de fevereiro em ano bissexto", LocalDate.of(2000, 2, 29).toEpochDay(), Datas.paraDiaEpoch("29/02/2000"));
+	}
+
+	@Test
+	void testaDatasInvalidas() {
+		String[] invalidas = {"04/103/2018", "32/01/2018", "00/01/2018", "10/13/2018", "10/00/2018", "31/04/2018",
+				"29/02/2019", "29/02/1900", "01/01/18", "01-01-2018", "01/01/2018 ", "aa/01/2018", "01/01/", "/01/2018", "01/01"};
+		for(String data: invalidas) {
+			assertEquals("Aceitou a data inválida " + data, Datas.DATA_INVALIDA, Datas.paraDiaEpoch(data));
+		}
+	}
+
+	@Test
+	void testaFormata() {
+		DateTimeFormatter formato = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+		for(LocalDate data = LocalDate.of(1896, 1, 1); data.getYear() < 2104; data = data.plusDays(1)) {
+			String esperado = data.format(formato);
+			assertEquals("Data formatada incorretamente", esperado, Datas.formata((int) data.toEpochDay()));
+			assertEquals("Ida e volta da data não coincidem", (int) data.toEpochDay(), Datas.paraDiaEpoch(esperado.replace('-', '/')));
+		}
+	}
+}
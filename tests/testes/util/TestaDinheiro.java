@@ -0,0 +1,39 @@
+package testes.util;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import saga.util.Dinheiro;
+
+class TestaDinheiro {
+
+	@Test
+	void testaParaCentavos() {
+		assertEquals("Não converteu reais para centavos corretamente", 480L, Dinheiro.paraCentavos(4.8));
+		assertEquals("Não arredondou ao centavo mais próximo", 1615L, Dinheiro.paraCentavos(16.149999));
+		assertEquals("Não converteu zero corretamente", 0L, Dinheiro.paraCentavos(0.0));
+	}
+
+	@Test
+	void testaAplicaDesconto() {
+		assertEquals("Desconto de combo mal-calculado", 480L, Dinheiro.aplicaDesconto(600L, 0.2));
+		assertEquals("Desconto de combo mal-calculado", 1615L, Dinheiro.aplicaDesconto(1900L, 0.15));
+		assertEquals("Não arredondou a metade para cima", 2L, Dinheiro.aplicaDesconto(3L, 0.5));
+		assertEquals("Fator zero alterou o preço", 999L, Dinheiro.aplicaDesconto(999L, 0.0));
+	}
+
+	@Test
+	void testaFormataDebito() {
+		assertEquals("Débito mal-formatado", "5.00", Dinheiro.formataDebito(500L));
+		assertEquals("Débito mal-formatado", "1234.05", Dinheiro.formataDebito(123405L));
+		assertEquals("Débito abaixo de um real não segue o formato ####.00", ".50", Dinheiro.formataDebito(50L));
+	}
+
+	@Test
+	void testaFormataPreco() {
+		assertEquals("Preço mal-formatado", String.format("%.2f", 4.8), Dinheiro.formataPreco(480L));
+		assertEquals("Preço mal-formatado", String.format("%.2f", 0.05), Dinheiro.formataPreco(5L));
+		assertEquals("Preço mal-formatado", String.format("%.2f", 17.0), Dinheiro.formataPreco(1700L));
+	}
+}